@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2024-2026 Raja Kolli.
 </p>
 ***/
 
@@ -11,6 +11,9 @@ import com.example.catalogservice.mapper.ProductMapper;
 import com.example.catalogservice.model.request.ProductRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.KafkaNull;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -40,9 +43,26 @@ public class CatalogKafkaProducer {
                         productDtoAsString ->
                                 Mono.fromCallable(
                                         () -> {
-                                            // Send the message via StreamBridge
+                                            // Send the message via StreamBridge, keyed by
+                                            // product code so that a later delete follows it
                                             return streamBridge.send(
-                                                    "inventory-out-0", productDtoAsString);
+                                                    "inventory-out-0",
+                                                    MessageBuilder.withPayload(productDtoAsString)
+                                                            .setHeader(
+                                                                    KafkaHeaders.KEY,
+                                                                    productRequest.productCode())
+                                                            .build());
                                         }));
     }
+
+    /** Publishes a tombstone keyed by the product code of a deleted product. */
+    public Mono<Boolean> sendDeleted(String productCode) {
+        return Mono.fromCallable(
+                () ->
+                        streamBridge.send(
+                                "inventory-out-0",
+                                MessageBuilder.withPayload(KafkaNull.INSTANCE)
+                                        .setHeader(KafkaHeaders.KEY, productCode)
+                                        .build()));
+    }
 }
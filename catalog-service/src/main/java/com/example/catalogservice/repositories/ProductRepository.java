@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -21,5 +21,7 @@ public interface ProductRepository
 
     Mono<Product> findByProductCodeAllIgnoreCase(String productCode);
 
+    Flux<Product> findByProductCodeAllIgnoreCaseIn(List<String> productCodeList);
+
     Flux<Product> findAllBy(Pageable pageable);
 }
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -30,6 +30,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
@@ -78,19 +79,20 @@ public class InventoryServiceProxy {
         return Mono.just(new InventoryResponse(code, 0));
     }
 
+    /**
+     * The inventories of the product codes, sent in the body so large pages of products do not
+     * build huge query strings. Inventories are emitted as the response streams in.
+     */
     @io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker(
             name = "getInventoryByProductCodes",
             fallbackMethod = "getInventoryByProductCodesFallBack")
-    public Flux<InventoryResponse> getInventoryByProductCodes(List<String> productCodeList) {
-        log.info("Fetching inventory information for productCodes : {}", productCodeList);
+    public Flux<InventoryResponse> findInventoryByProductCodes(List<String> productCodeList) {
+        log.info("Fetching inventory information for {} productCodes", productCodeList.size());
         return webClient
-                .get()
-                .uri(
-                        uriBuilder -> {
-                            uriBuilder.path("/api/inventory/product");
-                            uriBuilder.queryParam("codes", productCodeList);
-                            return uriBuilder.build();
-                        })
+                .post()
+                .uri("/api/inventory/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productCodeList)
                 .retrieve()
                 .bodyToFlux(InventoryResponse.class);
     }
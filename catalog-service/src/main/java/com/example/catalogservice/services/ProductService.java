@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -124,7 +124,7 @@ public class ProductService {
     }
 
     private Flux<InventoryResponse> getInventoryByProductCodes(List<String> productCodeList) {
-        return inventoryServiceProxy.getInventoryByProductCodes(productCodeList);
+        return inventoryServiceProxy.findInventoryByProductCodes(productCodeList);
     }
 
     @Observed(name = "product.findProductById", contextualName = "findProductById")
@@ -193,7 +193,16 @@ public class ProductService {
     @Transactional
     @Observed(name = "product.deleteById", contextualName = "deleteProductById")
     public Mono<Void> deleteProductById(Long id) {
-        return productRepository.deleteById(id);
+        return productRepository
+                .findById(id)
+                .flatMap(
+                        product ->
+                                productRepository
+                                        .deleteById(id)
+                                        .then(
+                                                catalogKafkaProducer.sendDeleted(
+                                                        product.getProductCode())))
+                .then();
     }
 
     public Mono<Boolean> productExistsByProductCodes(List<String> productCodes) {
@@ -203,6 +212,14 @@ public class ProductService {
                 .map(count -> count == productCodes.size());
     }
 
+    /** The product codes that exist among the given ones, as stored. */
+    public Mono<List<String>> findExistingProductCodes(List<String> productCodes) {
+        return productRepository
+                .findByProductCodeAllIgnoreCaseIn(productCodes)
+                .map(Product::getProductCode)
+                .collectList();
+    }
+
     @Observed(name = "product.findById", contextualName = "findById")
     public Mono<ProductResponse> findByIdWithMapping(Long id) {
         return findById(id).map(productMapper::toProductResponse);
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -76,6 +76,13 @@ public class ProductController {
         return productService.productExistsByProductCodes(productCodes).map(ResponseEntity::ok);
     }
 
+    // a POST so that large lists of codes do not overflow the request line
+    @PostMapping("/codes")
+    public Mono<ResponseEntity<List<String>>> getExistingProductCodes(
+            @RequestBody List<String> productCodes) {
+        return productService.findExistingProductCodes(productCodes).map(ResponseEntity::ok);
+    }
+
     @GetMapping("/generate")
     public Mono<Boolean> createRandomProducts() {
         return productService.generateProducts();
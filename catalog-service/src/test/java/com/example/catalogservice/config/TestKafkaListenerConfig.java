@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -21,7 +21,7 @@ public class TestKafkaListenerConfig {
     private final CountDownLatch latch = new CountDownLatch(10);
 
     @KafkaListener(id = "products", topics = "productTopic", groupId = "product")
-    public void onSaveProductEvent(@Payload String productDto) {
+    public void onSaveProductEvent(@Payload(required = false) String productDto) {
         log.info("Received Product: {}", productDto);
         latch.countDown();
     }
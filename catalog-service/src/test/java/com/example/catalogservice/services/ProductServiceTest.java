@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2024-2026 Raja Kolli.
 </p>
 ***/
 
@@ -9,6 +9,8 @@ package com.example.catalogservice.services;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.example.catalogservice.entities.Product;
 import com.example.catalogservice.kafka.CatalogKafkaProducer;
@@ -90,4 +92,26 @@ class ProductServiceTest {
                 capturedProducts.stream()
                         .allMatch(product -> product.price() >= 1 && product.price() <= 100));
     }
+
+    @Test
+    void deleteProductById_PublishesTombstoneForProductCode() {
+        given(productRepository.findById(1L))
+                .willReturn(Mono.just(new Product().setId(1L).setProductCode("P001")));
+        given(productRepository.deleteById(1L)).willReturn(Mono.empty());
+        given(catalogKafkaProducer.sendDeleted("P001")).willReturn(Mono.just(true));
+
+        StepVerifier.create(productService.deleteProductById(1L)).verifyComplete();
+
+        verify(catalogKafkaProducer).sendDeleted("P001");
+    }
+
+    @Test
+    void deleteProductById_PublishesNothingForUnknownProduct() {
+        given(productRepository.findById(1L)).willReturn(Mono.empty());
+
+        StepVerifier.create(productService.deleteProductById(1L)).verifyComplete();
+
+        verify(productRepository, never()).deleteById(1L);
+        verify(catalogKafkaProducer, never()).sendDeleted(any());
+    }
 }
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -531,6 +531,25 @@ class ProductControllerIT extends AbstractCircuitBreakerTest {
                 .isEqualTo(Boolean.FALSE);
     }
 
+    @Test
+    void shouldFetchOnlyExistingProductCodes() {
+        List<String> existing =
+                savedProductList.stream().limit(2).map(Product::getProductCode).toList();
+
+        webTestClient
+                .post()
+                .uri("/api/catalog/codes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(existing.getFirst(), existing.getLast(), "P404"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBodyList(String.class)
+                .value(codes -> assertThat(codes).containsExactlyInAnyOrderElementsOf(existing));
+    }
+
     @Test
     void shouldCreateNewProduct() {
         ProductRequest productRequest =
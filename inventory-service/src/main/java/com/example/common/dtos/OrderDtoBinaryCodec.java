@@ -0,0 +1,269 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.common.dtos;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of {@link OrderDto}. A message starts with {@link #MAGIC} and the format
+ * version, followed by the order fields and its items. Fields are only ever appended, and every
+ * item is length prefixed, so a reader skips fields it does not know and keeps the defaults for
+ * fields an older writer did not send.
+ */
+public final class OrderDtoBinaryCodec {
+
+    /** Never the first byte of a JSON document, which is how JSON payloads are told apart. */
+    public static final byte MAGIC = (byte) 0xB0;
+
+    static final byte VERSION = 1;
+
+    private OrderDtoBinaryCodec() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(OrderDto orderDto) {
+        Writer writer = new Writer(32 + size(orderDto.getItems()) * 32);
+        writer.writeByte(MAGIC);
+        writer.writeByte(VERSION);
+        writer.writeNullableLong(orderDto.getOrderId());
+        writer.writeNullableLong(orderDto.getCustomerId());
+        writer.writeString(orderDto.getStatus());
+        writer.writeString(orderDto.getSource());
+        List<OrderItemDto> items = orderDto.getItems();
+        // count + 1, so that 0 keeps a null list apart from an empty one
+        writer.writeVarLong(items == null ? 0 : items.size() + 1L);
+        if (items != null) {
+            Writer itemWriter = new Writer(32);
+            for (OrderItemDto item : items) {
+                itemWriter.reset();
+                itemWriter.writeNullableLong(item.getItemId());
+                itemWriter.writeString(item.getProductId());
+                itemWriter.writeVarLong(zigZag(item.getQuantity()));
+                itemWriter.writeDecimal(item.getProductPrice());
+                writer.writeVarLong(itemWriter.size);
+                writer.writeBytes(itemWriter.buffer, 0, itemWriter.size);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static OrderDto decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary encoded OrderDto");
+        }
+        // the version is not needed to read, append-only fields make every version readable
+        Reader reader = new Reader(data, 2, data.length);
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(reader.readNullableLong());
+        Long customerId = reader.readNullableLong();
+        orderDto.setCustomerId(customerId == null ? 0L : customerId);
+        orderDto.setStatus(reader.readString());
+        orderDto.setSource(reader.readString());
+        long itemCount = reader.readVarLong();
+        if (itemCount == 0) {
+            orderDto.setItems(null);
+        } else {
+            List<OrderItemDto> items = new ArrayList<>((int) Math.min(itemCount - 1, 1024));
+            for (long i = 1; i < itemCount; i++) {
+                int length = (int) reader.readVarLong();
+                Reader itemReader = new Reader(data, reader.position, reader.position + length);
+                OrderItemDto item = new OrderItemDto();
+                item.setItemId(itemReader.readNullableLong());
+                item.setProductId(itemReader.readString());
+                item.setQuantity((int) unZigZag(itemReader.readVarLong()));
+                item.setProductPrice(itemReader.readDecimal());
+                items.add(item);
+                reader.position += length;
+            }
+            orderDto.setItems(items);
+        }
+        return orderDto;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int size;
+
+        private Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        private void reset() {
+            size = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeNullableLong(Long value) {
+            if (value == null) {
+                writeByte(0);
+            } else {
+                writeByte(1);
+                writeVarLong(zigZag(value));
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length + 1L);
+                writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        // 0 for null, 1 when the unscaled value fits in a long, 2 for the two's complement bytes
+        private void writeDecimal(BigDecimal value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < 64) {
+                writeByte(1);
+                writeVarLong(zigZag(value.scale()));
+                writeVarLong(zigZag(unscaled.longValue()));
+            } else {
+                byte[] bytes = unscaled.toByteArray();
+                writeByte(2);
+                writeVarLong(zigZag(value.scale()));
+                writeVarLong(bytes.length);
+                writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        private Reader(byte[] data, int position, int limit) {
+            if (limit > data.length) {
+                throw new IllegalArgumentException("Truncated binary OrderDto");
+            }
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        // a field missing from an older writer reads as absent
+        private boolean exhausted() {
+            return position >= limit;
+        }
+
+        private int readByte() {
+            if (exhausted()) {
+                throw new IllegalArgumentException("Truncated binary OrderDto");
+            }
+            return data[position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in binary OrderDto");
+        }
+
+        private Long readNullableLong() {
+            if (exhausted() || readByte() == 0) {
+                return null;
+            }
+            return unZigZag(readVarLong());
+        }
+
+        private String readString() {
+            long length = exhausted() ? 0 : readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int byteCount = (int) (length - 1);
+            if (byteCount > limit - position) {
+                throw new IllegalArgumentException("Truncated binary OrderDto");
+            }
+            String value = new String(data, position, byteCount, StandardCharsets.UTF_8);
+            position += byteCount;
+            return value;
+        }
+
+        private BigDecimal readDecimal() {
+            int kind = exhausted() ? 0 : readByte();
+            if (kind == 0) {
+                return null;
+            }
+            int scale = (int) unZigZag(readVarLong());
+            if (kind == 1) {
+                return BigDecimal.valueOf(unZigZag(readVarLong()), scale);
+            }
+            int byteCount = (int) readVarLong();
+            if (byteCount > limit - position) {
+                throw new IllegalArgumentException("Truncated binary OrderDto");
+            }
+            BigInteger unscaled = new BigInteger(data, position, byteCount);
+            position += byteCount;
+            return new BigDecimal(unscaled, scale);
+        }
+    }
+}
@@ -1,11 +1,12 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -14,6 +15,19 @@ public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
 
+    @NestedConfigurationProperty private OrdersBatch ordersBatch = new OrdersBatch();
+
+    @NestedConfigurationProperty private OrdersParallel ordersParallel = new OrdersParallel();
+
+    @NestedConfigurationProperty private InventoryEngine inventoryEngine = new InventoryEngine();
+
+    @NestedConfigurationProperty private ProductsBatch productsBatch = new ProductsBatch();
+
+    @NestedConfigurationProperty private InventoryCache inventoryCache = new InventoryCache();
+
+    @NestedConfigurationProperty
+    private ReservationLedger reservationLedger = new ReservationLedger();
+
     public static class Cors {
         private String pathPattern = "/api/**";
         private String allowedMethods = "*";
@@ -62,6 +76,170 @@ public class ApplicationProperties {
         }
     }
 
+    /** Batch mode of the orders listener, where NEW orders of one poll are reserved together. */
+    public static class OrdersBatch {
+        private boolean enabled = false;
+        private int maxSize = 500;
+        private Duration maxWait = Duration.ofMillis(500);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * Parallel mode of the orders listener, where records of different orders from one partition
+     * are handled concurrently on virtual threads and those of one order in sequence.
+     */
+    public static class OrdersParallel {
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * In-memory reservation of stock, written to the database behind the decisions. Meant for a
+     * single instance consuming the orders topic, stock changed through the API is picked up on
+     * restart.
+     */
+    public static class InventoryEngine {
+        private boolean enabled = false;
+        private int stripes = 64;
+        private Duration flushInterval = Duration.ofMillis(100);
+        private int flushMaxSize = 1_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getFlushMaxSize() {
+            return flushMaxSize;
+        }
+
+        public void setFlushMaxSize(int flushMaxSize) {
+            this.flushMaxSize = flushMaxSize;
+        }
+    }
+
+    /** Batch size of the products listener, the inventories of one poll are created together. */
+    public static class ProductsBatch {
+        private int maxSize = 500;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Local cache of inventories by product code, dropped as writes commit. With several instances
+     * a {@code timeToLive} bounds how long one instance serves what another has changed.
+     */
+    public static class InventoryCache {
+        private boolean enabled = false;
+        private long maximumSize = 10_000;
+        private Duration timeToLive;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Retention of confirmed and released rows of the reservation ledger. They only keep replayed
+     * order events from being applied twice, so {@code retention} has to cover how far back the
+     * orders topic can be consumed again, its retention by default.
+     */
+    public static class ReservationLedger {
+        private Duration retention = Duration.ofDays(7);
+        private Duration cleanupInterval = Duration.ofHours(1);
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getCleanupInterval() {
+            return cleanupInterval;
+        }
+
+        public void setCleanupInterval(Duration cleanupInterval) {
+            this.cleanupInterval = cleanupInterval;
+        }
+    }
+
     public Cors getCors() {
         return cors;
     }
@@ -69,4 +247,52 @@ public class ApplicationProperties {
     public void setCors(Cors cors) {
         this.cors = cors;
     }
+
+    public OrdersBatch getOrdersBatch() {
+        return ordersBatch;
+    }
+
+    public void setOrdersBatch(OrdersBatch ordersBatch) {
+        this.ordersBatch = ordersBatch;
+    }
+
+    public OrdersParallel getOrdersParallel() {
+        return ordersParallel;
+    }
+
+    public void setOrdersParallel(OrdersParallel ordersParallel) {
+        this.ordersParallel = ordersParallel;
+    }
+
+    public InventoryEngine getInventoryEngine() {
+        return inventoryEngine;
+    }
+
+    public void setInventoryEngine(InventoryEngine inventoryEngine) {
+        this.inventoryEngine = inventoryEngine;
+    }
+
+    public ProductsBatch getProductsBatch() {
+        return productsBatch;
+    }
+
+    public void setProductsBatch(ProductsBatch productsBatch) {
+        this.productsBatch = productsBatch;
+    }
+
+    public InventoryCache getInventoryCache() {
+        return inventoryCache;
+    }
+
+    public void setInventoryCache(InventoryCache inventoryCache) {
+        this.inventoryCache = inventoryCache;
+    }
+
+    public ReservationLedger getReservationLedger() {
+        return reservationLedger;
+    }
+
+    public void setReservationLedger(ReservationLedger reservationLedger) {
+        this.reservationLedger = reservationLedger;
+    }
 }
@@ -1,57 +1,271 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.config;
 
 import com.example.common.dtos.OrderDto;
+import com.example.common.dtos.OrderDtoDeserializer;
 import com.example.inventoryservice.model.payload.ProductDto;
+import com.example.inventoryservice.services.InventoryEngine;
 import com.example.inventoryservice.services.InventoryOrderManageService;
 import com.example.inventoryservice.services.ProductManageService;
 import com.example.inventoryservice.utils.AppConstants;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.retry.annotation.Backoff;
 
 @EnableKafka
 @Configuration(proxyBeanMethods = false)
-class KafkaListenerConfig {
+class KafkaListenerConfig implements ConsumerSeekAware, DisposableBean {
+
+    private static final String ORDERS_BATCH_ENABLED = "application.orders-batch.enabled";
+    private static final String ORDERS_PARALLEL_ENABLED = "application.orders-parallel.enabled";
+    // topics created by @RetryableTopic on onEvent, with SUFFIX_WITH_INDEX_VALUE
+    private static final String ORDERS_FIRST_RETRY_TOPIC = AppConstants.ORDERS_TOPIC + "-retry-0";
+    private static final String ORDERS_DLT = AppConstants.ORDERS_TOPIC + "-dlt";
+    private static final Pattern ORDERS_RETRY_LISTENER_ID =
+            Pattern.compile("orders-(retry-\\d+|dlt)");
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final InventoryOrderManageService orderManageService;
     private final ProductManageService productManageService;
     private final ObjectMapper objectMapper;
+    private final DeadLetterPublishingRecoverer retryRecoverer;
+    private final InventoryEngine inventoryEngine;
+    private final KeyOrderedDispatcher<Long, OrderDto> ordersDispatcher;
 
     KafkaListenerConfig(
             InventoryOrderManageService orderManageService,
             ProductManageService productManageService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            KafkaTemplate<Long, OrderDto> kafkaTemplate,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry,
+            @Nullable InventoryEngine inventoryEngine) {
         this.orderManageService = orderManageService;
+        this.inventoryEngine = inventoryEngine;
         this.productManageService = productManageService;
         this.objectMapper = objectMapper;
+        this.retryRecoverer =
+                new DeadLetterPublishingRecoverer(
+                        kafkaTemplate,
+                        // a record without an order is no better on a retry
+                        (record, ex) ->
+                                new TopicPartition(
+                                        record.value() == null
+                                                ? ORDERS_DLT
+                                                : ORDERS_FIRST_RETRY_TOPIC,
+                                        -1));
+        this.ordersDispatcher =
+                applicationProperties.getOrdersParallel().isEnabled()
+                        ? new KeyOrderedDispatcher<>(
+                                "orders-parallel", meterRegistry, this::committable)
+                        : null;
     }
 
     // retries if processing of event fails
     @RetryableTopic(
             backoff = @Backoff(delay = 1000, multiplier = 2.0),
             topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
-    @KafkaListener(id = "orders", topics = AppConstants.ORDERS_TOPIC, groupId = "stock")
-    public void onEvent(OrderDto orderDto) {
+    // orders may be written as json or binary, product events stay on the default deserializer
+    @KafkaListener(
+            id = "orders",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "stock",
+            autoStartup =
+                    "#{!${"
+                            + ORDERS_BATCH_ENABLED
+                            + ":false} and !${"
+                            + ORDERS_PARALLEL_ENABLED
+                            + ":false}}",
+            properties = "value.deserializer=com.example.common.dtos.OrderDtoDeserializer")
+    public void onEvent(
+            OrderDto orderDto,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset) {
         log.info("Received Order: {}", orderDto);
+        handle(orderDto);
+        if (inventoryEngine != null && AppConstants.ORDERS_TOPIC.equals(topic)) {
+            inventoryEngine.consumed(partition, offset);
+        }
+    }
+
+    /**
+     * Batch mode of {@link #onEvent}, enabled with {@code application.orders-batch}. Consecutive
+     * NEW orders are reserved together, other events are handled one by one in between so that the
+     * order of events is kept. A record that fails is published to the first retry topic of {@link
+     * #onEvent}, from where it follows the usual retry and DLT path.
+     */
+    @KafkaListener(
+            id = "orders-batch",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "stock",
+            containerFactory = "ordersBatchListenerContainerFactory",
+            autoStartup = "${" + ORDERS_BATCH_ENABLED + ":false}")
+    public void onEvents(List<ConsumerRecord<Long, OrderDto>> records) {
+        log.info("Received {} Orders", records.size());
+        List<ConsumerRecord<Long, OrderDto>> newOrders = new ArrayList<>();
+        for (ConsumerRecord<Long, OrderDto> record : records) {
+            if (record.value() != null && "NEW".equals(record.value().getStatus())) {
+                newOrders.add(record);
+            } else {
+                reserveAll(newOrders);
+                newOrders.clear();
+                process(record);
+            }
+        }
+        reserveAll(newOrders);
+        if (inventoryEngine != null) {
+            records.forEach(
+                    record -> inventoryEngine.consumed(record.partition(), record.offset()));
+        }
+    }
+
+    /**
+     * Parallel mode of {@link #onEvent}, enabled with {@code application.orders-parallel}. Records
+     * of one order are handled in sequence and those of different orders concurrently, each on its
+     * own virtual thread. A record that fails is published to the first retry topic of {@link
+     * #onEvent}, like in batch mode.
+     */
+    @KafkaListener(
+            id = "orders-parallel",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "stock",
+            containerFactory = "ordersParallelListenerContainerFactory",
+            autoStartup = "${" + ORDERS_PARALLEL_ENABLED + ":false}")
+    public void onParallelEvent(
+            ConsumerRecord<Long, OrderDto> record, Acknowledgment acknowledgment) {
+        ordersDispatcher.dispatch(record, acknowledgment, this::process);
+    }
+
+    @Override
+    public void destroy() {
+        if (ordersDispatcher != null) {
+            ordersDispatcher.close();
+        }
+    }
+
+    /**
+     * With the inventory engine, orders are consumed again from the offsets saved with its last
+     * flush, the decisions taken after it were lost with the memory.
+     */
+    @Override
+    public void onPartitionsAssigned(
+            Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (inventoryEngine == null
+                || assignments.keySet().stream()
+                        .noneMatch(tp -> AppConstants.ORDERS_TOPIC.equals(tp.topic()))) {
+            return;
+        }
+        Map<Integer, Long> savedOffsets = inventoryEngine.savedOffsets();
+        assignments.keySet().stream()
+                .filter(tp -> AppConstants.ORDERS_TOPIC.equals(tp.topic()))
+                .filter(tp -> savedOffsets.containsKey(tp.partition()))
+                .forEach(
+                        tp ->
+                                callback.seek(
+                                        tp.topic(),
+                                        tp.partition(),
+                                        savedOffsets.get(tp.partition())));
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (inventoryEngine != null
+                && partitions.stream()
+                        .anyMatch(tp -> AppConstants.ORDERS_TOPIC.equals(tp.topic()))) {
+            inventoryEngine.flush();
+        }
+    }
+
+    /**
+     * Creates the inventories of a poll of product events at once, so a bulk load of the catalog
+     * costs one insert per poll rather than one per product.
+     */
+    @KafkaListener(
+            id = "products",
+            topics = AppConstants.PRODUCT_TOPIC,
+            groupId = "product",
+            containerFactory = "productsBatchListenerContainerFactory")
+    public void onSaveProductEvents(List<ConsumerRecord<String, String>> productRecords) {
+        log.info("Received {} Products", productRecords.size());
+        List<ProductDto> products = new ArrayList<>(productRecords.size());
+        for (ConsumerRecord<String, String> productRecord : productRecords) {
+            String productDto = productRecord.value();
+            if (productDto == null) {
+                // tombstone of a deleted product, its inventory is kept
+                log.info("Product : {} was deleted", productRecord.key());
+                continue;
+            }
+            try {
+                products.add(objectMapper.readValue(productDto, ProductDto.class));
+            } catch (JsonProcessingException e) {
+                // redelivering the batch would not make it readable
+                log.error("Skipping unreadable Product: {}", productDto, e);
+            }
+        }
+        productManageService.manageAll(products);
+    }
+
+    private void reserveAll(List<ConsumerRecord<Long, OrderDto>> newOrders) {
+        if (newOrders.isEmpty()) {
+            return;
+        }
+        try {
+            orderManageService.reserveAll(newOrders.stream().map(ConsumerRecord::value).toList());
+        } catch (RuntimeException e) {
+            log.warn(
+                    "Unable to reserve {} Orders together, retrying one by one",
+                    newOrders.size(),
+                    e);
+            newOrders.forEach(this::process);
+        }
+    }
+
+    private void handle(OrderDto orderDto) {
         if ("NEW".equals(orderDto.getStatus())) {
             orderManageService.reserve(orderDto);
         } else {
@@ -59,10 +273,106 @@ class KafkaListenerConfig {
         }
     }
 
-    @KafkaListener(id = "products", topics = AppConstants.PRODUCT_TOPIC, groupId = "product")
-    public void onSaveProductEvent(@Payload String productDto) throws JsonProcessingException {
-        log.info("Received Product: {}", productDto);
-        productManageService.manage(objectMapper.readValue(productDto, ProductDto.class));
+    private void process(ConsumerRecord<Long, OrderDto> record) {
+        if (record.value() == null) {
+            log.error("Order : {} has no value, sending to DLT", record.key());
+            retryRecoverer.accept(
+                    record, new IllegalArgumentException("Order record has no value"));
+            return;
+        }
+        try {
+            log.info("Received Order: {}", record.value());
+            handle(record.value());
+        } catch (RuntimeException e) {
+            log.error("Unable to process Order : {}, sending to retry", record.key(), e);
+            retryRecoverer.accept(record, e);
+        }
+    }
+
+    // records of a partition finish out of order, the engine may only skip what all of them passed
+    private void committable(TopicPartition topicPartition, long nextOffset) {
+        if (inventoryEngine != null && AppConstants.ORDERS_TOPIC.equals(topicPartition.topic())) {
+            inventoryEngine.consumed(topicPartition.partition(), nextOffset - 1);
+        }
+    }
+
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object> ordersBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ApplicationProperties applicationProperties) {
+        ApplicationProperties.OrdersBatch ordersBatch = applicationProperties.getOrdersBatch();
+        Map<String, Object> consumerProperties =
+                new HashMap<>(consumerFactory.getConfigurationProperties());
+        consumerProperties.put(
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderDtoDeserializer.class);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, ordersBatch.getMaxSize());
+        // the broker holds a fetch until roughly a full batch, at ~256 bytes per order, is
+        // available or max wait has passed
+        consumerProperties.put(
+                ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) ordersBatch.getMaxWait().toMillis());
+        consumerProperties.put(
+                ConsumerConfig.FETCH_MIN_BYTES_CONFIG, ordersBatch.getMaxSize() * 256);
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object> productsBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ApplicationProperties applicationProperties) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        // the shared consumer factory keeps its kafka.consumer.* metrics
+        configurer.configure(factory, consumerFactory);
+        Properties consumerProperties = new Properties();
+        // product events are keyed by product code
+        consumerProperties.put(
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        consumerProperties.put(
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                String.valueOf(applicationProperties.getProductsBatch().getMaxSize()));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object> ordersParallelListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        Map<String, Object> consumerProperties =
+                new HashMap<>(consumerFactory.getConfigurationProperties());
+        consumerProperties.put(
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderDtoDeserializer.class);
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        // acks arrive out of order, the container commits up to the first gap and pauses the
+        // consumer until all records of the previous poll are acknowledged
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    // onEvent stays off in batch and parallel mode, but its retry and DLT listeners still have to
+    // run
+    @Bean
+    @ConditionalOnExpression(
+            "${" + ORDERS_BATCH_ENABLED + ":false} or ${" + ORDERS_PARALLEL_ENABLED + ":false}")
+    ApplicationRunner ordersRetryListenersStarter(KafkaListenerEndpointRegistry registry) {
+        return args ->
+                registry.getListenerContainers().stream()
+                        .filter(
+                                container ->
+                                        ORDERS_RETRY_LISTENER_ID
+                                                .matcher(container.getListenerId())
+                                                .matches())
+                        .forEach(MessageListenerContainer::start);
     }
 
     @DltHandler
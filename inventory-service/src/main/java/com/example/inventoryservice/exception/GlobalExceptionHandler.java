@@ -0,0 +1,51 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.exception;
+
+import jakarta.validation.ConstraintViolationException;
+import java.util.Comparator;
+import java.util.List;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GlobalExceptionHandler {
+
+    // request parameters checked by the method validation of @Validated controllers
+    @ExceptionHandler(ConstraintViolationException.class)
+    ProblemDetail onException(ConstraintViolationException constraintViolationException) {
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(
+                        HttpStatusCode.valueOf(400), "Invalid request parameters.");
+        problemDetail.setTitle("Constraint Violation");
+        List<ApiValidationError> validationErrorsList =
+                constraintViolationException.getConstraintViolations().stream()
+                        .map(
+                                violation ->
+                                        new ApiValidationError(
+                                                violation.getRootBeanClass().getSimpleName(),
+                                                violation.getPropertyPath().toString(),
+                                                violation.getInvalidValue(),
+                                                violation.getMessage()))
+                        .sorted(Comparator.comparing(ApiValidationError::field))
+                        .toList();
+        problemDetail.setProperty("violations", validationErrorsList);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    ProblemDetail onException(InvalidCursorException invalidCursorException) {
+        return invalidCursorException.getBody();
+    }
+
+    record ApiValidationError(String object, String field, Object rejectedValue, String message) {}
+}
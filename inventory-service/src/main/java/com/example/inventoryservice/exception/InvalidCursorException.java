@@ -0,0 +1,31 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.exception;
+
+import java.net.URI;
+import java.time.Instant;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+public class InvalidCursorException extends ErrorResponseException {
+
+    public InvalidCursorException(String cursor) {
+        super(HttpStatus.BAD_REQUEST, asProblemDetail(cursor), null);
+    }
+
+    private static ProblemDetail asProblemDetail(String cursor) {
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(
+                        HttpStatus.BAD_REQUEST, "Cursor '" + cursor + "' is not valid");
+        problemDetail.setTitle("Invalid Cursor");
+        problemDetail.setType(URI.create("https://api.inventory.com/errors/invalid-cursor"));
+        problemDetail.setProperty("errorCategory", "Generic");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+}
@@ -1,16 +1,19 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2022 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.model.request;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PositiveOrZero;
 import java.io.Serializable;
 
 public record InventoryRequest(
         @NotBlank(message = "ProductCode can't be blank") String productCode,
-        @PositiveOrZero(message = "Quantity can't be negative") Integer availableQuantity)
+        // bulk feeds send it as quantity
+        @JsonAlias("quantity") @PositiveOrZero(message = "Quantity can't be negative")
+                Integer availableQuantity)
         implements Serializable {}
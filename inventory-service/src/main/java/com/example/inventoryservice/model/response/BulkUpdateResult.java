@@ -0,0 +1,26 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.model.response;
+
+/**
+ * Outcome of a bulk quantity update.
+ *
+ * @param received the changes read from the request
+ * @param updated the inventories updated
+ * @param notFound the changes naming a product code without an inventory
+ * @param rejected the changes without a product code or with a negative quantity
+ */
+public record BulkUpdateResult(long received, long updated, long notFound, long rejected) {
+
+    public BulkUpdateResult plus(long received, long updated, long notFound, long rejected) {
+        return new BulkUpdateResult(
+                this.received + received,
+                this.updated + updated,
+                this.notFound + notFound,
+                this.rejected + rejected);
+    }
+}
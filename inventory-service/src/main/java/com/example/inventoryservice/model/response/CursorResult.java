@@ -0,0 +1,24 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.model.response;
+
+import com.example.inventoryservice.utils.ScrollCursors;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import org.springframework.data.domain.Window;
+
+public record CursorResult<T>(
+        List<T> data, String nextCursor, @JsonProperty("hasNext") boolean hasNext) {
+    public CursorResult(Window<T> window) {
+        this(
+                window.getContent(),
+                window.hasNext()
+                        ? ScrollCursors.encode(window.positionAt(window.size() - 1))
+                        : null,
+                window.hasNext());
+    }
+}
@@ -0,0 +1,50 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.repositories;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A row count that is counted again only once it is older than its time to live, so page after page
+ * of a listing shares one {@code count(*)}. Totals may lag writes by up to the time to live.
+ */
+final class CachedCount {
+
+    private final long timeToLiveNanos;
+    private final LongSupplier counter;
+    private volatile Snapshot snapshot;
+
+    CachedCount(Duration timeToLive, LongSupplier counter) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.counter = counter;
+    }
+
+    long get() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current == null || now - current.countedAt() >= timeToLiveNanos) {
+            // concurrent callers may count at the same time, the last one wins
+            current = new Snapshot(counter.getAsLong(), now);
+            snapshot = current;
+        }
+        return current.count();
+    }
+
+    /** Same as {@link #get()}, counting again in any case. */
+    long refresh() {
+        Snapshot current = new Snapshot(counter.getAsLong(), System.nanoTime());
+        snapshot = current;
+        return current.count();
+    }
+
+    void invalidate() {
+        snapshot = null;
+    }
+
+    private record Snapshot(long count, long countedAt) {}
+}
@@ -0,0 +1,30 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.repositories;
+
+import com.example.inventoryservice.entities.Inventory;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.lang.Nullable;
+
+/**
+ * Published by the write paths with the product codes whose inventory rows they changed, listeners
+ * act on it once the transaction has committed.
+ *
+ * @param inventory the row as written, when the writer holds it
+ */
+public record InventoryChangedEvent(
+        Collection<String> productCodes, @Nullable Inventory inventory) {
+
+    public static InventoryChangedEvent of(Collection<String> productCodes) {
+        return new InventoryChangedEvent(productCodes, null);
+    }
+
+    public static InventoryChangedEvent of(Inventory inventory) {
+        return new InventoryChangedEvent(List.of(inventory.getProductCode()), inventory);
+    }
+}
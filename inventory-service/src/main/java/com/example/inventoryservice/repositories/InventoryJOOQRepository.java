@@ -1,16 +1,24 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.repositories;
 
 import com.example.inventoryservice.entities.Inventory;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,11 +26,113 @@ public interface InventoryJOOQRepository {
 
     Optional<Inventory> findById(Long customerId);
 
-    Page<Inventory> findAll(Pageable pageable);
+    /** Same as {@link #findAll(Pageable, boolean)} with a total that may be a few seconds old. */
+    default Page<Inventory> findAll(Pageable pageable) {
+        return findAll(pageable, false);
+    }
+
+    /**
+     * One page of inventories at an offset.
+     *
+     * @param exactCount whether to count the rows for this page rather than reuse a recent count
+     */
+    Page<Inventory> findAll(Pageable pageable, boolean exactCount);
+
+    /**
+     * The inventories following the position in the sort order, read with a seek predicate instead
+     * of an offset so later windows cost the same as the first one. The id breaks ties between
+     * equal sort values, and nulls sort after every other value.
+     *
+     * @throws com.example.inventoryservice.exception.InvalidCursorException when the position
+     *     lacks a key of the sort or holds one of the wrong type
+     */
+    Window<Inventory> findAll(Sort sort, int limit, KeysetScrollPosition position);
 
     Optional<Inventory> findByProductCode(String productCode);
 
     List<Inventory> findByProductCodeIn(List<String> productCodes);
 
+    /**
+     * Same as {@link #findByProductCodeIn(List)}, reading the rows from a cursor as the stream is
+     * consumed. Must be consumed and closed within a transaction.
+     */
+    Stream<Inventory> streamByProductCodeIn(Collection<String> productCodes);
+
     int deleteByProductCode(String productCode);
+
+    /**
+     * Creates an empty inventory for every product code that has none yet, leaving existing ones
+     * untouched, so a redelivered product event is harmless.
+     *
+     * @return the number of inventories created
+     */
+    int createMissing(Collection<String> productCodes);
+
+    /**
+     * Sets the available quantity of every product code in one statement, product codes without an
+     * inventory are ignored.
+     *
+     * @return the number of inventories updated
+     */
+    int updateQuantities(Map<String, Integer> quantitiesByProductCode);
+
+    /**
+     * Moves the given quantities from available to reserved for every product code, or for none of
+     * them when any product is missing or short on stock. What is reserved is recorded against the
+     * order, so a replayed order reserves nothing twice. Runs in a transaction of its own, committed
+     * before returning, so a rejection rolls back its ledger rows without failing a caller's
+     * transaction.
+     *
+     * @return whether all products were reserved
+     */
+    boolean reserve(Long orderId, Map<String, Integer> quantitiesByProductCode);
+
+    /**
+     * Same as {@link #reserve(Long, Map)} for several orders at once, all of them or none.
+     *
+     * @return whether all products of all orders were reserved
+     */
+    boolean reserveAll(Map<Long, Map<String, Integer>> quantitiesByOrderId);
+
+    /**
+     * Takes what is still reserved for the order off the reserved items.
+     *
+     * @return the number of products confirmed, 0 when already confirmed or released
+     */
+    int confirmReservation(Long orderId);
+
+    /**
+     * Moves what is still reserved for the order back to available.
+     *
+     * @return the number of products released, 0 when already confirmed or released
+     */
+    int releaseReservation(Long orderId);
+
+    /**
+     * Records reservations already decided in memory and moves their quantities to reserved without
+     * checking the stock again. Reservations the ledger already holds are left alone.
+     *
+     * @return the reservations that were already recorded, per order
+     */
+    Map<Long, Map<String, Integer>> applyReservations(
+            Map<Long, Map<String, Integer>> quantitiesByOrderId);
+
+    /** What is still reserved for the order, per product code. */
+    Map<String, Integer> findReservation(Long orderId);
+
+    /** The orders among the given ones that the ledger holds reservations for, settled or not. */
+    Set<Long> findRecordedOrderIds(Collection<Long> orderIds);
+
+    /**
+     * Removes the ledger rows of orders confirmed or released before the given time, once a replay
+     * of their events can no longer reach them.
+     *
+     * @return the number of rows removed
+     */
+    int deleteSettledReservations(LocalDateTime settledBefore);
+
+    /** The next offset to consume per partition of the topic, as last saved. */
+    Map<Integer, Long> findOffsets(String topic);
+
+    void saveOffsets(String topic, Map<Integer, Long> nextOffsetsByPartition);
 }
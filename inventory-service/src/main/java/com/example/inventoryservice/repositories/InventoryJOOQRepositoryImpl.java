@@ -1,40 +1,92 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.repositories;
 
 import static com.example.inventoryservice.jooq.tables.Inventory.INVENTORY;
+import static com.example.inventoryservice.jooq.tables.InventoryEngineOffsets.INVENTORY_ENGINE_OFFSETS;
+import static com.example.inventoryservice.jooq.tables.InventoryReservations.INVENTORY_RESERVATIONS;
 
 import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.exception.InvalidCursorException;
 import com.example.inventoryservice.jooq.tables.records.InventoryRecord;
-import java.lang.reflect.Field;
+import com.example.inventoryservice.utils.ScrollCursors;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.jooq.BatchBindStep;
+import org.jooq.CommonTableExpression;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record2;
+import org.jooq.Record3;
+import org.jooq.Record5;
+import org.jooq.Result;
+import org.jooq.Row2;
+import org.jooq.Row3;
+import org.jooq.Row4;
+import org.jooq.SelectJoinStep;
 import org.jooq.SortField;
+import org.jooq.Table;
 import org.jooq.TableField;
+import org.jooq.exception.DataTypeException;
+import org.jooq.impl.DSL;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Repository
 @Transactional(readOnly = true)
 public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
 
+    private static final String RESERVED = "RESERVED";
+    private static final String CONFIRMED = "CONFIRMED";
+    private static final String RELEASED = "RELEASED";
+
+    private static final Map<String, TableField<InventoryRecord, ?>> SORT_FIELDS = sortFields();
+    private static final String ID_TIE_BREAKER = "id";
+    private static final Duration COUNT_TIME_TO_LIVE = Duration.ofSeconds(5);
+    // one bind value per row, far below the 32767 PostgreSQL allows per statement
+    private static final int CREATE_CHUNK_SIZE = 1_000;
+    // rows held by the JDBC driver at a time while streaming, needs a transaction on PostgreSQL
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final DSLContext dslContext;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CachedCount inventoryCount;
 
-    public InventoryJOOQRepositoryImpl(DSLContext dslContext) {
+    public InventoryJOOQRepositoryImpl(
+            DSLContext dslContext, ApplicationEventPublisher eventPublisher) {
         this.dslContext = dslContext;
+        this.eventPublisher = eventPublisher;
+        this.inventoryCount =
+                new CachedCount(COUNT_TIME_TO_LIVE, () -> dslContext.fetchCount(INVENTORY));
     }
 
     @Override
@@ -46,8 +98,8 @@ public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
     }
 
     @Override
-    public Page<Inventory> findAll(Pageable pageable) {
-        return new PageImpl<>(
+    public Page<Inventory> findAll(Pageable pageable, boolean exactCount) {
+        List<Inventory> content =
                 dslContext
                         .select(
                                 INVENTORY.ID,
@@ -59,9 +111,54 @@ public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
                         .orderBy(getSortFields(pageable.getSort()))
                         .limit(pageable.getPageSize())
                         .offset(pageable.getOffset())
-                        .fetchInto(Inventory.class),
-                pageable,
-                dslContext.fetchCount(INVENTORY));
+                        .fetchInto(Inventory.class);
+        // counts only when the page alone does not tell the total
+        return PageableExecutionUtils.getPage(
+                content, pageable, exactCount ? inventoryCount::refresh : inventoryCount::get);
+    }
+
+    @Override
+    public Window<Inventory> findAll(Sort sort, int limit, KeysetScrollPosition position) {
+        Sort keysetSort = getKeysetSort(sort);
+        List<TableField<InventoryRecord, ?>> keyFields =
+                keysetSort.stream()
+                        .<TableField<InventoryRecord, ?>>map(
+                                order -> getTableField(order.getProperty()))
+                        .toList();
+        SelectJoinStep<Record5<Long, String, Integer, Integer, Short>> from =
+                dslContext
+                        .select(
+                                INVENTORY.ID,
+                                INVENTORY.PRODUCT_CODE,
+                                INVENTORY.QUANTITY,
+                                INVENTORY.RESERVED_ITEMS,
+                                INVENTORY.VERSION)
+                        .from(INVENTORY);
+        List<SortField<?>> sortFields = getKeysetSortFields(keysetSort, keyFields);
+        // one row more than asked tells whether another window follows
+        Result<Record5<Long, String, Integer, Integer, Short>> rows;
+        if (position.isInitial()) {
+            rows = from.orderBy(sortFields).limit(limit + 1).fetch();
+        } else if (keyFields.stream().noneMatch(keyField -> keyField.getDataType().nullable())) {
+            rows =
+                    from.orderBy(sortFields)
+                            .seek(getKeyValues(position, keyFields))
+                            .limit(limit + 1)
+                            .fetch();
+        } else {
+            rows =
+                    from.where(after(keysetSort, keyFields, getKeyValues(position, keyFields)))
+                            .orderBy(sortFields)
+                            .limit(limit + 1)
+                            .fetch();
+        }
+        boolean hasNext = rows.size() > limit;
+        List<Record5<Long, String, Integer, Integer, Short>> windowRows =
+                hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(
+                windowRows.stream().map(row -> row.into(Inventory.class)).toList(),
+                index -> ScrollPosition.forward(getKeys(windowRows.get(index), keyFields)),
+                hasNext);
     }
 
     @Override
@@ -88,19 +185,355 @@ public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
                         INVENTORY.RESERVED_ITEMS,
                         INVENTORY.VERSION)
                 .from(INVENTORY)
-                .where(INVENTORY.PRODUCT_CODE.in(productCodes))
+                .where(hasProductCodeIn(productCodes))
                 .fetchInto(Inventory.class);
     }
 
+    @Override
+    public Stream<Inventory> streamByProductCodeIn(Collection<String> productCodes) {
+        return dslContext
+                .select(
+                        INVENTORY.ID,
+                        INVENTORY.PRODUCT_CODE,
+                        INVENTORY.QUANTITY,
+                        INVENTORY.RESERVED_ITEMS,
+                        INVENTORY.VERSION)
+                .from(INVENTORY)
+                .where(hasProductCodeIn(productCodes))
+                .fetchSize(STREAM_FETCH_SIZE)
+                .fetchStreamInto(Inventory.class);
+    }
+
     @Override
     @Transactional
     public int deleteByProductCode(String productCode) {
+        inventoryCount.invalidate();
+        int deleted =
+                dslContext
+                        .deleteFrom(INVENTORY)
+                        .where(INVENTORY.PRODUCT_CODE.eq(productCode))
+                        .execute();
+        if (deleted > 0) {
+            publishChanged(List.of(productCode));
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int createMissing(Collection<String> productCodes) {
+        // sorted, so concurrent consumers lock the unique index entries in the same order
+        List<String> sortedCodes = new TreeSet<>(productCodes).stream().toList();
+        int created = 0;
+        for (int from = 0; from < sortedCodes.size(); from += CREATE_CHUNK_SIZE) {
+            List<Row4<String, Integer, Integer, Short>> rows =
+                    sortedCodes
+                            .subList(from, Math.min(from + CREATE_CHUNK_SIZE, sortedCodes.size()))
+                            .stream()
+                            .map(
+                                    productCode ->
+                                            DSL.row(
+                                                    DSL.val(productCode),
+                                                    DSL.inline(0),
+                                                    DSL.inline(0),
+                                                    DSL.inline((short) 0)))
+                            .toList();
+            created +=
+                    dslContext
+                            .insertInto(
+                                    INVENTORY,
+                                    INVENTORY.PRODUCT_CODE,
+                                    INVENTORY.QUANTITY,
+                                    INVENTORY.RESERVED_ITEMS,
+                                    INVENTORY.VERSION)
+                            .valuesOfRows(rows)
+                            .onConflict(INVENTORY.PRODUCT_CODE)
+                            .doNothing()
+                            .execute();
+        }
+        if (created > 0) {
+            inventoryCount.invalidate();
+        }
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public int updateQuantities(Map<String, Integer> quantitiesByProductCode) {
+        if (quantitiesByProductCode.isEmpty()) {
+            return 0;
+        }
+        // sorted, so concurrent updates lock the rows in the same order
+        @SuppressWarnings("unchecked")
+        Row2<String, Integer>[] rows = new Row2[quantitiesByProductCode.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> change :
+                new TreeMap<>(quantitiesByProductCode).entrySet()) {
+            rows[i++] =
+                    DSL.row(
+                            DSL.val(change.getKey(), INVENTORY.PRODUCT_CODE),
+                            DSL.val(change.getValue(), INVENTORY.QUANTITY));
+        }
+        Table<Record2<String, Integer>> changes =
+                DSL.values(rows)
+                        .as(
+                                "changes",
+                                INVENTORY.PRODUCT_CODE.getName(),
+                                INVENTORY.QUANTITY.getName());
+        int updated =
+                dslContext
+                        .update(INVENTORY)
+                        .set(
+                                INVENTORY.QUANTITY,
+                                changes.field(INVENTORY.QUANTITY.getName(), Integer.class))
+                        .set(INVENTORY.VERSION, nextVersion())
+                        .from(changes)
+                        .where(
+                                INVENTORY.PRODUCT_CODE.eq(
+                                        changes.field(
+                                                INVENTORY.PRODUCT_CODE.getName(), String.class)))
+                        .execute();
+        if (updated > 0) {
+            publishChanged(quantitiesByProductCode.keySet());
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reserve(Long orderId, Map<String, Integer> quantitiesByProductCode) {
+        return reserveAll(Map.of(orderId, quantitiesByProductCode));
+    }
+
+    // a rejection rolls back only this transaction, never marks a caller's one rollback-only
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reserveAll(Map<Long, Map<String, Integer>> quantitiesByOrderId) {
+        // only what the ledger did not hold yet is taken from stock, replays add nothing
+        Map<String, Integer> quantitiesByProductCode = new TreeMap<>();
+        recordReservations(quantitiesByOrderId)
+                .forEach(
+                        inserted ->
+                                quantitiesByProductCode.merge(
+                                        inserted.value2(), inserted.value3(), Integer::sum));
+        for (int updated : moveToReserved(quantitiesByProductCode, true)) {
+            if (updated != 1) {
+                // a missing or short product rejects the whole order, ledger rows included
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return false;
+            }
+        }
+        publishChanged(quantitiesByProductCode.keySet());
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Map<String, Integer>> applyReservations(
+            Map<Long, Map<String, Integer>> quantitiesByOrderId) {
+        Map<Long, Map<String, Integer>> alreadyRecorded = new HashMap<>();
+        quantitiesByOrderId.forEach(
+                (orderId, quantities) -> alreadyRecorded.put(orderId, new HashMap<>(quantities)));
+        Map<String, Integer> quantitiesByProductCode = new TreeMap<>();
+        for (Record3<Long, String, Integer> inserted : recordReservations(quantitiesByOrderId)) {
+            quantitiesByProductCode.merge(inserted.value2(), inserted.value3(), Integer::sum);
+            alreadyRecorded.get(inserted.value1()).remove(inserted.value2());
+        }
+        moveToReserved(quantitiesByProductCode, false);
+        publishChanged(quantitiesByProductCode.keySet());
+        alreadyRecorded.values().removeIf(Map::isEmpty);
+        return alreadyRecorded;
+    }
+
+    @Override
+    @Transactional
+    public int confirmReservation(Long orderId) {
+        return settle(orderId, CONFIRMED, false);
+    }
+
+    @Override
+    @Transactional
+    public int releaseReservation(Long orderId) {
+        return settle(orderId, RELEASED, true);
+    }
+
+    @Override
+    public Map<String, Integer> findReservation(Long orderId) {
         return dslContext
-                .deleteFrom(INVENTORY)
-                .where(INVENTORY.PRODUCT_CODE.eq(productCode))
+                .select(INVENTORY_RESERVATIONS.PRODUCT_CODE, INVENTORY_RESERVATIONS.QUANTITY)
+                .from(INVENTORY_RESERVATIONS)
+                .where(INVENTORY_RESERVATIONS.ORDER_ID.eq(orderId))
+                .and(INVENTORY_RESERVATIONS.STATUS.eq(RESERVED))
+                .fetchMap(INVENTORY_RESERVATIONS.PRODUCT_CODE, INVENTORY_RESERVATIONS.QUANTITY);
+    }
+
+    @Override
+    public Set<Long> findRecordedOrderIds(Collection<Long> orderIds) {
+        return dslContext
+                .selectDistinct(INVENTORY_RESERVATIONS.ORDER_ID)
+                .from(INVENTORY_RESERVATIONS)
+                .where(INVENTORY_RESERVATIONS.ORDER_ID.in(orderIds))
+                .fetchSet(INVENTORY_RESERVATIONS.ORDER_ID);
+    }
+
+    @Override
+    @Transactional
+    public int deleteSettledReservations(LocalDateTime settledBefore) {
+        return dslContext
+                .deleteFrom(INVENTORY_RESERVATIONS)
+                .where(INVENTORY_RESERVATIONS.SETTLED_AT.lt(settledBefore))
                 .execute();
     }
 
+    @Override
+    public Map<Integer, Long> findOffsets(String topic) {
+        return dslContext
+                .select(INVENTORY_ENGINE_OFFSETS.PARTITION_ID, INVENTORY_ENGINE_OFFSETS.NEXT_OFFSET)
+                .from(INVENTORY_ENGINE_OFFSETS)
+                .where(INVENTORY_ENGINE_OFFSETS.TOPIC.eq(topic))
+                .fetchMap(
+                        INVENTORY_ENGINE_OFFSETS.PARTITION_ID,
+                        INVENTORY_ENGINE_OFFSETS.NEXT_OFFSET);
+    }
+
+    @Override
+    @Transactional
+    public void saveOffsets(String topic, Map<Integer, Long> nextOffsetsByPartition) {
+        BatchBindStep batch =
+                dslContext.batch(
+                        dslContext
+                                .insertInto(
+                                        INVENTORY_ENGINE_OFFSETS,
+                                        INVENTORY_ENGINE_OFFSETS.TOPIC,
+                                        INVENTORY_ENGINE_OFFSETS.PARTITION_ID,
+                                        INVENTORY_ENGINE_OFFSETS.NEXT_OFFSET)
+                                .values((String) null, (Integer) null, (Long) null)
+                                .onConflict(
+                                        INVENTORY_ENGINE_OFFSETS.TOPIC,
+                                        INVENTORY_ENGINE_OFFSETS.PARTITION_ID)
+                                .doUpdate()
+                                .set(
+                                        INVENTORY_ENGINE_OFFSETS.NEXT_OFFSET,
+                                        DSL.excluded(INVENTORY_ENGINE_OFFSETS.NEXT_OFFSET)));
+        nextOffsetsByPartition.forEach(
+                (partition, nextOffset) -> batch.bind(topic, partition, nextOffset));
+        if (batch.size() > 0) {
+            batch.execute();
+        }
+    }
+
+    // inserts the ledger rows and returns the ones that were not recorded before
+    private Result<Record3<Long, String, Integer>> recordReservations(
+            Map<Long, Map<String, Integer>> quantitiesByOrderId) {
+        List<Row3<Long, String, Integer>> rows = new ArrayList<>();
+        quantitiesByOrderId.forEach(
+                (orderId, quantities) ->
+                        quantities.forEach(
+                                (productCode, quantity) ->
+                                        rows.add(DSL.row(orderId, productCode, quantity))));
+        return dslContext
+                .insertInto(
+                        INVENTORY_RESERVATIONS,
+                        INVENTORY_RESERVATIONS.ORDER_ID,
+                        INVENTORY_RESERVATIONS.PRODUCT_CODE,
+                        INVENTORY_RESERVATIONS.QUANTITY)
+                .valuesOfRows(rows)
+                .onConflictDoNothing()
+                .returningResult(
+                        INVENTORY_RESERVATIONS.ORDER_ID,
+                        INVENTORY_RESERVATIONS.PRODUCT_CODE,
+                        INVENTORY_RESERVATIONS.QUANTITY)
+                .fetch();
+    }
+
+    // a single array bind, so one prepared statement serves lists of any length
+    private Condition hasProductCodeIn(Collection<String> productCodes) {
+        return INVENTORY.PRODUCT_CODE.eq(DSL.any(productCodes.toArray(String[]::new)));
+    }
+
+    // one update per product code, in product code order so concurrent orders cannot deadlock
+    private int[] moveToReserved(Map<String, Integer> quantitiesByProductCode, boolean checkStock) {
+        if (quantitiesByProductCode.isEmpty()) {
+            return new int[0];
+        }
+        Field<Integer> quantity = DSL.param("quantity", Integer.class);
+        Condition condition = INVENTORY.PRODUCT_CODE.eq(DSL.param("productCode", String.class));
+        if (checkStock) {
+            condition = condition.and(INVENTORY.QUANTITY.ge(quantity));
+        }
+        BatchBindStep batch =
+                dslContext.batch(
+                        dslContext
+                                .update(INVENTORY)
+                                .set(INVENTORY.QUANTITY, INVENTORY.QUANTITY.minus(quantity))
+                                .set(
+                                        INVENTORY.RESERVED_ITEMS,
+                                        INVENTORY.RESERVED_ITEMS.plus(quantity))
+                                .set(INVENTORY.VERSION, nextVersion())
+                                .where(condition));
+        quantitiesByProductCode.forEach(
+                (productCode, count) ->
+                        batch.bind(
+                                Map.<String, Object>of(
+                                        "quantity", count, "productCode", productCode)));
+        return batch.execute();
+    }
+
+    /*
+     * One statement: the CTE flips the order's RESERVED ledger rows and returns them, and the
+     * update joins the inventory against exactly those rows. A replayed event finds nothing left
+     * in RESERVED, and a concurrent one waits on the ledger row locks and then finds the same.
+     */
+    private int settle(Long orderId, String status, boolean restock) {
+        CommonTableExpression<Record2<String, Integer>> settled =
+                DSL.name("settled")
+                        .as(
+                                dslContext
+                                        .update(INVENTORY_RESERVATIONS)
+                                        .set(INVENTORY_RESERVATIONS.STATUS, status)
+                                        .set(
+                                                INVENTORY_RESERVATIONS.SETTLED_AT,
+                                                DSL.currentLocalDateTime())
+                                        .where(INVENTORY_RESERVATIONS.ORDER_ID.eq(orderId))
+                                        .and(INVENTORY_RESERVATIONS.STATUS.eq(RESERVED))
+                                        .returningResult(
+                                                INVENTORY_RESERVATIONS.PRODUCT_CODE,
+                                                INVENTORY_RESERVATIONS.QUANTITY));
+        Field<Integer> quantity = settled.field(INVENTORY_RESERVATIONS.QUANTITY);
+        List<String> settledCodes =
+                dslContext
+                        .with(settled)
+                        .update(INVENTORY)
+                        .set(INVENTORY.RESERVED_ITEMS, INVENTORY.RESERVED_ITEMS.minus(quantity))
+                        .set(
+                                INVENTORY.QUANTITY,
+                                restock ? INVENTORY.QUANTITY.plus(quantity) : INVENTORY.QUANTITY)
+                        .set(INVENTORY.VERSION, nextVersion())
+                        .from(settled)
+                        .where(
+                                INVENTORY.PRODUCT_CODE.eq(
+                                        settled.field(INVENTORY_RESERVATIONS.PRODUCT_CODE)))
+                        .returningResult(INVENTORY.PRODUCT_CODE)
+                        .fetch(INVENTORY.PRODUCT_CODE);
+        publishChanged(settledCodes);
+        return settledCodes.size();
+    }
+
+    // handled once the transaction commits, so nobody reloads a row before the change is visible
+    private void publishChanged(Collection<String> productCodes) {
+        if (!productCodes.isEmpty()) {
+            eventPublisher.publishEvent(InventoryChangedEvent.of(List.copyOf(productCodes)));
+        }
+    }
+
+    // same wrap around as the JPA @Version of a Short, so both writers keep bumping it
+    private Field<Short> nextVersion() {
+        return DSL.when(
+                        INVENTORY.VERSION.eq(DSL.inline(Short.MAX_VALUE)),
+                        DSL.inline(Short.MIN_VALUE))
+                .otherwise(INVENTORY.VERSION.plus(DSL.inline((short) 1)));
+    }
+
     private Collection<SortField<?>> getSortFields(Sort sortSpecification) {
         Collection<SortField<?>> querySortFields = new ArrayList<>();
 
@@ -112,7 +545,7 @@ public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
             String sortFieldName = specifiedField.getProperty();
             Sort.Direction sortDirection = specifiedField.getDirection();
 
-            TableField<InventoryRecord, Object> tableField = getTableField(sortFieldName);
+            TableField<InventoryRecord, ?> tableField = getTableField(sortFieldName);
             SortField<?> querySortField = convertTableFieldToSortField(tableField, sortDirection);
             querySortFields.add(querySortField);
         }
@@ -120,25 +553,119 @@ public class InventoryJOOQRepositoryImpl implements InventoryJOOQRepository {
         return querySortFields;
     }
 
-    private TableField<InventoryRecord, Object> getTableField(String sortFieldName) {
-        TableField<InventoryRecord, Object> sortField;
-        try {
-            Field tableField =
-                    INVENTORY.getClass().getField(sortFieldName.toUpperCase(Locale.ROOT));
-            sortField = (TableField<InventoryRecord, Object>) tableField.get(INVENTORY);
-        } catch (NoSuchFieldException | IllegalAccessException ex) {
+    // the id breaks ties, so the order is total and no row is skipped or repeated
+    private Sort getKeysetSort(Sort sortSpecification) {
+        for (Sort.Order specifiedField : sortSpecification) {
+            if (getTableField(specifiedField.getProperty()) == INVENTORY.ID) {
+                return sortSpecification;
+            }
+        }
+        return sortSpecification.and(Sort.by(ID_TIE_BREAKER));
+    }
+
+    private Object[] getKeyValues(
+            KeysetScrollPosition position, List<TableField<InventoryRecord, ?>> keyFields) {
+        Object[] keyValues = new Object[keyFields.size()];
+        for (int i = 0; i < keyValues.length; i++) {
+            TableField<InventoryRecord, ?> keyField = keyFields.get(i);
+            // positions come from client cursors, so a missing or mistyped key is their mistake
+            if (!position.getKeys().containsKey(keyField.getName())) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+            Object keyValue = position.getKeys().get(keyField.getName());
+            try {
+                // cursors come back as JSON, so an Integer may stand for a Long
+                keyValues[i] = keyField.getDataType().convert(keyValue);
+            } catch (DataTypeException e) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+            // jOOQ converts unparseable numbers to null rather than failing
+            if (keyValues[i] == null && keyValue != null) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+        }
+        return keyValues;
+    }
+
+    // nulls sort last in both directions, so a window ending on a null key can be followed
+    private List<SortField<?>> getKeysetSortFields(
+            Sort keysetSort, List<TableField<InventoryRecord, ?>> keyFields) {
+        List<SortField<?>> sortFields = new ArrayList<>(keyFields.size());
+        int i = 0;
+        for (Sort.Order order : keysetSort) {
+            TableField<InventoryRecord, ?> keyField = keyFields.get(i++);
+            SortField<?> sortField = convertTableFieldToSortField(keyField, order.getDirection());
+            sortFields.add(keyField.getDataType().nullable() ? sortField.nullsLast() : sortField);
+        }
+        return sortFields;
+    }
+
+    // the rows after the keys in keyset order, spelled out as seek() compares row values and
+    // leaves out every row holding a null
+    private static Condition after(
+            Sort keysetSort, List<TableField<InventoryRecord, ?>> keyFields, Object[] keyValues) {
+        Condition after = DSL.noCondition();
+        Condition equal = DSL.noCondition();
+        int i = 0;
+        for (Sort.Order order : keysetSort) {
+            TableField<InventoryRecord, ?> keyField = keyFields.get(i);
+            Object keyValue = keyValues[i++];
+            if (keyValue != null) {
+                after = after.or(equal.and(beyond(keyField, keyValue, order.getDirection())));
+            }
+            equal = equal.and(keyValue == null ? keyField.isNull() : equalTo(keyField, keyValue));
+        }
+        return after;
+    }
+
+    private static <T> Condition beyond(
+            Field<T> keyField, Object keyValue, Sort.Direction direction) {
+        T value = keyField.getDataType().convert(keyValue);
+        Condition beyond =
+                direction == Sort.Direction.ASC ? keyField.gt(value) : keyField.lt(value);
+        return keyField.getDataType().nullable() ? beyond.or(keyField.isNull()) : beyond;
+    }
+
+    private static <T> Condition equalTo(Field<T> keyField, Object keyValue) {
+        return keyField.eq(keyField.getDataType().convert(keyValue));
+    }
+
+    private static Map<String, Object> getKeys(
+            Record row, List<TableField<InventoryRecord, ?>> keyFields) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keyFields.forEach(keyField -> keys.put(keyField.getName(), row.get(keyField)));
+        return keys;
+    }
+
+    private TableField<InventoryRecord, ?> getTableField(String sortFieldName) {
+        TableField<InventoryRecord, ?> sortField =
+                SORT_FIELDS.get(sortFieldName.toLowerCase(Locale.ROOT));
+        if (sortField == null) {
             String errorMessage = "Could not find table field: %s".formatted(sortFieldName);
-            throw new InvalidDataAccessApiUsageException(errorMessage, ex);
+            throw new InvalidDataAccessApiUsageException(errorMessage);
         }
         return sortField;
     }
 
     private SortField<?> convertTableFieldToSortField(
-            TableField<InventoryRecord, Object> tableField, Sort.Direction sortDirection) {
+            TableField<InventoryRecord, ?> tableField, Sort.Direction sortDirection) {
         if (sortDirection == Sort.Direction.ASC) {
             return tableField.asc();
         } else {
             return tableField.desc();
         }
     }
+
+    // sortable columns by name, resolved once instead of looking up INVENTORY per request
+    private static Map<String, TableField<InventoryRecord, ?>> sortFields() {
+        Map<String, TableField<InventoryRecord, ?>> sortFields = new HashMap<>();
+        for (Field<?> field : INVENTORY.fields()) {
+            if (field instanceof TableField<?, ?> tableField) {
+                sortFields.put(
+                        field.getName().toLowerCase(Locale.ROOT),
+                        (TableField<InventoryRecord, ?>) tableField);
+            }
+        }
+        return Map.copyOf(sortFields);
+    }
 }
@@ -0,0 +1,99 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Read-through cache of inventories by product code. Every write path publishes an {@link
+ * InventoryChangedEvent}, handled here once its transaction has committed: a row written through
+ * JPA replaces the cached one when its version is newer, any other change drops the product codes.
+ * A load that raced with a write is dropped too, as the invalidation waits for the load of its key
+ * to finish. Cached inventories are shared between callers and must not be modified.
+ */
+@Service
+@ConditionalOnProperty(name = "application.inventory-cache.enabled", havingValue = "true")
+public class InventoryCache {
+
+    private final Cache<String, Inventory> inventories;
+
+    private final Counter invalidations;
+    private final Counter replacements;
+
+    public InventoryCache(
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.InventoryCache properties = applicationProperties.getInventoryCache();
+        Caffeine<Object, Object> builder =
+                Caffeine.newBuilder().maximumSize(properties.getMaximumSize()).recordStats();
+        if (properties.getTimeToLive() != null) {
+            builder.expireAfterWrite(properties.getTimeToLive());
+        }
+        this.inventories = builder.build();
+        CaffeineCacheMetrics.monitor(meterRegistry, inventories, "inventory");
+        this.invalidations =
+                Counter.builder("inventory.cache.invalidations")
+                        .description("Cached inventories dropped after a write committed")
+                        .register(meterRegistry);
+        this.replacements =
+                Counter.builder("inventory.cache.replacements")
+                        .description("Cached inventories replaced by a newer version written")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * The cached inventory of the product code, loaded on a miss. Unknown products are not kept.
+     */
+    public Optional<Inventory> get(
+            String productCode, Function<String, Optional<Inventory>> loader) {
+        return Optional.ofNullable(
+                inventories.get(productCode, code -> loader.apply(code).orElse(null)));
+    }
+
+    public void invalidate(Collection<String> productCodes) {
+        inventories.invalidateAll(productCodes);
+        invalidations.increment(productCodes.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        Inventory written = event.inventory();
+        if (written == null) {
+            invalidate(event.productCodes());
+            return;
+        }
+        // only what is cached already, a write committing late must not bring back an old row
+        inventories
+                .asMap()
+                .computeIfPresent(
+                        written.getProductCode(),
+                        (productCode, cached) -> {
+                            if (isNewer(written.getVersion(), cached.getVersion())) {
+                                replacements.increment();
+                                return written;
+                            }
+                            return cached;
+                        });
+    }
+
+    // versions wrap around at Short.MAX_VALUE, so the difference decides rather than the values
+    static boolean isNewer(Short version, Short than) {
+        return (short) (version - than) > 0;
+    }
+}
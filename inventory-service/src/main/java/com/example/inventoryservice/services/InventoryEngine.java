@@ -0,0 +1,455 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import com.example.inventoryservice.utils.AppConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Reserves stock in memory and writes the decisions to the database behind them. The counters of a
+ * product are read from the database on first use and guarded by one of a fixed number of lock
+ * stripes, an order takes the stripes of its products in stripe order. Every decision is queued and
+ * flushed every {@code flushInterval}, or once {@code flushMaxSize} are waiting, in one transaction
+ * together with the next offset of each orders partition it came from. After a restart the counters
+ * are read again and the orders listener seeks to the saved offsets, so decisions lost with the
+ * memory are taken again while the reservation ledger keeps flushed ones from being applied twice.
+ * Counters changed by a write outside the engine are read again once that write has committed.
+ */
+@Service
+@ConditionalOnProperty(name = "application.inventory-engine.enabled", havingValue = "true")
+public class InventoryEngine implements AutoCloseable {
+
+    public enum Reservation {
+        ACCEPTED,
+        REJECTED,
+        UNKNOWN_PRODUCT
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryEngine.class);
+
+    private final InventoryJOOQRepository inventoryJOOQRepository;
+    private final TransactionOperations transactionOperations;
+    private final int flushMaxSize;
+
+    private final ReentrantLock[] stripes;
+    private final Map<String, Stock> stocks = new ConcurrentHashMap<>();
+    // taken in memory and not confirmed or released yet
+    private final Map<Long, Map<String, Integer>> reservations = new ConcurrentHashMap<>();
+    // settled in memory, until the flush has settled them in the ledger too
+    private final Set<Long> settling = ConcurrentHashMap.newKeySet();
+    private final BlockingDeque<Change> pending = new LinkedBlockingDeque<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    private final Counter contention;
+    private final Timer flushes;
+
+    public InventoryEngine(
+            InventoryJOOQRepository inventoryJOOQRepository,
+            TransactionOperations transactionOperations,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        ApplicationProperties.InventoryEngine properties =
+                applicationProperties.getInventoryEngine();
+        this.inventoryJOOQRepository = inventoryJOOQRepository;
+        this.transactionOperations = transactionOperations;
+        this.flushMaxSize = properties.getFlushMaxSize();
+        this.stripes = new ReentrantLock[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.contention =
+                Counter.builder("inventory.engine.stripe.contention")
+                        .description("Stripe locks that were held by another order when taken")
+                        .register(meterRegistry);
+        this.flushes =
+                Timer.builder("inventory.engine.flush")
+                        .description("Time to write queued decisions to the database")
+                        .register(meterRegistry);
+        Gauge.builder("inventory.engine.flush.pending", pending, Collection::size)
+                .description("Decisions waiting to be written to the database")
+                .register(meterRegistry);
+        TimeGauge.builder(
+                        "inventory.engine.flush.lag",
+                        pending,
+                        TimeUnit.NANOSECONDS,
+                        queue -> {
+                            Change oldest = queue.peekFirst();
+                            return oldest == null ? 0 : System.nanoTime() - oldest.queuedAt();
+                        })
+                .description("How long the oldest decision not in the database has waited")
+                .register(meterRegistry);
+
+        long interval = properties.getFlushInterval().toMillis();
+        this.flusher =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("inventory-engine-flush").daemon().factory());
+        flusher.scheduleWithFixedDelay(
+                this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Reserves all quantities of the order or none, a repeated order is accepted again. */
+    public Reservation reserve(Long orderId, Map<String, Integer> quantitiesByProductCode) {
+        List<ReentrantLock> locks = lock(quantitiesByProductCode.keySet());
+        try {
+            // settled in memory but not flushed yet is as good as reserved, see flush()
+            if (reservations.containsKey(orderId) || settling.contains(orderId)) {
+                return Reservation.ACCEPTED;
+            }
+            Map<String, Stock> loaded = load(quantitiesByProductCode.keySet());
+            if (loaded.size() != quantitiesByProductCode.size()) {
+                return Reservation.UNKNOWN_PRODUCT;
+            }
+            if (quantitiesByProductCode.entrySet().stream()
+                    .anyMatch(entry -> loaded.get(entry.getKey()).available < entry.getValue())) {
+                return Reservation.REJECTED;
+            }
+            quantitiesByProductCode.forEach(
+                    (productCode, quantity) -> loaded.get(productCode).reserve(quantity));
+            Map<String, Integer> quantities = Map.copyOf(quantitiesByProductCode);
+            reservations.put(orderId, quantities);
+            enqueue(new Reserved(orderId, quantities, System.nanoTime()));
+            return Reservation.ACCEPTED;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Takes what is reserved for the order off the reserved items.
+     *
+     * @return the number of products confirmed, 0 when already confirmed or released
+     */
+    public int confirm(Long orderId) {
+        return settle(orderId, true);
+    }
+
+    /**
+     * Moves what is reserved for the order back to available.
+     *
+     * @return the number of products released, 0 when already confirmed or released
+     */
+    public int release(Long orderId) {
+        return settle(orderId, false);
+    }
+
+    /** Marks the orders record at the offset as handled, its decisions are queued already. */
+    public void consumed(int partition, long offset) {
+        enqueue(new Consumed(partition, offset + 1, System.nanoTime()));
+    }
+
+    /** Where each orders partition continues after a restart, as of the last flush. */
+    public Map<Integer, Long> savedOffsets() {
+        return inventoryJOOQRepository.findOffsets(AppConstants.ORDERS_TOPIC);
+    }
+
+    /** Writes all queued decisions and the offsets they came from in one transaction. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Change> changes = new ArrayList<>();
+            pending.drainTo(changes);
+            if (changes.isEmpty()) {
+                return;
+            }
+            Map<Long, Map<String, Integer>> reserved = new LinkedHashMap<>();
+            List<Settled> settled = new ArrayList<>();
+            Map<Integer, Long> nextOffsets = new HashMap<>();
+            for (Change change : changes) {
+                switch (change) {
+                    case Reserved r -> reserved.put(r.orderId(), r.quantitiesByProductCode());
+                    case Settled s -> settled.add(s);
+                    case Consumed c -> nextOffsets.merge(c.partition(), c.nextOffset(), Math::max);
+                }
+            }
+            Map<Long, Map<String, Integer>> alreadyRecorded;
+            try {
+                alreadyRecorded =
+                        flushes.record(
+                                () ->
+                                        transactionOperations.execute(
+                                                status -> write(reserved, settled, nextOffsets)));
+            } catch (RuntimeException e) {
+                // back in front of the queue, in the order they were taken
+                for (int i = changes.size() - 1; i >= 0; i--) {
+                    pending.addFirst(changes.get(i));
+                }
+                throw e;
+            }
+            // replayed orders the ledger already held were counted twice in memory
+            alreadyRecorded.forEach(this::forget);
+            settled.forEach(s -> settling.remove(s.orderId()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the counters of products written outside the engine again, once the write has
+     * committed, and applies the decisions not flushed yet on top. No flush runs meanwhile, so
+     * every decision is either in the database or still queued.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        // written by a flush of this engine, memory was ahead of the database already
+        if (flushLock.isHeldByCurrentThread()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<ReentrantLock> locks = lock(event.productCodes());
+            try {
+                reload(event.productCodes());
+            } finally {
+                unlock(locks);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private Map<Long, Map<String, Integer>> write(
+            Map<Long, Map<String, Integer>> reserved,
+            List<Settled> settled,
+            Map<Integer, Long> nextOffsets) {
+        Map<Long, Map<String, Integer>> alreadyRecorded =
+                reserved.isEmpty() ? Map.of() : inventoryJOOQRepository.applyReservations(reserved);
+        for (Settled s : settled) {
+            if (s.confirmed()) {
+                inventoryJOOQRepository.confirmReservation(s.orderId());
+            } else {
+                inventoryJOOQRepository.releaseReservation(s.orderId());
+            }
+        }
+        inventoryJOOQRepository.saveOffsets(AppConstants.ORDERS_TOPIC, nextOffsets);
+        return alreadyRecorded;
+    }
+
+    private int settle(Long orderId, boolean confirmed) {
+        Map<String, Integer> quantities = reservations.get(orderId);
+        if (quantities == null) {
+            if (settling.contains(orderId)) {
+                return 0;
+            }
+            // reserved before the last restart, the ledger still holds it
+            quantities = inventoryJOOQRepository.findReservation(orderId);
+            if (quantities.isEmpty()) {
+                return 0;
+            }
+        }
+        List<ReentrantLock> locks = lock(quantities.keySet());
+        try {
+            if (!settling.add(orderId)) {
+                return 0;
+            }
+            reservations.remove(orderId);
+            Map<String, Stock> loaded = load(quantities.keySet());
+            quantities.forEach(
+                    (productCode, quantity) -> {
+                        Stock stock = loaded.get(productCode);
+                        if (stock != null) {
+                            stock.settle(quantity, confirmed);
+                        }
+                    });
+            enqueue(new Settled(orderId, confirmed, quantities, System.nanoTime()));
+            return quantities.size();
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    private void forget(Long orderId, Map<String, Integer> quantitiesByProductCode) {
+        List<ReentrantLock> locks = lock(quantitiesByProductCode.keySet());
+        try {
+            quantitiesByProductCode.forEach(
+                    (productCode, quantity) -> {
+                        Stock stock = stocks.get(productCode);
+                        if (stock != null) {
+                            stock.reserve(-quantity);
+                        }
+                    });
+            reservations.remove(orderId);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    // reads the counters missing in memory, the callers hold the stripes of all product codes
+    private Map<String, Stock> load(Collection<String> productCodes) {
+        List<String> missing = productCodes.stream().filter(c -> !stocks.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            for (Inventory inventory : inventoryJOOQRepository.findByProductCodeIn(missing)) {
+                stocks.put(
+                        inventory.getProductCode(),
+                        new Stock(inventory.getAvailableQuantity(), inventory.getReservedItems()));
+            }
+        }
+        Map<String, Stock> loaded = new HashMap<>();
+        productCodes.forEach(
+                productCode -> {
+                    Stock stock = stocks.get(productCode);
+                    if (stock != null) {
+                        loaded.put(productCode, stock);
+                    }
+                });
+        return loaded;
+    }
+
+    // the callers hold the flush lock and the stripes of all product codes
+    private void reload(Collection<String> productCodes) {
+        List<String> loaded = productCodes.stream().filter(stocks::containsKey).toList();
+        if (loaded.isEmpty()) {
+            return;
+        }
+        loaded.forEach(stocks::remove);
+        load(loaded);
+        for (Change change : pending) {
+            switch (change) {
+                case Reserved r ->
+                        r.quantitiesByProductCode()
+                                .forEach(
+                                        (productCode, quantity) -> {
+                                            Stock stock = reloaded(loaded, productCode);
+                                            if (stock != null) {
+                                                stock.reserve(quantity);
+                                            }
+                                        });
+                case Settled s ->
+                        s.quantitiesByProductCode()
+                                .forEach(
+                                        (productCode, quantity) -> {
+                                            Stock stock = reloaded(loaded, productCode);
+                                            if (stock != null) {
+                                                stock.settle(quantity, s.confirmed());
+                                            }
+                                        });
+                case Consumed c -> {
+                    // no counters
+                }
+            }
+        }
+    }
+
+    private Stock reloaded(List<String> reloadedCodes, String productCode) {
+        return reloadedCodes.contains(productCode) ? stocks.get(productCode) : null;
+    }
+
+    private List<ReentrantLock> lock(Collection<String> productCodes) {
+        List<ReentrantLock> locks =
+                productCodes.stream()
+                        .mapToInt(
+                                productCode ->
+                                        Math.floorMod(productCode.hashCode(), stripes.length))
+                        .distinct()
+                        .sorted()
+                        .mapToObj(i -> stripes[i])
+                        .toList();
+        for (ReentrantLock lock : locks) {
+            if (!lock.tryLock()) {
+                contention.increment();
+                lock.lock();
+            }
+        }
+        return locks;
+    }
+
+    private void unlock(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private void enqueue(Change change) {
+        pending.addLast(change);
+        if (pending.size() >= flushMaxSize && !flushLock.isLocked()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Unable to flush {} inventory decisions, will retry", pending.size(), e);
+        }
+    }
+
+    // guarded by the stripe of its product code
+    private static final class Stock {
+        private int available;
+        private int reserved;
+
+        private Stock(Integer available, Integer reserved) {
+            this.available = available == null ? 0 : available;
+            this.reserved = reserved == null ? 0 : reserved;
+        }
+
+        private void reserve(int quantity) {
+            available -= quantity;
+            reserved += quantity;
+        }
+
+        private void settle(int quantity, boolean confirmed) {
+            reserved -= quantity;
+            if (!confirmed) {
+                available += quantity;
+            }
+        }
+    }
+
+    private sealed interface Change {
+        long queuedAt();
+    }
+
+    private record Reserved(
+            Long orderId, Map<String, Integer> quantitiesByProductCode, long queuedAt)
+            implements Change {}
+
+    private record Settled(
+            Long orderId,
+            boolean confirmed,
+            Map<String, Integer> quantitiesByProductCode,
+            long queuedAt)
+            implements Change {}
+
+    private record Consumed(int partition, long nextOffset, long queuedAt) implements Change {}
+}
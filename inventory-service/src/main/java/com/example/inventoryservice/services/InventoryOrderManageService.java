@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
@@ -11,17 +11,18 @@ import com.example.common.dtos.OrderItemDto;
 import com.example.inventoryservice.config.logging.Loggable;
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.repositories.InventoryJOOQRepository;
-import com.example.inventoryservice.repositories.InventoryRepository;
 import com.example.inventoryservice.utils.AppConstants;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -30,17 +31,17 @@ public class InventoryOrderManageService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InventoryOrderManageService.class);
 
-    private final InventoryRepository inventoryRepository;
     private final InventoryJOOQRepository inventoryJOOQRepository;
     private final KafkaTemplate<Long, OrderDto> kafkaTemplate;
+    private final InventoryEngine inventoryEngine;
 
     public InventoryOrderManageService(
-            InventoryRepository inventoryRepository,
             InventoryJOOQRepository inventoryJOOQRepository,
-            KafkaTemplate<Long, OrderDto> kafkaTemplate) {
-        this.inventoryRepository = inventoryRepository;
+            KafkaTemplate<Long, OrderDto> kafkaTemplate,
+            @Nullable InventoryEngine inventoryEngine) {
         this.inventoryJOOQRepository = inventoryJOOQRepository;
         this.kafkaTemplate = kafkaTemplate;
+        this.inventoryEngine = inventoryEngine;
     }
 
     public void reserve(OrderDto orderDto) {
@@ -51,93 +52,174 @@ public class InventoryOrderManageService {
                     "Order status is not NEW, Hence Ignoring OrderID :{}", orderDto.getOrderId());
             return;
         }
-        List<String> productCodeList =
-                orderDto.getItems().stream().map(OrderItemDto::getProductId).toList();
-
-        List<Inventory> inventoryListFromDB =
-                inventoryJOOQRepository.findByProductCodeIn(productCodeList);
-
-        if (inventoryListFromDB.size() != productCodeList.size()) {
+        Map<String, Integer> quantitiesByProductCode = quantitiesByProductCode(orderDto);
+        boolean reserved;
+        boolean productsExist;
+        if (inventoryEngine != null) {
+            InventoryEngine.Reservation reservation =
+                    inventoryEngine.reserve(orderDto.getOrderId(), quantitiesByProductCode);
+            reserved = reservation == InventoryEngine.Reservation.ACCEPTED;
+            productsExist = reservation != InventoryEngine.Reservation.UNKNOWN_PRODUCT;
+        } else {
+            // one conditional update per product, all in one batch and all or nothing for the order
+            reserved =
+                    inventoryJOOQRepository.reserve(orderDto.getOrderId(), quantitiesByProductCode);
+            productsExist = reserved || allProductsExist(quantitiesByProductCode.keySet());
+        }
+        if (!productsExist) {
             LOGGER.error(
                     "Not all products requested exist, Hence Ignoring OrderID : {}",
                     orderDto.getOrderId());
             return;
         }
+        if (reserved) {
+            orderDto.setStatus("ACCEPT");
+            LOGGER.info(
+                    "Setting status as ACCEPT for productCodes : {}",
+                    quantitiesByProductCode.keySet());
+        } else {
+            LOGGER.info(
+                    "Setting status as REJECT for OrderId in Inventory Service as quantity not available : {}",
+                    orderDto.getOrderId());
+            orderDto.setStatus("REJECT");
+        }
 
-        Map<String, Inventory> inventoryMap = new HashMap<>();
-        inventoryListFromDB.forEach(
-                inventory -> inventoryMap.put(inventory.getProductCode(), inventory));
-
-        List<Inventory> updatedInventoryList = new ArrayList<>();
-
-        for (OrderItemDto orderItemDto : orderDto.getItems()) {
-            String productCode = orderItemDto.getProductId();
-            Inventory inventoryFromDB = inventoryMap.get(productCode);
+        sendReply(orderDto);
+    }
 
-            int productCount = orderItemDto.getQuantity();
-            if (productCount <= inventoryFromDB.getAvailableQuantity()) {
-                inventoryFromDB
-                        .setReservedItems(inventoryFromDB.getReservedItems() + productCount)
-                        .setAvailableQuantity(
-                                inventoryFromDB.getAvailableQuantity() - productCount);
-                updatedInventoryList.add(inventoryFromDB);
-            } else {
+    /**
+     * Reserves NEW orders together: all product codes are read with one query, the orders are
+     * accepted or rejected in the given order against that snapshot, and the stock of the accepted
+     * ones is reserved with one batch update. Orders the reservation ledger already holds are
+     * accepted again without touching the stock. When the stock has changed since it was read, the
+     * orders are reserved one at a time instead.
+     */
+    public void reserveAll(List<OrderDto> orderDtos) {
+        LOGGER.info("Reserving {} Orders in Inventory Service", orderDtos.size());
+        if (inventoryEngine != null) {
+            // decided in memory, one order at a time costs no more than a batch
+            orderDtos.forEach(this::reserve);
+            kafkaTemplate.flush();
+            return;
+        }
+        List<String> productCodes =
+                orderDtos.stream()
+                        .flatMap(orderDto -> orderDto.getItems().stream())
+                        .map(OrderItemDto::getProductId)
+                        .distinct()
+                        .toList();
+        Map<String, Integer> available =
+                inventoryJOOQRepository.findByProductCodeIn(productCodes).stream()
+                        .collect(
+                                Collectors.toMap(
+                                        Inventory::getProductCode,
+                                        Inventory::getAvailableQuantity));
+        // a redelivered order was accepted before and its stock is already reserved
+        Set<Long> recordedOrderIds =
+                inventoryJOOQRepository.findRecordedOrderIds(
+                        orderDtos.stream().map(OrderDto::getOrderId).distinct().toList());
+
+        Map<Long, Map<String, Integer>> reservedQuantities = new HashMap<>();
+        List<OrderDto> replies = new ArrayList<>(orderDtos.size());
+        Set<Long> decidedOrderIds = new HashSet<>();
+        for (OrderDto orderDto : orderDtos) {
+            // a copy in the same poll would take the stock a second time and reply again
+            if (!decidedOrderIds.add(orderDto.getOrderId())) {
                 LOGGER.info(
-                        "Setting status as REJECT for OrderId in Inventory Service as quantity not available : {}",
+                        "OrderID : {} appears more than once in the batch, decided once",
+                        orderDto.getOrderId());
+                continue;
+            }
+            if (recordedOrderIds.contains(orderDto.getOrderId())) {
+                orderDto.setStatus("ACCEPT");
+                replies.add(orderDto);
+                continue;
+            }
+            Map<String, Integer> quantities = quantitiesByProductCode(orderDto);
+            if (!available.keySet().containsAll(quantities.keySet())) {
+                LOGGER.error(
+                        "Not all products requested exist, Hence Ignoring OrderID : {}",
                         orderDto.getOrderId());
+                continue;
+            }
+            if (quantities.entrySet().stream()
+                    .allMatch(entry -> entry.getValue() <= available.get(entry.getKey()))) {
+                quantities.forEach(
+                        (productCode, quantity) ->
+                                available.merge(productCode, -quantity, Integer::sum));
+                reservedQuantities.put(orderDto.getOrderId(), quantities);
+                orderDto.setStatus("ACCEPT");
+            } else {
                 orderDto.setStatus("REJECT");
-                break;
             }
+            replies.add(orderDto);
         }
 
-        if (updatedInventoryList.size() == inventoryListFromDB.size()) {
-            orderDto.setStatus("ACCEPT");
-            LOGGER.info(
-                    "Setting status as ACCEPT for inventoryIds : {}",
-                    updatedInventoryList.stream().map(Inventory::getId).toList());
-            inventoryRepository.saveAll(updatedInventoryList);
+        if (!reservedQuantities.isEmpty()
+                && !inventoryJOOQRepository.reserveAll(reservedQuantities)) {
+            LOGGER.warn(
+                    "Stock changed while reserving {} Orders, reserving one at a time",
+                    replies.size());
+            replies.forEach(orderDto -> orderDto.setStatus("NEW"));
+            replies.forEach(this::reserve);
+            return;
         }
-
-        orderDto.setSource("INVENTORY");
-        // Send order to Kafka
-        kafkaTemplate.send(AppConstants.STOCK_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
-        LOGGER.info(
-                "Sent Order after reserving : {} from inventory service to topic {}",
-                orderDto,
-                AppConstants.STOCK_ORDERS_TOPIC);
+        // handed to the producer together, so the replies share as few requests as possible
+        replies.forEach(this::sendReply);
+        kafkaTemplate.flush();
     }
 
+    /**
+     * Settles what {@link #reserve(OrderDto)} recorded for the order in one statement, or in memory
+     * with the inventory engine, and a replayed event finds nothing left to settle.
+     */
     public void confirm(OrderDto orderDto) {
         LOGGER.info("Confirming Order in Inventory Service {}", orderDto);
-        List<String> productCodeList =
-                orderDto.getItems().stream().map(OrderItemDto::getProductId).toList();
-
-        Map<String, Inventory> inventoryMap =
-                inventoryJOOQRepository.findByProductCodeIn(productCodeList).stream()
-                        .collect(Collectors.toMap(Inventory::getProductCode, Function.identity()));
-
-        for (OrderItemDto orderItemDto : orderDto.getItems()) {
-            String productId = orderItemDto.getProductId();
-            Inventory inventory = inventoryMap.get(productId);
-
-            if (inventory != null) {
-                Integer productCount = orderItemDto.getQuantity();
-
-                if ("CONFIRMED".equals(orderDto.getStatus())) {
-                    inventory.setReservedItems(inventory.getReservedItems() - productCount);
-                } else if (AppConstants.ROLLBACK.equals(orderDto.getStatus())
-                        && !AppConstants.SOURCE.equalsIgnoreCase(orderDto.getSource())) {
-                    inventory
-                            .setReservedItems(inventory.getReservedItems() - productCount)
-                            .setAvailableQuantity(inventory.getAvailableQuantity() + productCount);
-                }
-            }
+        int settled;
+        if ("CONFIRMED".equals(orderDto.getStatus())) {
+            settled =
+                    inventoryEngine != null
+                            ? inventoryEngine.confirm(orderDto.getOrderId())
+                            : inventoryJOOQRepository.confirmReservation(orderDto.getOrderId());
+        } else if (AppConstants.ROLLBACK.equals(orderDto.getStatus())
+                && !AppConstants.SOURCE.equalsIgnoreCase(orderDto.getSource())) {
+            settled =
+                    inventoryEngine != null
+                            ? inventoryEngine.release(orderDto.getOrderId())
+                            : inventoryJOOQRepository.releaseReservation(orderDto.getOrderId());
+        } else {
+            return;
         }
 
-        inventoryRepository.saveAll(inventoryMap.values());
+        LOGGER.info(
+                "Settled {} reserved products of OrderId : {} as {}",
+                settled,
+                orderDto.getOrderId(),
+                orderDto.getStatus());
+    }
+
+    // only asked once a reservation failed, to tell unknown products apart from missing stock
+    private boolean allProductsExist(Set<String> productCodes) {
+        return inventoryJOOQRepository.findByProductCodeIn(List.copyOf(productCodes)).size()
+                == productCodes.size();
+    }
+
+    private Map<String, Integer> quantitiesByProductCode(OrderDto orderDto) {
+        return orderDto.getItems().stream()
+                .collect(
+                        Collectors.toMap(
+                                OrderItemDto::getProductId,
+                                OrderItemDto::getQuantity,
+                                Integer::sum));
+    }
 
+    private void sendReply(OrderDto orderDto) {
+        orderDto.setSource("INVENTORY");
+        // Send order to Kafka
+        kafkaTemplate.send(AppConstants.STOCK_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
         LOGGER.info(
-                "Saving inventoryIds : {} After Confirmation",
-                inventoryMap.values().stream().map(Inventory::getId).toList());
+                "Sent Order after reserving : {} from inventory service to topic {}",
+                orderDto,
+                AppConstants.STOCK_ORDERS_TOPIC);
     }
 }
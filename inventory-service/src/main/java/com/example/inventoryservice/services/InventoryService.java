@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -10,18 +10,32 @@ import com.example.inventoryservice.config.logging.Loggable;
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.mapper.InventoryMapper;
 import com.example.inventoryservice.model.request.InventoryRequest;
+import com.example.inventoryservice.model.response.BulkUpdateResult;
+import com.example.inventoryservice.model.response.CursorResult;
 import com.example.inventoryservice.model.response.PagedResult;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
 import com.example.inventoryservice.repositories.InventoryJOOQRepository;
 import com.example.inventoryservice.repositories.InventoryRepository;
+import com.example.inventoryservice.utils.ScrollCursors;
 import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
 @Transactional(readOnly = true)
@@ -29,30 +43,48 @@ import org.springframework.transaction.annotation.Transactional;
 public class InventoryService {
 
     private static final SecureRandom RAND = new SecureRandom();
+    private static final int BULK_CHUNK_SIZE = 1_000;
     private final InventoryRepository inventoryRepository;
 
     private final InventoryMapper inventoryMapper;
 
     private final InventoryJOOQRepository inventoryJOOQRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final InventoryCache inventoryCache;
+
     public InventoryService(
             InventoryRepository inventoryRepository,
             InventoryMapper inventoryMapper,
-            InventoryJOOQRepository inventoryJOOQRepository) {
+            InventoryJOOQRepository inventoryJOOQRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Nullable InventoryCache inventoryCache) {
         this.inventoryRepository = inventoryRepository;
         this.inventoryMapper = inventoryMapper;
         this.inventoryJOOQRepository = inventoryJOOQRepository;
+        this.eventPublisher = eventPublisher;
+        this.inventoryCache = inventoryCache;
     }
 
     public PagedResult<Inventory> findAllInventories(
-            int pageNo, int pageSize, String sortBy, String sortDir) {
-
-        Sort sort =
-                sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
-                        ? Sort.by(sortBy).ascending()
-                        : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        return new PagedResult<>(inventoryJOOQRepository.findAll(pageable));
+            int pageNo, int pageSize, String sortBy, String sortDir, boolean exactCount) {
+
+        Pageable pageable = PageRequest.of(pageNo, pageSize, getSort(sortBy, sortDir));
+        return new PagedResult<>(inventoryJOOQRepository.findAll(pageable, exactCount));
+    }
+
+    public CursorResult<Inventory> scrollInventories(
+            int size, String sortBy, String sortDir, String cursor) {
+        return new CursorResult<>(
+                inventoryJOOQRepository.findAll(
+                        getSort(sortBy, sortDir), size, ScrollCursors.decode(cursor)));
+    }
+
+    private Sort getSort(String sortBy, String sortDir) {
+        return sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
     }
 
     public Optional<Inventory> findInventoryById(Long id) {
@@ -67,39 +99,96 @@ public class InventoryService {
 
     @Transactional
     public void deleteInventoryById(Long id) {
-        inventoryRepository.deleteById(id);
+        inventoryRepository
+                .findById(id)
+                .ifPresent(
+                        inventory -> {
+                            inventoryRepository.delete(inventory);
+                            eventPublisher.publishEvent(
+                                    InventoryChangedEvent.of(List.of(inventory.getProductCode())));
+                        });
     }
 
     @Transactional
     public Inventory updateInventory(Inventory inventory, InventoryRequest inventoryRequest) {
+        String previousProductCode = inventory.getProductCode();
         this.inventoryMapper.updateInventoryFromRequest(inventoryRequest, inventory);
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        if (!saved.getProductCode().equals(previousProductCode)) {
+            // renamed, nothing is stored under the old code any more
+            eventPublisher.publishEvent(InventoryChangedEvent.of(List.of(previousProductCode)));
+        }
+        // the version is bumped on flush, before the event is handled after commit
+        eventPublisher.publishEvent(InventoryChangedEvent.of(saved));
+        return saved;
     }
 
+    // no transaction of its own, so a cache hit does not take a connection
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Inventory> findInventoryByProductCode(String productCode) {
-        return this.inventoryJOOQRepository.findByProductCode(productCode);
+        if (inventoryCache == null) {
+            return this.inventoryJOOQRepository.findByProductCode(productCode);
+        }
+        return inventoryCache.get(productCode, this.inventoryJOOQRepository::findByProductCode);
     }
 
     public List<Inventory> getInventoryByProductCodes(List<String> productCodes) {
         return this.inventoryJOOQRepository.findByProductCodeIn(productCodes);
     }
 
+    /** Hands the inventories of the product codes to the consumer as they are read. */
+    public void forEachInventoryByProductCodes(
+            Collection<String> productCodes, Consumer<Inventory> consumer) {
+        try (Stream<Inventory> inventories =
+                this.inventoryJOOQRepository.streamByProductCodeIn(productCodes)) {
+            inventories.forEach(consumer);
+        }
+    }
+
     @Transactional
     public void updateGeneratedInventory() {
+        Map<String, Integer> quantitiesByProductCode = new HashMap<>();
         IntStream.rangeClosed(0, 100)
                 .forEach(
-                        operand -> {
-                            int randomQuantity = RAND.nextInt(10_000) + 1;
-                            Optional<Inventory> inventoryByProductCode =
-                                    findInventoryByProductCode("ProductCode" + operand);
-                            inventoryByProductCode.ifPresent(
-                                    inventoryFromDB ->
-                                            updateInventory(
-                                                    inventoryFromDB,
-                                                    new InventoryRequest(
-                                                            "ProductCode" + operand,
-                                                            randomQuantity)));
-                        });
+                        operand ->
+                                quantitiesByProductCode.put(
+                                        "ProductCode" + operand, RAND.nextInt(10_000) + 1));
+        inventoryJOOQRepository.updateQuantities(quantitiesByProductCode);
+    }
+
+    /**
+     * Sets the available quantities read from the requests, {@value #BULK_CHUNK_SIZE} at a time
+     * with one statement and transaction per chunk. Chunks applied before a failure stay applied;
+     * of several changes to one product code within a chunk, the last one wins.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateResult updateInventories(Iterator<InventoryRequest> inventoryRequests) {
+        long received = 0;
+        long updated = 0;
+        long changed = 0;
+        long rejected = 0;
+        Map<String, Integer> chunk = new HashMap<>();
+        while (inventoryRequests.hasNext()) {
+            InventoryRequest inventoryRequest = inventoryRequests.next();
+            received++;
+            if (!StringUtils.hasText(inventoryRequest.productCode())
+                    || inventoryRequest.availableQuantity() == null
+                    || inventoryRequest.availableQuantity() < 0) {
+                rejected++;
+                continue;
+            }
+            chunk.put(inventoryRequest.productCode(), inventoryRequest.availableQuantity());
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                updated += inventoryJOOQRepository.updateQuantities(chunk);
+                changed += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            updated += inventoryJOOQRepository.updateQuantities(chunk);
+            changed += chunk.size();
+        }
+        return new BulkUpdateResult(received, updated, changed - updated, rejected);
     }
 
     @Transactional
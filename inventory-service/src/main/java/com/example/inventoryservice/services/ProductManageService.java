@@ -1,29 +1,88 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.services;
 
 import com.example.inventoryservice.config.logging.Loggable;
-import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.model.payload.ProductDto;
-import com.example.inventoryservice.repositories.InventoryRepository;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 @Loggable
 public class ProductManageService {
 
-    private final InventoryRepository inventoryRepository;
+    private static final Logger log = LoggerFactory.getLogger(ProductManageService.class);
 
-    public ProductManageService(InventoryRepository inventoryRepository) {
-        this.inventoryRepository = inventoryRepository;
+    private final InventoryJOOQRepository inventoryJOOQRepository;
+    private final Counter receivedProducts;
+    private final Counter createdInventories;
+    private final Counter skippedProducts;
+    private final Timer batchTimer;
+
+    public ProductManageService(
+            InventoryJOOQRepository inventoryJOOQRepository, MeterRegistry meterRegistry) {
+        this.inventoryJOOQRepository = inventoryJOOQRepository;
+        this.receivedProducts =
+                Counter.builder("inventory.products.received")
+                        .description("Product events consumed")
+                        .register(meterRegistry);
+        this.createdInventories =
+                Counter.builder("inventory.products.created")
+                        .description("Inventories created for new products")
+                        .register(meterRegistry);
+        this.skippedProducts =
+                Counter.builder("inventory.products.skipped")
+                        .description("Product events of products already having an inventory")
+                        .register(meterRegistry);
+        this.batchTimer =
+                Timer.builder("inventory.products.batch")
+                        .description("Time to create the inventories of one batch of products")
+                        .register(meterRegistry);
     }
 
     public void manage(ProductDto productDto) {
-        Inventory inventory = new Inventory().setProductCode(productDto.code());
-        this.inventoryRepository.save(inventory);
+        manageAll(List.of(productDto));
+    }
+
+    /**
+     * Creates the inventories of the products in one statement, products that already have one are
+     * skipped rather than failing the batch.
+     *
+     * @return the number of inventories created
+     */
+    public int manageAll(List<ProductDto> productDtos) {
+        receivedProducts.increment(productDtos.size());
+        Set<String> productCodes =
+                productDtos.stream()
+                        .map(ProductDto::code)
+                        .filter(StringUtils::hasText)
+                        .collect(Collectors.toSet());
+        int created =
+                productCodes.isEmpty()
+                        ? 0
+                        : batchTimer.record(
+                                () -> inventoryJOOQRepository.createMissing(productCodes));
+        int skipped = productDtos.size() - created;
+        createdInventories.increment(created);
+        skippedProducts.increment(skipped);
+        log.info(
+                "Created {} inventories for {} products, skipped {} already known",
+                created,
+                productDtos.size(),
+                skipped);
+        return created;
     }
 }
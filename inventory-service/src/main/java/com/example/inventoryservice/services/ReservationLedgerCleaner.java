@@ -0,0 +1,75 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes reservation ledger rows confirmed or released more than {@code retention} ago, every
+ * {@code cleanupInterval}. Rows still reserved are kept whatever their age.
+ */
+@Service
+public class ReservationLedgerCleaner implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationLedgerCleaner.class);
+
+    private final InventoryJOOQRepository inventoryJOOQRepository;
+    private final Duration retention;
+    private final ScheduledExecutorService cleaner;
+
+    private final Counter deleted;
+
+    public ReservationLedgerCleaner(
+            InventoryJOOQRepository inventoryJOOQRepository,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        ApplicationProperties.ReservationLedger properties =
+                applicationProperties.getReservationLedger();
+        this.inventoryJOOQRepository = inventoryJOOQRepository;
+        this.retention = properties.getRetention();
+        this.deleted =
+                Counter.builder("inventory.reservations.deleted")
+                        .description("Settled reservation ledger rows deleted")
+                        .register(meterRegistry);
+
+        long interval = properties.getCleanupInterval().toMillis();
+        this.cleaner =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("reservation-ledger-cleanup").daemon().factory());
+        cleaner.scheduleWithFixedDelay(
+                this::deleteExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void deleteExpired() {
+        try {
+            int count =
+                    inventoryJOOQRepository.deleteSettledReservations(
+                            LocalDateTime.now().minus(retention));
+            deleted.increment(count);
+            log.debug("Deleted {} settled reservation ledger rows", count);
+        } catch (RuntimeException e) {
+            log.error("Unable to delete settled reservation ledger rows, will retry", e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        cleaner.shutdown();
+        cleaner.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -17,6 +17,7 @@ public final class AppConstants {
     public static final String ROLLBACK = "ROLLBACK";
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "10";
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
     public static final String PRODUCT_TOPIC = "productTopic";
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -9,11 +9,22 @@ package com.example.inventoryservice.web.controllers;
 import com.example.inventoryservice.config.logging.Loggable;
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.model.request.InventoryRequest;
+import com.example.inventoryservice.model.response.BulkUpdateResult;
+import com.example.inventoryservice.model.response.CursorResult;
 import com.example.inventoryservice.model.response.PagedResult;
 import com.example.inventoryservice.services.InventoryService;
 import com.example.inventoryservice.utils.AppConstants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -26,16 +37,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/inventory")
+@Validated
 @Loggable
 class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
 
-    InventoryController(InventoryService inventoryService) {
+    InventoryController(InventoryService inventoryService, ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -47,8 +62,23 @@ class InventoryController {
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
                     String sortBy,
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
-                    String sortDir) {
-        return inventoryService.findAllInventories(pageNo, pageSize, sortBy, sortDir);
+                    String sortDir,
+            @RequestParam(defaultValue = "false", required = false) boolean exactCount) {
+        return inventoryService.findAllInventories(pageNo, pageSize, sortBy, sortDir, exactCount);
+    }
+
+    @GetMapping("/scroll")
+    CursorResult<Inventory> scrollInventories(
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    @Min(1)
+                    @Max(AppConstants.MAX_CURSOR_PAGE_SIZE)
+                    int size,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
+                    String sortBy,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
+                    String sortDir,
+            @RequestParam(required = false) String cursor) {
+        return inventoryService.scrollInventories(size, sortBy, sortDir, cursor);
     }
 
     @GetMapping("/{productCode}")
@@ -68,6 +98,32 @@ class InventoryController {
         return ResponseEntity.ok(inventoryService.getInventoryByProductCodes(codes));
     }
 
+    /**
+     * Same as {@link #getInventoryByProductCodes(List)} with the codes in the body, for lists too
+     * long for a query string. Inventories are written out as they are read from the database.
+     */
+    @PostMapping("/product")
+    ResponseEntity<StreamingResponseBody> streamInventoryByProductCodes(
+            @RequestBody List<String> codes) {
+        StreamingResponseBody body =
+                outputStream -> {
+                    try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                        generator.writeStartArray();
+                        inventoryService.forEachInventoryByProductCodes(
+                                codes,
+                                inventory -> {
+                                    try {
+                                        generator.writeObject(inventory);
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                });
+                        generator.writeEndArray();
+                    }
+                };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping("/generate")
     boolean updateInventoryWithRandomValue() {
         inventoryService.updateGeneratedInventory();
@@ -89,6 +145,21 @@ class InventoryController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Sets the available quantities of many products, sent as a JSON array or as newline delimited
+     * JSON. The body is read one change at a time and applied in chunks, so its size is not bound
+     * by memory.
+     */
+    @PutMapping(
+            path = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    BulkUpdateResult updateInventories(InputStream body) throws IOException {
+        try (MappingIterator<InventoryRequest> inventoryRequests =
+                objectMapper.readerFor(InventoryRequest.class).readValues(body)) {
+            return inventoryService.updateInventories(inventoryRequests);
+        }
+    }
+
     @DeleteMapping("/{id}")
     ResponseEntity<Inventory> deleteInventory(@PathVariable Long id) {
         return inventoryService
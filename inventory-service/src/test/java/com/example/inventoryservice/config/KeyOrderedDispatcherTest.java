@@ -0,0 +1,97 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class KeyOrderedDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<TopicPartition, Long> committable = new ConcurrentHashMap<>();
+    private final AtomicInteger acknowledged = new AtomicInteger();
+
+    @Test
+    void dispatch_SameKeyInOrder_OtherKeysConcurrently() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherKeyDone = new CountDownLatch(1);
+        List<Long> handled = new CopyOnWriteArrayList<>();
+        KeyOrderedDispatcher<Long, String> dispatcher =
+                new KeyOrderedDispatcher<>("orders", meterRegistry, committable::put);
+
+        // Act
+        try (dispatcher) {
+            dispatcher.dispatch(
+                    record(0, 1L),
+                    acknowledged::incrementAndGet,
+                    r -> {
+                        await(release);
+                        handled.add(r.offset());
+                    });
+            dispatcher.dispatch(
+                    record(1, 1L), acknowledged::incrementAndGet, r -> handled.add(r.offset()));
+            dispatcher.dispatch(
+                    record(2, 2L),
+                    acknowledged::incrementAndGet,
+                    r -> {
+                        handled.add(r.offset());
+                        otherKeyDone.countDown();
+                    });
+
+            // Assert, order 2 is not held up by order 1
+            assertThat(otherKeyDone.await(5, TimeUnit.SECONDS)).isTrue();
+            awaitCommittable(0L);
+            assertThat(handled).containsExactly(2L);
+            assertThat(gauge("kafka.listener.parallel.in.flight")).isEqualTo(2);
+            assertThat(gauge("kafka.listener.parallel.commit.lag")).isEqualTo(3);
+            release.countDown();
+        }
+        assertThat(handled).containsExactly(2L, 0L, 1L);
+        assertThat(acknowledged).hasValue(3);
+        assertThat(committable).containsEntry(new TopicPartition("orders", 0), 3L);
+        assertThat(gauge("kafka.listener.parallel.commit.lag")).isZero();
+        assertThat(meterRegistry.get("kafka.listener.parallel.key.queue.depth").summary().max())
+                .isOne();
+    }
+
+    private void awaitCommittable(long offset) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Long.valueOf(offset).equals(committable.get(new TopicPartition("orders", 0)))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(committable).containsEntry(new TopicPartition("orders", 0), offset);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static ConsumerRecord<Long, String> record(long offset, Long key) {
+        return new ConsumerRecord<>("orders", 0, offset, key, "order-" + key);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CachedCountTest {
+
+    private final AtomicLong counted = new AtomicLong();
+
+    @Test
+    void get_WithinTimeToLive_CountsOnce() {
+        // Arrange
+        CachedCount cachedCount = new CachedCount(Duration.ofHours(1), counted::incrementAndGet);
+
+        // Act
+        long first = cachedCount.get();
+        long second = cachedCount.get();
+
+        // Assert
+        assertThat(first).isOne();
+        assertThat(second).isOne();
+    }
+
+    @Test
+    void get_Expired_CountsAgain() {
+        // Arrange
+        CachedCount cachedCount = new CachedCount(Duration.ZERO, counted::incrementAndGet);
+
+        // Act
+        cachedCount.get();
+        long second = cachedCount.get();
+
+        // Assert
+        assertThat(second).isEqualTo(2);
+    }
+
+    @Test
+    void refreshAndInvalidate_CountAgain() {
+        // Arrange
+        CachedCount cachedCount = new CachedCount(Duration.ofHours(1), counted::incrementAndGet);
+        cachedCount.get();
+
+        // Act
+        long refreshed = cachedCount.refresh();
+        long cached = cachedCount.get();
+        cachedCount.invalidate();
+        long afterInvalidate = cachedCount.get();
+
+        // Assert
+        assertThat(refreshed).isEqualTo(2);
+        assertThat(cached).isEqualTo(2);
+        assertThat(afterInvalidate).isEqualTo(3);
+    }
+}
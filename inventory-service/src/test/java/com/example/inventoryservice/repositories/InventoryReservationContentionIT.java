@@ -0,0 +1,272 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.repositories;
+
+import static com.example.inventoryservice.jooq.tables.Inventory.INVENTORY;
+import static com.example.inventoryservice.jooq.tables.InventoryReservations.INVENTORY_RESERVATIONS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.inventoryservice.common.SQLContainersConfig;
+import com.example.inventoryservice.entities.Inventory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hammers 10 products with concurrent orders, comparing the conditional batch update of {@link
+ * InventoryJOOQRepository#reserve(Long, Map)} with the former read, check in Java and write back
+ * with a version check.
+ */
+@JooqTest(properties = {"spring.cloud.config.enabled=false"})
+@Import({SQLContainersConfig.class, InventoryJOOQRepositoryImpl.class})
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryReservationContentionIT {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(InventoryReservationContentionIT.class);
+
+    private static final int PRODUCTS = 10;
+    private static final int STOCK_PER_PRODUCT = 5_000;
+    private static final int ORDERS = 4_000;
+    private static final int THREADS = 32;
+
+    @Autowired private DSLContext dslContext;
+    @Autowired private InventoryJOOQRepository inventoryJOOQRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUpData() {
+        dslContext.deleteFrom(INVENTORY_RESERVATIONS).execute();
+        dslContext.deleteFrom(INVENTORY).execute();
+        for (int i = 0; i < PRODUCTS; i++) {
+            dslContext
+                    .newRecord(
+                            INVENTORY,
+                            new Inventory()
+                                    .setProductCode(productCode(i))
+                                    .setAvailableQuantity(STOCK_PER_PRODUCT)
+                                    .setReservedItems(0)
+                                    .setVersion((short) 0))
+                    .insert();
+        }
+    }
+
+    @Test
+    void reserve_OneProductShort_ReservesNothing() {
+        dslContext
+                .update(INVENTORY)
+                .set(INVENTORY.QUANTITY, 1)
+                .where(INVENTORY.PRODUCT_CODE.eq(productCode(1)))
+                .execute();
+
+        boolean reserved =
+                inventoryJOOQRepository.reserve(1L, Map.of(productCode(0), 5, productCode(1), 2));
+
+        assertThat(reserved).isFalse();
+        assertStock(productCode(0), STOCK_PER_PRODUCT, 0);
+        assertThat(dslContext.fetchCount(INVENTORY_RESERVATIONS)).isZero();
+    }
+
+    @Test
+    void reserveAndConfirm_Replayed_AppliedOnce() {
+        Map<String, Integer> order = Map.of(productCode(0), 5, productCode(1), 2);
+
+        assertThat(inventoryJOOQRepository.reserve(1L, order)).isTrue();
+        assertThat(inventoryJOOQRepository.reserve(1L, order)).isTrue();
+        assertStock(productCode(0), STOCK_PER_PRODUCT - 5, 5);
+
+        assertThat(inventoryJOOQRepository.confirmReservation(1L)).isEqualTo(2);
+        assertThat(inventoryJOOQRepository.confirmReservation(1L)).isZero();
+        assertThat(inventoryJOOQRepository.releaseReservation(1L)).isZero();
+        assertStock(productCode(0), STOCK_PER_PRODUCT - 5, 0);
+        assertStock(productCode(1), STOCK_PER_PRODUCT - 2, 0);
+    }
+
+    @Test
+    void releaseReservation_ReturnsStockOnce() {
+        inventoryJOOQRepository.reserveAll(
+                Map.of(1L, Map.of(productCode(0), 5), 2L, Map.of(productCode(0), 3)));
+
+        assertThat(inventoryJOOQRepository.releaseReservation(1L)).isOne();
+        assertThat(inventoryJOOQRepository.releaseReservation(1L)).isZero();
+        assertStock(productCode(0), STOCK_PER_PRODUCT - 3, 3);
+    }
+
+    @Test
+    void reserve_ConcurrentOrdersOnHotProducts() throws Exception {
+        List<Map<String, Integer>> orders = randomOrders();
+
+        AtomicLong orderIds = new AtomicLong();
+        AtomicInteger accepted = new AtomicInteger();
+        long conditional =
+                run(
+                        orders,
+                        order -> {
+                            if (inventoryJOOQRepository.reserve(
+                                    orderIds.incrementAndGet(), order)) {
+                                accepted.incrementAndGet();
+                            }
+                        });
+        assertStockIsConsistent(accepted.get());
+
+        setUpData();
+        AtomicInteger conflicts = new AtomicInteger();
+        long readCheckWrite =
+                run(
+                        orders,
+                        order -> {
+                            // retried until no other order changed the rows in between
+                            while (!readCheckWrite(order)) {
+                                conflicts.incrementAndGet();
+                            }
+                        });
+
+        log.info(
+                "{} orders on {} products from {} threads : conditional update {} ms ({} orders/s),"
+                        + " read-check-write {} ms ({} orders/s, {} version conflicts)",
+                ORDERS,
+                PRODUCTS,
+                THREADS,
+                conditional,
+                ORDERS * 1000L / Math.max(conditional, 1),
+                readCheckWrite,
+                ORDERS * 1000L / Math.max(readCheckWrite, 1),
+                conflicts.get());
+    }
+
+    private boolean readCheckWrite(Map<String, Integer> order) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> {
+                        Map<String, Inventory> rows =
+                                inventoryJOOQRepository
+                                        .findByProductCodeIn(List.copyOf(order.keySet()))
+                                        .stream()
+                                        .collect(
+                                                Collectors.toMap(
+                                                        Inventory::getProductCode,
+                                                        Function.identity()));
+                        if (order.entrySet().stream()
+                                .anyMatch(
+                                        e ->
+                                                rows.get(e.getKey()).getAvailableQuantity()
+                                                        < e.getValue())) {
+                            return;
+                        }
+                        order.forEach(
+                                (productCode, quantity) -> {
+                                    Inventory row = rows.get(productCode);
+                                    int updated =
+                                            dslContext
+                                                    .update(INVENTORY)
+                                                    .set(
+                                                            INVENTORY.QUANTITY,
+                                                            row.getAvailableQuantity() - quantity)
+                                                    .set(
+                                                            INVENTORY.RESERVED_ITEMS,
+                                                            row.getReservedItems() + quantity)
+                                                    .set(
+                                                            INVENTORY.VERSION,
+                                                            (short) (row.getVersion() + 1))
+                                                    .where(INVENTORY.PRODUCT_CODE.eq(productCode))
+                                                    .and(INVENTORY.VERSION.eq(row.getVersion()))
+                                                    .execute();
+                                    if (updated != 1) {
+                                        throw new OptimisticConflict();
+                                    }
+                                });
+                    });
+            return true;
+        } catch (OptimisticConflict e) {
+            return false;
+        }
+    }
+
+    private long run(List<Map<String, Integer>> orders, Consumer<Map<String, Integer>> reservation)
+            throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>(orders.size());
+            for (Map<String, Integer> order : orders) {
+                futures.add(executor.submit(() -> reservation.accept(order)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void assertStockIsConsistent(int accepted) {
+        List<Inventory> inventories = dslContext.selectFrom(INVENTORY).fetchInto(Inventory.class);
+        assertThat(inventories)
+                .allSatisfy(
+                        inventory -> {
+                            assertThat(inventory.getAvailableQuantity()).isNotNegative();
+                            assertThat(
+                                            inventory.getAvailableQuantity()
+                                                    + inventory.getReservedItems())
+                                    .isEqualTo(STOCK_PER_PRODUCT);
+                        });
+        assertThat(accepted).isPositive().isLessThanOrEqualTo(ORDERS);
+    }
+
+    private void assertStock(String productCode, int available, int reserved) {
+        assertThat(inventoryJOOQRepository.findByProductCode(productCode))
+                .get()
+                .extracting(Inventory::getAvailableQuantity, Inventory::getReservedItems)
+                .containsExactly(available, reserved);
+    }
+
+    private static List<Map<String, Integer>> randomOrders() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return IntStream.range(0, ORDERS)
+                .mapToObj(
+                        i -> {
+                            Map<String, Integer> order = new HashMap<>();
+                            int items = random.nextInt(1, 4);
+                            for (int k = 0; k < items; k++) {
+                                order.merge(
+                                        productCode(random.nextInt(PRODUCTS)),
+                                        random.nextInt(1, 4),
+                                        Integer::sum);
+                            }
+                            return order;
+                        })
+                .toList();
+    }
+
+    private static String productCode(int i) {
+        return "P%03d".formatted(i);
+    }
+
+    private static final class OptimisticConflict extends RuntimeException {}
+}
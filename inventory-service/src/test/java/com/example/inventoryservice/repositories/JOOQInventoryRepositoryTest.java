@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -11,7 +11,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.example.inventoryservice.common.SQLContainersConfig;
 import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.utils.ScrollCursors;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import org.jooq.DSLContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,13 +22,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jooq.JooqTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 @JooqTest(properties = {"spring.cloud.config.enabled=false"})
-@Import(SQLContainersConfig.class)
+@Import({SQLContainersConfig.class, InventoryJOOQRepositoryImpl.class})
 @AutoConfigureTestDatabase
 class JOOQInventoryRepositoryTest {
 
     @Autowired private DSLContext dslContext;
+    @Autowired private InventoryJOOQRepository inventoryJOOQRepository;
 
     @BeforeEach
     void setUpData() {
@@ -59,4 +68,108 @@ class JOOQInventoryRepositoryTest {
 
         assertThat(findAvailableInventory).isNotEmpty().hasSize(1);
     }
+
+    @Test
+    void findAll_WalksWindowsWithCursors() {
+        // quantities repeat, the id keeps the order between equal ones
+        for (int i = 0; i < 25; i++) {
+            dslContext
+                    .newRecord(
+                            INVENTORY,
+                            new Inventory()
+                                    .setProductCode("product" + i)
+                                    .setAvailableQuantity(i % 4)
+                                    .setReservedItems(0))
+                    .insert();
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "quantity");
+
+        List<Inventory> walked = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<Inventory> window;
+        do {
+            window = inventoryJOOQRepository.findAll(sort, 10, position);
+            walked.addAll(window.getContent());
+            if (window.hasNext()) {
+                // through the opaque cursor, as a client would
+                position =
+                        ScrollCursors.decode(
+                                ScrollCursors.encode(window.positionAt(window.size() - 1)));
+            }
+        } while (window.hasNext());
+
+        assertThat(walked)
+                .hasSize(25)
+                .extracting(Inventory::getId)
+                .doesNotHaveDuplicates()
+                .isEqualTo(
+                        inventoryJOOQRepository
+                                .findAll(PageRequest.of(0, 25, sort.and(Sort.by("id"))), true)
+                                .map(Inventory::getId)
+                                .getContent());
+    }
+
+    @Test
+    void findAll_CountsOnlyWhenThePageDoesNotTellTheTotal() {
+        dslContext
+                .newRecord(
+                        INVENTORY,
+                        new Inventory()
+                                .setProductCode("product1")
+                                .setAvailableQuantity(1)
+                                .setReservedItems(0))
+                .insert();
+
+        assertThat(inventoryJOOQRepository.findAll(PageRequest.of(0, 10)).getTotalElements())
+                .isOne();
+        assertThat(inventoryJOOQRepository.findAll(PageRequest.of(1, 10), true).getTotalElements())
+                .isOne();
+    }
+
+    @Test
+    void createMissing_SkipsExistingProducts() {
+        dslContext
+                .newRecord(
+                        INVENTORY,
+                        new Inventory()
+                                .setProductCode("product1")
+                                .setAvailableQuantity(7)
+                                .setReservedItems(0))
+                .insert();
+
+        int created =
+                inventoryJOOQRepository.createMissing(List.of("product1", "product2", "product3"));
+        int redelivered = inventoryJOOQRepository.createMissing(List.of("product2", "product3"));
+
+        assertThat(created).isEqualTo(2);
+        assertThat(redelivered).isZero();
+        assertThat(inventoryJOOQRepository.findByProductCode("product1"))
+                .get()
+                .extracting(Inventory::getAvailableQuantity)
+                .isEqualTo(7);
+        assertThat(inventoryJOOQRepository.findByProductCode("product3"))
+                .get()
+                .extracting(Inventory::getAvailableQuantity, Inventory::getVersion)
+                .containsExactly(0, (short) 0);
+    }
+
+    @Test
+    void findAndStreamByProductCodeIn_BindOneArray() {
+        inventoryJOOQRepository.createMissing(List.of("product1", "product2", "product3"));
+
+        List<Inventory> found =
+                inventoryJOOQRepository.findByProductCodeIn(List.of("product1", "product3", "x"));
+        List<Inventory> streamed;
+        try (Stream<Inventory> inventories =
+                inventoryJOOQRepository.streamByProductCodeIn(List.of("product2", "product3"))) {
+            streamed = inventories.toList();
+        }
+
+        assertThat(found)
+                .extracting(Inventory::getProductCode)
+                .containsExactlyInAnyOrder("product1", "product3");
+        assertThat(streamed)
+                .extracting(Inventory::getProductCode)
+                .containsExactlyInAnyOrder("product2", "product3");
+    }
 }
@@ -0,0 +1,101 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InventoryCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryCache inventoryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryCache = new InventoryCache(new ApplicationProperties(), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_LoadsOnceAndForgetsUnknownProducts() {
+        // Act
+        inventoryCache.get("P001", loader(inventory("P001", (short) 1)));
+        Optional<Inventory> cached = inventoryCache.get("P001", loader(null));
+        inventoryCache.get("P404", loader(null));
+        Optional<Inventory> unknown = inventoryCache.get("P404", loader(null));
+
+        // Assert
+        assertThat(cached).get().extracting(Inventory::getVersion).isEqualTo((short) 1);
+        assertThat(unknown).isEmpty();
+        assertThat(loads).hasValue(3);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+                .isOne();
+    }
+
+    @Test
+    void onInventoryChanged_ReplacesOnlyWithNewerVersions() {
+        // Arrange
+        inventoryCache.get("P001", loader(inventory("P001", (short) 5)));
+        inventoryCache.get("P002", loader(inventory("P002", (short) 1)));
+
+        // Act
+        inventoryCache.onInventoryChanged(InventoryChangedEvent.of(inventory("P001", (short) 4)));
+        Short afterOlder = cachedVersion("P001");
+        inventoryCache.onInventoryChanged(InventoryChangedEvent.of(inventory("P001", (short) 6)));
+        Short afterNewer = cachedVersion("P001");
+        inventoryCache.onInventoryChanged(InventoryChangedEvent.of(inventory("P003", (short) 1)));
+        inventoryCache.onInventoryChanged(InventoryChangedEvent.of(List.of("P002")));
+
+        // Assert
+        assertThat(afterOlder).isEqualTo((short) 5);
+        assertThat(afterNewer).isEqualTo((short) 6);
+        assertThat(inventoryCache.get("P003", loader(null))).isEmpty();
+        assertThat(inventoryCache.get("P002", loader(null))).isEmpty();
+        assertThat(meterRegistry.get("inventory.cache.replacements").counter().count()).isOne();
+        assertThat(meterRegistry.get("inventory.cache.invalidations").counter().count()).isOne();
+    }
+
+    @Test
+    void isNewer_AcrossTheWrapAround() {
+        assertThat(InventoryCache.isNewer(Short.MIN_VALUE, Short.MAX_VALUE)).isTrue();
+        assertThat(InventoryCache.isNewer(Short.MAX_VALUE, Short.MIN_VALUE)).isFalse();
+        assertThat(InventoryCache.isNewer((short) 1, (short) 1)).isFalse();
+    }
+
+    private Short cachedVersion(String productCode) {
+        return inventoryCache
+                .get(productCode, loader(null))
+                .map(Inventory::getVersion)
+                .orElse(null);
+    }
+
+    private Function<String, Optional<Inventory>> loader(Inventory inventory) {
+        return productCode -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(inventory);
+        };
+    }
+
+    private static Inventory inventory(String productCode, short version) {
+        return new Inventory()
+                .setProductCode(productCode)
+                .setAvailableQuantity(10)
+                .setVersion(version);
+    }
+}
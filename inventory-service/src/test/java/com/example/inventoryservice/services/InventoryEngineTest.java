@@ -0,0 +1,223 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import com.example.inventoryservice.utils.AppConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionOperations;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryEngineTest {
+
+    @Mock private InventoryJOOQRepository inventoryJOOQRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryEngine inventoryEngine;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        // flushed by the tests only
+        applicationProperties.getInventoryEngine().setFlushInterval(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryEngine =
+                new InventoryEngine(
+                        inventoryJOOQRepository,
+                        TransactionOperations.withoutTransaction(),
+                        applicationProperties,
+                        meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        inventoryEngine.close();
+    }
+
+    @Test
+    void reserve_AcceptsUntilStockRunsOut() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 0)));
+
+        // Act
+        InventoryEngine.Reservation first = inventoryEngine.reserve(1L, Map.of("product1", 3));
+        InventoryEngine.Reservation second = inventoryEngine.reserve(2L, Map.of("product1", 3));
+        InventoryEngine.Reservation replayed = inventoryEngine.reserve(1L, Map.of("product1", 3));
+
+        // Assert
+        assertThat(first).isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+        assertThat(second).isEqualTo(InventoryEngine.Reservation.REJECTED);
+        assertThat(replayed).isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+        // read once, decided in memory afterwards
+        verify(inventoryJOOQRepository, times(1)).findByProductCodeIn(List.of("product1"));
+        assertThat(meterRegistry.get("inventory.engine.flush.pending").gauge().value()).isOne();
+    }
+
+    @Test
+    void reserve_ReplayedAfterConfirmBeforeFlush_IsNotReservedAgain() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 6, 0)));
+        inventoryEngine.reserve(1L, Map.of("product1", 3));
+        inventoryEngine.confirm(1L);
+
+        // Act
+        InventoryEngine.Reservation replayed = inventoryEngine.reserve(1L, Map.of("product1", 3));
+        InventoryEngine.Reservation next = inventoryEngine.reserve(2L, Map.of("product1", 3));
+
+        // Assert
+        assertThat(replayed).isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+        assertThat(next).isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+        // the reservation and confirmation of order 1, then the reservation of order 2
+        assertThat(meterRegistry.get("inventory.engine.flush.pending").gauge().value())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void reserve_UnknownProduct() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of());
+
+        // Act
+        InventoryEngine.Reservation reservation =
+                inventoryEngine.reserve(1L, Map.of("product1", 1));
+
+        // Assert
+        assertThat(reservation).isEqualTo(InventoryEngine.Reservation.UNKNOWN_PRODUCT);
+    }
+
+    @Test
+    void flush_WritesDecisionsWithTheirOffsets() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 0)));
+        given(inventoryJOOQRepository.applyReservations(Map.of(1L, Map.of("product1", 3))))
+                .willReturn(Map.of());
+        inventoryEngine.reserve(1L, Map.of("product1", 3));
+        inventoryEngine.consumed(0, 41L);
+        inventoryEngine.confirm(1L);
+        inventoryEngine.consumed(0, 42L);
+
+        // Act
+        inventoryEngine.flush();
+
+        // Assert
+        verify(inventoryJOOQRepository).confirmReservation(1L);
+        verify(inventoryJOOQRepository).saveOffsets(AppConstants.ORDERS_TOPIC, Map.of(0, 43L));
+        assertThat(meterRegistry.get("inventory.engine.flush.pending").gauge().value()).isZero();
+        assertThat(inventoryEngine.confirm(1L)).isZero();
+    }
+
+    @Test
+    void flush_Fails_KeepsDecisionsForTheNextFlush() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 0)));
+        given(inventoryJOOQRepository.applyReservations(Map.of(1L, Map.of("product1", 3))))
+                .willThrow(new QueryTimeoutException("timeout"))
+                .willReturn(Map.of());
+        inventoryEngine.reserve(1L, Map.of("product1", 3));
+        inventoryEngine.consumed(0, 41L);
+
+        // Act
+        assertThatThrownBy(inventoryEngine::flush).isInstanceOf(QueryTimeoutException.class);
+        double pendingAfterFailure =
+                meterRegistry.get("inventory.engine.flush.pending").gauge().value();
+        inventoryEngine.flush();
+
+        // Assert
+        assertThat(pendingAfterFailure).isEqualTo(2);
+        verify(inventoryJOOQRepository, times(1))
+                .saveOffsets(AppConstants.ORDERS_TOPIC, Map.of(0, 42L));
+    }
+
+    @Test
+    void release_OrderReservedBeforeRestart_ReadsLedger() {
+        // Arrange
+        given(inventoryJOOQRepository.findReservation(7L)).willReturn(Map.of("product1", 2));
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 2)));
+
+        // Act
+        int released = inventoryEngine.release(7L);
+
+        // Assert
+        assertThat(released).isOne();
+        assertThat(inventoryEngine.reserve(8L, Map.of("product1", 7)))
+                .isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+    }
+
+    @Test
+    void onInventoryChanged_Restock_ReloadsKeepingUnflushedReservations() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 0)))
+                .willReturn(List.of(stock("product1", 10, 0)));
+        inventoryEngine.reserve(1L, Map.of("product1", 3));
+
+        // Act
+        inventoryEngine.onInventoryChanged(InventoryChangedEvent.of(List.of("product1")));
+
+        // Assert
+        // order 1 is not in the database yet, so 7 of the 10 restocked are left
+        assertThat(inventoryEngine.reserve(2L, Map.of("product1", 8)))
+                .isEqualTo(InventoryEngine.Reservation.REJECTED);
+        assertThat(inventoryEngine.reserve(3L, Map.of("product1", 7)))
+                .isEqualTo(InventoryEngine.Reservation.ACCEPTED);
+    }
+
+    @Test
+    void onInventoryChanged_ByOwnFlush_KeepsCounters() {
+        // Arrange
+        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1")))
+                .willReturn(List.of(stock("product1", 5, 0)));
+        given(inventoryJOOQRepository.applyReservations(Map.of(1L, Map.of("product1", 3))))
+                .willAnswer(
+                        invocation -> {
+                            inventoryEngine.onInventoryChanged(
+                                    InventoryChangedEvent.of(List.of("product1")));
+                            return Map.of();
+                        });
+        inventoryEngine.reserve(1L, Map.of("product1", 3));
+
+        // Act
+        inventoryEngine.flush();
+
+        // Assert
+        verify(inventoryJOOQRepository, times(1)).findByProductCodeIn(List.of("product1"));
+        assertThat(inventoryEngine.reserve(2L, Map.of("product1", 3)))
+                .isEqualTo(InventoryEngine.Reservation.REJECTED);
+    }
+
+    private static Inventory stock(String productCode, int available, int reserved) {
+        return new Inventory()
+                .setProductCode(productCode)
+                .setAvailableQuantity(available)
+                .setReservedItems(reserved);
+    }
+}
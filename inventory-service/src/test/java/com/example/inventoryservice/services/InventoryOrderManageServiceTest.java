@@ -1,14 +1,15 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -19,16 +20,14 @@ import com.example.common.dtos.OrderDto;
 import com.example.common.dtos.OrderItemDto;
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.repositories.InventoryJOOQRepository;
-import com.example.inventoryservice.repositories.InventoryRepository;
 import com.example.inventoryservice.utils.AppConstants;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -37,13 +36,10 @@ import org.springframework.kafka.core.KafkaTemplate;
 @ExtendWith(MockitoExtension.class)
 class InventoryOrderManageServiceTest {
 
-    @Mock private InventoryRepository inventoryRepository;
     @Mock private InventoryJOOQRepository inventoryJOOQRepository;
 
     @Mock private KafkaTemplate<Long, OrderDto> kafkaTemplate;
 
-    @Captor ArgumentCaptor<Collection<Inventory>> argumentCaptor;
-
     @InjectMocks private InventoryOrderManageService inventoryOrderManageService;
 
     @Test
@@ -56,22 +52,12 @@ class InventoryOrderManageServiceTest {
         List<OrderItemDto> orderItems = new ArrayList<>();
         orderItems.add(new OrderItemDto(1L, "product1", 10, BigDecimal.TEN));
         orderItems.add(new OrderItemDto(2L, "product2", 20, BigDecimal.TEN));
+        orderItems.add(new OrderItemDto(3L, "product2", 5, BigDecimal.TEN));
 
         orderDto.setItems(orderItems);
 
-        given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
-                .willReturn(
-                        List.of(
-                                new Inventory()
-                                        .setId(1L)
-                                        .setProductCode("product1")
-                                        .setAvailableQuantity(10)
-                                        .setReservedItems(0),
-                                new Inventory()
-                                        .setId(2L)
-                                        .setProductCode("product2")
-                                        .setAvailableQuantity(30)
-                                        .setReservedItems(0)));
+        given(inventoryJOOQRepository.reserve(1L, Map.of("product1", 10, "product2", 25)))
+                .willReturn(true);
 
         // Act
         inventoryOrderManageService.reserve(orderDto);
@@ -80,8 +66,7 @@ class InventoryOrderManageServiceTest {
         assertThat(orderDto.getStatus()).isEqualTo("ACCEPT");
         verify(kafkaTemplate, times(1))
                 .send(AppConstants.STOCK_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
-        verify(inventoryRepository, times(1)).saveAll(anyList());
-        verifyNoMoreInteractions(inventoryRepository, kafkaTemplate);
+        verifyNoMoreInteractions(inventoryJOOQRepository, kafkaTemplate);
     }
 
     @Test
@@ -97,6 +82,7 @@ class InventoryOrderManageServiceTest {
 
         orderDto.setItems(orderItems);
 
+        given(inventoryJOOQRepository.reserve(eq(1L), anyMap())).willReturn(false);
         given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
                 .willReturn(
                         List.of(
@@ -119,7 +105,7 @@ class InventoryOrderManageServiceTest {
         verify(kafkaTemplate, times(1))
                 .send(AppConstants.STOCK_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
         verify(inventoryJOOQRepository, times(1)).findByProductCodeIn(anyList());
-        verifyNoMoreInteractions(inventoryRepository, kafkaTemplate);
+        verifyNoMoreInteractions(kafkaTemplate);
     }
 
     @Test
@@ -134,6 +120,7 @@ class InventoryOrderManageServiceTest {
         orderItems.add(new OrderItemDto(2L, "product2", 20, BigDecimal.TEN));
         orderDto.setItems(orderItems);
 
+        given(inventoryJOOQRepository.reserve(eq(1L), anyMap())).willReturn(false);
         given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
                 .willReturn(
                         new ArrayList<>(
@@ -149,11 +136,137 @@ class InventoryOrderManageServiceTest {
 
         // Assert
         assertThat(orderDto.getStatus()).isEqualTo("NEW");
+        verify(inventoryJOOQRepository, times(1)).reserve(eq(1L), anyMap());
         verify(inventoryJOOQRepository, times(1)).findByProductCodeIn(anyList());
         verifyNoInteractions(kafkaTemplate);
         verifyNoMoreInteractions(inventoryJOOQRepository);
     }
 
+    @Test
+    void reserveAll_OrdersCompeteForStock_EarlierOrderWins() {
+        // Arrange
+        OrderDto first = newOrder(1L, new OrderItemDto(1L, "product1", 6, BigDecimal.TEN));
+        OrderDto second = newOrder(2L, new OrderItemDto(2L, "product1", 6, BigDecimal.TEN));
+        OrderDto third = newOrder(3L, new OrderItemDto(3L, "product2", 1, BigDecimal.TEN));
+        OrderDto unknown = newOrder(4L, new OrderItemDto(4L, "product3", 1, BigDecimal.TEN));
+
+        given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
+                .willReturn(
+                        List.of(
+                                new Inventory().setProductCode("product1").setAvailableQuantity(10),
+                                new Inventory()
+                                        .setProductCode("product2")
+                                        .setAvailableQuantity(1)));
+        given(
+                        inventoryJOOQRepository.reserveAll(
+                                Map.of(1L, Map.of("product1", 6), 3L, Map.of("product2", 1))))
+                .willReturn(true);
+
+        // Act
+        inventoryOrderManageService.reserveAll(List.of(first, second, third, unknown));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo("ACCEPT");
+        assertThat(second.getStatus()).isEqualTo("REJECT");
+        assertThat(third.getStatus()).isEqualTo("ACCEPT");
+        assertThat(unknown.getStatus()).isEqualTo("NEW");
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 1L, first);
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 2L, second);
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 3L, third);
+        verify(kafkaTemplate).flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void reserveAll_OrderAlreadyInLedger_AcceptedWithoutTakingStock() {
+        // Arrange
+        OrderDto redelivered = newOrder(1L, new OrderItemDto(1L, "product1", 6, BigDecimal.TEN));
+        OrderDto fresh = newOrder(2L, new OrderItemDto(2L, "product1", 6, BigDecimal.TEN));
+
+        given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
+                .willReturn(
+                        List.of(
+                                new Inventory()
+                                        .setProductCode("product1")
+                                        .setAvailableQuantity(6)));
+        given(inventoryJOOQRepository.findRecordedOrderIds(List.of(1L, 2L)))
+                .willReturn(Set.of(1L));
+        given(inventoryJOOQRepository.reserveAll(Map.of(2L, Map.of("product1", 6))))
+                .willReturn(true);
+
+        // Act
+        inventoryOrderManageService.reserveAll(List.of(redelivered, fresh));
+
+        // Assert
+        assertThat(redelivered.getStatus()).isEqualTo("ACCEPT");
+        assertThat(fresh.getStatus()).isEqualTo("ACCEPT");
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 1L, redelivered);
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 2L, fresh);
+        verify(kafkaTemplate).flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void reserveAll_OrderTwiceInBatch_DecidedAndRepliedOnce() {
+        // Arrange
+        OrderDto first = newOrder(1L, new OrderItemDto(1L, "product1", 6, BigDecimal.TEN));
+        OrderDto copy = newOrder(1L, new OrderItemDto(1L, "product1", 6, BigDecimal.TEN));
+        OrderDto second = newOrder(2L, new OrderItemDto(2L, "product1", 4, BigDecimal.TEN));
+
+        given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
+                .willReturn(
+                        List.of(
+                                new Inventory()
+                                        .setProductCode("product1")
+                                        .setAvailableQuantity(10)));
+        given(
+                        inventoryJOOQRepository.reserveAll(
+                                Map.of(1L, Map.of("product1", 6), 2L, Map.of("product1", 4))))
+                .willReturn(true);
+
+        // Act
+        inventoryOrderManageService.reserveAll(List.of(first, copy, second));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo("ACCEPT");
+        assertThat(copy.getStatus()).isEqualTo("NEW");
+        assertThat(second.getStatus()).isEqualTo("ACCEPT");
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 1L, first);
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 2L, second);
+        verify(kafkaTemplate).flush();
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void reserveAll_StockChangedSinceRead_ReservesOneByOne() {
+        // Arrange
+        OrderDto first = newOrder(1L, new OrderItemDto(1L, "product1", 6, BigDecimal.TEN));
+        OrderDto second = newOrder(2L, new OrderItemDto(2L, "product1", 2, BigDecimal.TEN));
+
+        given(inventoryJOOQRepository.findByProductCodeIn(anyList()))
+                .willReturn(
+                        List.of(
+                                new Inventory()
+                                        .setProductCode("product1")
+                                        .setAvailableQuantity(10)));
+        given(
+                        inventoryJOOQRepository.reserveAll(
+                                Map.of(1L, Map.of("product1", 6), 2L, Map.of("product1", 2))))
+                .willReturn(false);
+        given(inventoryJOOQRepository.reserve(1L, Map.of("product1", 6))).willReturn(true);
+        given(inventoryJOOQRepository.reserve(2L, Map.of("product1", 2))).willReturn(true);
+
+        // Act
+        inventoryOrderManageService.reserveAll(List.of(first, second));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo("ACCEPT");
+        assertThat(second.getStatus()).isEqualTo("ACCEPT");
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 1L, first);
+        verify(kafkaTemplate).send(AppConstants.STOCK_ORDERS_TOPIC, 2L, second);
+        verifyNoMoreInteractions(kafkaTemplate);
+    }
+
     @Test
     void reserve_OrderStatusIsNotNew_OrderIsRejected() {
         // Arrange
@@ -172,7 +285,7 @@ class InventoryOrderManageServiceTest {
 
         // Assert
         assertThat(orderDto.getStatus()).isEqualTo("REJECT");
-        verifyNoInteractions(kafkaTemplate, inventoryRepository);
+        verifyNoInteractions(kafkaTemplate, inventoryJOOQRepository);
     }
 
     @Test
@@ -181,36 +294,17 @@ class InventoryOrderManageServiceTest {
         OrderDto orderDto = new OrderDto();
         orderDto.setOrderId(1L);
         orderDto.setStatus("CONFIRMED");
-        List<OrderItemDto> orderItems = new ArrayList<>();
-        orderItems.add(new OrderItemDto(1L, "product1", 10, BigDecimal.TEN));
-        orderItems.add(new OrderItemDto(1L, "product2", 20, BigDecimal.TEN));
-        orderDto.setItems(orderItems);
+        orderDto.setItems(List.of(new OrderItemDto(1L, "product1", 10, BigDecimal.TEN)));
 
-        List<Inventory> inventoryList = new ArrayList<>();
-        inventoryList.add(
-                new Inventory()
-                        .setId(1L)
-                        .setProductCode("product1")
-                        .setAvailableQuantity(0)
-                        .setReservedItems(0));
-        inventoryList.add(
-                new Inventory()
-                        .setId(2L)
-                        .setProductCode("product2")
-                        .setAvailableQuantity(0)
-                        .setReservedItems(0));
-
-        given(inventoryJOOQRepository.findByProductCodeIn(anyList())).willReturn(inventoryList);
+        given(inventoryJOOQRepository.confirmReservation(1L)).willReturn(1);
 
         // Act
         inventoryOrderManageService.confirm(orderDto);
 
         // Assert
-        verify(inventoryJOOQRepository, times(1))
-                .findByProductCodeIn(List.of("product1", "product2"));
-        verify(inventoryRepository, times(1)).saveAll(anyCollection());
         assertThat(orderDto.getStatus()).isEqualTo("CONFIRMED");
-        verifyNoMoreInteractions(inventoryRepository, kafkaTemplate);
+        verifyNoMoreInteractions(inventoryJOOQRepository);
+        verifyNoInteractions(kafkaTemplate);
     }
 
     @Test
@@ -219,48 +313,40 @@ class InventoryOrderManageServiceTest {
         OrderDto orderDto = new OrderDto();
         orderDto.setOrderId(1L);
         orderDto.setStatus("ROLLBACK");
-        List<OrderItemDto> orderItems = new ArrayList<>();
-        orderItems.add(new OrderItemDto(1L, "product1", 10, BigDecimal.TEN));
-        orderItems.add(new OrderItemDto(1L, "product2", 20, BigDecimal.TEN));
-        orderDto.setItems(orderItems);
+        orderDto.setSource("PAYMENT");
+        orderDto.setItems(List.of(new OrderItemDto(1L, "product1", 10, BigDecimal.TEN)));
 
-        List<Inventory> inventoryList = new ArrayList<>();
-        inventoryList.add(
-                new Inventory()
-                        .setId(1L)
-                        .setProductCode("product1")
-                        .setAvailableQuantity(10)
-                        .setReservedItems(0));
-        inventoryList.add(
-                new Inventory()
-                        .setId(2L)
-                        .setProductCode("product2")
-                        .setAvailableQuantity(20)
-                        .setReservedItems(0));
-
-        given(inventoryJOOQRepository.findByProductCodeIn(List.of("product1", "product2")))
-                .willReturn(inventoryList);
+        given(inventoryJOOQRepository.releaseReservation(1L)).willReturn(1);
 
         // Act
         inventoryOrderManageService.confirm(orderDto);
 
         // Assert
         assertThat(orderDto.getStatus()).isEqualTo("ROLLBACK");
-        verify(inventoryJOOQRepository, times(1))
-                .findByProductCodeIn(List.of("product1", "product2"));
-        verify(inventoryRepository, times(1)).saveAll(argumentCaptor.capture());
-        assertThat(argumentCaptor.getValue())
-                .isNotNull()
-                .isNotEmpty()
-                .hasSize(2)
-                .satisfies(
-                        inventory -> {
-                            List<? extends Inventory> list = inventory.stream().toList();
-                            assertThat(list.getFirst().getAvailableQuantity()).isIn(20, 40);
-                            assertThat(list.getFirst().getReservedItems()).isIn(-10, -20);
-                            assertThat(list.get(1).getAvailableQuantity()).isIn(20, 40);
-                            assertThat(list.get(1).getReservedItems()).isIn(-10, -20);
-                        });
-        verifyNoMoreInteractions(inventoryRepository, kafkaTemplate);
+        verifyNoMoreInteractions(inventoryJOOQRepository);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void confirmWhenInventoryRejectedOrder_NothingToRelease() {
+        // Arrange
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(1L);
+        orderDto.setStatus("ROLLBACK");
+        orderDto.setSource("INVENTORY");
+
+        // Act
+        inventoryOrderManageService.confirm(orderDto);
+
+        // Assert
+        verifyNoInteractions(inventoryJOOQRepository, kafkaTemplate);
+    }
+
+    private static OrderDto newOrder(Long orderId, OrderItemDto... items) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setStatus("NEW");
+        orderDto.setItems(new ArrayList<>(List.of(items)));
+        return orderDto;
     }
 }
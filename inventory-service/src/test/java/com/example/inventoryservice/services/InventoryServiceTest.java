@@ -1,28 +1,34 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2024-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.inventoryservice.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.*;
 
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.mapper.InventoryMapper;
 import com.example.inventoryservice.model.request.InventoryRequest;
+import com.example.inventoryservice.model.response.BulkUpdateResult;
+import com.example.inventoryservice.repositories.InventoryChangedEvent;
 import com.example.inventoryservice.repositories.InventoryJOOQRepository;
 import com.example.inventoryservice.repositories.InventoryRepository;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class InventoryServiceTest {
@@ -30,41 +36,68 @@ class InventoryServiceTest {
     @Mock private InventoryRepository inventoryRepository;
     @Mock private InventoryMapper inventoryMapper;
     @Mock private InventoryJOOQRepository inventoryJOOQRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks private InventoryService inventoryService;
 
+    @Captor private ArgumentCaptor<Map<String, Integer>> quantitiesCaptor;
+
     @Test
     void testUpdateGeneratedInventory() {
         // Mock the behavior of dependencies
-        given(inventoryJOOQRepository.findByProductCode(anyString()))
-                .willReturn(
-                        Optional.of(
-                                new Inventory()
-                                        .setId(1L)
-                                        .setProductCode("ProductCode1")
-                                        .setAvailableQuantity(100)
-                                        .setReservedItems(0)));
-        willDoNothing()
-                .given(inventoryMapper)
-                .updateInventoryFromRequest(any(InventoryRequest.class), any(Inventory.class));
-        doAnswer(
-                        invocation -> {
-                            Inventory inventory = invocation.getArgument(0);
-                            assertThat(inventory.getProductCode()).contains("ProductCode");
-                            assertThat(
-                                            inventory.getAvailableQuantity() >= 1
-                                                    && inventory.getAvailableQuantity() <= 10000)
-                                    .isTrue();
-                            return null;
-                        })
-                .when(inventoryRepository)
-                .save(any(Inventory.class));
+        given(inventoryJOOQRepository.updateQuantities(quantitiesCaptor.capture())).willReturn(101);
 
         // Execute the method to test
         inventoryService.updateGeneratedInventory();
 
-        // Verify interactions
-        verify(inventoryJOOQRepository, times(101)).findByProductCode(anyString());
-        verify(inventoryRepository, times(101)).save(any(Inventory.class));
+        // Verify interactions, one statement for all generated quantities
+        verify(inventoryJOOQRepository, times(1)).updateQuantities(anyMap());
+        verifyNoInteractions(inventoryRepository);
+        assertThat(quantitiesCaptor.getValue())
+                .hasSize(101)
+                .containsKeys("ProductCode0", "ProductCode100")
+                .allSatisfy((productCode, quantity) -> assertThat(quantity).isBetween(1, 10_000));
+    }
+
+    @Test
+    void updateInventories_AppliesChunksAndSummarizes() {
+        // Arrange
+        List<InventoryRequest> inventoryRequests = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            inventoryRequests.add(new InventoryRequest("P%04d".formatted(i), i));
+        }
+        inventoryRequests.add(new InventoryRequest(" ", 1));
+        inventoryRequests.add(new InventoryRequest("P0001", -1));
+        inventoryRequests.add(new InventoryRequest("P0002", null));
+        given(inventoryJOOQRepository.updateQuantities(anyMap()))
+                .willAnswer(invocation -> invocation.<Map<String, Integer>>getArgument(0).size())
+                // the last chunk names 100 unknown product codes
+                .willAnswer(invocation -> invocation.<Map<String, Integer>>getArgument(0).size())
+                .willReturn(400);
+
+        // Act
+        BulkUpdateResult result = inventoryService.updateInventories(inventoryRequests.iterator());
+
+        // Assert
+        verify(inventoryJOOQRepository, times(3)).updateQuantities(anyMap());
+        assertThat(result).isEqualTo(new BulkUpdateResult(2_503, 2_400, 100, 3));
+    }
+
+    @Test
+    void updateInventory_RenamedProductCodeDropsTheOldOne() {
+        // Arrange
+        Inventory inventory = new Inventory().setProductCode("P001").setAvailableQuantity(10);
+        InventoryRequest inventoryRequest = new InventoryRequest("P002", 10);
+        willAnswer(invocation -> inventory.setProductCode("P002"))
+                .given(inventoryMapper)
+                .updateInventoryFromRequest(inventoryRequest, inventory);
+        given(inventoryRepository.save(inventory)).willReturn(inventory);
+
+        // Act
+        inventoryService.updateInventory(inventory, inventoryRequest);
+
+        // Assert
+        verify(eventPublisher).publishEvent(InventoryChangedEvent.of(List.of("P001")));
+        verify(eventPublisher).publishEvent(InventoryChangedEvent.of(inventory));
     }
 }
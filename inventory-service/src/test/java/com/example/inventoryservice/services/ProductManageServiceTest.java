@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -11,27 +11,37 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.model.payload.ProductDto;
-import com.example.inventoryservice.repositories.InventoryRepository;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import org.instancio.Instancio;
 import org.instancio.junit.InstancioExtension;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith({MockitoExtension.class, InstancioExtension.class})
 class ProductManageServiceTest {
 
-    @Captor private ArgumentCaptor<Inventory> argumentCaptor;
+    @Captor private ArgumentCaptor<Collection<String>> argumentCaptor;
 
-    @Mock private InventoryRepository inventoryRepository;
+    @Mock private InventoryJOOQRepository inventoryJOOQRepository;
 
-    @InjectMocks private ProductManageService productManageService;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductManageService productManageService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productManageService = new ProductManageService(inventoryJOOQRepository, meterRegistry);
+    }
 
     @Test
     void manage() {
@@ -39,20 +49,35 @@ class ProductManageServiceTest {
 
         ProductDto productDto = Instancio.create(ProductDto.class);
 
-        given(inventoryRepository.save(argumentCaptor.capture()))
-                .willAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        given(inventoryJOOQRepository.createMissing(argumentCaptor.capture())).willReturn(1);
 
         // Act
         productManageService.manage(productDto);
 
         // Assert
-        verify(inventoryRepository, times(1)).save(argumentCaptor.capture());
-        assertThat(argumentCaptor.getValue())
-                .isNotNull()
-                .satisfies(
-                        inventory -> {
-                            assertThat(inventory.getProductCode()).isNotBlank();
-                            assertThat(inventory.getId()).isNull();
-                        });
+        verify(inventoryJOOQRepository, times(1)).createMissing(argumentCaptor.capture());
+        assertThat(argumentCaptor.getValue()).containsExactly(productDto.code());
+    }
+
+    @Test
+    void manageAll_RedeliveredProducts_AreCountedAsSkipped() {
+        // Arrange
+        List<ProductDto> productDtos =
+                List.of(
+                        new ProductDto("P001", "first", null, 1.0),
+                        new ProductDto("P002", "second", null, 2.0),
+                        new ProductDto("P001", "first", null, 1.0),
+                        new ProductDto(" ", "blank", null, 3.0));
+        given(inventoryJOOQRepository.createMissing(Set.of("P001", "P002"))).willReturn(1);
+
+        // Act
+        int created = productManageService.manageAll(productDtos);
+
+        // Assert
+        assertThat(created).isOne();
+        assertThat(meterRegistry.get("inventory.products.received").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("inventory.products.created").counter().count()).isOne();
+        assertThat(meterRegistry.get("inventory.products.skipped").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("inventory.products.batch").timer().count()).isOne();
     }
 }
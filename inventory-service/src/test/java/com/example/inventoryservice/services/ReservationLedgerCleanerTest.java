@@ -0,0 +1,86 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import com.example.inventoryservice.config.ApplicationProperties;
+import com.example.inventoryservice.repositories.InventoryJOOQRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationLedgerCleanerTest {
+
+    @Mock private InventoryJOOQRepository inventoryJOOQRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationLedgerCleaner reservationLedgerCleaner;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getReservationLedger().setRetention(Duration.ofDays(2));
+        // cleaned up by the tests only
+        applicationProperties.getReservationLedger().setCleanupInterval(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+        reservationLedgerCleaner =
+                new ReservationLedgerCleaner(
+                        inventoryJOOQRepository, applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        reservationLedgerCleaner.close();
+    }
+
+    @Test
+    void deleteExpired_DeletesRowsSettledBeforeTheRetention() {
+        // Arrange
+        given(inventoryJOOQRepository.deleteSettledReservations(any(LocalDateTime.class)))
+                .willReturn(3);
+
+        // Act
+        LocalDateTime before = LocalDateTime.now().minusDays(2);
+        reservationLedgerCleaner.deleteExpired();
+        LocalDateTime after = LocalDateTime.now().minusDays(2);
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> settledBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(inventoryJOOQRepository).deleteSettledReservations(settledBefore.capture());
+        assertThat(settledBefore.getValue()).isBetween(before, after);
+        assertThat(meterRegistry.get("inventory.reservations.deleted").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void deleteExpired_FailedDelete_IsRetriedLater() {
+        // Arrange
+        given(inventoryJOOQRepository.deleteSettledReservations(any(LocalDateTime.class)))
+                .willThrow(new QueryTimeoutException("timeout"))
+                .willReturn(1);
+
+        // Act
+        reservationLedgerCleaner.deleteExpired();
+        reservationLedgerCleaner.deleteExpired();
+
+        // Assert
+        assertThat(meterRegistry.get("inventory.reservations.deleted").counter().count()).isOne();
+    }
+}
@@ -0,0 +1,96 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.web.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.inventoryservice.common.AbstractIntegrationTest;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.model.request.InventoryRequest;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Sets the quantities of {@value #PRODUCTS} products through {@code PUT /api/inventory/{id}}, one
+ * request per product, and then through a single NDJSON {@code PUT /api/inventory/bulk}, logging
+ * the throughput of both.
+ */
+class InventoryBulkUpdateIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryBulkUpdateIT.class);
+
+    private static final int PRODUCTS = 2_000;
+
+    private List<String> productCodes;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAllInBatch();
+        productCodes = IntStream.range(0, PRODUCTS).mapToObj("BULK%05d"::formatted).toList();
+        inventoryJOOQRepository.createMissing(productCodes);
+    }
+
+    @Test
+    void bulkUpdate_ComparedWithPerRowUpdates() throws Exception {
+        List<Inventory> inventories = inventoryJOOQRepository.findByProductCodeIn(productCodes);
+        long perRowStart = System.nanoTime();
+        for (Inventory inventory : inventories) {
+            this.mockMvc
+                    .perform(
+                            put("/api/inventory/{id}", inventory.getId())
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(
+                                            objectMapper.writeValueAsString(
+                                                    new InventoryRequest(
+                                                            inventory.getProductCode(), 10))))
+                    .andExpect(status().isOk());
+        }
+        long perRow = (System.nanoTime() - perRowStart) / 1_000_000;
+
+        String changes =
+                productCodes.stream()
+                        .map(
+                                productCode ->
+                                        "{\"productCode\":\"%s\",\"quantity\":20}"
+                                                .formatted(productCode))
+                        .collect(Collectors.joining("\n"));
+        long bulkStart = System.nanoTime();
+        this.mockMvc
+                .perform(
+                        put("/api/inventory/bulk")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(changes))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(PRODUCTS)))
+                .andExpect(jsonPath("$.updated", is(PRODUCTS)))
+                .andExpect(jsonPath("$.notFound", is(0)));
+        long bulk = (System.nanoTime() - bulkStart) / 1_000_000;
+
+        assertThat(inventoryJOOQRepository.findByProductCodeIn(productCodes))
+                .hasSize(PRODUCTS)
+                .allSatisfy(
+                        inventory -> assertThat(inventory.getAvailableQuantity()).isEqualTo(20));
+        log.info(
+                "{} quantity changes : per-row PUT {} ms ({} changes/s), bulk PUT {} ms ({}"
+                        + " changes/s)",
+                PRODUCTS,
+                perRow,
+                PRODUCTS * 1000L / Math.max(perRow, 1),
+                bulk,
+                PRODUCTS * 1000L / Math.max(bulk, 1));
+    }
+}
@@ -0,0 +1,119 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.inventoryservice.web.controllers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.inventoryservice.common.AbstractIntegrationTest;
+import com.example.inventoryservice.entities.Inventory;
+import com.example.inventoryservice.model.request.InventoryRequest;
+import com.example.inventoryservice.services.InventoryCache;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Reads {@value #PRODUCTS} inventories through {@code GET /api/inventory/{productCode}} with the
+ * cache emptied before every request and then with it warm, logging the p99 latency of both, and
+ * checks that writes are visible to the next read.
+ */
+@TestPropertySource(properties = "application.inventory-cache.enabled=true")
+class InventoryCacheIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryCacheIT.class);
+
+    private static final int PRODUCTS = 200;
+    private static final int ROUNDS = 10;
+
+    @Autowired private InventoryCache inventoryCache;
+
+    private List<String> productCodes;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAllInBatch();
+        productCodes = IntStream.range(0, PRODUCTS).mapToObj("CACHE%04d"::formatted).toList();
+        inventoryJOOQRepository.createMissing(productCodes);
+        inventoryJOOQRepository.updateQuantities(
+                productCodes.stream().collect(Collectors.toMap(Function.identity(), code -> 10)));
+    }
+
+    @Test
+    void cachedReads_ComparedWithUncachedReads() throws Exception {
+        long[] uncached = new long[PRODUCTS * ROUNDS];
+        long[] cached = new long[PRODUCTS * ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                String productCode = productCodes.get(i);
+                inventoryCache.invalidate(List.of(productCode));
+                uncached[round * PRODUCTS + i] = timeRead(productCode);
+                cached[round * PRODUCTS + i] = timeRead(productCode);
+            }
+        }
+
+        log.info(
+                "{} reads by product code : uncached p99 {} µs, cached p99 {} µs",
+                PRODUCTS * ROUNDS,
+                p99(uncached) / 1_000,
+                p99(cached) / 1_000);
+    }
+
+    @Test
+    void writesAreVisibleToTheNextRead() throws Exception {
+        String productCode = productCodes.getFirst();
+        timeRead(productCode);
+
+        inventoryJOOQRepository.updateQuantities(Map.of(productCode, 20));
+        this.mockMvc
+                .perform(get("/api/inventory/{productCode}", productCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableQuantity", is(20)));
+
+        Inventory inventory = inventoryJOOQRepository.findByProductCode(productCode).orElseThrow();
+        this.mockMvc
+                .perform(
+                        put("/api/inventory/{id}", inventory.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                new InventoryRequest(productCode, 30))))
+                .andExpect(status().isOk());
+        this.mockMvc
+                .perform(get("/api/inventory/{productCode}", productCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableQuantity", is(30)))
+                .andExpect(jsonPath("$.version", is(inventory.getVersion() + 1)));
+    }
+
+    private long timeRead(String productCode) throws Exception {
+        long start = System.nanoTime();
+        this.mockMvc
+                .perform(get("/api/inventory/{productCode}", productCode))
+                .andExpect(status().isOk());
+        return System.nanoTime() - start;
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+    }
+}
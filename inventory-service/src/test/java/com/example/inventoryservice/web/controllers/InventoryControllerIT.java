@@ -21,6 +21,8 @@ import com.example.inventoryservice.common.AbstractIntegrationTest;
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.model.request.InventoryRequest;
 import com.example.inventoryservice.repositories.InventoryRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import org.instancio.Instancio;
 import org.instancio.junit.InstancioExtension;
@@ -66,6 +68,25 @@ class InventoryControllerIT extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldRejectInvalidScrollCursors() throws Exception {
+        List<String> cursors =
+                List.of(
+                        "not-a-cursor!",
+                        cursor("{\"id\":1}"),
+                        cursor("{\"quantity\":\"many\",\"id\":1}"),
+                        cursor("{\"quantity\":[1],\"id\":1}"));
+        for (String cursor : cursors) {
+            this.mockMvc
+                    .perform(
+                            get("/api/inventory/scroll")
+                                    .param("sortBy", "quantity")
+                                    .param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+        }
+    }
+
     @Test
     void shouldFindInventoryByProductCode() throws Exception {
         Inventory inventory = inventoryList.getFirst();
@@ -170,4 +191,10 @@ class InventoryControllerIT extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.availableQuantity", is(inventory.getAvailableQuantity())))
                 .andExpect(jsonPath("$.reservedItems").value(inventory.getReservedItems()));
     }
+
+    private static String cursor(String keys) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
 }
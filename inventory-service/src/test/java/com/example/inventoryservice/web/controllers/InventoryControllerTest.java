@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -10,25 +10,36 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.inventoryservice.entities.Inventory;
 import com.example.inventoryservice.model.request.InventoryRequest;
+import com.example.inventoryservice.model.response.BulkUpdateResult;
+import com.example.inventoryservice.model.response.CursorResult;
 import com.example.inventoryservice.model.response.PagedResult;
 import com.example.inventoryservice.services.InventoryService;
+import com.example.inventoryservice.utils.AppConstants;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.instancio.Instancio;
 import org.instancio.junit.InstancioExtension;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +53,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = InventoryController.class)
 @ActiveProfiles("test")
@@ -65,7 +77,7 @@ class InventoryControllerTest {
     void shouldFetchAllInventories() throws Exception {
         Page<Inventory> page = new PageImpl<>(inventoryList);
         PagedResult<Inventory> inventoryPagedResult = new PagedResult<>(page);
-        given(inventoryService.findAllInventories(0, 10, "id", "asc"))
+        given(inventoryService.findAllInventories(0, 10, "id", "asc", false))
                 .willReturn(inventoryPagedResult);
 
         this.mockMvc
@@ -82,6 +94,41 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldScrollInventories() throws Exception {
+        given(inventoryService.scrollInventories(10, "quantity", "desc", "eyJpZCI6MTB9"))
+                .willReturn(new CursorResult<>(inventoryList, "eyJpZCI6MjB9", true));
+
+        this.mockMvc
+                .perform(
+                        get("/api/inventory/scroll")
+                                .param("sortBy", "quantity")
+                                .param("sortDir", "desc")
+                                .param("cursor", "eyJpZCI6MTB9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(3)))
+                .andExpect(jsonPath("$.data.size()", is(inventoryList.size())))
+                .andExpect(jsonPath("$.nextCursor", is("eyJpZCI6MjB9")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    void shouldRejectScrollPageSizesOutOfRange() throws Exception {
+        this.mockMvc
+                .perform(get("/api/inventory/scroll").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Constraint Violation")))
+                .andExpect(jsonPath("$.violations[0].field", is("scrollInventories.size")));
+        this.mockMvc
+                .perform(
+                        get("/api/inventory/scroll")
+                                .param(
+                                        "size",
+                                        String.valueOf(AppConstants.MAX_CURSOR_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(inventoryService);
+    }
+
     @Test
     void shouldFindInventoryByProductCode() throws Exception {
         String productCode = "text 1";
@@ -100,6 +147,34 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.productCode", is(inventory.getProductCode())));
     }
 
+    @Test
+    void shouldStreamInventoriesOfProductCodesInBody() throws Exception {
+        List<String> codes = List.of("product1", "product2");
+        willAnswer(
+                        invocation -> {
+                            Consumer<Inventory> consumer = invocation.getArgument(1);
+                            inventoryList.subList(0, 2).forEach(consumer);
+                            return null;
+                        })
+                .given(inventoryService)
+                .forEachInventoryByProductCodes(eq(codes), any());
+
+        MvcResult mvcResult =
+                this.mockMvc
+                        .perform(
+                                post("/api/inventory/product")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(codes)))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        this.mockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[1].productCode", is(inventoryList.get(1).getProductCode())));
+    }
+
     @Test
     void shouldReturn404WhenFetchingNonExistingInventory() throws Exception {
         Long inventoryId = 1L;
@@ -165,6 +240,47 @@ class InventoryControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldUpdateInventoriesInBulkFromJsonArrayOrNdjson() throws Exception {
+        List<InventoryRequest> received = new ArrayList<>();
+        given(inventoryService.updateInventories(any()))
+                .willAnswer(
+                        invocation -> {
+                            Iterator<InventoryRequest> requests = invocation.getArgument(0);
+                            requests.forEachRemaining(received::add);
+                            return new BulkUpdateResult(2, 1, 1, 0);
+                        });
+
+        this.mockMvc
+                .perform(
+                        put("/api/inventory/bulk")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(
+                                        """
+                                        {"productCode":"product1","quantity":5}
+                                        {"productCode":"product2","availableQuantity":7}
+                                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(2)))
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.notFound", is(1)))
+                .andExpect(jsonPath("$.rejected", is(0)));
+        this.mockMvc
+                .perform(
+                        put("/api/inventory/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        """
+                                        [{"productCode":"product1","quantity":5},
+                                         {"productCode":"product2","quantity":7}]
+                                        """))
+                .andExpect(status().isOk());
+
+        InventoryRequest first = new InventoryRequest("product1", 5);
+        InventoryRequest second = new InventoryRequest("product2", 7);
+        assertThat(received).containsExactly(first, second, first, second);
+    }
+
     @Test
     void shouldDeleteInventory() throws Exception {
         Long inventoryId = 1L;
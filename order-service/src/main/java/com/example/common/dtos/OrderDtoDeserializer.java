@@ -0,0 +1,45 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.common.dtos;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Reads {@link OrderDto} written by {@link OrderDtoSerializer} in either format. Records without
+ * the binary marker, including everything already on the topics, are read as JSON.
+ */
+public class OrderDtoDeserializer implements Deserializer<OrderDto> {
+
+    // the target type is fixed, so type headers written by JsonSerializer are not needed
+    private final JsonDeserializer<OrderDto> jsonDeserializer =
+            new JsonDeserializer<>(OrderDto.class, false);
+
+    @Override
+    public OrderDto deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public OrderDto deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (OrderDtoBinaryCodec.isBinary(data)) {
+            return OrderDtoBinaryCodec.decode(data);
+        }
+        return headers == null
+                ? jsonDeserializer.deserialize(topic, data)
+                : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,17 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.common.dtos;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+/** Kafka Streams serde for {@link OrderDto}, writing the given format and reading both. */
+public class OrderDtoSerde extends Serdes.WrapperSerde<OrderDto> {
+
+    public OrderDtoSerde(String format) {
+        super(new OrderDtoSerializer<>(format), new OrderDtoDeserializer());
+    }
+}
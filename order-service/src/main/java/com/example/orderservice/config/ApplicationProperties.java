@@ -1,14 +1,17 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.config;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
 @ConfigurationProperties("application")
@@ -16,9 +19,61 @@ import org.springframework.validation.annotation.Validated;
 public record ApplicationProperties(
         @NotBlank(message = "CatalogServiceUrl Cant be Blank") String catalogServiceUrl,
         boolean byPassCircuitBreaker,
-        @NestedConfigurationProperty Cors cors) {
+        @DefaultValue("2s") Duration storeQueryTimeout,
+        @NestedConfigurationProperty Cors cors,
+        @NestedConfigurationProperty @DefaultValue Outbox outbox,
+        @NestedConfigurationProperty @DefaultValue ProductCache productCache,
+        @NestedConfigurationProperty @DefaultValue StatusBatch statusBatch,
+        @NestedConfigurationProperty @DefaultValue Saga saga) {
 
     public ApplicationProperties {
         cors = new Cors();
     }
+
+    /**
+     * Settings for the relay draining {@code order_outbox} to the orders topic.
+     *
+     * @param batchSize rows claimed and sent per relay transaction
+     * @param pollInterval delay between relay runs once the outbox is drained
+     * @param sendTimeout how long a batch waits for broker acknowledgements, holding the locks on
+     *     its rows meanwhile
+     */
+    public record Outbox(
+            @Positive @DefaultValue("500") int batchSize,
+            @DefaultValue("500ms") Duration pollInterval,
+            @DefaultValue("10s") Duration sendTimeout) {}
+
+    /**
+     * Settings for the per product code cache in front of catalog-service.
+     *
+     * @param maximumSize product codes kept before the least used ones are evicted
+     * @param ttl how long a code confirmed by catalog is trusted
+     * @param negativeTtl how long a code reported missing by catalog is trusted
+     */
+    public record ProductCache(
+            @Positive @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("30s") Duration negativeTtl) {}
+
+    /**
+     * Settings for buffering order statuses decided by the saga join before they are written.
+     *
+     * @param flushInterval wall clock interval at which buffered statuses are written
+     * @param maxSize buffered statuses that trigger a write before the interval elapses
+     */
+    public record StatusBatch(
+            @DefaultValue("200ms") Duration flushInterval,
+            @Positive @DefaultValue("500") int maxSize) {}
+
+    /**
+     * Settings for correlating the payment and stock replies of an order.
+     *
+     * @param replyTimeout how long a reply waits for the other side before it is dropped, new
+     *     orders are only re-sent once this has passed
+     * @param expiryCheckInterval wall clock interval at which expired replies are dropped and the
+     *     waiting metrics are refreshed
+     */
+    public record Saga(
+            @DefaultValue("5m") Duration replyTimeout,
+            @DefaultValue("10s") Duration expiryCheckInterval) {}
 }
@@ -8,11 +8,13 @@ package com.example.orderservice.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration(proxyBeanMethods = false)
 @EnableAsync
+@EnableScheduling
 class WebMvcConfig implements WebMvcConfigurer {
 
     private final ApplicationProperties properties;
@@ -0,0 +1,82 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import com.example.orderservice.services.CatalogService;
+import com.example.orderservice.services.ProductCodeReplica;
+import com.example.orderservice.utils.AppConstants;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+
+@Configuration(proxyBeanMethods = false)
+class KafkaListenerConfig {
+
+    private final ProductCodeReplica productCodeReplica;
+    private final CatalogService catalogService;
+
+    private Map<TopicPartition, Long> bootstrapEndOffsets;
+
+    KafkaListenerConfig(ProductCodeReplica productCodeReplica, CatalogService catalogService) {
+        this.productCodeReplica = productCodeReplica;
+        this.catalogService = catalogService;
+    }
+
+    // every instance needs the whole topic, so partitions are assigned manually from the start
+    // instead of being shared through a consumer group
+    @KafkaListener(
+            id = "product-replica",
+            topicPartitions =
+                    @org.springframework.kafka.annotation.TopicPartition(
+                            topic = AppConstants.PRODUCT_TOPIC,
+                            partitionOffsets =
+                                    @PartitionOffset(partition = "*", initialOffset = "0")),
+            properties = {
+                "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                "enable.auto.commit=false"
+            })
+    public void onProductEvent(
+            ConsumerRecord<String, String> productRecord, Consumer<?, ?> consumer) {
+        if (productRecord.value() == null && productRecord.key() != null) {
+            // tombstone for a deleted product
+            productCodeReplica.remove(productRecord.key());
+            catalogService.evictProductCode(productRecord.key().toUpperCase());
+        } else {
+            String productCode = productCodeReplica.onProductEvent(productRecord.value());
+            if (productCode != null) {
+                // a product created after a failed lookup must not wait for the negative ttl
+                catalogService.evictProductCode(productCode);
+            }
+        }
+        checkBootstrapped(consumer);
+    }
+
+    // an empty topic delivers no record, the idle consumer still has to find out it caught up
+    @EventListener(condition = "event.listenerId.startsWith('product-replica')")
+    public void onProductReplicaIdle(ListenerContainerIdleEvent event) {
+        checkBootstrapped(event.getConsumer());
+    }
+
+    private void checkBootstrapped(Consumer<?, ?> consumer) {
+        if (!productCodeReplica.isBootstrapped()) {
+            if (bootstrapEndOffsets == null) {
+                bootstrapEndOffsets = consumer.endOffsets(consumer.assignment());
+            }
+            if (bootstrapEndOffsets.entrySet().stream()
+                    .allMatch(end -> consumer.position(end.getKey()) >= end.getValue())) {
+                productCodeReplica.markBootstrapped();
+            }
+        }
+    }
+}
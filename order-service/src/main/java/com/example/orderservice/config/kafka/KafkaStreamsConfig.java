@@ -1,19 +1,24 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.config.kafka;
 
 import static com.example.orderservice.utils.AppConstants.ORDERS_TOPIC;
+import static com.example.orderservice.utils.AppConstants.ORDER_STATUS_STORE;
 import static com.example.orderservice.utils.AppConstants.PAYMENT_ORDERS_TOPIC;
+import static com.example.orderservice.utils.AppConstants.PAYMENT_REPLY_STORE;
 import static com.example.orderservice.utils.AppConstants.RECOVER_DLQ_TOPIC;
 import static com.example.orderservice.utils.AppConstants.STOCK_ORDERS_TOPIC;
+import static com.example.orderservice.utils.AppConstants.STOCK_REPLY_STORE;
 
 import com.example.common.dtos.OrderDto;
+import com.example.common.dtos.OrderDtoSerde;
+import com.example.orderservice.config.ApplicationProperties;
 import com.example.orderservice.services.OrderManageService;
-import java.time.Duration;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Properties;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.Serde;
@@ -21,16 +26,16 @@ import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.kstream.Consumed;
-import org.apache.kafka.streams.kstream.JoinWindows;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Materialized;
 import org.apache.kafka.streams.kstream.Printed;
-import org.apache.kafka.streams.kstream.StreamJoined;
+import org.apache.kafka.streams.kstream.Produced;
 import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
 import org.apache.kafka.streams.state.Stores;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
@@ -39,7 +44,6 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.streams.RecoveringDeserializationExceptionHandler;
-import org.springframework.kafka.support.serializer.JsonSerde;
 import org.springframework.util.Assert;
 
 @Configuration(proxyBeanMethods = false)
@@ -49,9 +53,21 @@ class KafkaStreamsConfig {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final OrderManageService orderManageService;
+    private final ApplicationProperties.StatusBatch statusBatch;
+    private final ApplicationProperties.Saga saga;
+    private final SagaReplyMetrics sagaReplyMetrics;
+    private final Serde<OrderDto> orderSerde;
 
-    KafkaStreamsConfig(OrderManageService orderManageService) {
+    KafkaStreamsConfig(
+            OrderManageService orderManageService,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry,
+            @Value("${spring.kafka.properties.order.dto.format:json}") String orderDtoFormat) {
         this.orderManageService = orderManageService;
+        this.statusBatch = applicationProperties.statusBatch();
+        this.saga = applicationProperties.saga();
+        this.sagaReplyMetrics = new SagaReplyMetrics(meterRegistry);
+        this.orderSerde = new OrderDtoSerde(orderDtoFormat);
     }
 
     @Bean
@@ -82,17 +98,38 @@ class KafkaStreamsConfig {
 
     @Bean
     KStream<Long, OrderDto> stream(StreamsBuilder kafkaStreamBuilder) {
-        Serde<OrderDto> orderSerde = new JsonSerde<>(OrderDto.class);
+        kafkaStreamBuilder.addStateStore(
+                Stores.timestampedKeyValueStoreBuilder(
+                        Stores.persistentTimestampedKeyValueStore(PAYMENT_REPLY_STORE),
+                        Serdes.Long(),
+                        orderSerde));
+        kafkaStreamBuilder.addStateStore(
+                Stores.timestampedKeyValueStoreBuilder(
+                        Stores.persistentTimestampedKeyValueStore(STOCK_REPLY_STORE),
+                        Serdes.Long(),
+                        orderSerde));
+        kafkaStreamBuilder.addStateStore(
+                Stores.keyValueStoreBuilder(
+                        Stores.inMemoryKeyValueStore(ORDER_STATUS_STORE),
+                        Serdes.Long(),
+                        orderSerde));
         KStream<Long, OrderDto> stream =
                 kafkaStreamBuilder.stream(
                         PAYMENT_ORDERS_TOPIC, Consumed.with(Serdes.Long(), orderSerde));
-        stream.join(
-                        kafkaStreamBuilder.stream(STOCK_ORDERS_TOPIC),
-                        orderManageService::confirm,
-                        JoinWindows.ofTimeDifferenceWithNoGrace(Duration.ofSeconds(10)),
-                        StreamJoined.with(Serdes.Long(), orderSerde, orderSerde))
+        stream.merge(
+                        kafkaStreamBuilder.stream(
+                                STOCK_ORDERS_TOPIC, Consumed.with(Serdes.Long(), orderSerde)))
+                // replies wait for each other in state stores, so a late side is not dropped
+                .process(
+                        () -> new SagaReplyAggregator(orderManageService, saga, sagaReplyMetrics),
+                        PAYMENT_REPLY_STORE,
+                        STOCK_REPLY_STORE)
+                // statuses are written in batches instead of one transaction per joined record
+                .process(
+                        () -> new OrderStatusBatchProcessor(orderManageService, statusBatch),
+                        ORDER_STATUS_STORE)
                 .peek((k, o) -> log.info("Output of Stream : {} for key :{}", o, k))
-                .to(ORDERS_TOPIC);
+                .to(ORDERS_TOPIC, Produced.with(Serdes.Long(), orderSerde));
         stream.print(Printed.toSysOut());
         return stream;
     }
@@ -101,7 +138,6 @@ class KafkaStreamsConfig {
     KTable<Long, OrderDto> table(StreamsBuilder streamsBuilder) {
         log.info("Inside fetching KTable values");
         KeyValueBytesStoreSupplier store = Stores.persistentKeyValueStore(ORDERS_TOPIC);
-        JsonSerde<OrderDto> orderSerde = new JsonSerde<>(OrderDto.class);
         KStream<Long, OrderDto> stream =
                 streamsBuilder.stream(ORDERS_TOPIC, Consumed.with(Serdes.Long(), orderSerde));
         return stream.toTable(
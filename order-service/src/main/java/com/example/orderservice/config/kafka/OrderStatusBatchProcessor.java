@@ -0,0 +1,118 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.entities.OrderStatus;
+import com.example.orderservice.services.OrderManageService;
+import com.example.orderservice.utils.AppConstants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers the statuses decided by the saga join in {@link AppConstants#ORDER_STATUS_STORE} and
+ * writes them with one batched update per punctuation, or earlier once {@code maxSize} statuses are
+ * waiting. Orders are forwarded downstream only after their status is written. The store is
+ * changelogged and keyed by order id, so statuses buffered when a task fails are written again by
+ * the next owner, and a replayed join result just replaces the buffered one.
+ */
+class OrderStatusBatchProcessor implements Processor<Long, OrderDto, Long, OrderDto> {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusBatchProcessor.class);
+
+    private final OrderManageService orderManageService;
+    private final ApplicationProperties.StatusBatch statusBatch;
+
+    private ProcessorContext<Long, OrderDto> context;
+    private KeyValueStore<Long, OrderDto> buffer;
+    private int buffered;
+
+    OrderStatusBatchProcessor(
+            OrderManageService orderManageService, ApplicationProperties.StatusBatch statusBatch) {
+        this.orderManageService = orderManageService;
+        this.statusBatch = statusBatch;
+    }
+
+    @Override
+    public void init(ProcessorContext<Long, OrderDto> context) {
+        this.context = context;
+        this.buffer = context.getStateStore(AppConstants.ORDER_STATUS_STORE);
+        context.schedule(statusBatch.flushInterval(), PunctuationType.WALL_CLOCK_TIME, this::flush);
+    }
+
+    @Override
+    public void process(Record<Long, OrderDto> record) {
+        buffer.put(record.key(), record.value());
+        if (++buffered >= statusBatch.maxSize()) {
+            flush(record.timestamp());
+        }
+    }
+
+    void flush(long timestamp) {
+        List<KeyValue<Long, OrderDto>> pending = new ArrayList<>();
+        List<KeyValue<Long, OrderDto>> unknown = new ArrayList<>();
+        try (KeyValueIterator<Long, OrderDto> it = buffer.all()) {
+            it.forEachRemaining(kv -> (hasKnownStatus(kv.value) ? pending : unknown).add(kv));
+        }
+        // would fail every batch it is part of, so it is dropped rather than retried
+        for (KeyValue<Long, OrderDto> kv : unknown) {
+            log.error("Dropping order {} with unknown status {}", kv.key, kv.value.getStatus());
+            buffer.delete(kv.key);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        // counted afresh even when the write fails, so records arriving meanwhile do not each try
+        // the database again
+        buffered = 0;
+        try {
+            orderManageService.updateOrderStatuses(pending.stream().map(kv -> kv.value).toList());
+        } catch (RuntimeException e) {
+            log.error(
+                    "Unable to write {} order statuses, writing one at a time", pending.size(), e);
+            writeOneByOne(pending, timestamp);
+            return;
+        }
+        pending.forEach(kv -> forward(kv, timestamp));
+    }
+
+    // statuses that fail again stay buffered, written on the next punctuation or once maxSize more
+    // arrive, without holding back the others
+    private void writeOneByOne(List<KeyValue<Long, OrderDto>> pending, long timestamp) {
+        for (KeyValue<Long, OrderDto> kv : pending) {
+            try {
+                orderManageService.updateOrderStatuses(List.of(kv.value));
+            } catch (RuntimeException e) {
+                log.error("Unable to write status of order {}, will retry", kv.key, e);
+                continue;
+            }
+            forward(kv, timestamp);
+        }
+    }
+
+    private void forward(KeyValue<Long, OrderDto> kv, long timestamp) {
+        context.forward(new Record<>(kv.key, kv.value, timestamp));
+        buffer.delete(kv.key);
+    }
+
+    private static boolean hasKnownStatus(OrderDto orderDto) {
+        return orderDto.getStatus() != null
+                && Arrays.stream(OrderStatus.values())
+                        .anyMatch(orderStatus -> orderStatus.name().equals(orderDto.getStatus()));
+    }
+}
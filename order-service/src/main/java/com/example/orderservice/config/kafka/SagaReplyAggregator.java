@@ -0,0 +1,141 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.services.OrderManageService;
+import com.example.orderservice.utils.AppConstants;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Correlates the payment and stock replies of an order. The first reply is kept, with the wall
+ * clock time it arrived, in the store of its side until the other side replies, however late that
+ * is. A punctuation drops replies older than {@code replyTimeout}, after which the order is left to
+ * the retry of new orders.
+ */
+class SagaReplyAggregator implements Processor<Long, OrderDto, Long, OrderDto> {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaReplyAggregator.class);
+
+    private final OrderManageService orderManageService;
+    private final ApplicationProperties.Saga saga;
+    private final SagaReplyMetrics sagaReplyMetrics;
+
+    private ProcessorContext<Long, OrderDto> context;
+    private TimestampedKeyValueStore<Long, OrderDto> paymentReplies;
+    private TimestampedKeyValueStore<Long, OrderDto> stockReplies;
+
+    SagaReplyAggregator(
+            OrderManageService orderManageService,
+            ApplicationProperties.Saga saga,
+            SagaReplyMetrics sagaReplyMetrics) {
+        this.orderManageService = orderManageService;
+        this.saga = saga;
+        this.sagaReplyMetrics = sagaReplyMetrics;
+    }
+
+    @Override
+    public void init(ProcessorContext<Long, OrderDto> context) {
+        this.context = context;
+        this.paymentReplies = context.getStateStore(AppConstants.PAYMENT_REPLY_STORE);
+        this.stockReplies = context.getStateStore(AppConstants.STOCK_REPLY_STORE);
+        context.schedule(saga.expiryCheckInterval(), PunctuationType.WALL_CLOCK_TIME, this::expire);
+    }
+
+    @Override
+    public void process(Record<Long, OrderDto> record) {
+        String topic = context.recordMetadata().map(RecordMetadata::topic).orElse(null);
+        boolean fromPayment = AppConstants.PAYMENT_ORDERS_TOPIC.equals(topic);
+        if (record.key() == null
+                || record.value() == null
+                || (!fromPayment && !AppConstants.STOCK_ORDERS_TOPIC.equals(topic))) {
+            log.warn("Skipping reply without order from topic :{}", topic);
+            return;
+        }
+        TimestampedKeyValueStore<Long, OrderDto> own = fromPayment ? paymentReplies : stockReplies;
+        TimestampedKeyValueStore<Long, OrderDto> other =
+                fromPayment ? stockReplies : paymentReplies;
+
+        long now = context.currentSystemTimeMs();
+        ValueAndTimestamp<OrderDto> counterpart = other.get(record.key());
+        if (counterpart == null) {
+            // a repeated reply replaces the earlier one but keeps how long the order has waited
+            ValueAndTimestamp<OrderDto> earlier = own.get(record.key());
+            own.put(
+                    record.key(),
+                    ValueAndTimestamp.make(
+                            record.value(), earlier == null ? now : earlier.timestamp()));
+            return;
+        }
+        other.delete(record.key());
+        sagaReplyMetrics.recordReplyGap(now - counterpart.timestamp());
+        OrderDto payment = fromPayment ? record.value() : counterpart.value();
+        OrderDto stock = fromPayment ? counterpart.value() : record.value();
+        context.forward(record.withValue(orderManageService.confirm(payment, stock)));
+    }
+
+    @Override
+    public void close() {
+        sagaReplyMetrics.remove(context.taskId());
+    }
+
+    void expire(long timestamp) {
+        long expireBefore = timestamp - saga.replyTimeout().toMillis();
+        Waiting awaitingStock = sweep(paymentReplies, expireBefore);
+        Waiting awaitingPayment = sweep(stockReplies, expireBefore);
+        sagaReplyMetrics.report(
+                context.taskId(),
+                new SagaReplyMetrics.Snapshot(
+                        awaitingPayment.count(),
+                        awaitingStock.count(),
+                        awaitingPayment.oldest(),
+                        awaitingStock.oldest()));
+    }
+
+    // drops expired replies and returns how many are left waiting and since when the oldest waits
+    private Waiting sweep(TimestampedKeyValueStore<Long, OrderDto> replies, long expireBefore) {
+        List<Long> expired = new ArrayList<>();
+        long waiting = 0;
+        long oldest = 0;
+        try (KeyValueIterator<Long, ValueAndTimestamp<OrderDto>> it = replies.all()) {
+            while (it.hasNext()) {
+                KeyValue<Long, ValueAndTimestamp<OrderDto>> kv = it.next();
+                long since = kv.value.timestamp();
+                if (since < expireBefore) {
+                    expired.add(kv.key);
+                } else {
+                    waiting++;
+                    oldest = oldest == 0 ? since : Math.min(oldest, since);
+                }
+            }
+        }
+        if (!expired.isEmpty()) {
+            expired.forEach(replies::delete);
+            sagaReplyMetrics.recordExpired(expired.size());
+            log.warn(
+                    "Dropped replies of {} orders waiting longer than {}",
+                    expired.size(),
+                    saga.replyTimeout());
+        }
+        return new Waiting(waiting, oldest);
+    }
+
+    private record Waiting(long count, long oldest) {}
+}
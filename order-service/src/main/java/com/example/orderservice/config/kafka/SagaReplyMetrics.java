@@ -0,0 +1,105 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import org.apache.kafka.streams.processor.TaskId;
+
+/**
+ * Meters for replies waiting in {@link SagaReplyAggregator}. Every stream task reports what its own
+ * stores hold on each expiry check, and the gauges add those snapshots up across tasks.
+ */
+class SagaReplyMetrics {
+
+    static final String AWAITING_PAYMENT = "payment";
+    static final String AWAITING_STOCK = "stock";
+
+    private final Map<TaskId, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Timer replyGap;
+    private final Counter expired;
+
+    SagaReplyMetrics(MeterRegistry meterRegistry) {
+        registerWaiting(meterRegistry, AWAITING_PAYMENT, Snapshot::awaitingPayment);
+        registerWaiting(meterRegistry, AWAITING_STOCK, Snapshot::awaitingStock);
+        registerOldest(meterRegistry, AWAITING_PAYMENT, Snapshot::oldestAwaitingPayment);
+        registerOldest(meterRegistry, AWAITING_STOCK, Snapshot::oldestAwaitingStock);
+        this.replyGap =
+                Timer.builder("order.saga.reply.gap")
+                        .description("Time between the first and the second reply of an order")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.expired =
+                Counter.builder("order.saga.reply.expired")
+                        .description("Replies dropped after waiting too long for the other side")
+                        .register(meterRegistry);
+    }
+
+    void recordReplyGap(long millis) {
+        replyGap.record(Duration.ofMillis(Math.max(millis, 0)));
+    }
+
+    void recordExpired(long count) {
+        expired.increment(count);
+    }
+
+    void report(TaskId taskId, Snapshot snapshot) {
+        snapshots.put(taskId, snapshot);
+    }
+
+    void remove(TaskId taskId) {
+        snapshots.remove(taskId);
+    }
+
+    private void registerWaiting(
+            MeterRegistry meterRegistry, String awaiting, ToLongFunction<Snapshot> count) {
+        Gauge.builder(
+                        "order.saga.waiting",
+                        snapshots,
+                        s -> s.values().stream().mapToLong(count).sum())
+                .description("Orders with one reply received that wait for the other side")
+                .tag("awaiting", awaiting)
+                .register(meterRegistry);
+    }
+
+    private void registerOldest(
+            MeterRegistry meterRegistry, String awaiting, ToLongFunction<Snapshot> oldest) {
+        TimeGauge.builder(
+                        "order.saga.waiting.oldest",
+                        snapshots,
+                        TimeUnit.MILLISECONDS,
+                        s -> {
+                            long now = System.currentTimeMillis();
+                            return s.values().stream()
+                                    .mapToLong(oldest)
+                                    .filter(since -> since > 0)
+                                    .map(since -> now - since)
+                                    .max()
+                                    .orElse(0);
+                        })
+                .description("How long the longest waiting order has waited for the other side")
+                .tag("awaiting", awaiting)
+                .register(meterRegistry);
+    }
+
+    /**
+     * What one task holds, oldest values are wall clock millis of the first reply or 0 for none.
+     */
+    record Snapshot(
+            long awaitingPayment,
+            long awaitingStock,
+            long oldestAwaitingPayment,
+            long oldestAwaitingStock) {}
+}
@@ -0,0 +1,74 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Pending order event, written in the same transaction as the {@link Order} it describes and
+ * removed by the relay once the broker has acknowledged it.
+ */
+@Entity
+@Table(name = "order_outbox")
+public class OrderOutbox implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdDate = Instant.now();
+
+    public OrderOutbox setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OrderOutbox setOrderId(Long orderId) {
+        this.orderId = orderId;
+        return this;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderOutbox setPayload(String payload) {
+        this.payload = payload;
+        return this;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public OrderOutbox setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+}
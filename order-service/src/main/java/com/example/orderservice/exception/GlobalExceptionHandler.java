@@ -1,11 +1,12 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -45,5 +46,27 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    // request parameters checked by the method validation of @Validated controllers
+    @ExceptionHandler(ConstraintViolationException.class)
+    ProblemDetail onException(ConstraintViolationException constraintViolationException) {
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(
+                        HttpStatusCode.valueOf(400), "Invalid request parameters.");
+        problemDetail.setTitle("Constraint Violation");
+        List<ApiValidationError> validationErrorsList =
+                constraintViolationException.getConstraintViolations().stream()
+                        .map(
+                                violation ->
+                                        new ApiValidationError(
+                                                violation.getRootBeanClass().getSimpleName(),
+                                                violation.getPropertyPath().toString(),
+                                                violation.getInvalidValue(),
+                                                violation.getMessage()))
+                        .sorted(Comparator.comparing(ApiValidationError::field))
+                        .toList();
+        problemDetail.setProperty("violations", validationErrorsList);
+        return problemDetail;
+    }
+
     record ApiValidationError(String object, String field, Object rejectedValue, String message) {}
 }
@@ -0,0 +1,51 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.model.projection;
+
+import com.example.orderservice.entities.OrderStatus;
+import com.example.orderservice.model.Address;
+import com.example.orderservice.model.response.OrderItemResponse;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/** One row of the orders left join order_items read projection, item columns null when empty. */
+public record OrderItemRow(
+        Long orderId,
+        Long customerId,
+        OrderStatus status,
+        String source,
+        String addressLine1,
+        String addressLine2,
+        String city,
+        String state,
+        String zipCode,
+        String country,
+        LocalDateTime createdDate,
+        Long itemId,
+        String productCode,
+        Integer quantity,
+        BigDecimal productPrice) {
+
+    public boolean hasItem() {
+        return itemId != null;
+    }
+
+    public Address deliveryAddress() {
+        return new Address(addressLine1, addressLine2, city, state, zipCode, country);
+    }
+
+    public OrderItemResponse toItemResponse() {
+        BigDecimal price =
+                productPrice == null
+                        ? null
+                        : productPrice
+                                .multiply(new BigDecimal(quantity))
+                                .setScale(2, RoundingMode.HALF_UP);
+        return new OrderItemResponse(itemId, productCode, quantity, productPrice, price);
+    }
+}
@@ -0,0 +1,24 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public record BulkOrderResult(
+        int index,
+        boolean accepted,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long orderId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String reason) {
+
+    public static BulkOrderResult accepted(int index, Long orderId) {
+        return new BulkOrderResult(index, true, orderId, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String reason) {
+        return new BulkOrderResult(index, false, null, reason);
+    }
+}
@@ -0,0 +1,17 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public record CursorPagedResult<T>(
+        List<T> data,
+        String nextCursor,
+        @JsonProperty("hasNext") boolean hasNext,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements) {}
@@ -0,0 +1,15 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.model.response;
+
+import java.util.List;
+
+/**
+ * Result of an interactive query fanned out across order-service instances, {@code partial} is set
+ * when at least one instance owning part of the store did not answer in time.
+ */
+public record StoreQueryResult<T>(List<T> data, boolean partial) {}
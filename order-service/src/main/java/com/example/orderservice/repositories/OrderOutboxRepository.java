@@ -0,0 +1,33 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.repositories;
+
+import com.example.orderservice.entities.OrderOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutbox, Long> {
+
+    // lock timeout of -2 is Hibernate's SKIP_LOCKED, so concurrent relays never claim the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("select o from OrderOutbox o order by o.id")
+    List<OrderOutbox> findPendingForUpdate(Limit limit);
+
+    @Query("select distinct o.orderId from OrderOutbox o where o.orderId in :orderIds")
+    Set<Long> findOrderIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
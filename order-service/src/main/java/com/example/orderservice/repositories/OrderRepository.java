@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -8,17 +8,21 @@ package com.example.orderservice.repositories;
 
 import com.example.orderservice.entities.Order;
 import com.example.orderservice.entities.OrderStatus;
+import com.example.orderservice.model.projection.OrderItemRow;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
@@ -26,6 +30,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @EntityGraph(attributePaths = {"items"})
     List<Order> findByIdIn(List<Long> ids);
 
+    // scalar projection, nothing is loaded into the persistence context or dirty checked
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    @Query(
+            """
+            select new com.example.orderservice.model.projection.OrderItemRow(
+                o.id, o.customerId, o.status, o.source,
+                o.deliveryAddress.addressLine1, o.deliveryAddress.addressLine2,
+                o.deliveryAddress.city, o.deliveryAddress.state,
+                o.deliveryAddress.zipCode, o.deliveryAddress.country, o.createdDate,
+                oi.id, oi.productCode, oi.quantity, oi.productPrice)
+            from Order o left join o.items oi
+            where o.id in :ids
+            order by o.id, oi.id
+            """)
+    Stream<OrderItemRow> streamOrderItemRowsByIdIn(@Param("ids") List<Long> ids);
+
     @Query("select o from Order o join fetch o.items oi where o.id = :id")
     Optional<Order> findOrderById(@Param("id") Long id);
 
@@ -37,17 +60,19 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("select o.id from Order o where o.customerId = :customerId")
     Page<Long> findAllOrdersByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
 
-    @Modifying
-    @Transactional
-    @Query("update Order o set o.status =:status, o.source =:source where o.id = :id")
-    int updateOrderStatusAndSourceById(
-            @Param("id") Long orderId,
-            @Param("status") OrderStatus status,
-            @Param("source") String source);
-
     @Query("select o.id from Order o")
     Page<Long> findAllOrders(Pageable pageable);
 
+    @Query("select o.id from Order o where o.id > :after order by o.id")
+    List<Long> findOrderIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query(
+            "select o.id from Order o where o.customerId = :customerId and o.id > :after order by o.id")
+    List<Long> findOrderIdsByCustomerIdAfter(
+            @Param("customerId") Long customerId, @Param("after") Long after, Limit limit);
+
+    long countByCustomerId(Long customerId);
+
     @EntityGraph(attributePaths = {"items"})
     List<Order> findByStatusAndCreatedDateLessThanOrderByIdAsc(
             OrderStatus status, LocalDateTime createdDate);
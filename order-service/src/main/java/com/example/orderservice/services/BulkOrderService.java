@@ -0,0 +1,169 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import com.example.orderservice.entities.Order;
+import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.model.request.OrderItemRequest;
+import com.example.orderservice.model.request.OrderRequest;
+import com.example.orderservice.model.response.BulkOrderResult;
+import com.example.orderservice.repositories.OrderRepository;
+import com.example.orderservice.utils.AppConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ingests orders in chunks of {@link AppConstants#BULK_ORDER_CHUNK_SIZE}. Each chunk costs one
+ * product lookup and one transaction, in which orders, items and outbox rows are written with JDBC
+ * batching. Invalid orders are rejected individually instead of failing the whole chunk.
+ */
+@Service
+public class BulkOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkOrderService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final OrderOutboxService orderOutboxService;
+    private final ProductCodeReplica productCodeReplica;
+    private final CatalogService catalogService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public BulkOrderService(
+            OrderRepository orderRepository,
+            OrderMapper orderMapper,
+            OrderOutboxService orderOutboxService,
+            ProductCodeReplica productCodeReplica,
+            CatalogService catalogService,
+            Validator validator,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager) {
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.orderOutboxService = orderOutboxService;
+        this.productCodeReplica = productCodeReplica;
+        this.catalogService = catalogService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /** Saves every order read from {@code orderRequests}, handing over results chunk by chunk. */
+    public void saveOrders(
+            Iterator<OrderRequest> orderRequests, Consumer<List<BulkOrderResult>> resultConsumer) {
+        int firstIndex = 0;
+        List<OrderRequest> chunk = new ArrayList<>(AppConstants.BULK_ORDER_CHUNK_SIZE);
+        while (orderRequests.hasNext()) {
+            chunk.add(orderRequests.next());
+            if (chunk.size() == AppConstants.BULK_ORDER_CHUNK_SIZE || !orderRequests.hasNext()) {
+                resultConsumer.accept(saveChunk(chunk, firstIndex));
+                firstIndex += chunk.size();
+                chunk.clear();
+            }
+        }
+    }
+
+    List<BulkOrderResult> saveChunk(List<OrderRequest> chunk, int firstIndex) {
+        BulkOrderResult[] results = new BulkOrderResult[chunk.size()];
+        List<Integer> validPositions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String violation = validate(chunk.get(i));
+            if (violation == null) {
+                validPositions.add(i);
+            } else {
+                results[i] = BulkOrderResult.rejected(firstIndex + i, violation);
+            }
+        }
+
+        Set<String> missingProductCodes =
+                missingProductCodes(
+                        validPositions.stream()
+                                .flatMap(i -> productCodes(chunk.get(i)).stream())
+                                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        List<Integer> savedPositions = new ArrayList<>(validPositions.size());
+        List<Order> orders = new ArrayList<>(validPositions.size());
+        for (int i : validPositions) {
+            List<String> missing =
+                    productCodes(chunk.get(i)).stream()
+                            .filter(missingProductCodes::contains)
+                            .toList();
+            if (missing.isEmpty()) {
+                savedPositions.add(i);
+                orders.add(orderMapper.orderRequestToEntity(chunk.get(i)));
+            } else {
+                results[i] =
+                        BulkOrderResult.rejected(
+                                firstIndex + i, "Product codes not found : " + missing);
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> persist(orders));
+        }
+        for (int k = 0; k < orders.size(); k++) {
+            int position = savedPositions.get(k);
+            results[position] =
+                    BulkOrderResult.accepted(firstIndex + position, orders.get(k).getId());
+        }
+        log.debug("Saved {} of {} orders in bulk", orders.size(), chunk.size());
+        return Arrays.asList(results);
+    }
+
+    private void persist(List<Order> orders) {
+        // ids come from the pooled sequences, so inserts are only grouped into jdbc batches
+        entityManager.unwrap(Session.class).setJdbcBatchSize(AppConstants.BULK_JDBC_BATCH_SIZE);
+        orderRepository.saveAll(orders);
+        orders.forEach(order -> orderOutboxService.append(orderMapper.toDto(order)));
+    }
+
+    private Set<String> missingProductCodes(Set<String> productCodes) {
+        List<String> unknown = productCodeReplica.unknownCodes(List.copyOf(productCodes));
+        return unknown.isEmpty() ? Set.of() : catalogService.findMissingProductCodes(unknown);
+    }
+
+    private String validate(OrderRequest orderRequest) {
+        if (orderRequest == null) {
+            return "Order is required";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(orderRequest);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (orderRequest.items().stream()
+                .anyMatch(item -> item == null || item.productCode() == null)) {
+            return "items : Product code is required";
+        }
+        return null;
+    }
+
+    private List<String> productCodes(OrderRequest orderRequest) {
+        return orderRequest.items().stream()
+                .map(OrderItemRequest::productCode)
+                .map(String::toUpperCase)
+                .toList();
+    }
+}
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -8,8 +8,18 @@ package com.example.orderservice.services;
 
 import com.example.orderservice.config.ApplicationProperties;
 import com.example.orderservice.config.logging.Loggable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -22,16 +32,82 @@ public class CatalogService {
 
     private final CatalogServiceProxy catalogServiceProxy;
     private final ApplicationProperties applicationProperties;
+    private final Cache<String, Boolean> productExistsCache;
 
     public CatalogService(
-            CatalogServiceProxy catalogServiceProxy, ApplicationProperties applicationProperties) {
+            CatalogServiceProxy catalogServiceProxy,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
         this.catalogServiceProxy = catalogServiceProxy;
         this.applicationProperties = applicationProperties;
+        ApplicationProperties.ProductCache productCache = applicationProperties.productCache();
+        this.productExistsCache =
+                Caffeine.newBuilder()
+                        .maximumSize(productCache.maximumSize())
+                        .expireAfter(new ProductExistsExpiry(productCache))
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productExistsCache, "catalog.product.exists");
     }
 
     @CircuitBreaker(name = "default", fallbackMethod = "productsExistsDefaultValue")
     public boolean productsExistsByCodes(List<String> productCodes) {
-        return catalogServiceProxy.productsExistsByCodes(productCodes);
+        Map<String, Boolean> cached = productExistsCache.getAllPresent(productCodes);
+        if (cached.containsValue(Boolean.FALSE)) {
+            return false;
+        }
+        List<String> misses =
+                productCodes.stream().filter(code -> !cached.containsKey(code)).distinct().toList();
+        if (misses.isEmpty()) {
+            return true;
+        }
+        boolean exists = catalogServiceProxy.productsExistsByCodes(misses);
+        if (exists) {
+            misses.forEach(code -> productExistsCache.put(code, Boolean.TRUE));
+        } else if (misses.size() == 1) {
+            // catalog answers for the whole list, so a negative is only attributable to one code
+            productExistsCache.put(misses.getFirst(), Boolean.FALSE);
+        }
+        return exists;
+    }
+
+    /**
+     * The product codes catalog does not know among the given ones, asking it once for those not
+     * cached. Unlike {@link #productsExistsByCodes}, every answer is cached per code.
+     */
+    @CircuitBreaker(name = "default", fallbackMethod = "missingProductCodesDefaultValue")
+    public Set<String> findMissingProductCodes(List<String> productCodes) {
+        Map<String, Boolean> cached = productExistsCache.getAllPresent(productCodes);
+        Set<String> missing = new HashSet<>();
+        cached.forEach(
+                (code, exists) -> {
+                    if (!exists) {
+                        missing.add(code);
+                    }
+                });
+        List<String> misses =
+                productCodes.stream().filter(code -> !cached.containsKey(code)).distinct().toList();
+        if (misses.isEmpty()) {
+            return missing;
+        }
+        // catalog matches codes ignoring case and returns them as stored
+        Set<String> existing =
+                catalogServiceProxy.findExistingProductCodes(misses).stream()
+                        .map(code -> code.toUpperCase(Locale.ROOT))
+                        .collect(Collectors.toSet());
+        for (String code : misses) {
+            boolean exists = existing.contains(code.toUpperCase(Locale.ROOT));
+            productExistsCache.put(code, exists);
+            if (!exists) {
+                missing.add(code);
+            }
+        }
+        return missing;
+    }
+
+    /** Drops the cached answer for a product code created or deleted on the product topic. */
+    public void evictProductCode(String productCode) {
+        productExistsCache.invalidate(productCode);
     }
 
     boolean productsExistsDefaultValue(List<String> productCodes, Exception e) {
@@ -41,4 +117,33 @@ public class CatalogService {
                 e.getMessage());
         return applicationProperties.byPassCircuitBreaker();
     }
+
+    Set<String> missingProductCodesDefaultValue(List<String> productCodes, Exception e) {
+        log.error(
+                "While fetching existing productCodes :{}, Exception Occurred : {}",
+                productCodes,
+                e.getMessage());
+        return applicationProperties.byPassCircuitBreaker() ? Set.of() : Set.copyOf(productCodes);
+    }
+
+    private record ProductExistsExpiry(ApplicationProperties.ProductCache productCache)
+            implements Expiry<String, Boolean> {
+
+        @Override
+        public long expireAfterCreate(String productCode, Boolean exists, long currentTime) {
+            return (exists ? productCache.ttl() : productCache.negativeTtl()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String productCode, Boolean exists, long currentTime, long currentDuration) {
+            return expireAfterCreate(productCode, exists, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String productCode, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
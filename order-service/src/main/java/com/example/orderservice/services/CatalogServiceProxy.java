@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
@@ -8,8 +8,10 @@ package com.example.orderservice.services;
 
 import com.example.orderservice.config.logging.Loggable;
 import java.util.List;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
 
 // @HttpExchange("lb://catalog-service/")
 // @HttpExchange("http://localhost:18080/catalog-service")
@@ -19,4 +21,8 @@ public interface CatalogServiceProxy {
 
     @GetExchange("/api/catalog/exists")
     boolean productsExistsByCodes(@RequestParam List<String> productCodes);
+
+    // codes travel in the body, a chunk of orders can name more than a request line holds
+    @PostExchange("/api/catalog/codes")
+    List<String> findExistingProductCodes(@RequestBody List<String> productCodes);
 }
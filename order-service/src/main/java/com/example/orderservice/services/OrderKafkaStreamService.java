@@ -1,18 +1,35 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.services;
 
 import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
 import com.example.orderservice.config.logging.Loggable;
+import com.example.orderservice.model.response.StoreQueryResult;
 import com.example.orderservice.utils.AppConstants;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
 import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.state.HostInfo;
 import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
@@ -20,37 +37,129 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.config.StreamsBuilderFactoryBean;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 @Loggable
-public class OrderKafkaStreamService {
+public class OrderKafkaStreamService implements AutoCloseable {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final StreamsBuilderFactoryBean kafkaStreamsFactory;
+    private final OrderStoreClient orderStoreClient;
+    private final Duration storeQueryTimeout;
+    private final ExecutorService queryExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public OrderKafkaStreamService(StreamsBuilderFactoryBean kafkaStreamsFactory) {
+    public OrderKafkaStreamService(
+            StreamsBuilderFactoryBean kafkaStreamsFactory,
+            OrderStoreClient orderStoreClient,
+            ApplicationProperties applicationProperties) {
         this.kafkaStreamsFactory = kafkaStreamsFactory;
+        this.orderStoreClient = orderStoreClient;
+        this.storeQueryTimeout = applicationProperties.storeQueryTimeout();
     }
 
-    public List<OrderDto> getAllOrders(int pageNo, int pageSize) {
+    public StoreQueryResult<OrderDto> getAllOrders(int pageNo, int pageSize) {
         log.info(
                 "Fetching all orders from Kafka Store with pageNo :{} and pageSize : {}",
                 pageNo,
                 pageSize);
-        List<OrderDto> orders = new ArrayList<>();
-        ReadOnlyKeyValueStore<Long, OrderDto> store =
-                Objects.requireNonNull(kafkaStreamsFactory.getKafkaStreams())
-                        .store(
-                                StoreQueryParameters.fromNameAndType(
-                                        AppConstants.ORDERS_TOPIC,
-                                        QueryableStoreTypes.keyValueStore()));
         long from = (long) pageNo * pageSize;
         long to = from + pageSize;
-        try (KeyValueIterator<Long, OrderDto> it = store.range(from + 1, to)) {
-            it.forEachRemaining(kv -> orders.add(kv.value));
+        HostInfo self = self();
+        if (self == null) {
+            return new StoreQueryResult<>(getLocalOrders(from, to), false);
         }
 
+        // every instance holds only its own partitions, so the range is asked of all of them
+        List<CompletableFuture<List<OrderDto>>> remoteQueries = new ArrayList<>();
+        List<OrderDto> orders = new ArrayList<>();
+        for (StreamsMetadata metadata :
+                kafkaStreams().streamsMetadataForStore(AppConstants.ORDERS_TOPIC)) {
+            HostInfo hostInfo = metadata.hostInfo();
+            if (!self.equals(hostInfo)) {
+                remoteQueries.add(
+                        CompletableFuture.supplyAsync(
+                                () -> orderStoreClient.getOrders(hostInfo, from, to),
+                                queryExecutor));
+            }
+        }
+        orders.addAll(getLocalOrders(from, to));
+
+        boolean partial = false;
+        long deadline = System.nanoTime() + storeQueryTimeout.toNanos();
+        for (CompletableFuture<List<OrderDto>> remoteQuery : remoteQueries) {
+            try {
+                orders.addAll(
+                        remoteQuery.get(
+                                Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException | TimeoutException e) {
+                remoteQuery.cancel(true);
+                partial = true;
+                log.warn("Remote store query failed, returning partial page : {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                partial = true;
+                break;
+            }
+        }
+        orders.sort(Comparator.comparing(OrderDto::getOrderId));
+        return new StoreQueryResult<>(orders, partial);
+    }
+
+    public Optional<OrderDto> getOrder(Long orderId) {
+        HostInfo self = self();
+        if (self == null) {
+            return getLocalOrder(orderId);
+        }
+        KeyQueryMetadata metadata =
+                kafkaStreams()
+                        .queryMetadataForKey(
+                                AppConstants.ORDERS_TOPIC, orderId, Serdes.Long().serializer());
+        HostInfo owner = metadata.activeHost();
+        if (KeyQueryMetadata.NOT_AVAILABLE.equals(metadata) || self.equals(owner)) {
+            return getLocalOrder(orderId);
+        }
+        return orderStoreClient.getOrder(owner, orderId);
+    }
+
+    public List<OrderDto> getLocalOrders(long from, long to) {
+        List<OrderDto> orders = new ArrayList<>();
+        try (KeyValueIterator<Long, OrderDto> it = localStore().range(from + 1, to)) {
+            it.forEachRemaining(kv -> orders.add(kv.value));
+        }
         return orders;
     }
+
+    public Optional<OrderDto> getLocalOrder(Long orderId) {
+        return Optional.ofNullable(localStore().get(orderId));
+    }
+
+    private ReadOnlyKeyValueStore<Long, OrderDto> localStore() {
+        return kafkaStreams()
+                .store(
+                        StoreQueryParameters.fromNameAndType(
+                                AppConstants.ORDERS_TOPIC, QueryableStoreTypes.keyValueStore()));
+    }
+
+    private KafkaStreams kafkaStreams() {
+        return Objects.requireNonNull(kafkaStreamsFactory.getKafkaStreams());
+    }
+
+    // queries still in flight give up within the store query timeout
+    @Override
+    public void close() throws InterruptedException {
+        queryExecutor.shutdown();
+        queryExecutor.awaitTermination(storeQueryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // null when application.server is not configured, i.e. the store is only queried locally
+    private HostInfo self() {
+        String applicationServer =
+                Objects.requireNonNull(kafkaStreamsFactory.getStreamsConfiguration())
+                        .getProperty(StreamsConfig.APPLICATION_SERVER_CONFIG);
+        return StringUtils.hasText(applicationServer)
+                ? HostInfo.buildFromEndpoint(applicationServer)
+                : null;
+    }
 }
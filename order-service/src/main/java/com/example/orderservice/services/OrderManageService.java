@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli.
 </p>
 ***/
 
@@ -9,11 +9,17 @@ package com.example.orderservice.services;
 import com.example.common.dtos.OrderDto;
 import com.example.orderservice.config.logging.Loggable;
 import com.example.orderservice.entities.OrderStatus;
-import com.example.orderservice.repositories.OrderRepository;
 import com.example.orderservice.utils.AppConstants;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Loggable
@@ -21,11 +27,25 @@ public class OrderManageService {
 
     private static final String ACCEPT = "ACCEPT";
     private static final String REJECT = "REJECT";
+    private static final String UPDATE_STATUS_SQL =
+            "update orders set status = ?, source = ? where id = ?";
     private static final Logger log = LoggerFactory.getLogger(OrderManageService.class);
-    private final OrderRepository orderRepository;
 
-    public OrderManageService(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+
+    public OrderManageService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushSize =
+                DistributionSummary.builder("order.status.flush.size")
+                        .description("Order statuses written per batched update")
+                        .register(meterRegistry);
+        this.flushLatency =
+                Timer.builder("order.status.flush.latency")
+                        .description("Time taken by one batched order status update")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
     }
 
     public OrderDto confirm(OrderDto orderPayment, OrderDto orderStock) {
@@ -47,16 +67,43 @@ public class OrderManageService {
         }
         // setting from inventory as it has latest
         orderDto.setItems(orderStock.getItems());
-        int rows =
-                this.orderRepository.updateOrderStatusAndSourceById(
-                        orderDto.getOrderId(),
-                        OrderStatus.valueOf(orderDto.getStatus()),
-                        orderDto.getSource());
-        log.info(
-                "Updated Status as {} for orderId :{} in {} rows",
-                orderDto.getStatus(),
-                orderDto.getOrderId(),
-                rows);
         return orderDto;
     }
+
+    /**
+     * Writes the statuses decided by {@link #confirm(OrderDto, OrderDto)} in one JDBC batch. Every
+     * row is set to absolute values keyed by order id, so writing the same orders again after a
+     * replay leaves the table unchanged.
+     */
+    @Transactional
+    public int updateOrderStatuses(Collection<OrderDto> orders) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> arguments =
+                orders.stream()
+                        .map(
+                                orderDto ->
+                                        new Object[] {
+                                            OrderStatus.valueOf(orderDto.getStatus()).name(),
+                                            orderDto.getSource(),
+                                            orderDto.getOrderId()
+                                        })
+                        .toList();
+        int rows =
+                flushLatency.record(
+                        () -> sum(jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, arguments)));
+        flushSize.record(orders.size());
+        log.info("Updated Status for {} orders in {} rows", orders.size(), rows);
+        return rows;
+    }
+
+    private static int sum(int[] updateCounts) {
+        int rows = 0;
+        for (int updateCount : updateCounts) {
+            // drivers may report SUCCESS_NO_INFO (-2) for batched statements
+            rows += Math.max(updateCount, 0);
+        }
+        return rows;
+    }
 }
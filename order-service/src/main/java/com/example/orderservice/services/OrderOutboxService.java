@@ -0,0 +1,227 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.entities.OrderOutbox;
+import com.example.orderservice.repositories.OrderOutboxRepository;
+import com.example.orderservice.utils.AppConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transactional outbox for order events. {@link #append(OrderDto)} joins the caller's transaction
+ * so the event is committed atomically with the order, and {@link #relay()} drains committed rows
+ * to the orders topic in batches. Delivery is at least once: a row is deleted only after Kafka
+ * acknowledged it, so a relay stopped in between sends the row again.
+ */
+@Service
+public class OrderOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxService.class);
+
+    // PostgreSQL takes at most 32767 bind parameters per statement
+    private static final int PENDING_LOOKUP_CHUNK_SIZE = 1000;
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final KafkaTemplate<Long, OrderDto> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationProperties.Outbox outboxProperties;
+
+    private final DistributionSummary batchSize;
+    private final Timer relayLag;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter discarded;
+
+    public OrderOutboxService(
+            OrderOutboxRepository orderOutboxRepository,
+            KafkaTemplate<Long, OrderDto> kafkaTemplate,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxProperties = applicationProperties.outbox();
+        this.batchSize =
+                DistributionSummary.builder("order.outbox.relay.batch.size")
+                        .description("Outbox rows claimed per relay transaction")
+                        .register(meterRegistry);
+        this.relayLag =
+                Timer.builder("order.outbox.relay.lag")
+                        .description("Time between an outbox row being written and acknowledged")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+        this.published =
+                Counter.builder("order.outbox.relay.published")
+                        .description("Outbox rows acknowledged by the broker")
+                        .register(meterRegistry);
+        this.failed =
+                Counter.builder("order.outbox.relay.failed")
+                        .description("Outbox rows left for the next relay run after a send failure")
+                        .register(meterRegistry);
+        this.discarded =
+                Counter.builder("order.outbox.relay.discarded")
+                        .description("Outbox rows removed because their payload is unreadable")
+                        .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OrderDto orderDto) {
+        try {
+            orderOutboxRepository.save(
+                    new OrderOutbox()
+                            .setOrderId(orderDto.getOrderId())
+                            .setPayload(objectMapper.writeValueAsString(orderDto)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(
+                    "Unable to serialize order " + orderDto.getOrderId() + " for outbox", e);
+        }
+    }
+
+    /**
+     * The ones among the orders whose events are still waiting in the outbox, asked for in chunks
+     * so a large backlog stays below the driver's limit on bind parameters.
+     */
+    public Set<Long> findPendingOrderIds(Collection<Long> orderIds) {
+        List<Long> ids = List.copyOf(orderIds);
+        Set<Long> pending = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += PENDING_LOOKUP_CHUNK_SIZE) {
+            pending.addAll(
+                    orderOutboxRepository.findOrderIdsByOrderIdIn(
+                            ids.subList(
+                                    from,
+                                    Math.min(from + PENDING_LOOKUP_CHUNK_SIZE, ids.size()))));
+        }
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval:500ms}")
+    public void relay() {
+        int sent;
+        do {
+            sent =
+                    Objects.requireNonNullElse(
+                            transactionTemplate.execute(status -> relayBatch()), 0);
+        } while (sent == outboxProperties.batchSize());
+    }
+
+    /**
+     * Sends one batch of outbox rows and removes those the broker acknowledged. The rows stay
+     * locked until the acknowledgements arrive or {@code sendTimeout} passes, so that bounds how
+     * long they are held; other relays skip them meanwhile. Rows whose payload cannot be read are
+     * removed with an error log holding the payload, as no later run could send them either.
+     *
+     * @return the rows removed, acknowledged or unreadable
+     */
+    int relayBatch() {
+        List<OrderOutbox> pending =
+                orderOutboxRepository.findPendingForUpdate(Limit.of(outboxProperties.batchSize()));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        batchSize.record(pending.size());
+
+        // hand every record to the producer before waiting on any of them, so the whole batch is
+        // pipelined into as few produce requests as linger.ms and batch.size allow
+        List<OrderOutbox> sent = new ArrayList<>(pending.size());
+        List<CompletableFuture<SendResult<Long, OrderDto>>> futures =
+                new ArrayList<>(pending.size());
+        List<Long> removed = new ArrayList<>(pending.size());
+        for (OrderOutbox outbox : pending) {
+            OrderDto orderDto = toOrderDto(outbox);
+            if (orderDto == null) {
+                removed.add(outbox.getId());
+                continue;
+            }
+            sent.add(outbox);
+            try {
+                futures.add(
+                        kafkaTemplate.send(
+                                AppConstants.ORDERS_TOPIC, outbox.getOrderId(), orderDto));
+            } catch (RuntimeException e) {
+                // failing the row alone, so the rows handed over before it are not sent again
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + outboxProperties.sendTimeout().toNanos();
+        int acknowledged = 0;
+        for (int i = 0; i < sent.size(); i++) {
+            OrderOutbox outbox = sent.get(i);
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                removed.add(outbox.getId());
+                acknowledged++;
+                relayLag.record(Duration.between(outbox.getCreatedDate(), Instant.now()));
+            } catch (ExecutionException | TimeoutException e) {
+                failed.increment();
+                log.warn(
+                        "Unable to relay order :{} to {}, will retry on next run : {}",
+                        outbox.getOrderId(),
+                        AppConstants.ORDERS_TOPIC,
+                        e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // rows are still locked by this transaction, so only acknowledged ones are marked as sent
+        orderOutboxRepository.deleteAllByIdInBatch(removed);
+        published.increment(acknowledged);
+        log.debug("Relayed {} of {} outbox rows", acknowledged, pending.size());
+        return removed.size();
+    }
+
+    // null when unreadable, so one bad row cannot hold back the rows queued behind it
+    private OrderDto toOrderDto(OrderOutbox outbox) {
+        try {
+            return objectMapper.readValue(outbox.getPayload(), OrderDto.class);
+        } catch (JsonProcessingException e) {
+            discarded.increment();
+            log.error(
+                    "Discarding outbox row :{} of order :{}, unreadable payload : {}",
+                    outbox.getId(),
+                    outbox.getOrderId(),
+                    outbox.getPayload(),
+                    e);
+            return null;
+        }
+    }
+}
@@ -1,36 +1,52 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.services;
 
 import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
 import com.example.orderservice.config.logging.Loggable;
 import com.example.orderservice.entities.Order;
 import com.example.orderservice.entities.OrderStatus;
+import com.example.orderservice.exception.InvalidCursorException;
 import com.example.orderservice.exception.ProductNotFoundException;
 import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.model.projection.OrderItemRow;
 import com.example.orderservice.model.request.OrderItemRequest;
 import com.example.orderservice.model.request.OrderRequest;
+import com.example.orderservice.model.response.CursorPagedResult;
+import com.example.orderservice.model.response.OrderItemResponse;
 import com.example.orderservice.model.response.OrderResponse;
 import com.example.orderservice.model.response.PagedResult;
 import com.example.orderservice.repositories.OrderRepository;
 import io.micrometer.observation.annotation.Observed;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.jobrunr.jobs.annotations.Job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
 @Transactional(readOnly = true)
@@ -43,17 +59,23 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final CatalogService catalogService;
-    private final KafkaOrderProducer kafkaOrderProducer;
+    private final ProductCodeReplica productCodeReplica;
+    private final OrderOutboxService orderOutboxService;
+    private final Duration sagaReplyTimeout;
 
     public OrderService(
             OrderRepository orderRepository,
             OrderMapper orderMapper,
             CatalogService catalogService,
-            KafkaOrderProducer kafkaOrderProducer) {
+            ProductCodeReplica productCodeReplica,
+            OrderOutboxService orderOutboxService,
+            ApplicationProperties applicationProperties) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
         this.catalogService = catalogService;
-        this.kafkaOrderProducer = kafkaOrderProducer;
+        this.productCodeReplica = productCodeReplica;
+        this.orderOutboxService = orderOutboxService;
+        this.sagaReplyTimeout = applicationProperties.saga().replyTimeout();
     }
 
     public PagedResult<OrderResponse> findAllOrders(
@@ -90,8 +112,9 @@ public class OrderService {
             Order orderEntity = this.orderMapper.orderRequestToEntity(orderRequest);
             Order savedOrder = this.orderRepository.save(orderEntity);
             OrderDto persistedOrderDto = this.orderMapper.toDto(savedOrder);
-            // Should send persistedOrderDto as it contains OrderId used for subsequent processing
-            kafkaOrderProducer.sendOrder(persistedOrderDto);
+            // Should send persistedOrderDto as it contains OrderId used for subsequent processing,
+            // outbox row is committed along with the order and relayed to kafka afterwards
+            orderOutboxService.append(persistedOrderDto);
             return this.orderMapper.toResponse(savedOrder);
         } else {
             log.debug("one or more of product codes :{} does not exists in db", productCodes);
@@ -100,7 +123,12 @@ public class OrderService {
     }
 
     private boolean productsExistsAndInStock(List<String> productIds) {
-        return catalogService.productsExistsByCodes(productIds);
+        // only codes the local replica has never seen need a round trip to catalog
+        List<String> unknownProductIds = productCodeReplica.unknownCodes(productIds);
+        if (unknownProductIds.isEmpty()) {
+            return true;
+        }
+        return catalogService.productsExistsByCodes(unknownProductIds);
     }
 
     @Transactional
@@ -133,20 +161,101 @@ public class OrderService {
         return getOrderResponsePagedResult(page);
     }
 
-    private PagedResult<OrderResponse> getOrderResponsePagedResult(Page<Long> page) {
-        // fetching parent along With ChildEntries
-        List<Order> ordersWithOrderItems = orderRepository.findByIdIn(page.getContent());
-        // Mapping Order to OrderDTO CompletableFuture
-        List<CompletableFuture<OrderResponse>> completableFutureList =
-                ordersWithOrderItems.stream()
-                        .map(
-                                order ->
-                                        CompletableFuture.supplyAsync(
-                                                () -> this.orderMapper.toResponse(order)))
+    public CursorPagedResult<OrderResponse> findAllOrdersAfter(
+            String after, int pageSize, boolean withCount) {
+        // seeks on the primary key instead of OFFSET, so every page costs the same however deep
+        List<Long> ids =
+                orderRepository.findOrderIdsAfter(decodeCursor(after), Limit.of(pageSize + 1));
+        return getOrderResponseCursorPagedResult(
+                ids, pageSize, withCount ? orderRepository.count() : null);
+    }
+
+    public CursorPagedResult<OrderResponse> getOrdersByCustomerIdAfter(
+            Long customerId, String after, int pageSize, boolean withCount) {
+        // served by idx_orders_customer_id_id
+        List<Long> ids =
+                orderRepository.findOrderIdsByCustomerIdAfter(
+                        customerId, decodeCursor(after), Limit.of(pageSize + 1));
+        return getOrderResponseCursorPagedResult(
+                ids, pageSize, withCount ? orderRepository.countByCustomerId(customerId) : null);
+    }
+
+    private CursorPagedResult<OrderResponse> getOrderResponseCursorPagedResult(
+            List<Long> ids, int pageSize, Long totalElements) {
+        // one extra id was fetched only to know whether another page exists
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<OrderResponse> orderListDto = findOrderResponsesByIds(pageIds);
+        String nextCursor = hasNext ? encodeCursor(pageIds.getLast()) : null;
+        return new CursorPagedResult<>(orderListDto, nextCursor, hasNext, totalElements);
+    }
+
+    private static String encodeCursor(Long lastSeenId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(lastSeenId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        // blank cursor starts from the first page
+        if (!StringUtils.hasText(cursor)) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    List<OrderResponse> findOrderResponsesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderItemRow>> rowsByOrderId;
+        try (Stream<OrderItemRow> rows = orderRepository.streamOrderItemRowsByIdIn(ids)) {
+            rowsByOrderId =
+                    rows.collect(
+                            Collectors.groupingBy(
+                                    OrderItemRow::orderId,
+                                    LinkedHashMap::new,
+                                    Collectors.toList()));
+        }
+        // rows arrive ordered by id, responses follow the order of the requested page instead
+        return ids.stream()
+                .map(rowsByOrderId::get)
+                .filter(Objects::nonNull)
+                .map(OrderService::toOrderResponse)
+                .toList();
+    }
+
+    private static OrderResponse toOrderResponse(List<OrderItemRow> rows) {
+        OrderItemRow order = rows.getFirst();
+        List<OrderItemResponse> items =
+                rows.stream()
+                        .filter(OrderItemRow::hasItem)
+                        .map(OrderItemRow::toItemResponse)
                         .toList();
-        // Joining all completable Future to get DTOs
-        List<OrderResponse> orderListDto =
-                completableFutureList.stream().map(CompletableFuture::join).toList();
+        BigDecimal totalPrice =
+                items.stream()
+                        .map(OrderItemResponse::price)
+                        .filter(Objects::nonNull)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new OrderResponse(
+                order.orderId(),
+                order.customerId(),
+                order.status() == null ? null : order.status().name(),
+                order.source(),
+                order.deliveryAddress(),
+                order.createdDate(),
+                totalPrice,
+                items);
+    }
+
+    private PagedResult<OrderResponse> getOrderResponsePagedResult(Page<Long> page) {
+        // fetching parent along With ChildEntries as a flat projection
+        List<OrderResponse> orderListDto = findOrderResponsesByIds(page.getContent());
         return new PagedResult<>(
                 orderListDto,
                 page.getTotalElements(),
@@ -159,16 +268,24 @@ public class OrderService {
     }
 
     @Job(name = "reProcessNewOrders", retries = 2)
+    @Transactional
     public void retryNewOrders() {
-        // fetch all orders where Status is New in Order
+        // fetch all orders where Status is New in Order, younger ones may still be completed by a
+        // late reply waiting in the saga aggregator
         List<Order> byStatusOrderByIdAsc =
                 orderRepository.findByStatusAndCreatedDateLessThanOrderByIdAsc(
-                        OrderStatus.NEW, LocalDateTime.now().minusMinutes(5));
-        byStatusOrderByIdAsc.forEach(
-                order -> {
-                    OrderDto persistedOrderDto = this.orderMapper.toDto(order);
-                    log.info("Retrying Order :{}", persistedOrderDto);
-                    kafkaOrderProducer.sendOrder(persistedOrderDto);
-                });
+                        OrderStatus.NEW, LocalDateTime.now().minus(sagaReplyTimeout));
+        // orders still waiting in the outbox have not been sent yet, resending is a duplicate
+        Set<Long> pendingOrderIds =
+                orderOutboxService.findPendingOrderIds(
+                        byStatusOrderByIdAsc.stream().map(Order::getId).toList());
+        byStatusOrderByIdAsc.stream()
+                .filter(order -> !pendingOrderIds.contains(order.getId()))
+                .forEach(
+                        order -> {
+                            OrderDto persistedOrderDto = this.orderMapper.toDto(order);
+                            log.info("Retrying Order :{}", persistedOrderDto);
+                            orderOutboxService.append(persistedOrderDto);
+                        });
     }
 }
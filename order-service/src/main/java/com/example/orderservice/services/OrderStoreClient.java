@@ -0,0 +1,82 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Optional;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/** Reads the orders store of another order-service instance through its local-only endpoints. */
+@Component
+public class OrderStoreClient {
+
+    private static final ParameterizedTypeReference<List<OrderDto>> ORDER_LIST =
+            new ParameterizedTypeReference<>() {};
+
+    private final RestClient restClient;
+    private final String contextPath;
+
+    public OrderStoreClient(
+            RestClient.Builder restClientBuilder,
+            ApplicationProperties applicationProperties,
+            @Value("${server.servlet.context-path:}") String contextPath) {
+        JdkClientHttpRequestFactory requestFactory =
+                new JdkClientHttpRequestFactory(
+                        HttpClient.newBuilder()
+                                .connectTimeout(applicationProperties.storeQueryTimeout())
+                                .build());
+        requestFactory.setReadTimeout(applicationProperties.storeQueryTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.contextPath = contextPath;
+    }
+
+    public Optional<OrderDto> getOrder(HostInfo hostInfo, Long orderId) {
+        return restClient
+                .get()
+                .uri(storeUri(hostInfo).path("/{id}").buildAndExpand(orderId).toUri())
+                .exchange(
+                        (request, response) -> {
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                                return Optional.empty();
+                            }
+                            if (response.getStatusCode().isError()) {
+                                throw new IllegalStateException(
+                                        "Store query for order %d on %s failed with %s"
+                                                .formatted(
+                                                        orderId,
+                                                        hostInfo,
+                                                        response.getStatusCode()));
+                            }
+                            return Optional.ofNullable(response.bodyTo(OrderDto.class));
+                        });
+    }
+
+    public List<OrderDto> getOrders(HostInfo hostInfo, long from, long to) {
+        URI uri = storeUri(hostInfo).queryParam("from", from).queryParam("to", to).build().toUri();
+        return restClient.get().uri(uri).retrieve().body(ORDER_LIST);
+    }
+
+    private UriComponentsBuilder storeUri(HostInfo hostInfo) {
+        return UriComponentsBuilder.newInstance()
+                .scheme("http")
+                .host(hostInfo.host())
+                .port(hostInfo.port())
+                .path(contextPath)
+                .path("/api/orders/store/local");
+    }
+}
@@ -0,0 +1,117 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Product codes known to catalog-service, rebuilt from the product topic on every start. Only
+ * positive answers are trusted, codes that were never seen still have to be checked with catalog,
+ * and the tombstone catalog publishes, keyed by product code, when a product is deleted removes it
+ * again.
+ */
+@Service
+public class ProductCodeReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCodeReplica.class);
+
+    private final Set<String> productCodes = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong bootstrapNanos = new AtomicLong(-1);
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductCodeReplica(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        Gauge.builder("order.product.replica.size", productCodes, Set::size)
+                .description("Product codes held by the local replica")
+                .register(meterRegistry);
+        TimeGauge.builder(
+                        "order.product.replica.bootstrap",
+                        bootstrapNanos,
+                        TimeUnit.NANOSECONDS,
+                        AtomicLong::get)
+                .description("Time taken to replay the product topic, -1 until caught up")
+                .register(meterRegistry);
+        this.hits =
+                Counter.builder("order.product.replica.lookups")
+                        .tag("result", "hit")
+                        .description("Product codes answered by the local replica")
+                        .register(meterRegistry);
+        this.misses =
+                Counter.builder("order.product.replica.lookups")
+                        .tag("result", "miss")
+                        .description("Product codes that had to be checked with catalog-service")
+                        .register(meterRegistry);
+    }
+
+    /** Returns the codes this replica has not seen, which still need a call to catalog. */
+    public List<String> unknownCodes(List<String> normalizedCodes) {
+        List<String> unknown =
+                normalizedCodes.stream().filter(code -> !productCodes.contains(code)).toList();
+        misses.increment(unknown.size());
+        hits.increment(normalizedCodes.size() - (double) unknown.size());
+        return unknown;
+    }
+
+    /** Records the product carried by the event and returns its code, if it could be read. */
+    public String onProductEvent(String productEvent) {
+        if (productEvent == null) {
+            return null;
+        }
+        try {
+            JsonNode product = objectMapper.readTree(productEvent);
+            // catalog serializes an already serialized product, so the payload may be a string
+            if (product.isTextual()) {
+                product = objectMapper.readTree(product.asText());
+            }
+            String code = product.path("code").asText(null);
+            if (code != null) {
+                code = code.toUpperCase();
+                productCodes.add(code);
+            }
+            return code;
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable product event :{}", productEvent, e);
+            return null;
+        }
+    }
+
+    public void remove(String productCode) {
+        productCodes.remove(productCode.toUpperCase());
+    }
+
+    public boolean isBootstrapped() {
+        return bootstrapNanos.get() >= 0;
+    }
+
+    public void markBootstrapped() {
+        if (bootstrapNanos.compareAndSet(-1, System.nanoTime() - startedAt)) {
+            log.info(
+                    "Product replica caught up with {} codes in {} ms",
+                    productCodes.size(),
+                    TimeUnit.NANOSECONDS.toMillis(bootstrapNanos.get()));
+        }
+    }
+}
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2022 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -15,9 +15,17 @@ public final class AppConstants {
     public static final String PAYMENT_ORDERS_TOPIC = "payment-orders";
     public static final String STOCK_ORDERS_TOPIC = "stock-orders";
     public static final String RECOVER_DLQ_TOPIC = "recovererDLQ";
+    public static final String PRODUCT_TOPIC = "productTopic";
+    public static final String ORDER_STATUS_STORE = "order-status-buffer";
+    public static final String PAYMENT_REPLY_STORE = "order-payment-replies";
+    public static final String STOCK_REPLY_STORE = "order-stock-replies";
     public static final String ROLLBACK = "ROLLBACK";
     public static final String DEFAULT_PAGE_NUMBER = "0";
     public static final String DEFAULT_PAGE_SIZE = "10";
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
+    public static final String PARTIAL_RESULT_HEADER = "X-Partial-Result";
+    public static final int BULK_ORDER_CHUNK_SIZE = 1000;
+    public static final int BULK_JDBC_BATCH_SIZE = 100;
 }
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
@@ -18,6 +18,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 
 @Validated
@@ -25,7 +26,9 @@ import org.springframework.validation.annotation.Validated;
 public interface OrderApi {
 
     @Operation(
-            summary = "fetches all orders from kafka Streams",
+            summary =
+                    "fetches all orders from kafka Streams across all instances, the"
+                            + " X-Partial-Result header is true when an instance did not answer",
             tags = {"order-controller"},
             responses = {
                 @ApiResponse(
@@ -45,7 +48,7 @@ public interface OrderApi {
                                     schema = @Schema(implementation = ProblemDetail.class))
                         })
             })
-    List<OrderDto> all(
+    ResponseEntity<List<OrderDto>> all(
             @Parameter(
                             name = "pageNo",
                             example = AppConstants.DEFAULT_PAGE_SIZE,
@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -10,22 +10,37 @@ import com.example.common.dtos.OrderDto;
 import com.example.orderservice.config.logging.Loggable;
 import com.example.orderservice.exception.ProductNotFoundException;
 import com.example.orderservice.model.request.OrderRequest;
+import com.example.orderservice.model.response.BulkOrderResult;
+import com.example.orderservice.model.response.CursorPagedResult;
 import com.example.orderservice.model.response.OrderResponse;
 import com.example.orderservice.model.response.PagedResult;
+import com.example.orderservice.model.response.StoreQueryResult;
+import com.example.orderservice.services.BulkOrderService;
 import com.example.orderservice.services.OrderGeneratorService;
 import com.example.orderservice.services.OrderKafkaStreamService;
 import com.example.orderservice.services.OrderService;
 import com.example.orderservice.utils.AppConstants;
 import com.example.orderservice.web.api.OrderApi;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -48,14 +63,20 @@ class OrderController implements OrderApi {
     private final OrderService orderService;
     private final OrderGeneratorService orderGeneratorService;
     private final OrderKafkaStreamService orderKafkaStreamService;
+    private final BulkOrderService bulkOrderService;
+    private final ObjectMapper objectMapper;
 
     OrderController(
             OrderService orderService,
             OrderGeneratorService orderGeneratorService,
-            OrderKafkaStreamService orderKafkaStreamService) {
+            OrderKafkaStreamService orderKafkaStreamService,
+            BulkOrderService bulkOrderService,
+            ObjectMapper objectMapper) {
         this.orderService = orderService;
         this.orderGeneratorService = orderGeneratorService;
         this.orderKafkaStreamService = orderKafkaStreamService;
+        this.bulkOrderService = bulkOrderService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -71,6 +92,17 @@ class OrderController implements OrderApi {
         return orderService.findAllOrders(pageNo, pageSize, sortBy, sortDir);
     }
 
+    @GetMapping(params = "after")
+    CursorPagedResult<OrderResponse> getAllOrdersAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    @Min(1)
+                    @Max(AppConstants.MAX_CURSOR_PAGE_SIZE)
+                    int pageSize,
+            @RequestParam(defaultValue = "false", required = false) boolean count) {
+        return orderService.findAllOrdersAfter(after, pageSize, count);
+    }
+
     @GetMapping("/{id}")
     // @Retry(name = "order-api", fallbackMethod = "hardcodedResponse")
     @CircuitBreaker(name = "default", fallbackMethod = "hardcodedResponse")
@@ -98,6 +130,38 @@ class OrderController implements OrderApi {
                 .body(orderResponse);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<List<BulkOrderResult>> createOrders(
+            @RequestBody List<OrderRequest> orderRequests) {
+        List<BulkOrderResult> results = new ArrayList<>(orderRequests.size());
+        bulkOrderService.saveOrders(orderRequests.iterator(), results::addAll);
+        return ResponseEntity.ok(results);
+    }
+
+    // one order per line in, one result per line out, written back as each chunk is saved
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    void createOrdersStream(InputStream requestBody, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream responseBody = response.getOutputStream();
+        try (MappingIterator<OrderRequest> orderRequests =
+                objectMapper.readerFor(OrderRequest.class).readValues(requestBody)) {
+            bulkOrderService.saveOrders(
+                    orderRequests,
+                    results -> {
+                        try {
+                            for (BulkOrderResult result : results) {
+                                responseBody.write(objectMapper.writeValueAsBytes(result));
+                                responseBody.write('\n');
+                            }
+                            responseBody.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        }
+    }
+
     @PutMapping("/{id}")
     ResponseEntity<OrderResponse> updateOrder(
             @PathVariable Long id, @RequestBody @Valid OrderRequest orderRequest) {
@@ -129,12 +193,15 @@ class OrderController implements OrderApi {
 
     @GetMapping("/all")
     @Override
-    public List<OrderDto> all(
+    public ResponseEntity<List<OrderDto>> all(
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false)
                     int pageNo,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
                     int pageSize) {
-        return orderKafkaStreamService.getAllOrders(pageNo, pageSize);
+        StoreQueryResult<OrderDto> result = orderKafkaStreamService.getAllOrders(pageNo, pageSize);
+        return ResponseEntity.ok()
+                .header(AppConstants.PARTIAL_RESULT_HEADER, String.valueOf(result.partial()))
+                .body(result.data());
     }
 
     @GetMapping("/customer/{id}")
@@ -142,4 +209,16 @@ class OrderController implements OrderApi {
             @PathVariable Long id, Pageable pageable) {
         return ResponseEntity.ok(orderService.getOrdersByCustomerId(id, pageable));
     }
+
+    @GetMapping(value = "/customer/{id}", params = "after")
+    ResponseEntity<CursorPagedResult<OrderResponse>> ordersByCustomerIdAfter(
+            @PathVariable Long id,
+            @RequestParam String after,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    @Min(1)
+                    @Max(AppConstants.MAX_CURSOR_PAGE_SIZE)
+                    int size,
+            @RequestParam(defaultValue = "false", required = false) boolean count) {
+        return ResponseEntity.ok(orderService.getOrdersByCustomerIdAfter(id, after, size, count));
+    }
 }
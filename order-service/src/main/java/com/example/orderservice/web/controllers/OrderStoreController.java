@@ -0,0 +1,49 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.web.controllers;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.logging.Loggable;
+import com.example.orderservice.services.OrderKafkaStreamService;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Interactive queries on the orders store. The {@code /local} endpoints only read this instance's
+ * partitions and are what other instances call when routing or fanning out a query.
+ */
+@RestController
+@RequestMapping("/api/orders/store")
+@Loggable
+class OrderStoreController {
+
+    private final OrderKafkaStreamService orderKafkaStreamService;
+
+    OrderStoreController(OrderKafkaStreamService orderKafkaStreamService) {
+        this.orderKafkaStreamService = orderKafkaStreamService;
+    }
+
+    @GetMapping("/{id}")
+    ResponseEntity<OrderDto> getOrder(@PathVariable Long id) {
+        return ResponseEntity.of(orderKafkaStreamService.getOrder(id));
+    }
+
+    @GetMapping("/local/{id}")
+    ResponseEntity<OrderDto> getLocalOrder(@PathVariable Long id) {
+        return ResponseEntity.of(orderKafkaStreamService.getLocalOrder(id));
+    }
+
+    @GetMapping("/local")
+    List<OrderDto> getLocalOrders(@RequestParam long from, @RequestParam long to) {
+        return orderKafkaStreamService.getLocalOrders(from, to);
+    }
+}
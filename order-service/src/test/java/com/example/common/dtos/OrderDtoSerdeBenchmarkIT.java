@@ -0,0 +1,101 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.common.dtos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Serialize and deserialize throughput, plus bytes per record, of the binary OrderDto format
+ * against the JsonSerializer/JsonDeserializer pair used on the saga topics until now.
+ */
+class OrderDtoSerdeBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderDtoSerdeBenchmarkIT.class);
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    private final List<OrderDto> orders =
+            IntStream.range(0, 64).mapToObj(OrderDtoSerdeBenchmarkIT::orderDto).toList();
+
+    @Test
+    void binaryIsSmallerAndReportsThroughput() {
+        JsonSerializer<OrderDto> jsonSerializer = new JsonSerializer<>();
+        JsonDeserializer<OrderDto> jsonDeserializer = new JsonDeserializer<>(OrderDto.class, false);
+        OrderDtoSerializer<OrderDto> binarySerializer =
+                new OrderDtoSerializer<>(OrderDtoSerializer.FORMAT_BINARY);
+        OrderDtoDeserializer binaryDeserializer = new OrderDtoDeserializer();
+
+        Function<OrderDto, byte[]> jsonWrite =
+                order -> jsonSerializer.serialize("orders", new RecordHeaders(), order);
+        Function<OrderDto, byte[]> binaryWrite =
+                order -> binarySerializer.serialize("orders", new RecordHeaders(), order);
+        List<byte[]> json = orders.stream().map(jsonWrite).toList();
+        List<byte[]> binary = orders.stream().map(binaryWrite).toList();
+
+        double jsonBytes = json.stream().mapToInt(bytes -> bytes.length).average().orElseThrow();
+        double binaryBytes =
+                binary.stream().mapToInt(bytes -> bytes.length).average().orElseThrow();
+        log.info("bytes per record : json {} , binary {}", jsonBytes, binaryBytes);
+        log.info(
+                "serialize ops/s : json {} , binary {}",
+                opsPerSecond(orders, jsonWrite),
+                opsPerSecond(orders, binaryWrite));
+        log.info(
+                "deserialize ops/s : json {} , binary {}",
+                opsPerSecond(json, bytes -> jsonDeserializer.deserialize("orders", bytes)),
+                opsPerSecond(binary, bytes -> binaryDeserializer.deserialize("orders", bytes)));
+
+        assertThat(binaryBytes).isLessThan(jsonBytes);
+    }
+
+    private static <T> long opsPerSecond(List<T> inputs, Function<T, ?> operation) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += operation.apply(inputs.get(i % inputs.size())).hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += operation.apply(inputs.get(i % inputs.size())).hashCode();
+        }
+        long elapsed = System.nanoTime() - start;
+        log.trace("sink {}", sink);
+        return MEASURED_ITERATIONS * 1_000_000_000L / elapsed;
+    }
+
+    private static OrderDto orderDto(int seed) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(10_000L + seed);
+        orderDto.setCustomerId(100L + seed % 10);
+        orderDto.setStatus("NEW");
+        orderDto.setSource("INVENTORY");
+        orderDto.setItems(
+                IntStream.range(0, 1 + seed % 4)
+                        .mapToObj(
+                                i -> {
+                                    OrderItemDto item = new OrderItemDto();
+                                    item.setItemId((long) seed * 10 + i);
+                                    item.setProductId("P%04d".formatted(seed + i));
+                                    item.setQuantity(1 + i);
+                                    item.setProductPrice(BigDecimal.valueOf(1999 + seed, 2));
+                                    return item;
+                                })
+                        .toList());
+        return orderDto;
+    }
+}
@@ -0,0 +1,109 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.common.dtos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+class OrderDtoSerdeTest {
+
+    private final OrderDtoDeserializer deserializer = new OrderDtoDeserializer();
+
+    @Test
+    void binaryRoundTripKeepsEveryField() {
+        OrderDto orderDto = orderDto();
+
+        byte[] data = OrderDtoBinaryCodec.encode(orderDto);
+        OrderDto decoded = deserializer.deserialize("orders", data);
+
+        assertThat(data[0]).isEqualTo(OrderDtoBinaryCodec.MAGIC);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(orderDto);
+    }
+
+    @Test
+    void binaryRoundTripKeepsNulls() {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setStatus(null);
+        orderDto.setItems(null);
+
+        OrderDto decoded = OrderDtoBinaryCodec.decode(OrderDtoBinaryCodec.encode(orderDto));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(orderDto);
+    }
+
+    @Test
+    void fieldsAppendedByNewerWritersAreSkipped() {
+        OrderDto orderDto = orderDto();
+        byte[] data = OrderDtoBinaryCodec.encode(orderDto);
+        byte[] newer = Arrays.copyOf(data, data.length + 3);
+        newer[data.length] = 1;
+        newer[data.length + 1] = 42;
+        newer[data.length + 2] = 7;
+
+        assertThat(OrderDtoBinaryCodec.decode(newer))
+                .usingRecursiveComparison()
+                .isEqualTo(orderDto);
+    }
+
+    @Test
+    void jsonWrittenBySpringJsonSerializerIsStillReadable() {
+        OrderDto orderDto = orderDto();
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json;
+        try (JsonSerializer<OrderDto> jsonSerializer = new JsonSerializer<>()) {
+            json = jsonSerializer.serialize("orders", headers, orderDto);
+        }
+
+        assertThat(deserializer.deserialize("orders", headers, json))
+                .usingRecursiveComparison()
+                .isEqualTo(orderDto);
+    }
+
+    @Test
+    void serializerWritesFormatSelectedByConfig() {
+        OrderDto orderDto = orderDto();
+        try (OrderDtoSerializer<Object> serializer = new OrderDtoSerializer<>()) {
+            serializer.configure(Map.of(OrderDtoSerializer.FORMAT_CONFIG, "json"), false);
+            byte[] json = serializer.serialize("orders", new RecordHeaders(), orderDto);
+            serializer.configure(Map.of(OrderDtoSerializer.FORMAT_CONFIG, "binary"), false);
+            byte[] binary = serializer.serialize("orders", new RecordHeaders(), orderDto);
+            byte[] other = serializer.serialize("orders", new RecordHeaders(), "not an order");
+
+            assertThat(json[0]).isEqualTo((byte) '{');
+            assertThat(binary[0]).isEqualTo(OrderDtoBinaryCodec.MAGIC);
+            assertThat(binary.length).isLessThan(json.length / 2);
+            assertThat(other[0]).isEqualTo((byte) '"');
+        }
+    }
+
+    private OrderDto orderDto() {
+        OrderItemDto first = new OrderItemDto();
+        first.setItemId(1L);
+        first.setProductId("P0001");
+        first.setQuantity(3);
+        first.setProductPrice(new BigDecimal("10.25"));
+        OrderItemDto second = new OrderItemDto();
+        second.setItemId(2L);
+        second.setProductId("P0002");
+        second.setQuantity(-1);
+        second.setProductPrice(new BigDecimal("123456789012345678901234567890.123"));
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(1001L);
+        orderDto.setCustomerId(42L);
+        orderDto.setStatus("NEW");
+        orderDto.setSource("INVENTORY");
+        orderDto.setItems(List.of(first, second));
+        return orderDto;
+    }
+}
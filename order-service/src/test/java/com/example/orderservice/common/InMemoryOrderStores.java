@@ -0,0 +1,55 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.common;
+
+import com.example.common.dtos.OrderDto;
+import com.example.common.dtos.OrderDtoSerde;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+
+/**
+ * In-memory stores of orders keyed by order id, registered with a {@link MockProcessorContext} so
+ * processors under test find them by name. Values go through the same serde as in the topology, so
+ * what is read back is a copy of what was put.
+ */
+public final class InMemoryOrderStores {
+
+    private static final Serde<OrderDto> ORDER_SERDE = new OrderDtoSerde("json");
+
+    private InMemoryOrderStores() {}
+
+    public static KeyValueStore<Long, OrderDto> keyValueStore(
+            MockProcessorContext<?, ?> context, String name) {
+        return register(
+                context,
+                Stores.keyValueStoreBuilder(
+                                Stores.inMemoryKeyValueStore(name), Serdes.Long(), ORDER_SERDE)
+                        .withLoggingDisabled()
+                        .build());
+    }
+
+    public static TimestampedKeyValueStore<Long, OrderDto> timestampedKeyValueStore(
+            MockProcessorContext<?, ?> context, String name) {
+        return register(
+                context,
+                Stores.timestampedKeyValueStoreBuilder(
+                                Stores.inMemoryKeyValueStore(name), Serdes.Long(), ORDER_SERDE)
+                        .withLoggingDisabled()
+                        .build());
+    }
+
+    private static <S extends StateStore> S register(MockProcessorContext<?, ?> context, S store) {
+        store.init(context.getStateStoreContext(), store);
+        context.addStateStore(store);
+        return store;
+    }
+}
@@ -0,0 +1,181 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.common.InMemoryOrderStores;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.services.OrderManageService;
+import com.example.orderservice.utils.AppConstants;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusBatchProcessorTest {
+
+    @Mock private OrderManageService orderManageService;
+
+    private MockProcessorContext<Long, OrderDto> context;
+    private KeyValueStore<Long, OrderDto> buffer;
+    private OrderStatusBatchProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        context = new MockProcessorContext<>();
+        buffer = InMemoryOrderStores.keyValueStore(context, AppConstants.ORDER_STATUS_STORE);
+        processor =
+                new OrderStatusBatchProcessor(
+                        orderManageService,
+                        new ApplicationProperties.StatusBatch(Duration.ofMillis(200), 2));
+        processor.init(context);
+    }
+
+    @Test
+    void process_BelowMaxSize_OnlyBuffers() {
+        // Act
+        processor.process(new Record<>(1L, orderDto(1L), 10L));
+
+        // Assert
+        assertThat(buffer.get(1L)).isNotNull();
+        verify(orderManageService, never()).updateOrderStatuses(anyCollection());
+        assertThat(context.forwarded()).isEmpty();
+    }
+
+    @Test
+    void flush_WritesBufferedStatusesOnceThenForwards() {
+        // Arrange
+        buffer.put(1L, orderDto(1L));
+        buffer.put(2L, orderDto(2L));
+
+        // Act
+        processor.flush(100L);
+
+        // Assert
+        verify(orderManageService).updateOrderStatuses(withOrderIds(1L, 2L));
+        assertThat(forwardedKeys()).containsExactly(1L, 2L);
+        assertThat(buffer.approximateNumEntries()).isZero();
+    }
+
+    @Test
+    void flush_WriteFails_KeepsStatusesBuffered() {
+        // Arrange
+        buffer.put(1L, orderDto(1L));
+        willThrow(new QueryTimeoutException("timeout"))
+                .given(orderManageService)
+                .updateOrderStatuses(anyCollection());
+
+        // Act
+        processor.flush(100L);
+
+        // Assert
+        assertThat(context.forwarded()).isEmpty();
+        assertThat(buffer.get(1L)).isNotNull();
+    }
+
+    @Test
+    void process_AfterFailedWrite_WaitsForMaxSizeMoreBeforeWritingAgain() {
+        // Arrange
+        willThrow(new QueryTimeoutException("timeout"))
+                .given(orderManageService)
+                .updateOrderStatuses(anyCollection());
+        processor.process(new Record<>(1L, orderDto(1L), 10L));
+        processor.process(new Record<>(2L, orderDto(2L), 11L));
+
+        // Act
+        processor.process(new Record<>(3L, orderDto(3L), 12L));
+
+        // Assert the batch and then each status once, nothing more for the third record
+        verify(orderManageService, times(3)).updateOrderStatuses(anyCollection());
+    }
+
+    @Test
+    void flush_UnknownStatus_DroppedWhileOthersAreWritten() {
+        // Arrange
+        OrderDto unknown = orderDto(2L);
+        unknown.setStatus("SHIPPED");
+        OrderDto missing = orderDto(3L);
+        missing.setStatus(null);
+        buffer.put(1L, orderDto(1L));
+        buffer.put(2L, unknown);
+        buffer.put(3L, missing);
+
+        // Act
+        processor.flush(100L);
+
+        // Assert
+        verify(orderManageService).updateOrderStatuses(withOrderIds(1L));
+        assertThat(forwardedKeys()).containsExactly(1L);
+        assertThat(buffer.approximateNumEntries()).isZero();
+    }
+
+    @Test
+    void flush_BatchFails_WritesOneAtATimeAndKeepsOnlyFailingStatus() {
+        // Arrange
+        buffer.put(1L, orderDto(1L));
+        buffer.put(2L, orderDto(2L));
+        willAnswer(
+                        invocation -> {
+                            Collection<OrderDto> orders = invocation.getArgument(0);
+                            if (orders.stream().anyMatch(order -> order.getOrderId() == 2L)) {
+                                throw new QueryTimeoutException("timeout");
+                            }
+                            return orders.size();
+                        })
+                .given(orderManageService)
+                .updateOrderStatuses(anyCollection());
+
+        // Act
+        processor.flush(100L);
+
+        // Assert
+        verify(orderManageService).updateOrderStatuses(withOrderIds(1L));
+        assertThat(forwardedKeys()).containsExactly(1L);
+        assertThat(buffer.get(1L)).isNull();
+        assertThat(buffer.get(2L)).isNotNull();
+    }
+
+    private List<Long> forwardedKeys() {
+        return context.forwarded().stream()
+                .<Long>map(forward -> forward.record().key())
+                .toList();
+    }
+
+    private static Collection<OrderDto> withOrderIds(Long... orderIds) {
+        return argThat(
+                orders ->
+                        orders.stream()
+                                .map(OrderDto::getOrderId)
+                                .toList()
+                                .equals(List.of(orderIds)));
+    }
+
+    private static OrderDto orderDto(Long orderId) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setStatus("CONFIRMED");
+        return orderDto;
+    }
+}
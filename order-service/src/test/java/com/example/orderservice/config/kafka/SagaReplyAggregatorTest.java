@@ -0,0 +1,137 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.config.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.BDDMockito.given;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.common.InMemoryOrderStores;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.services.OrderManageService;
+import com.example.orderservice.utils.AppConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SagaReplyAggregatorTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Mock private OrderManageService orderManageService;
+
+    private MockProcessorContext<Long, OrderDto> context;
+    private TimestampedKeyValueStore<Long, OrderDto> paymentReplies;
+    private TimestampedKeyValueStore<Long, OrderDto> stockReplies;
+    private SimpleMeterRegistry meterRegistry;
+    private SagaReplyAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        context = new MockProcessorContext<>();
+        context.setCurrentSystemTimeMs(NOW);
+        paymentReplies =
+                InMemoryOrderStores.timestampedKeyValueStore(
+                        context, AppConstants.PAYMENT_REPLY_STORE);
+        stockReplies =
+                InMemoryOrderStores.timestampedKeyValueStore(
+                        context, AppConstants.STOCK_REPLY_STORE);
+        aggregator =
+                new SagaReplyAggregator(
+                        orderManageService,
+                        new ApplicationProperties.Saga(
+                                Duration.ofMinutes(5), Duration.ofSeconds(10)),
+                        new SagaReplyMetrics(meterRegistry));
+        aggregator.init(context);
+    }
+
+    @Test
+    void process_FirstReply_WaitsForOtherSide() {
+        // Arrange
+        context.setRecordMetadata(AppConstants.PAYMENT_ORDERS_TOPIC, 0, 0L);
+
+        // Act
+        aggregator.process(new Record<>(1L, reply(1L, "ACCEPT"), 10L));
+
+        // Assert
+        ValueAndTimestamp<OrderDto> waiting = paymentReplies.get(1L);
+        assertThat(waiting.timestamp()).isEqualTo(NOW);
+        assertThat(waiting.value().getStatus()).isEqualTo("ACCEPT");
+        assertThat(context.forwarded()).isEmpty();
+    }
+
+    @Test
+    void process_LateSecondReply_ConfirmsOrder() {
+        // Arrange
+        context.setRecordMetadata(AppConstants.STOCK_ORDERS_TOPIC, 0, 0L);
+        OrderDto stock = reply(1L, "ACCEPT");
+        OrderDto confirmed = reply(1L, "CONFIRMED");
+        // a minute late, the former join window dropped anything after 10 seconds
+        paymentReplies.put(1L, ValueAndTimestamp.make(reply(1L, "ACCEPT"), NOW - 60_000));
+        given(
+                        orderManageService.confirm(
+                                argThat(payment -> payment.getOrderId() == 1L), same(stock)))
+                .willReturn(confirmed);
+
+        // Act
+        aggregator.process(new Record<>(1L, stock, 10L));
+
+        // Assert
+        assertThat(paymentReplies.get(1L)).isNull();
+        assertThat(context.forwarded()).hasSize(1);
+        assertThat(context.forwarded().getFirst().record())
+                .isEqualTo(new Record<>(1L, confirmed, 10L));
+        assertThat(meterRegistry.timer("order.saga.reply.gap").totalTime(TimeUnit.SECONDS))
+                .isEqualTo(60);
+    }
+
+    @Test
+    void expire_DropsOldRepliesAndReportsWaiting() {
+        // Arrange
+        long expired = NOW - Duration.ofMinutes(6).toMillis();
+        long waiting = NOW - Duration.ofMinutes(1).toMillis();
+        paymentReplies.put(1L, ValueAndTimestamp.make(reply(1L, "ACCEPT"), expired));
+        paymentReplies.put(2L, ValueAndTimestamp.make(reply(2L, "ACCEPT"), waiting));
+
+        // Act
+        aggregator.expire(NOW);
+
+        // Assert
+        assertThat(paymentReplies.get(1L)).isNull();
+        assertThat(paymentReplies.get(2L)).isNotNull();
+        assertThat(meterRegistry.counter("order.saga.reply.expired").count()).isOne();
+        assertThat(meterRegistry.get("order.saga.waiting").tag("awaiting", "stock").gauge().value())
+                .isOne();
+        assertThat(
+                        meterRegistry
+                                .get("order.saga.waiting")
+                                .tag("awaiting", "payment")
+                                .gauge()
+                                .value())
+                .isZero();
+    }
+
+    private static OrderDto reply(Long orderId, String status) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setStatus(status);
+        return orderDto;
+    }
+}
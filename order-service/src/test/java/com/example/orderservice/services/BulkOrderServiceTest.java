@@ -0,0 +1,127 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.entities.Order;
+import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.model.request.OrderItemRequest;
+import com.example.orderservice.model.request.OrderRequest;
+import com.example.orderservice.model.response.BulkOrderResult;
+import com.example.orderservice.repositories.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class BulkOrderServiceTest {
+
+    @Mock private OrderRepository orderRepository;
+    @Mock private OrderMapper orderMapper;
+    @Mock private OrderOutboxService orderOutboxService;
+    @Mock private ProductCodeReplica productCodeReplica;
+    @Mock private CatalogService catalogService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private EntityManager entityManager;
+    @Mock private Session session;
+
+    private BulkOrderService bulkOrderService;
+
+    @BeforeEach
+    void setUp() {
+        bulkOrderService =
+                new BulkOrderService(
+                        orderRepository,
+                        orderMapper,
+                        orderOutboxService,
+                        productCodeReplica,
+                        catalogService,
+                        Validation.buildDefaultValidatorFactory().getValidator(),
+                        transactionTemplate,
+                        entityManager);
+    }
+
+    @Test
+    void saveOrders_RejectsInvalidOrdersAndSavesTheRestInOneTransaction() {
+        // Arrange
+        OrderRequest valid = orderRequest(1L, "p001");
+        OrderRequest unknownProduct = orderRequest(2L, "P404");
+        OrderRequest withoutCustomer = orderRequest(0L, "P001");
+        given(productCodeReplica.unknownCodes(List.of("P001", "P404")))
+                .willReturn(List.of("P001", "P404"));
+        given(catalogService.findMissingProductCodes(List.of("P001", "P404")))
+                .willReturn(Set.of("P404"));
+        given(orderMapper.orderRequestToEntity(valid)).willReturn(new Order());
+        given(orderMapper.toDto(any(Order.class))).willReturn(new OrderDto());
+        given(entityManager.unwrap(Session.class)).willReturn(session);
+        willAnswer(
+                        invocation -> {
+                            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                            return null;
+                        })
+                .given(transactionTemplate)
+                .executeWithoutResult(any());
+        willAnswer(
+                        invocation -> {
+                            invocation.<List<Order>>getArgument(0).getFirst().setId(51L);
+                            return invocation.getArgument(0);
+                        })
+                .given(orderRepository)
+                .saveAll(anyList());
+
+        // Act
+        List<BulkOrderResult> results = new ArrayList<>();
+        bulkOrderService.saveOrders(
+                List.of(valid, unknownProduct, withoutCustomer).iterator(), results::addAll);
+
+        // Assert
+        assertThat(results)
+                .containsExactly(
+                        BulkOrderResult.accepted(0, 51L),
+                        BulkOrderResult.rejected(1, "Product codes not found : [P404]"),
+                        BulkOrderResult.rejected(2, "customerId : CustomerId should be positive"));
+        verify(session).setJdbcBatchSize(100);
+        verify(orderOutboxService).append(any(OrderDto.class));
+    }
+
+    @Test
+    void saveOrders_WhenEveryOrderIsRejected_OpensNoTransaction() {
+        // Act
+        List<BulkOrderResult> results = new ArrayList<>();
+        bulkOrderService.saveOrders(Arrays.asList((OrderRequest) null).iterator(), results::addAll);
+
+        // Assert
+        assertThat(results).containsExactly(BulkOrderResult.rejected(0, "Order is required"));
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    private OrderRequest orderRequest(Long customerId, String productCode) {
+        return new OrderRequest(
+                customerId, List.of(new OrderItemRequest(productCode, 1, BigDecimal.TEN)), null);
+    }
+}
@@ -0,0 +1,125 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.example.orderservice.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogServiceTest {
+
+    @Mock private CatalogServiceProxy catalogServiceProxy;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties =
+                new ApplicationProperties(
+                        "http://localhost",
+                        false,
+                        Duration.ofSeconds(2),
+                        null,
+                        null,
+                        new ApplicationProperties.ProductCache(
+                                100, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+                        null,
+                        null);
+        catalogService =
+                new CatalogService(catalogServiceProxy, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void productsExistsByCodes_OnPartialHit_AsksCatalogOnlyForMisses() {
+        // Arrange
+        given(catalogServiceProxy.productsExistsByCodes(List.of("P001"))).willReturn(true);
+        given(catalogServiceProxy.productsExistsByCodes(List.of("P002"))).willReturn(true);
+        catalogService.productsExistsByCodes(List.of("P001"));
+
+        // Act
+        boolean exists = catalogService.productsExistsByCodes(List.of("P001", "P002"));
+
+        // Assert
+        assertThat(exists).isTrue();
+        verify(catalogServiceProxy).productsExistsByCodes(List.of("P001"));
+        verify(catalogServiceProxy).productsExistsByCodes(List.of("P002"));
+        verifyNoMoreInteractions(catalogServiceProxy);
+        assertThat(
+                        meterRegistry
+                                .get("cache.gets")
+                                .tag("cache", "catalog.product.exists")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void productsExistsByCodes_CachesNegativeAnswerForSingleCode() {
+        // Arrange
+        given(catalogServiceProxy.productsExistsByCodes(List.of("P404"))).willReturn(false);
+
+        // Act
+        boolean first = catalogService.productsExistsByCodes(List.of("P404"));
+        boolean second = catalogService.productsExistsByCodes(List.of("P001", "P404"));
+
+        // Assert
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        verify(catalogServiceProxy).productsExistsByCodes(List.of("P404"));
+        verifyNoMoreInteractions(catalogServiceProxy);
+    }
+
+    @Test
+    void findMissingProductCodes_AsksCatalogOnceAndCachesEveryCode() {
+        // Arrange
+        given(catalogServiceProxy.findExistingProductCodes(List.of("P001", "P002", "P404")))
+                .willReturn(List.of("p001", "P002"));
+
+        // Act
+        Set<String> first = catalogService.findMissingProductCodes(List.of("P001", "P002", "P404"));
+        Set<String> second = catalogService.findMissingProductCodes(List.of("P404", "P001"));
+        boolean exists = catalogService.productsExistsByCodes(List.of("P002"));
+
+        // Assert
+        assertThat(first).containsExactly("P404");
+        assertThat(second).containsExactly("P404");
+        assertThat(exists).isTrue();
+        verify(catalogServiceProxy).findExistingProductCodes(List.of("P001", "P002", "P404"));
+        verifyNoMoreInteractions(catalogServiceProxy);
+    }
+
+    @Test
+    void evictProductCode_ForcesNextLookupToCatalog() {
+        // Arrange
+        given(catalogServiceProxy.productsExistsByCodes(List.of("P001"))).willReturn(true);
+        catalogService.productsExistsByCodes(List.of("P001"));
+
+        // Act
+        catalogService.evictProductCode("P001");
+        catalogService.productsExistsByCodes(List.of("P001"));
+
+        // Assert
+        verify(catalogServiceProxy, times(2)).productsExistsByCodes(List.of("P001"));
+    }
+}
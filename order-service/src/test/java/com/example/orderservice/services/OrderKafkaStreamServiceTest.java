@@ -0,0 +1,134 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.common.InMemoryOrderStores;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.model.response.StoreQueryResult;
+import com.example.orderservice.utils.AppConstants;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+
+@ExtendWith(MockitoExtension.class)
+class OrderKafkaStreamServiceTest {
+
+    private static final HostInfo SELF = new HostInfo("order-service-1", 18282);
+    private static final HostInfo PEER = new HostInfo("order-service-2", 18282);
+    private static final HostInfo SLOW_PEER = new HostInfo("order-service-3", 18282);
+
+    @Mock private StreamsBuilderFactoryBean kafkaStreamsFactory;
+    @Mock private KafkaStreams kafkaStreams;
+    @Mock private OrderStoreClient orderStoreClient;
+
+    private OrderKafkaStreamService orderKafkaStreamService;
+
+    @BeforeEach
+    void setUp() {
+        Properties streamsConfiguration = new Properties();
+        streamsConfiguration.put(StreamsConfig.APPLICATION_SERVER_CONFIG, "order-service-1:18282");
+        given(kafkaStreamsFactory.getStreamsConfiguration()).willReturn(streamsConfiguration);
+        given(kafkaStreamsFactory.getKafkaStreams()).willReturn(kafkaStreams);
+        orderKafkaStreamService =
+                new OrderKafkaStreamService(
+                        kafkaStreamsFactory,
+                        orderStoreClient,
+                        new ApplicationProperties(
+                                "http://localhost",
+                                false,
+                                Duration.ofMillis(200),
+                                null,
+                                null,
+                                null,
+                                null,
+                                null));
+    }
+
+    @Test
+    void getAllOrders_MergesEveryInstanceInOrderAndFlagsPartialResult() {
+        // Arrange
+        List<StreamsMetadata> metadata =
+                List.of(metadata(SELF), metadata(PEER), metadata(SLOW_PEER));
+        given(kafkaStreams.streamsMetadataForStore(AppConstants.ORDERS_TOPIC)).willReturn(metadata);
+        KeyValueStore<Long, OrderDto> store =
+                InMemoryOrderStores.keyValueStore(
+                        new MockProcessorContext<>(), AppConstants.ORDERS_TOPIC);
+        store.put(2L, order(2L));
+        store.put(5L, order(5L));
+        given(kafkaStreams.<ReadOnlyKeyValueStore<Long, OrderDto>>store(any())).willReturn(store);
+        given(orderStoreClient.getOrders(PEER, 0, 10)).willReturn(List.of(order(1L), order(3L)));
+        given(orderStoreClient.getOrders(SLOW_PEER, 0, 10))
+                .willAnswer(
+                        invocation -> {
+                            Thread.sleep(Duration.ofSeconds(5));
+                            return List.of(order(4L));
+                        });
+
+        // Act
+        StoreQueryResult<OrderDto> result = orderKafkaStreamService.getAllOrders(0, 10);
+
+        // Assert
+        assertThat(result.partial()).isTrue();
+        assertThat(result.data()).extracting(OrderDto::getOrderId).containsExactly(1L, 2L, 3L, 5L);
+    }
+
+    @Test
+    void getOrder_RoutesLookupToOwningInstance() {
+        // Arrange
+        given(
+                        kafkaStreams.queryMetadataForKey(
+                                eq(AppConstants.ORDERS_TOPIC), eq(7L), any(Serializer.class)))
+                .willReturn(new KeyQueryMetadata(PEER, Set.of(), 0));
+        given(orderStoreClient.getOrder(PEER, 7L)).willReturn(Optional.of(order(7L)));
+
+        // Act
+        Optional<OrderDto> order = orderKafkaStreamService.getOrder(7L);
+
+        // Assert
+        assertThat(order).map(OrderDto::getOrderId).contains(7L);
+        verify(kafkaStreams, never()).store(any(StoreQueryParameters.class));
+    }
+
+    private StreamsMetadata metadata(HostInfo hostInfo) {
+        StreamsMetadata metadata = mock(StreamsMetadata.class);
+        given(metadata.hostInfo()).willReturn(hostInfo);
+        return metadata;
+    }
+
+    private OrderDto order(Long orderId) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        return orderDto;
+    }
+}
@@ -1,27 +1,42 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2023 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli.
 </p>
 ***/
 
 package com.example.orderservice.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import com.example.common.dtos.OrderDto;
-import com.example.orderservice.repositories.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class OrderManageServiceTest {
 
-    @Mock private OrderRepository orderRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
 
-    @InjectMocks private OrderManageService orderManageService;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderManageService orderManageService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderManageService = new OrderManageService(jdbcTemplate, meterRegistry);
+    }
 
     @Test
     void confirm_BothPaymentAndStockAreAccepted_ReturnsConfirmedOrder() {
@@ -104,4 +119,42 @@ class OrderManageServiceTest {
         assertThat(actual.getStatus()).isEqualTo("ROLLBACK");
         assertThat(actual.getSource()).isEqualTo("INVENTORY");
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateOrderStatuses_WritesAllOrdersInOneBatch() {
+        // Arrange
+        OrderDto confirmed = new OrderDto();
+        confirmed.setOrderId(1L);
+        confirmed.setStatus("CONFIRMED");
+        OrderDto rollback = new OrderDto();
+        rollback.setOrderId(2L);
+        rollback.setStatus("ROLLBACK");
+        rollback.setSource("PAYMENT");
+        given(jdbcTemplate.batchUpdate(anyString(), anyList())).willReturn(new int[] {1, 1});
+
+        // Act
+        int rows = orderManageService.updateOrderStatuses(List.of(confirmed, rollback));
+
+        // Assert
+        assertThat(rows).isEqualTo(2);
+        ArgumentCaptor<List<Object[]>> arguments = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), arguments.capture());
+        assertThat(arguments.getValue())
+                .containsExactly(
+                        new Object[] {"CONFIRMED", null, 1L},
+                        new Object[] {"ROLLBACK", "PAYMENT", 2L});
+        assertThat(meterRegistry.summary("order.status.flush.size").totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.timer("order.status.flush.latency").count()).isOne();
+    }
+
+    @Test
+    void updateOrderStatuses_NothingBuffered_SkipsDatabase() {
+        // Act
+        int rows = orderManageService.updateOrderStatuses(List.of());
+
+        // Assert
+        assertThat(rows).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
 }
@@ -0,0 +1,165 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.common.dtos.OrderDto;
+import com.example.orderservice.config.ApplicationProperties;
+import com.example.orderservice.entities.OrderOutbox;
+import com.example.orderservice.repositories.OrderOutboxRepository;
+import com.example.orderservice.utils.AppConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxServiceTest {
+
+    @Mock private OrderOutboxRepository orderOutboxRepository;
+    @Mock private KafkaTemplate<Long, OrderDto> kafkaTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderOutboxService orderOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties =
+                new ApplicationProperties(
+                        "http://localhost",
+                        false,
+                        Duration.ofSeconds(2),
+                        null,
+                        new ApplicationProperties.Outbox(
+                                10, Duration.ofMillis(500), Duration.ofSeconds(1)),
+                        null,
+                        null,
+                        null);
+        orderOutboxService =
+                new OrderOutboxService(
+                        orderOutboxRepository,
+                        kafkaTemplate,
+                        objectMapper,
+                        transactionTemplate,
+                        applicationProperties,
+                        meterRegistry);
+    }
+
+    @Test
+    void relayBatch_RemovesOnlyAcknowledgedRows() throws Exception {
+        // Arrange
+        OrderOutbox first = outbox(1L, 101L);
+        OrderOutbox second = outbox(2L, 102L);
+        given(orderOutboxRepository.findPendingForUpdate(Limit.of(10)))
+                .willReturn(List.of(first, second));
+        given(kafkaTemplate.send(eq(AppConstants.ORDERS_TOPIC), eq(101L), any(OrderDto.class)))
+                .willReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        given(kafkaTemplate.send(eq(AppConstants.ORDERS_TOPIC), eq(102L), any(OrderDto.class)))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("broker")));
+
+        // Act
+        int relayed = orderOutboxService.relayBatch();
+
+        // Assert
+        assertThat(relayed).isOne();
+        verify(orderOutboxRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(meterRegistry.get("order.outbox.relay.published").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("order.outbox.relay.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("order.outbox.relay.batch.size").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void relayBatch_RemovesUnreadableRowAndSendsTheOthers() throws Exception {
+        // Arrange
+        OrderOutbox unreadable =
+                new OrderOutbox().setId(1L).setOrderId(101L).setPayload("{not json");
+        OrderOutbox second = outbox(2L, 102L);
+        given(orderOutboxRepository.findPendingForUpdate(Limit.of(10)))
+                .willReturn(List.of(unreadable, second));
+        given(kafkaTemplate.send(eq(AppConstants.ORDERS_TOPIC), eq(102L), any(OrderDto.class)))
+                .willReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        int relayed = orderOutboxService.relayBatch();
+
+        // Assert
+        assertThat(relayed).isEqualTo(2);
+        verify(orderOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(kafkaTemplate, never()).send(eq(AppConstants.ORDERS_TOPIC), eq(101L), any());
+        assertThat(meterRegistry.get("order.outbox.relay.discarded").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("order.outbox.relay.published").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_WhenOutboxIsEmpty_SendsNothing() {
+        // Arrange
+        given(orderOutboxRepository.findPendingForUpdate(Limit.of(10))).willReturn(List.of());
+
+        // Act
+        int relayed = orderOutboxService.relayBatch();
+
+        // Assert
+        assertThat(relayed).isZero();
+        verify(kafkaTemplate, never()).send(any(String.class), anyLong(), any(OrderDto.class));
+    }
+
+    @Test
+    void findPendingOrderIds_LargeBacklog_AsksInChunks() {
+        // Arrange
+        List<Long> orderIds = LongStream.rangeClosed(1, 2500).boxed().toList();
+        given(orderOutboxRepository.findOrderIdsByOrderIdIn(orderIds.subList(0, 1000)))
+                .willReturn(Set.of(7L));
+        given(orderOutboxRepository.findOrderIdsByOrderIdIn(orderIds.subList(1000, 2000)))
+                .willReturn(Set.of());
+        given(orderOutboxRepository.findOrderIdsByOrderIdIn(orderIds.subList(2000, 2500)))
+                .willReturn(Set.of(2042L));
+
+        // Act
+        Set<Long> pending = orderOutboxService.findPendingOrderIds(orderIds);
+
+        // Assert
+        assertThat(pending).containsExactlyInAnyOrder(7L, 2042L);
+        verify(orderOutboxRepository, times(3)).findOrderIdsByOrderIdIn(any());
+    }
+
+    private OrderOutbox outbox(Long id, Long orderId) throws Exception {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setCustomerId(1L);
+        return new OrderOutbox()
+                .setId(id)
+                .setOrderId(orderId)
+                .setPayload(objectMapper.writeValueAsString(orderDto));
+    }
+}
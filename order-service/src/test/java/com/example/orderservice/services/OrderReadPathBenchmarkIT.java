@@ -0,0 +1,117 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.orderservice.common.AbstractIntegrationTest;
+import com.example.orderservice.entities.Order;
+import com.example.orderservice.mapper.OrderMapper;
+import com.example.orderservice.model.response.OrderResponse;
+import com.example.orderservice.repositories.OrderRepository;
+import com.example.orderservice.util.TestData;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the flat projection read path against entity hydration plus {@link
+ * OrderMapper#toResponse} on the common pool, which is how order pages used to be built.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderReadPathBenchmarkIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReadPathBenchmarkIT.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderMapper orderMapper;
+    @Autowired private OrderService orderService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private List<Long> orderIds;
+
+    @BeforeAll
+    void seedOrders() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        orderRepository.deleteAll();
+        orderIds =
+                orderRepository
+                        .saveAll(
+                                IntStream.range(0, 1000)
+                                        .mapToObj(i -> TestData.getOrder())
+                                        .toList())
+                        .stream()
+                        .map(Order::getId)
+                        .toList();
+    }
+
+    @ParameterizedTest(name = "page size {0}")
+    @ValueSource(ints = {10, 100, 1000})
+    void projectionMatchesEntityMappingAndReportsTimings(int pageSize) {
+        List<Long> page = orderIds.subList(0, pageSize);
+
+        List<OrderResponse> hydrated = entityPath(page);
+        List<OrderResponse> projected = projectionPath(page);
+        Comparator<OrderResponse> byId = Comparator.comparing(OrderResponse::orderId);
+        assertThat(projected).hasSize(pageSize);
+        assertThat(projected.stream().sorted(byId).toList())
+                .isEqualTo(hydrated.stream().sorted(byId).toList());
+
+        double entityMillis = averageMillis(this::entityPath, page);
+        double projectionMillis = averageMillis(this::projectionPath, page);
+        log.info(
+                "page size {} : entity+mapper {} ms, projection {} ms",
+                pageSize,
+                "%.3f".formatted(entityMillis),
+                "%.3f".formatted(projectionMillis));
+    }
+
+    private List<OrderResponse> entityPath(List<Long> ids) {
+        return readOnlyTransaction.execute(
+                status ->
+                        orderRepository.findByIdIn(ids).stream()
+                                .map(
+                                        order ->
+                                                CompletableFuture.supplyAsync(
+                                                        () -> orderMapper.toResponse(order)))
+                                .toList()
+                                .stream()
+                                .map(CompletableFuture::join)
+                                .toList());
+    }
+
+    private List<OrderResponse> projectionPath(List<Long> ids) {
+        return readOnlyTransaction.execute(status -> orderService.findOrderResponsesByIds(ids));
+    }
+
+    private double averageMillis(Function<List<Long>, List<OrderResponse>> path, List<Long> ids) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            path.apply(ids);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            path.apply(ids);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+    }
+}
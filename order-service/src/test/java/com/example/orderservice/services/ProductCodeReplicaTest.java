@@ -0,0 +1,79 @@
+/***
+<p>
+    Licensed under MIT License Copyright (c) 2026 Raja Kolli.
+</p>
+***/
+
+package com.example.orderservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ProductCodeReplicaTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductCodeReplica productCodeReplica =
+            new ProductCodeReplica(new ObjectMapper(), meterRegistry);
+
+    @Test
+    void unknownCodes_ReturnsOnlyCodesNotSeenOnProductTopic() {
+        // catalog sends the product already serialized, so it arrives as a json string
+        productCodeReplica.onProductEvent(
+                "\"{\\\"code\\\":\\\"p001\\\",\\\"productName\\\":\\\"name\\\"}\"");
+        productCodeReplica.onProductEvent("{\"code\":\"P002\",\"price\":10.0}");
+
+        List<String> unknown = productCodeReplica.unknownCodes(List.of("P001", "P002", "P003"));
+
+        assertThat(unknown).containsExactly("P003");
+        assertThat(meterRegistry.get("order.product.replica.size").gauge().value()).isEqualTo(2);
+        assertThat(
+                        meterRegistry
+                                .get("order.product.replica.lookups")
+                                .tag("result", "hit")
+                                .counter()
+                                .count())
+                .isEqualTo(2);
+        assertThat(
+                        meterRegistry
+                                .get("order.product.replica.lookups")
+                                .tag("result", "miss")
+                                .counter()
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void onProductEvent_IgnoresUnreadableEvents() {
+        productCodeReplica.onProductEvent("not-json");
+        productCodeReplica.onProductEvent(null);
+
+        assertThat(productCodeReplica.unknownCodes(List.of("P001"))).containsExactly("P001");
+    }
+
+    @Test
+    void remove_ForgetsDeletedProductCode() {
+        productCodeReplica.onProductEvent("{\"code\":\"P001\"}");
+
+        productCodeReplica.remove("p001");
+
+        assertThat(productCodeReplica.unknownCodes(List.of("P001"))).containsExactly("P001");
+    }
+
+    @Test
+    void markBootstrapped_RecordsBootstrapTimeOnce() {
+        assertThat(productCodeReplica.isBootstrapped()).isFalse();
+
+        productCodeReplica.markBootstrapped();
+        double bootstrap = meterRegistry.get("order.product.replica.bootstrap").timeGauge().value();
+        productCodeReplica.markBootstrapped();
+
+        assertThat(productCodeReplica.isBootstrapped()).isTrue();
+        assertThat(meterRegistry.get("order.product.replica.bootstrap").timeGauge().value())
+                .isEqualTo(bootstrap)
+                .isNotNegative();
+    }
+}
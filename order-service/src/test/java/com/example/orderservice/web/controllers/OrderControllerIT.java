@@ -27,6 +27,7 @@ import com.example.orderservice.model.request.OrderItemRequest;
 import com.example.orderservice.model.request.OrderRequest;
 import com.example.orderservice.repositories.OrderRepository;
 import com.example.orderservice.util.TestData;
+import com.jayway.jsonpath.JsonPath;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -368,4 +369,47 @@ class OrderControllerIT extends AbstractIntegrationTest {
                                                 .multiply(new BigDecimal(orderItem.getQuantity()))),
                                 BigDecimal.class));
     }
+
+    @Test
+    void shouldFindOrdersByCustomersIdUsingCursor() throws Exception {
+        Long customerId = orderList.getFirst().getCustomerId();
+        String nextCursor =
+                JsonPath.read(
+                        mockMvc.perform(
+                                        get("/api/orders/customer/{id}", customerId)
+                                                .queryParam("after", "")
+                                                .queryParam("size", "2")
+                                                .queryParam("count", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.data.size()", is(2)))
+                                .andExpect(
+                                        jsonPath(
+                                                "$.data[0].orderId",
+                                                is(orderList.getFirst().getId()),
+                                                Long.class))
+                                .andExpect(jsonPath("$.hasNext", is(true)))
+                                .andExpect(jsonPath("$.totalElements", is(orderList.size())))
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString(),
+                        "$.nextCursor");
+
+        mockMvc.perform(
+                        get("/api/orders/customer/{id}", customerId)
+                                .queryParam("after", nextCursor)
+                                .queryParam("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()", is(1)))
+                .andExpect(
+                        jsonPath("$.data[0].orderId", is(orderList.getLast().getId()), Long.class))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void shouldReturn400ForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/orders").queryParam("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+    }
 }
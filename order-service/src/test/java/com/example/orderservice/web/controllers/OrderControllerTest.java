@@ -1,6 +1,6 @@
 /***
 <p>
-    Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli.
+    Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli.
 </p>
 ***/
 
@@ -12,11 +12,14 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -26,9 +29,12 @@ import com.example.orderservice.entities.OrderStatus;
 import com.example.orderservice.model.Address;
 import com.example.orderservice.model.request.OrderItemRequest;
 import com.example.orderservice.model.request.OrderRequest;
+import com.example.orderservice.model.response.BulkOrderResult;
+import com.example.orderservice.model.response.CursorPagedResult;
 import com.example.orderservice.model.response.OrderItemResponse;
 import com.example.orderservice.model.response.OrderResponse;
 import com.example.orderservice.model.response.PagedResult;
+import com.example.orderservice.services.BulkOrderService;
 import com.example.orderservice.services.OrderGeneratorService;
 import com.example.orderservice.services.OrderKafkaStreamService;
 import com.example.orderservice.services.OrderService;
@@ -37,8 +43,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -64,6 +72,8 @@ class OrderControllerTest {
 
     @MockitoBean private OrderKafkaStreamService orderKafkaStreamService;
 
+    @MockitoBean private BulkOrderService bulkOrderService;
+
     @Autowired private ObjectMapper objectMapper;
 
     @Test
@@ -137,6 +147,59 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldFetchOrdersAfterCursor() throws Exception {
+        OrderResponse orderResponse =
+                new OrderResponse(
+                        51L,
+                        1L,
+                        "NEW",
+                        "",
+                        new Address(
+                                "Junit Address1",
+                                "AddressLine2",
+                                "city",
+                                "state",
+                                "zipCode",
+                                "country"),
+                        LocalDateTime.now(),
+                        BigDecimal.TEN,
+                        new ArrayList<>());
+        given(orderService.findAllOrdersAfter("NTA", 1, false))
+                .willReturn(new CursorPagedResult<>(List.of(orderResponse), "NTE", true, null));
+
+        this.mockMvc
+                .perform(get("/api/orders").param("after", "NTA").param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(3)))
+                .andExpect(jsonPath("$.data.size()", is(1)))
+                .andExpect(jsonPath("$.data[0].orderId", is(51)))
+                .andExpect(jsonPath("$.nextCursor", is("NTE")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    void shouldRejectCursorPageSizesOutOfRange() throws Exception {
+        this.mockMvc
+                .perform(get("/api/orders").param("after", "NTA").param("pageSize", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Constraint Violation")))
+                .andExpect(jsonPath("$.violations[0].field", is("getAllOrdersAfter.pageSize")));
+        this.mockMvc
+                .perform(
+                        get("/api/orders/customer/{id}", 1L).param("after", "").param("size", "-1"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc
+                .perform(
+                        get("/api/orders/customer/{id}", 1L)
+                                .param("after", "")
+                                .param(
+                                        "size",
+                                        String.valueOf(AppConstants.MAX_CURSOR_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(orderService);
+    }
+
     @Nested
     @DisplayName("find methods")
     class Find {
@@ -309,6 +372,82 @@ class OrderControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("bulk save methods")
+    class BulkSave {
+
+        @Test
+        void shouldReturnResultPerOrderForNdjsonBatch() throws Exception {
+            OrderRequest orderRequest =
+                    new OrderRequest(
+                            1L, List.of(new OrderItemRequest("P001", 10, BigDecimal.TEN)), null);
+            willAnswer(
+                            invocation -> {
+                                Iterator<OrderRequest> orderRequests = invocation.getArgument(0);
+                                Consumer<List<BulkOrderResult>> resultConsumer =
+                                        invocation.getArgument(1);
+                                orderRequests.next();
+                                orderRequests.next();
+                                resultConsumer.accept(
+                                        List.of(
+                                                BulkOrderResult.accepted(0, 51L),
+                                                BulkOrderResult.rejected(
+                                                        1, "Product codes not found : [P001]")));
+                                return null;
+                            })
+                    .given(bulkOrderService)
+                    .saveOrders(any(), any());
+            String orderLine = objectMapper.writeValueAsString(orderRequest);
+
+            mockMvc.perform(
+                            post("/api/orders/batch")
+                                    .contentType(MediaType.APPLICATION_NDJSON)
+                                    .content(orderLine + "\n" + orderLine + "\n"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(
+                            content()
+                                    .string(
+                                            """
+                                            {"index":0,"accepted":true,"orderId":51}
+                                            {"index":1,"accepted":false,"reason":"Product codes not found : [P001]"}
+                                            """));
+        }
+
+        @Test
+        void shouldReturnResultPerOrderForJsonBatch() throws Exception {
+            willAnswer(
+                            invocation -> {
+                                Consumer<List<BulkOrderResult>> resultConsumer =
+                                        invocation.getArgument(1);
+                                resultConsumer.accept(List.of(BulkOrderResult.accepted(0, 51L)));
+                                return null;
+                            })
+                    .given(bulkOrderService)
+                    .saveOrders(any(), any());
+
+            mockMvc.perform(
+                            post("/api/orders/batch")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(
+                                            objectMapper.writeValueAsString(
+                                                    List.of(
+                                                            new OrderRequest(
+                                                                    1L,
+                                                                    List.of(
+                                                                            new OrderItemRequest(
+                                                                                    "P001",
+                                                                                    10,
+                                                                                    BigDecimal
+                                                                                            .TEN)),
+                                                                    null)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].accepted", is(true)))
+                    .andExpect(jsonPath("$[0].orderId", is(51)));
+        }
+    }
+
     @Nested
     @DisplayName("update methods")
     class Update {
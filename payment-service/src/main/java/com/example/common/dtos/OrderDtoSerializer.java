@@ -0,0 +1,58 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.common.dtos;
+
+import java.util.Map;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Writes {@link OrderDto} in the format chosen by {@value #FORMAT_CONFIG}, {@code json} by default
+ * or {@code binary}. Any other payload is written as JSON, so the serializer can replace {@link
+ * JsonSerializer} as the producer wide default.
+ */
+public class OrderDtoSerializer<T> implements Serializer<T> {
+
+    public static final String FORMAT_CONFIG = "order.dto.format";
+    public static final String FORMAT_BINARY = "binary";
+
+    private final JsonSerializer<T> jsonSerializer = new JsonSerializer<>();
+    private boolean binary;
+
+    public OrderDtoSerializer() {
+        this(null);
+    }
+
+    public OrderDtoSerializer(String format) {
+        this.binary = FORMAT_BINARY.equalsIgnoreCase(format);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            this.binary = FORMAT_BINARY.equalsIgnoreCase(format.toString());
+        }
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (binary && data instanceof OrderDto orderDto) {
+            return OrderDtoBinaryCodec.encode(orderDto);
+        }
+        return headers == null
+                ? jsonSerializer.serialize(topic, data)
+                : jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -1,14 +1,28 @@
-/*** Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli. ***/
 package com.example.paymentservice.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties("application")
 public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
 
+    @NestedConfigurationProperty private OrdersParallel ordersParallel = new OrdersParallel();
+
+    @NestedConfigurationProperty private OrdersBatch ordersBatch = new OrdersBatch();
+
+    @NestedConfigurationProperty
+    private OrdersRepartition ordersRepartition = new OrdersRepartition();
+
+    @NestedConfigurationProperty private BalanceEngine balanceEngine = new BalanceEngine();
+
+    @NestedConfigurationProperty private CustomerImport customerImport = new CustomerImport();
+
     public ApplicationProperties() {}
 
     public Cors getCors() {
@@ -19,6 +33,211 @@ public class ApplicationProperties {
         this.cors = cors;
     }
 
+    public OrdersParallel getOrdersParallel() {
+        return this.ordersParallel;
+    }
+
+    public void setOrdersParallel(final OrdersParallel ordersParallel) {
+        this.ordersParallel = ordersParallel;
+    }
+
+    public OrdersBatch getOrdersBatch() {
+        return this.ordersBatch;
+    }
+
+    public void setOrdersBatch(final OrdersBatch ordersBatch) {
+        this.ordersBatch = ordersBatch;
+    }
+
+    public OrdersRepartition getOrdersRepartition() {
+        return this.ordersRepartition;
+    }
+
+    public void setOrdersRepartition(final OrdersRepartition ordersRepartition) {
+        this.ordersRepartition = ordersRepartition;
+    }
+
+    public BalanceEngine getBalanceEngine() {
+        return this.balanceEngine;
+    }
+
+    public void setBalanceEngine(final BalanceEngine balanceEngine) {
+        this.balanceEngine = balanceEngine;
+    }
+
+    public CustomerImport getCustomerImport() {
+        return this.customerImport;
+    }
+
+    public void setCustomerImport(final CustomerImport customerImport) {
+        this.customerImport = customerImport;
+    }
+
+    /**
+     * Parallel mode of the orders listener, where records of different orders from one partition
+     * are handled concurrently on virtual threads and those of one order in sequence.
+     */
+    public static class OrdersParallel {
+        private boolean enabled = false;
+
+        public OrdersParallel() {}
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Batch mode of the orders listener, where the orders of one poll are applied to the balances
+     * of their customers together.
+     */
+    public static class OrdersBatch {
+        private boolean enabled = false;
+        private int maxSize = 500;
+        private Duration maxWait = Duration.ofMillis(500);
+
+        public OrdersBatch() {}
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return this.maxSize;
+        }
+
+        public void setMaxSize(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxWait() {
+            return this.maxWait;
+        }
+
+        public void setMaxWait(final Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * Repartition mode of the orders listener, where orders are forwarded keyed by customer to an
+     * internal topic of {@code partitions} partitions, whose consumer keeps the balances of the
+     * customers it owns in memory for up to {@code balanceTimeToLive}.
+     */
+    public static class OrdersRepartition {
+        private boolean enabled = false;
+        private int partitions = 10;
+        private Duration balanceTimeToLive = Duration.ofSeconds(30);
+
+        public OrdersRepartition() {}
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPartitions() {
+            return this.partitions;
+        }
+
+        public void setPartitions(final int partitions) {
+            this.partitions = partitions;
+        }
+
+        public Duration getBalanceTimeToLive() {
+            return this.balanceTimeToLive;
+        }
+
+        public void setBalanceTimeToLive(final Duration balanceTimeToLive) {
+            this.balanceTimeToLive = balanceTimeToLive;
+        }
+    }
+
+    /**
+     * In-memory balances of a single instance, split into {@code shards} by customer id. Every
+     * change is appended to the journal of its shard in {@code journalDirectory} before it applies,
+     * and the changes are written to the customers table every {@code snapshotInterval}. The number
+     * of shards may only change after a clean shutdown, which leaves nothing in the journals.
+     */
+    public static class BalanceEngine {
+        private boolean enabled = false;
+        private int shards = 16;
+        private Path journalDirectory = Path.of("payment-journal");
+        private DataSize journalSize = DataSize.ofMegabytes(16);
+        private Duration snapshotInterval = Duration.ofSeconds(1);
+
+        public BalanceEngine() {}
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getShards() {
+            return this.shards;
+        }
+
+        public void setShards(final int shards) {
+            this.shards = shards;
+        }
+
+        public Path getJournalDirectory() {
+            return this.journalDirectory;
+        }
+
+        public void setJournalDirectory(final Path journalDirectory) {
+            this.journalDirectory = journalDirectory;
+        }
+
+        public DataSize getJournalSize() {
+            return this.journalSize;
+        }
+
+        public void setJournalSize(final DataSize journalSize) {
+            this.journalSize = journalSize;
+        }
+
+        public Duration getSnapshotInterval() {
+            return this.snapshotInterval;
+        }
+
+        public void setSnapshotInterval(final Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    /**
+     * Customer imports, which insert the rows they read in chunks of {@code chunkSize} with one
+     * statement each. Each row takes six bind values of the 32767 a statement may have.
+     */
+    public static class CustomerImport {
+        private int chunkSize = 1000;
+
+        public CustomerImport() {}
+
+        public int getChunkSize() {
+            return this.chunkSize;
+        }
+
+        public void setChunkSize(final int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
     public static class Cors {
         private String pathPattern = "/api/**";
         private String allowedMethods = "*";
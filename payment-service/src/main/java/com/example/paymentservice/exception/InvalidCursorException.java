@@ -0,0 +1,19 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.exception;
+
+import java.net.URI;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class InvalidCursorException extends AbstractThrowableProblem {
+
+    private static final URI TYPE = URI.create("https://api.customers.com/errors/invalid-cursor");
+
+    public InvalidCursorException(String cursor) {
+        super(
+                TYPE,
+                "Invalid Cursor",
+                Status.BAD_REQUEST,
+                "Cursor '%s' is not valid".formatted(cursor));
+    }
+}
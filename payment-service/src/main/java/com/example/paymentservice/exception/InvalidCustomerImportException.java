@@ -0,0 +1,15 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.exception;
+
+import java.net.URI;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class InvalidCustomerImportException extends AbstractThrowableProblem {
+
+    private static final URI TYPE = URI.create("https://api.customers.com/errors/invalid-import");
+
+    public InvalidCustomerImportException(String detail) {
+        super(TYPE, "Invalid Customer Import", Status.BAD_REQUEST, detail);
+    }
+}
@@ -0,0 +1,13 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.exception;
+
+/**
+ * The reply to an order could not be sent after its amounts were written, so handling the order
+ * again would apply them twice.
+ */
+public class ReplyNotSentException extends RuntimeException {
+
+    public ReplyNotSentException(Long orderId, Throwable cause) {
+        super("Reply to Order with Id '%d' not sent".formatted(orderId), cause);
+    }
+}
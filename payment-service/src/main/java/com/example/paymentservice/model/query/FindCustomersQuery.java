@@ -1,4 +1,10 @@
-/*** Licensed under MIT License Copyright (c) 2023 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli. ***/
 package com.example.paymentservice.model.query;
 
-public record FindCustomersQuery(int pageNo, int pageSize, String sortBy, String sortDir) {}
+public record FindCustomersQuery(
+        int pageNo, int pageSize, String sortBy, String sortDir, boolean exactCount) {
+
+    public FindCustomersQuery(int pageNo, int pageSize, String sortBy, String sortDir) {
+        this(pageNo, pageSize, sortBy, sortDir, false);
+    }
+}
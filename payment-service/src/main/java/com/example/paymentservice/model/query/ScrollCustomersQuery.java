@@ -0,0 +1,4 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.model.query;
+
+public record ScrollCustomersQuery(int size, String sortBy, String sortDir, String cursor) {}
@@ -0,0 +1,20 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.model.response;
+
+import com.example.paymentservice.utils.ScrollCursors;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import org.springframework.data.domain.Window;
+
+public record CursorResult<T>(
+        List<T> data, String nextCursor, @JsonProperty("hasNext") boolean hasNext) {
+
+    public <R> CursorResult(List<T> data, Window<R> window) {
+        this(
+                data,
+                window.hasNext()
+                        ? ScrollCursors.encode(window.positionAt(window.size() - 1))
+                        : null,
+                window.hasNext());
+    }
+}
@@ -0,0 +1,11 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.model.response;
+
+/**
+ * What an import did with the rows it read.
+ *
+ * @param duplicates rows skipped because a customer with their email exists or came earlier
+ * @param invalid rows that could not be read or failed validation
+ */
+public record CustomerImportResult(
+        long read, long imported, long duplicates, long invalid, long elapsedMillis) {}
@@ -0,0 +1,19 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.repositories;
+
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
+import java.util.Map;
+
+/** Where the balance engine writes the changes of its journals to the customers table. */
+public interface BalanceSnapshotRepository {
+
+    /** The sequence of the last journal entry in the customers table, by shard. */
+    Map<Integer, Long> findCheckpoints();
+
+    /**
+     * Adds the changes to the amounts of the customers and moves the checkpoint of the shard to the
+     * sequence in one transaction, so a journal entry is in the table exactly when it is behind the
+     * checkpoint.
+     */
+    void save(int shard, long sequence, Map<Long, AmountChange> changesByCustomerId);
+}
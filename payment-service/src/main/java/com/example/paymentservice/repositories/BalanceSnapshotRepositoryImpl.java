@@ -0,0 +1,75 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.repositories;
+
+import static com.example.paymentservice.jooq.tables.BalanceCheckpoints.BALANCE_CHECKPOINTS;
+import static com.example.paymentservice.jooq.tables.Customers.CUSTOMERS;
+
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jooq.BatchBindStep;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@Transactional(readOnly = true)
+public class BalanceSnapshotRepositoryImpl implements BalanceSnapshotRepository {
+
+    private final DSLContext dslContext;
+
+    public BalanceSnapshotRepositoryImpl(DSLContext dslContext) {
+        this.dslContext = dslContext;
+    }
+
+    @Override
+    public Map<Integer, Long> findCheckpoints() {
+        return dslContext
+                .selectFrom(BALANCE_CHECKPOINTS)
+                .fetchMap(BALANCE_CHECKPOINTS.SHARD, BALANCE_CHECKPOINTS.SEQUENCE);
+    }
+
+    @Override
+    @Transactional
+    public void save(int shard, long sequence, Map<Long, AmountChange> changesByCustomerId) {
+        if (!changesByCustomerId.isEmpty()) {
+            Field<Integer> available = DSL.param("available", Integer.class);
+            Field<Integer> reserved = DSL.param("reserved", Integer.class);
+            // no guards, the engine has checked the amounts and answered the orders already
+            BatchBindStep batch =
+                    dslContext.batch(
+                            dslContext
+                                    .update(CUSTOMERS)
+                                    .set(
+                                            CUSTOMERS.AMOUNT_AVAILABLE,
+                                            CUSTOMERS.AMOUNT_AVAILABLE.plus(available))
+                                    .set(
+                                            CUSTOMERS.AMOUNT_RESERVED,
+                                            CUSTOMERS.AMOUNT_RESERVED.plus(reserved))
+                                    .where(CUSTOMERS.ID.eq(DSL.param("customerId", Long.class))));
+            // in customer id order, so concurrent snapshots lock the rows in the same order
+            new TreeMap<>(changesByCustomerId)
+                    .forEach(
+                            (customerId, change) ->
+                                    batch.bind(
+                                            Map.<String, Object>of(
+                                                    "available",
+                                                    change.available(),
+                                                    "reserved",
+                                                    change.reserved(),
+                                                    "customerId",
+                                                    customerId)));
+            batch.execute();
+        }
+        dslContext
+                .insertInto(BALANCE_CHECKPOINTS)
+                .set(BALANCE_CHECKPOINTS.SHARD, shard)
+                .set(BALANCE_CHECKPOINTS.SEQUENCE, sequence)
+                .onConflict(BALANCE_CHECKPOINTS.SHARD)
+                .doUpdate()
+                .set(BALANCE_CHECKPOINTS.SEQUENCE, sequence)
+                .execute();
+    }
+}
@@ -1,12 +1,17 @@
-/*** Licensed under MIT License Copyright (c) 2022-2023 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli. ***/
 package com.example.paymentservice.repositories;
 
 import com.example.paymentservice.entities.Customer;
 import com.example.paymentservice.model.response.CustomerResponse;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 public interface CustomerRepository {
 
@@ -14,15 +19,90 @@ public interface CustomerRepository {
 
     Optional<Customer> findById(Long customerId);
 
+    List<Customer> findAllById(Collection<Long> customerIds);
+
     Optional<Customer> findByEmail(String email);
 
     Customer save(Customer customer);
 
     void deleteById(Long id);
 
-    Page<Customer> findAll(Pageable pageable);
+    /** Same as {@link #findAll(Pageable, boolean)} with a total that may be a few seconds old. */
+    default Page<Customer> findAll(Pageable pageable) {
+        return findAll(pageable, false);
+    }
+
+    /**
+     * One page of customers at an offset.
+     *
+     * @param exactCount whether to count the rows for this page rather than reuse a recent count
+     */
+    Page<Customer> findAll(Pageable pageable, boolean exactCount);
+
+    /**
+     * The customers following the position in the sort order, read with a seek predicate instead of
+     * an offset so later windows cost the same as the first one. The id breaks ties between equal
+     * sort values, and nulls sort after every other value.
+     *
+     * @throws com.example.paymentservice.exception.InvalidCursorException when the position
+     *     lacks a key of the sort or holds one of the wrong type
+     */
+    Window<Customer> findAll(Sort sort, int limit, KeysetScrollPosition position);
+
+    /**
+     * Moves the amount from available to reserved in one statement, only when the customer has at
+     * least that much available, so concurrent orders of one customer cannot overdraw it.
+     *
+     * @return the customer as updated, empty when unknown or short of the amount
+     */
+    Optional<Customer> reserveAmount(Long customerId, int amount);
+
+    /**
+     * Takes the amount off reserved in one statement, only when at least that much is reserved.
+     *
+     * @return the customer as updated, empty when unknown or not that much reserved
+     */
+    Optional<Customer> confirmReservedAmount(Long customerId, int amount);
+
+    /**
+     * Moves the amount from reserved back to available in one statement, only when at least that
+     * much is reserved.
+     *
+     * @return the customer as updated, empty when unknown or not that much reserved
+     */
+    Optional<Customer> releaseReservedAmount(Long customerId, int amount);
+
+    /**
+     * Adds the changes to the amounts of every customer with one batch of updates, all of them or
+     * none: a customer that is missing or would be left with a negative amount rolls the batch
+     * back. Runs in a transaction of its own, committed before returning, so a rejection never
+     * fails a caller's transaction.
+     *
+     * @return whether all changes were applied
+     */
+    boolean addToAmounts(Map<Long, AmountChange> changesByCustomerId);
 
     List<Customer> saveAll(List<Customer> customerList);
 
+    /**
+     * Inserts the customers whose email no customer has yet with one statement, skipping the
+     * others. Emails must be unique within the list.
+     *
+     * @return how many customers were inserted
+     */
+    int insertAllWithNewEmail(List<Customer> customerList);
+
     void deleteAll();
+
+    /** What to add to the available and reserved amounts of a customer. */
+    record AmountChange(int available, int reserved) {
+
+        public AmountChange plus(AmountChange other) {
+            return new AmountChange(available + other.available, reserved + other.reserved);
+        }
+
+        public boolean isEmpty() {
+            return available == 0 && reserved == 0;
+        }
+    }
 }
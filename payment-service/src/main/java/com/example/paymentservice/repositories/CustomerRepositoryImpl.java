@@ -1,50 +1,116 @@
-/*** Licensed under MIT License Copyright (c) 2023-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli. ***/
 package com.example.paymentservice.repositories;
 
 import static com.example.paymentservice.jooq.tables.Customers.CUSTOMERS;
 
 import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.exception.InvalidCursorException;
 import com.example.paymentservice.jooq.tables.records.CustomersRecord;
 import com.example.paymentservice.model.response.CustomerResponse;
-import java.lang.reflect.Field;
+import com.example.paymentservice.utils.ScrollCursors;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import org.jooq.BatchBindStep;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertSetMoreStep;
+import org.jooq.Record;
+import org.jooq.Record6;
+import org.jooq.Result;
+import org.jooq.Row6;
+import org.jooq.SelectWhereStep;
 import org.jooq.SortField;
+import org.jooq.Table;
 import org.jooq.TableField;
+import org.jooq.exception.DataTypeException;
+import org.jooq.impl.DSL;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Repository
 @Transactional(readOnly = true)
 public class CustomerRepositoryImpl implements CustomerRepository {
 
+    private static final Map<String, TableField<CustomersRecord, ?>> SORT_FIELDS = sortFields();
+    private static final String ID_TIE_BREAKER = "id";
+    private static final Duration COUNT_TIME_TO_LIVE = Duration.ofSeconds(5);
+
     private final DSLContext dslContext;
+    private final CachedCount customerCount;
 
     public CustomerRepositoryImpl(DSLContext dslContext) {
         this.dslContext = dslContext;
+        this.customerCount =
+                new CachedCount(COUNT_TIME_TO_LIVE, () -> dslContext.fetchCount(CUSTOMERS));
     }
 
     @Override
-    public Page<Customer> findAll(Pageable pageable) {
-        return new PageImpl<>(
+    public Page<Customer> findAll(Pageable pageable, boolean exactCount) {
+        List<Customer> content =
                 dslContext
                         .select()
                         .from(CUSTOMERS)
                         .orderBy(getSortFields(pageable.getSort()))
                         .limit(pageable.getPageSize())
                         .offset(pageable.getOffset())
-                        .fetchInto(Customer.class),
-                pageable,
-                dslContext.fetchCount(CUSTOMERS));
+                        .fetchInto(Customer.class);
+        // counts only when the page alone does not tell the total
+        return PageableExecutionUtils.getPage(
+                content, pageable, exactCount ? customerCount::refresh : customerCount::get);
+    }
+
+    @Override
+    public Window<Customer> findAll(Sort sort, int limit, KeysetScrollPosition position) {
+        Sort keysetSort = getKeysetSort(sort);
+        List<TableField<CustomersRecord, ?>> keyFields =
+                keysetSort.stream()
+                        .<TableField<CustomersRecord, ?>>map(
+                                order -> getTableField(order.getProperty()))
+                        .toList();
+        SelectWhereStep<CustomersRecord> from = dslContext.selectFrom(CUSTOMERS);
+        List<SortField<?>> sortFields = getKeysetSortFields(keysetSort, keyFields);
+        // one row more than asked tells whether another window follows
+        Result<CustomersRecord> rows;
+        if (position.isInitial()) {
+            rows = from.orderBy(sortFields).limit(limit + 1).fetch();
+        } else if (keyFields.stream().noneMatch(keyField -> keyField.getDataType().nullable())) {
+            rows =
+                    from.orderBy(sortFields)
+                            .seek(getKeyValues(position, keyFields))
+                            .limit(limit + 1)
+                            .fetch();
+        } else {
+            rows =
+                    from.where(after(keysetSort, keyFields, getKeyValues(position, keyFields)))
+                            .orderBy(sortFields)
+                            .limit(limit + 1)
+                            .fetch();
+        }
+        boolean hasNext = rows.size() > limit;
+        List<CustomersRecord> windowRows = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(
+                windowRows.stream().map(row -> row.into(Customer.class)).toList(),
+                index -> ScrollPosition.forward(getKeys(windowRows.get(index), keyFields)),
+                hasNext);
     }
 
     @Override
@@ -69,6 +135,14 @@ public class CustomerRepositoryImpl implements CustomerRepository {
                 .map(r -> r.into(Customer.class));
     }
 
+    @Override
+    public List<Customer> findAllById(Collection<Long> customerIds) {
+        return dslContext
+                .selectFrom(CUSTOMERS)
+                .where(CUSTOMERS.ID.eq(DSL.any(customerIds.toArray(Long[]::new))))
+                .fetchInto(Customer.class);
+    }
+
     @Override
     public Optional<Customer> findByEmail(String customerEmail) {
         return dslContext
@@ -80,6 +154,8 @@ public class CustomerRepositoryImpl implements CustomerRepository {
     @Transactional
     public Customer save(Customer customer) {
         if (customer.getId() == null) {
+            // updates leave the count as it is
+            customerCount.invalidate();
             CustomersRecord customersRecord = dslContext.newRecord(CUSTOMERS, customer);
             return dslContext
                     .insertInto(CUSTOMERS)
@@ -101,9 +177,94 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         }
     }
 
+    @Override
+    @Transactional
+    public Optional<Customer> reserveAmount(Long customerId, int amount) {
+        return dslContext
+                .update(CUSTOMERS)
+                .set(CUSTOMERS.AMOUNT_AVAILABLE, CUSTOMERS.AMOUNT_AVAILABLE.minus(amount))
+                .set(CUSTOMERS.AMOUNT_RESERVED, CUSTOMERS.AMOUNT_RESERVED.plus(amount))
+                .where(CUSTOMERS.ID.eq(customerId))
+                .and(CUSTOMERS.AMOUNT_AVAILABLE.ge(amount))
+                .returningResult()
+                .fetchOptionalInto(Customer.class);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Customer> confirmReservedAmount(Long customerId, int amount) {
+        return dslContext
+                .update(CUSTOMERS)
+                .set(CUSTOMERS.AMOUNT_RESERVED, CUSTOMERS.AMOUNT_RESERVED.minus(amount))
+                .where(CUSTOMERS.ID.eq(customerId))
+                .and(CUSTOMERS.AMOUNT_RESERVED.ge(amount))
+                .returningResult()
+                .fetchOptionalInto(Customer.class);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Customer> releaseReservedAmount(Long customerId, int amount) {
+        return dslContext
+                .update(CUSTOMERS)
+                .set(CUSTOMERS.AMOUNT_RESERVED, CUSTOMERS.AMOUNT_RESERVED.minus(amount))
+                .set(CUSTOMERS.AMOUNT_AVAILABLE, CUSTOMERS.AMOUNT_AVAILABLE.plus(amount))
+                .where(CUSTOMERS.ID.eq(customerId))
+                .and(CUSTOMERS.AMOUNT_RESERVED.ge(amount))
+                .returningResult()
+                .fetchOptionalInto(Customer.class);
+    }
+
+    // a rejection rolls back only this transaction, never marks a caller's one rollback-only
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean addToAmounts(Map<Long, AmountChange> changesByCustomerId) {
+        if (changesByCustomerId.isEmpty()) {
+            return true;
+        }
+        Field<Integer> available = DSL.param("available", Integer.class);
+        Field<Integer> reserved = DSL.param("reserved", Integer.class);
+        BatchBindStep batch =
+                dslContext.batch(
+                        dslContext
+                                .update(CUSTOMERS)
+                                .set(
+                                        CUSTOMERS.AMOUNT_AVAILABLE,
+                                        CUSTOMERS.AMOUNT_AVAILABLE.plus(available))
+                                .set(
+                                        CUSTOMERS.AMOUNT_RESERVED,
+                                        CUSTOMERS.AMOUNT_RESERVED.plus(reserved))
+                                .where(CUSTOMERS.ID.eq(DSL.param("customerId", Long.class)))
+                                .and(CUSTOMERS.AMOUNT_AVAILABLE.plus(available).ge(DSL.inline(0)))
+                                .and(CUSTOMERS.AMOUNT_RESERVED.plus(reserved).ge(DSL.inline(0))));
+        // in customer id order, so concurrent batches lock the rows in the same order
+        new TreeMap<>(changesByCustomerId)
+                .forEach(
+                        (customerId, change) ->
+                                batch.bind(
+                                        Map.<String, Object>of(
+                                                "available",
+                                                change.available(),
+                                                "reserved",
+                                                change.reserved(),
+                                                "customerId",
+                                                customerId)));
+        for (int updated : batch.execute()) {
+            if (updated != 1) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     @Transactional
     public List<Customer> saveAll(List<Customer> customerList) {
+        if (customerList.isEmpty()) {
+            return List.of();
+        }
+        customerCount.invalidate();
         InsertSetMoreStep<CustomersRecord> insertStepN =
                 dslContext
                         .insertInto(CUSTOMERS)
@@ -114,18 +275,72 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         return insertStepN.returning().fetch().into(Customer.class);
     }
 
+    @Override
+    @Transactional
+    public int insertAllWithNewEmail(List<Customer> customerList) {
+        if (customerList.isEmpty()) {
+            return 0;
+        }
+        customerCount.invalidate();
+        Table<Record6<String, String, String, String, Integer, Integer>> rows =
+                DSL.values(customerList.stream().map(this::toRow).toArray(Row6[]::new))
+                        .as(
+                                "rows",
+                                CUSTOMERS.NAME.getName(),
+                                CUSTOMERS.EMAIL.getName(),
+                                CUSTOMERS.PHONE.getName(),
+                                CUSTOMERS.ADDRESS.getName(),
+                                CUSTOMERS.AMOUNT_AVAILABLE.getName(),
+                                CUSTOMERS.AMOUNT_RESERVED.getName());
+        return dslContext
+                .insertInto(
+                        CUSTOMERS,
+                        CUSTOMERS.NAME,
+                        CUSTOMERS.EMAIL,
+                        CUSTOMERS.PHONE,
+                        CUSTOMERS.ADDRESS,
+                        CUSTOMERS.AMOUNT_AVAILABLE,
+                        CUSTOMERS.AMOUNT_RESERVED)
+                .select(
+                        DSL.selectFrom(rows)
+                                .whereNotExists(
+                                        DSL.selectOne()
+                                                .from(CUSTOMERS)
+                                                .where(
+                                                        CUSTOMERS.EMAIL.eq(
+                                                                rows.field(
+                                                                        CUSTOMERS.EMAIL.getName(),
+                                                                        String.class)))))
+                // a customer of the same name and email inserted meanwhile
+                .onConflictDoNothing()
+                .execute();
+    }
+
     @Override
     @Transactional
     public void deleteAll() {
+        customerCount.invalidate();
         dslContext.deleteFrom(CUSTOMERS).execute();
     }
 
     @Override
     @Transactional
     public void deleteById(Long id) {
+        customerCount.invalidate();
         dslContext.deleteFrom(CUSTOMERS).where(CUSTOMERS.ID.eq(id)).execute();
     }
 
+    // typed like the columns, so the values need no casts
+    private Row6<String, String, String, String, Integer, Integer> toRow(Customer customer) {
+        return DSL.row(
+                DSL.val(customer.getName(), CUSTOMERS.NAME),
+                DSL.val(customer.getEmail(), CUSTOMERS.EMAIL),
+                DSL.val(customer.getPhone(), CUSTOMERS.PHONE),
+                DSL.val(customer.getAddress(), CUSTOMERS.ADDRESS),
+                DSL.val(customer.getAmountAvailable(), CUSTOMERS.AMOUNT_AVAILABLE),
+                DSL.val(customer.getAmountReserved(), CUSTOMERS.AMOUNT_RESERVED));
+    }
+
     private List<SortField<?>> getSortFields(Sort sortSpecification) {
         List<SortField<?>> querySortFields = new ArrayList<>();
 
@@ -137,7 +352,7 @@ public class CustomerRepositoryImpl implements CustomerRepository {
             String sortFieldName = specifiedField.getProperty();
             Sort.Direction sortDirection = specifiedField.getDirection();
 
-            TableField<CustomersRecord, Object> tableField = getTableField(sortFieldName);
+            TableField<CustomersRecord, ?> tableField = getTableField(sortFieldName);
             SortField<?> querySortField = convertTableFieldToSortField(tableField, sortDirection);
             querySortFields.add(querySortField);
         }
@@ -145,25 +360,119 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         return querySortFields;
     }
 
-    private TableField<CustomersRecord, Object> getTableField(String sortFieldName) {
-        TableField<CustomersRecord, Object> sortField;
-        try {
-            Field tableField =
-                    CUSTOMERS.getClass().getField(sortFieldName.toUpperCase(Locale.ROOT));
-            sortField = (TableField<CustomersRecord, Object>) tableField.get(CUSTOMERS);
-        } catch (NoSuchFieldException | IllegalAccessException ex) {
+    // the id breaks ties, so the order is total and no row is skipped or repeated
+    private Sort getKeysetSort(Sort sortSpecification) {
+        for (Sort.Order specifiedField : sortSpecification) {
+            if (getTableField(specifiedField.getProperty()) == CUSTOMERS.ID) {
+                return sortSpecification;
+            }
+        }
+        return sortSpecification.and(Sort.by(ID_TIE_BREAKER));
+    }
+
+    private Object[] getKeyValues(
+            KeysetScrollPosition position, List<TableField<CustomersRecord, ?>> keyFields) {
+        Object[] keyValues = new Object[keyFields.size()];
+        for (int i = 0; i < keyValues.length; i++) {
+            TableField<CustomersRecord, ?> keyField = keyFields.get(i);
+            // positions come from client cursors, so a missing or mistyped key is their mistake
+            if (!position.getKeys().containsKey(keyField.getName())) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+            Object keyValue = position.getKeys().get(keyField.getName());
+            try {
+                // cursors come back as JSON, so an Integer may stand for a Long
+                keyValues[i] = keyField.getDataType().convert(keyValue);
+            } catch (DataTypeException e) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+            // jOOQ converts unparseable numbers to null rather than failing
+            if (keyValues[i] == null && keyValue != null) {
+                throw new InvalidCursorException(ScrollCursors.encode(position));
+            }
+        }
+        return keyValues;
+    }
+
+    // nulls sort last in both directions, so a window ending on a null key can be followed
+    private List<SortField<?>> getKeysetSortFields(
+            Sort keysetSort, List<TableField<CustomersRecord, ?>> keyFields) {
+        List<SortField<?>> sortFields = new ArrayList<>(keyFields.size());
+        int i = 0;
+        for (Sort.Order order : keysetSort) {
+            TableField<CustomersRecord, ?> keyField = keyFields.get(i++);
+            SortField<?> sortField = convertTableFieldToSortField(keyField, order.getDirection());
+            sortFields.add(keyField.getDataType().nullable() ? sortField.nullsLast() : sortField);
+        }
+        return sortFields;
+    }
+
+    // the rows after the keys in keyset order, spelled out as seek() compares row values and
+    // leaves out every row holding a null
+    private static Condition after(
+            Sort keysetSort, List<TableField<CustomersRecord, ?>> keyFields, Object[] keyValues) {
+        Condition after = DSL.noCondition();
+        Condition equal = DSL.noCondition();
+        int i = 0;
+        for (Sort.Order order : keysetSort) {
+            TableField<CustomersRecord, ?> keyField = keyFields.get(i);
+            Object keyValue = keyValues[i++];
+            if (keyValue != null) {
+                after = after.or(equal.and(beyond(keyField, keyValue, order.getDirection())));
+            }
+            equal = equal.and(keyValue == null ? keyField.isNull() : equalTo(keyField, keyValue));
+        }
+        return after;
+    }
+
+    private static <T> Condition beyond(
+            Field<T> keyField, Object keyValue, Sort.Direction direction) {
+        T value = keyField.getDataType().convert(keyValue);
+        Condition beyond =
+                direction == Sort.Direction.ASC ? keyField.gt(value) : keyField.lt(value);
+        return keyField.getDataType().nullable() ? beyond.or(keyField.isNull()) : beyond;
+    }
+
+    private static <T> Condition equalTo(Field<T> keyField, Object keyValue) {
+        return keyField.eq(keyField.getDataType().convert(keyValue));
+    }
+
+    private static Map<String, Object> getKeys(
+            Record row, List<TableField<CustomersRecord, ?>> keyFields) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keyFields.forEach(keyField -> keys.put(keyField.getName(), row.get(keyField)));
+        return keys;
+    }
+
+    private TableField<CustomersRecord, ?> getTableField(String sortFieldName) {
+        TableField<CustomersRecord, ?> sortField =
+                SORT_FIELDS.get(sortFieldName.toLowerCase(Locale.ROOT));
+        if (sortField == null) {
             String errorMessage = "Could not find table field: %s".formatted(sortFieldName);
-            throw new InvalidDataAccessApiUsageException(errorMessage, ex);
+            throw new InvalidDataAccessApiUsageException(errorMessage);
         }
         return sortField;
     }
 
     private SortField<?> convertTableFieldToSortField(
-            TableField<CustomersRecord, Object> tableField, Sort.Direction sortDirection) {
+            TableField<CustomersRecord, ?> tableField, Sort.Direction sortDirection) {
         if (sortDirection == Sort.Direction.ASC) {
             return tableField.asc();
         } else {
             return tableField.desc();
         }
     }
+
+    // sortable columns by name, resolved once instead of looking up CUSTOMERS per request
+    private static Map<String, TableField<CustomersRecord, ?>> sortFields() {
+        Map<String, TableField<CustomersRecord, ?>> sortFields = new HashMap<>();
+        for (Field<?> field : CUSTOMERS.fields()) {
+            if (field instanceof TableField<?, ?> tableField) {
+                sortFields.put(
+                        field.getName().toLowerCase(Locale.ROOT),
+                        (TableField<CustomersRecord, ?>) tableField);
+            }
+        }
+        return Map.copyOf(sortFields);
+    }
 }
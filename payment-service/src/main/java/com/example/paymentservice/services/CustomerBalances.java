@@ -0,0 +1,17 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import com.example.paymentservice.entities.Customer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/** Where {@link PaymentOrderManageService#processAll} takes the balances of a poll's customers. */
+public interface CustomerBalances {
+
+    /** The customers found among the ids, their amounts are changed in place as orders apply. */
+    Map<Long, Customer> get(Set<Long> customerIds);
+
+    /** Forgets the customers, their amounts in memory no longer match the database. */
+    void discard(Collection<Long> customerIds);
+}
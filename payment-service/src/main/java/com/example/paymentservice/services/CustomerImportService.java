@@ -0,0 +1,229 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.config.logging.Loggable;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.exception.InvalidCustomerImportException;
+import com.example.paymentservice.mapper.CustomerMapper;
+import com.example.paymentservice.model.request.CustomerRequest;
+import com.example.paymentservice.model.response.CustomerImportResult;
+import com.example.paymentservice.repositories.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jooq.tools.csv.CSVReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports customers from a stream of CSV or NDJSON rows. Rows are read one at a time and inserted
+ * in chunks, each in a transaction of its own, so memory stays the same whatever the size of the
+ * import and a failed import can be sent again: customers whose email exists are skipped, like
+ * {@link CustomerService#saveCustomer} does. Progress is logged after every chunk and counted in
+ * {@code payment.customers.import.rows}.
+ */
+@Service
+@Loggable
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final String ROWS_METER = "payment.customers.import.rows";
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "email", "phone", "address", "amountavailable");
+    private static final int ADDRESS_COLUMN = 3;
+
+    private final CustomerRepository customerRepository;
+    private final CustomerMapper customerMapper;
+    private final Validator validator;
+    private final ObjectReader customerReader;
+    private final int chunkSize;
+
+    private final Counter imported;
+    private final Counter duplicates;
+    private final Counter invalid;
+    private final Timer chunks;
+
+    public CustomerImportService(
+            CustomerRepository customerRepository,
+            CustomerMapper customerMapper,
+            Validator validator,
+            ObjectMapper objectMapper,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.customerMapper = customerMapper;
+        this.validator = validator;
+        this.customerReader = objectMapper.readerFor(CustomerRequest.class);
+        this.chunkSize = applicationProperties.getCustomerImport().getChunkSize();
+        this.imported = rowsCounter(meterRegistry, "imported");
+        this.duplicates = rowsCounter(meterRegistry, "duplicate");
+        this.invalid = rowsCounter(meterRegistry, "invalid");
+        this.chunks =
+                Timer.builder("payment.customers.import.chunks")
+                        .description("Chunks of imported customers inserted")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Reads a header naming the columns name, email, phone, address and amountAvailable in any
+     * order, address being optional, then a customer per line.
+     */
+    public CustomerImportResult importCsv(Reader reader) throws IOException {
+        CSVReader csvReader = new CSVReader(reader);
+        CustomerImport customerImport = new CustomerImport();
+        String[] header = csvReader.readNext();
+        if (header == null) {
+            return customerImport.finish();
+        }
+        int[] columns = getColumns(header);
+        for (String[] line = csvReader.readNext(); line != null; line = csvReader.readNext()) {
+            if (line.length == 1 && line[0].isBlank()) {
+                continue;
+            }
+            try {
+                customerImport.add(
+                        new CustomerRequest(
+                                getValue(line, columns[0]),
+                                getValue(line, columns[1]),
+                                getValue(line, columns[2]),
+                                getValue(line, columns[3]),
+                                Integer.parseInt(getValue(line, columns[4]).strip())));
+            } catch (RuntimeException e) {
+                customerImport.invalid(e.toString());
+            }
+        }
+        return customerImport.finish();
+    }
+
+    /** Reads a customer per line as JSON, in the shape of {@link CustomerRequest}. */
+    public CustomerImportResult importNdjson(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        CustomerImport customerImport = new CustomerImport();
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                customerImport.add(customerReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                customerImport.invalid(e.getOriginalMessage());
+            }
+        }
+        return customerImport.finish();
+    }
+
+    private int[] getColumns(String[] header) {
+        List<String> names =
+                Arrays.stream(header).map(name -> name.strip().toLowerCase(Locale.ROOT)).toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0 && i != ADDRESS_COLUMN) {
+                throw new InvalidCustomerImportException(
+                        "CSV header has no column %s".formatted(CSV_COLUMNS.get(i)));
+            }
+        }
+        return columns;
+    }
+
+    private static String getValue(String[] line, int column) {
+        return column >= 0 && column < line.length ? line[column] : null;
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(ROWS_METER)
+                .description("Rows of customer imports by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** One import in progress, holding at most one chunk of customers. */
+    private final class CustomerImport {
+
+        private final long startedAt = System.nanoTime();
+        private final List<Customer> chunk = new ArrayList<>(chunkSize);
+        private final Set<String> chunkEmails = HashSet.newHashSet(chunkSize);
+        private long readRows;
+        private long importedRows;
+        private long duplicateRows;
+        private long invalidRows;
+
+        void add(CustomerRequest customerRequest) {
+            Set<ConstraintViolation<CustomerRequest>> violations =
+                    validator.validate(customerRequest);
+            if (!violations.isEmpty()) {
+                invalid(
+                        violations.stream()
+                                .map(ConstraintViolation::getMessage)
+                                .collect(Collectors.joining(", ")));
+                return;
+            }
+            readRows++;
+            // later chunks find the earlier ones committed, the database tells those apart
+            if (!chunkEmails.add(customerRequest.email())) {
+                duplicateRows++;
+                duplicates.increment();
+                return;
+            }
+            chunk.add(customerMapper.toEntity(customerRequest).setAmountReserved(0));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void invalid(String reason) {
+            readRows++;
+            invalidRows++;
+            invalid.increment();
+            log.debug("Skipping customer of row {} : {}", readRows, reason);
+        }
+
+        CustomerImportResult finish() {
+            flush();
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            log.info(
+                    "Imported {} of {} customers read in {} ms, {} duplicates and {} invalid",
+                    importedRows,
+                    readRows,
+                    elapsedMillis,
+                    duplicateRows,
+                    invalidRows);
+            return new CustomerImportResult(
+                    readRows, importedRows, duplicateRows, invalidRows, elapsedMillis);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Timer.Sample sample = Timer.start();
+            int inserted = customerRepository.insertAllWithNewEmail(chunk);
+            sample.stop(chunks);
+            importedRows += inserted;
+            duplicateRows += chunk.size() - inserted;
+            imported.increment(inserted);
+            duplicates.increment(chunk.size() - inserted);
+            chunk.clear();
+            chunkEmails.clear();
+            log.info("Imported {} of {} customers read so far", importedRows, readRows);
+        }
+    }
+}
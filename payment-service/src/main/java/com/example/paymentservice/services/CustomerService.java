@@ -1,4 +1,4 @@
-/*** Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli. ***/
 package com.example.paymentservice.services;
 
 import com.example.paymentservice.config.logging.Loggable;
@@ -6,10 +6,13 @@ import com.example.paymentservice.entities.Customer;
 import com.example.paymentservice.exception.CustomerNotFoundException;
 import com.example.paymentservice.mapper.CustomerMapper;
 import com.example.paymentservice.model.query.FindCustomersQuery;
+import com.example.paymentservice.model.query.ScrollCustomersQuery;
 import com.example.paymentservice.model.request.CustomerRequest;
+import com.example.paymentservice.model.response.CursorResult;
 import com.example.paymentservice.model.response.CustomerResponse;
 import com.example.paymentservice.model.response.PagedResult;
 import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.utils.ScrollCursors;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -18,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,23 +49,44 @@ public class CustomerService {
                 findCustomersQuery.sortDir());
 
         Pageable pageable = createPageable(findCustomersQuery);
-        Page<Customer> page = customerRepository.findAll(pageable);
+        Page<Customer> page = customerRepository.findAll(pageable, findCustomersQuery.exactCount());
 
         List<CustomerResponse> customerResponseList =
                 customerMapper.toListResponse(page.getContent());
         return new PagedResult<>(customerResponseList, page);
     }
 
+    public CursorResult<CustomerResponse> scrollCustomers(
+            ScrollCustomersQuery scrollCustomersQuery) {
+        log.info(
+                "Fetching scrollCustomers after cursor {} with size {}, sorting By {} {}",
+                scrollCustomersQuery.cursor(),
+                scrollCustomersQuery.size(),
+                scrollCustomersQuery.sortBy(),
+                scrollCustomersQuery.sortDir());
+
+        Window<Customer> window =
+                customerRepository.findAll(
+                        createSort(scrollCustomersQuery.sortBy(), scrollCustomersQuery.sortDir()),
+                        scrollCustomersQuery.size(),
+                        ScrollCursors.decode(scrollCustomersQuery.cursor()));
+
+        return new CursorResult<>(customerMapper.toListResponse(window.getContent()), window);
+    }
+
     private Pageable createPageable(FindCustomersQuery findCustomersQuery) {
         int pageNo = Math.max(findCustomersQuery.pageNo() - 1, 0);
-        Sort sort =
-                Sort.by(
-                        findCustomersQuery.sortDir().equalsIgnoreCase(Sort.Direction.ASC.name())
-                                ? Sort.Order.asc(findCustomersQuery.sortBy())
-                                : Sort.Order.desc(findCustomersQuery.sortBy()));
+        Sort sort = createSort(findCustomersQuery.sortBy(), findCustomersQuery.sortDir());
         return PageRequest.of(pageNo, findCustomersQuery.pageSize(), sort);
     }
 
+    private Sort createSort(String sortBy, String sortDir) {
+        return Sort.by(
+                sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
+                        ? Sort.Order.asc(sortBy)
+                        : Sort.Order.desc(sortBy));
+    }
+
     public Optional<CustomerResponse> findCustomerById(Long id) {
         return customerRepository.findById(id).map(customerMapper::toResponse);
     }
@@ -0,0 +1,86 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Balances of the customers whose orders this instance consumes in repartition mode. Orders are
+ * keyed by customer there, so only the consumer of a customer's partition changes its balance and
+ * it is read from the database once rather than before every write. Balances are kept for {@code
+ * balanceTimeToLive}, so amounts changed through the API are picked up, and all of them are dropped
+ * when partitions move to another consumer.
+ */
+@Service
+@ConditionalOnProperty(name = "application.orders-repartition.enabled", havingValue = "true")
+public class OwnedCustomerBalances implements CustomerBalances {
+
+    private final CustomerRepository customerRepository;
+    private final long timeToLiveNanos;
+    private final Map<Long, Owned> balances = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+
+    public OwnedCustomerBalances(
+            CustomerRepository customerRepository,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.timeToLiveNanos =
+                applicationProperties.getOrdersRepartition().getBalanceTimeToLive().toNanos();
+        this.loads =
+                Counter.builder("payment.balances.loads")
+                        .description("Customer balances read from the database")
+                        .register(meterRegistry);
+        Gauge.builder("payment.balances.owned", balances, Map::size)
+                .description("Customer balances held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Map<Long, Customer> get(Set<Long> customerIds) {
+        long now = System.nanoTime();
+        Map<Long, Customer> customers = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            Owned owned = balances.get(customerId);
+            if (owned == null || now - owned.loadedAt() >= timeToLiveNanos) {
+                missing.add(customerId);
+            } else {
+                customers.put(customerId, owned.customer());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Customer customer : customerRepository.findAllById(missing)) {
+                balances.put(customer.getId(), new Owned(customer, now));
+                customers.put(customer.getId(), customer);
+            }
+            loads.increment(missing.size());
+        }
+        return customers;
+    }
+
+    @Override
+    public void discard(Collection<Long> customerIds) {
+        customerIds.forEach(balances::remove);
+    }
+
+    public void clear() {
+        balances.clear();
+    }
+
+    private record Owned(Customer customer, long loadedAt) {}
+}
@@ -1,4 +1,4 @@
-/*** Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli. ***/
 package com.example.paymentservice.services;
 
 import com.example.common.dtos.OrderDto;
@@ -6,13 +6,28 @@ import com.example.common.dtos.OrderItemDto;
 import com.example.paymentservice.config.logging.Loggable;
 import com.example.paymentservice.entities.Customer;
 import com.example.paymentservice.exception.CustomerNotFoundException;
+import com.example.paymentservice.exception.ReplyNotSentException;
 import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.services.engine.BalanceEngine;
 import com.example.paymentservice.utils.AppConstants;
 import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,71 +38,333 @@ public class PaymentOrderManageService {
 
     private final CustomerRepository customerRepository;
     private final KafkaTemplate<Long, OrderDto> kafkaTemplate;
+    private final CustomerBalances databaseBalances;
+    private final BalanceEngine balanceEngine;
 
     public PaymentOrderManageService(
-            CustomerRepository customerRepository, KafkaTemplate<Long, OrderDto> kafkaTemplate) {
+            CustomerRepository customerRepository,
+            KafkaTemplate<Long, OrderDto> kafkaTemplate,
+            @Nullable BalanceEngine balanceEngine) {
         this.customerRepository = customerRepository;
         this.kafkaTemplate = kafkaTemplate;
+        this.balanceEngine = balanceEngine;
+        this.databaseBalances = new DatabaseBalances(customerRepository);
     }
 
+    /**
+     * Accepts the order when the customer has its total available, reserving it with one
+     * conditional update, so orders of one customer handled concurrently cannot overdraw the
+     * balance. With the {@link BalanceEngine} enabled, the balance in memory is checked instead.
+     *
+     * @throws ReplyNotSentException when the reply could not be handed to the producer, the amount
+     *     being reserved already
+     */
     @Timed(percentiles = 1.0)
     public void reserve(OrderDto orderDto) {
         log.debug(
                 "Reserving Order with Id :{} in payment service with payload {}",
                 orderDto.getOrderId(),
                 orderDto);
-        Customer customer =
-                customerRepository
-                        .findById(orderDto.getCustomerId())
-                        .orElseThrow(() -> new CustomerNotFoundException(orderDto.getCustomerId()));
-        log.info("Found Customer: {}", customer.getId());
-        var totalOrderPrice =
-                orderDto.getItems().stream()
-                        .map(OrderItemDto::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                        .intValue();
-        if (totalOrderPrice < customer.getAmountAvailable()) {
+        int totalOrderPrice = getOrderPrice(orderDto);
+        if (balanceEngine != null) {
+            BalanceEngine.Outcome outcome =
+                    balanceEngine.reserve(orderDto.getCustomerId(), totalOrderPrice);
+            if (outcome == BalanceEngine.Outcome.UNKNOWN_CUSTOMER) {
+                throw new CustomerNotFoundException(orderDto.getCustomerId());
+            }
+            orderDto.setStatus(outcome == BalanceEngine.Outcome.APPLIED ? "ACCEPT" : "REJECT");
+        } else if (customerRepository
+                .reserveAmount(orderDto.getCustomerId(), totalOrderPrice)
+                .isPresent()) {
+            log.info("Reserved {} for Customer: {}", totalOrderPrice, orderDto.getCustomerId());
             orderDto.setStatus("ACCEPT");
-            customer.setAmountReserved(customer.getAmountReserved() + totalOrderPrice);
-            customer.setAmountAvailable(customer.getAmountAvailable() - totalOrderPrice);
         } else {
+            // only asked once the reservation failed, to tell unknown customers from short ones
+            customerRepository
+                    .findById(orderDto.getCustomerId())
+                    .orElseThrow(() -> new CustomerNotFoundException(orderDto.getCustomerId()));
             orderDto.setStatus("REJECT");
         }
         orderDto.setSource(AppConstants.SOURCE);
-        log.info("Saving customer: {} after reserving", customer);
-        customerRepository.save(customer);
-        kafkaTemplate.send(AppConstants.PAYMENT_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
+        try {
+            kafkaTemplate.send(AppConstants.PAYMENT_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
+        } catch (RuntimeException e) {
+            throw new ReplyNotSentException(orderDto.getOrderId(), e);
+        }
         log.info(
                 "Sent Reserved Order: {} to topic :{}",
                 orderDto,
                 AppConstants.PAYMENT_ORDERS_TOPIC);
     }
 
+    /** Settles what {@link #reserve(OrderDto)} took for the order, with one conditional update. */
     @Timed(percentiles = 1.0)
     public void confirm(OrderDto orderDto) {
         log.debug(
                 "Confirming Order with Id :{} in payment service with payload {}",
                 orderDto.getOrderId(),
                 orderDto);
-        Customer customer =
-                customerRepository
-                        .findById(orderDto.getCustomerId())
-                        .orElseThrow(() -> new CustomerNotFoundException(orderDto.getCustomerId()));
-        log.info("Found Customer: {}", customer);
-        var orderPrice =
-                orderDto.getItems().stream()
-                        .map(OrderItemDto::getPrice)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add)
-                        .intValue();
-        if (orderDto.getStatus().equals("CONFIRMED")) {
-            customer.setAmountReserved(customer.getAmountReserved() - orderPrice);
-        } else if (orderDto.getStatus().equals(AppConstants.ROLLBACK)
+        int orderPrice = getOrderPrice(orderDto);
+        if (balanceEngine != null) {
+            settle(orderDto, orderPrice);
+            return;
+        }
+        Optional<Customer> settled;
+        if ("CONFIRMED".equals(orderDto.getStatus())) {
+            settled =
+                    customerRepository.confirmReservedAmount(orderDto.getCustomerId(), orderPrice);
+        } else if (AppConstants.ROLLBACK.equals(orderDto.getStatus())
+                && !AppConstants.SOURCE.equals(orderDto.getSource())) {
+            settled =
+                    customerRepository.releaseReservedAmount(orderDto.getCustomerId(), orderPrice);
+        } else {
+            return;
+        }
+        if (settled.isEmpty()) {
+            Customer customer =
+                    customerRepository
+                            .findById(orderDto.getCustomerId())
+                            .orElseThrow(
+                                    () -> new CustomerNotFoundException(orderDto.getCustomerId()));
+            log.warn(
+                    "Customer :{} has less than {} reserved, Hence Ignoring OrderID :{}",
+                    customer.getId(),
+                    orderPrice,
+                    orderDto.getOrderId());
+            return;
+        }
+        log.debug("Saved customer :{}", settled.get());
+    }
+
+    private void settle(OrderDto orderDto, int orderPrice) {
+        BalanceEngine.Outcome outcome;
+        if ("CONFIRMED".equals(orderDto.getStatus())) {
+            outcome = balanceEngine.confirm(orderDto.getCustomerId(), orderPrice);
+        } else if (AppConstants.ROLLBACK.equals(orderDto.getStatus())
                 && !AppConstants.SOURCE.equals(orderDto.getSource())) {
-            customer.setAmountReserved(customer.getAmountReserved() - orderPrice);
-            customer.setAmountAvailable(customer.getAmountAvailable() + orderPrice);
+            outcome = balanceEngine.release(orderDto.getCustomerId(), orderPrice);
+        } else {
+            return;
+        }
+        if (outcome == BalanceEngine.Outcome.UNKNOWN_CUSTOMER) {
+            throw new CustomerNotFoundException(orderDto.getCustomerId());
+        }
+        if (outcome == BalanceEngine.Outcome.SHORT) {
+            log.warn(
+                    "Customer :{} has less than {} reserved, Hence Ignoring OrderID :{}",
+                    orderDto.getCustomerId(),
+                    orderPrice,
+                    orderDto.getOrderId());
+        }
+    }
+
+    /**
+     * Handles the orders of one poll together: the customers they name are read with one query, the
+     * orders are applied to those balances in the given order in memory, and the change of each
+     * balance is written with one batch update before the replies are sent together. When a balance
+     * changed since it was read, the orders are handled one at a time instead.
+     *
+     * <p>An exception thrown means no amount was written. Once they are, a reply that fails to be
+     * sent is returned as a {@link ReplyNotSentException}, and its order carries the decided
+     * status. A settlement that does not fit the balance read is left to {@link
+     * #confirm(OrderDto)} once the poll is written, as the balance may miss a reservation taken
+     * elsewhere.
+     *
+     * @return the failures by position in the list, such as orders of unknown customers
+     */
+    @Timed(percentiles = 1.0)
+    public Map<Integer, RuntimeException> processAll(List<OrderDto> orderDtos) {
+        return processAll(orderDtos, databaseBalances);
+    }
+
+    /**
+     * Same as {@link #processAll(List)} with the balances taken from the given ones, which are
+     * discarded for the customers of the poll when it could not be written as decided.
+     */
+    @Timed(percentiles = 1.0)
+    public Map<Integer, RuntimeException> processAll(
+            List<OrderDto> orderDtos, CustomerBalances balances) {
+        log.info("Processing {} Orders in payment service", orderDtos.size());
+        if (balanceEngine != null) {
+            // the balances are in memory already, nothing to save by reading them together
+            return processOneByOne(orderDtos);
+        }
+        Set<Long> customerIds =
+                orderDtos.stream().map(OrderDto::getCustomerId).collect(Collectors.toSet());
+        Map<Long, Customer> customers = balances.get(customerIds);
+        try {
+            return apply(orderDtos, customers, balances);
+        } catch (RuntimeException e) {
+            balances.discard(customerIds);
+            throw e;
+        }
+    }
+
+    private Map<Integer, RuntimeException> apply(
+            List<OrderDto> orderDtos, Map<Long, Customer> customers, CustomerBalances balances) {
+
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        Map<Long, CustomerRepository.AmountChange> changes = new HashMap<>();
+        // decided statuses by position, set on the orders only once the changes are written
+        Map<Integer, String> replies = new LinkedHashMap<>();
+        List<Integer> unsettled = new ArrayList<>();
+        for (int i = 0; i < orderDtos.size(); i++) {
+            OrderDto orderDto = orderDtos.get(i);
+            boolean reserving = "NEW".equals(orderDto.getStatus());
+            boolean releasing =
+                    AppConstants.ROLLBACK.equals(orderDto.getStatus())
+                            && !AppConstants.SOURCE.equals(orderDto.getSource());
+            if (!reserving && !releasing && !"CONFIRMED".equals(orderDto.getStatus())) {
+                continue;
+            }
+            Customer customer = customers.get(orderDto.getCustomerId());
+            if (customer == null) {
+                failures.put(i, new CustomerNotFoundException(orderDto.getCustomerId()));
+                continue;
+            }
+            int orderPrice = getOrderPrice(orderDto);
+            CustomerRepository.AmountChange change;
+            if (reserving) {
+                boolean accepted = orderPrice <= customer.getAmountAvailable();
+                replies.put(i, accepted ? "ACCEPT" : "REJECT");
+                change =
+                        new CustomerRepository.AmountChange(
+                                accepted ? -orderPrice : 0, accepted ? orderPrice : 0);
+            } else if (orderPrice <= customer.getAmountReserved()) {
+                change =
+                        new CustomerRepository.AmountChange(
+                                releasing ? orderPrice : 0, -orderPrice);
+            } else {
+                unsettled.add(i);
+                continue;
+            }
+            customer.setAmountAvailable(customer.getAmountAvailable() + change.available())
+                    .setAmountReserved(customer.getAmountReserved() + change.reserved());
+            changes.merge(customer.getId(), change, CustomerRepository.AmountChange::plus);
         }
-        log.info("Saving customer :{} After Confirmation", customer);
-        Customer saved = customerRepository.save(customer);
-        log.debug("Saved customer :{}", saved);
+        changes.values().removeIf(CustomerRepository.AmountChange::isEmpty);
+
+        if (!customerRepository.addToAmounts(changes)) {
+            balances.discard(customers.keySet());
+            log.warn(
+                    "Balances changed while processing {} Orders, processing one at a time",
+                    orderDtos.size());
+            return processOneByOne(orderDtos);
+        }
+        // the amounts are written, from here on a failure must not get the order handled again
+        settleInDatabase(orderDtos, unsettled, balances, failures);
+        Map<Integer, CompletableFuture<SendResult<Long, OrderDto>>> sends = new LinkedHashMap<>();
+        replies.forEach(
+                (i, status) -> {
+                    OrderDto orderDto = orderDtos.get(i);
+                    orderDto.setStatus(status);
+                    orderDto.setSource(AppConstants.SOURCE);
+                    sends.put(i, send(orderDto));
+                });
+        // handed to the producer together, so the replies share as few requests as possible
+        RuntimeException flushFailure = flush();
+        sends.forEach(
+                (i, send) -> {
+                    Throwable cause =
+                            send.isCompletedExceptionally()
+                                    ? send.exceptionNow()
+                                    : send.isDone() ? null : flushFailure;
+                    if (cause != null) {
+                        failures.put(
+                                i, new ReplyNotSentException(orderDtos.get(i).getOrderId(), cause));
+                    }
+                });
+        return failures;
+    }
+
+    // a balance kept in memory misses reservations of orders retried outside it, so the database
+    // decides and the customers are read again next time
+    private void settleInDatabase(
+            List<OrderDto> orderDtos,
+            List<Integer> unsettled,
+            CustomerBalances balances,
+            Map<Integer, RuntimeException> failures) {
+        if (unsettled.isEmpty()) {
+            return;
+        }
+        balances.discard(unsettled.stream().map(i -> orderDtos.get(i).getCustomerId()).toList());
+        for (Integer i : unsettled) {
+            try {
+                confirm(orderDtos.get(i));
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+    }
+
+    private CompletableFuture<SendResult<Long, OrderDto>> send(OrderDto orderDto) {
+        try {
+            return kafkaTemplate.send(
+                    AppConstants.PAYMENT_ORDERS_TOPIC, orderDto.getOrderId(), orderDto);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return the exception the producer failed with, null once every reply is sent
+     */
+    private RuntimeException flush() {
+        try {
+            kafkaTemplate.flush();
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private Map<Integer, RuntimeException> processOneByOne(List<OrderDto> orderDtos) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        List<Integer> reserved = new ArrayList<>();
+        for (int i = 0; i < orderDtos.size(); i++) {
+            OrderDto orderDto = orderDtos.get(i);
+            try {
+                if ("NEW".equals(orderDto.getStatus())) {
+                    reserve(orderDto);
+                    reserved.add(i);
+                } else {
+                    confirm(orderDto);
+                }
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        RuntimeException flushFailure = flush();
+        if (flushFailure != null) {
+            // which replies made it is not known, the reserved orders are not handled again
+            reserved.forEach(
+                    i ->
+                            failures.put(
+                                    i,
+                                    new ReplyNotSentException(
+                                            orderDtos.get(i).getOrderId(), flushFailure)));
+        }
+        return failures;
+    }
+
+    private int getOrderPrice(OrderDto orderDto) {
+        return orderDto.getItems().stream()
+                .map(OrderItemDto::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .intValue();
+    }
+
+    // read for every poll, nothing kept to discard
+    private record DatabaseBalances(CustomerRepository customerRepository)
+            implements CustomerBalances {
+
+        @Override
+        public Map<Long, Customer> get(Set<Long> customerIds) {
+            return customerRepository.findAllById(customerIds).stream()
+                    .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        }
+
+        @Override
+        public void discard(Collection<Long> customerIds) {}
     }
 }
@@ -0,0 +1,294 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.BalanceSnapshotRepository;
+import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reserves and settles amounts on balances held in memory, sharded by customer id, instead of with
+ * an update per order. A change is appended to the journal of its shard before it applies, and a
+ * background task adds the changes of each shard to the customers table together with the journal
+ * sequence they reach. On startup the journals are replayed from those checkpoints on top of the
+ * table, so no change is lost nor applied twice.
+ *
+ * <p>The engine has to be the only writer of the amounts: it reads a customer's balance from the
+ * table once, so amounts changed through the API or by another instance are not seen until restart,
+ * and the API reads amounts up to one snapshot interval old.
+ */
+@Service
+@ConditionalOnProperty(name = "application.balance-engine.enabled", havingValue = "true")
+public class BalanceEngine implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceEngine.class);
+
+    private final CustomerRepository customerRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final ApplicationProperties.BalanceEngine properties;
+    private final BalanceShard[] shards;
+    private final ScheduledExecutorService snapshotter =
+            Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("balance-snapshots").daemon().factory());
+
+    private final Timer snapshots;
+    private final Counter journalFull;
+    private final Counter replayed;
+
+    public BalanceEngine(
+            CustomerRepository customerRepository,
+            BalanceSnapshotRepository balanceSnapshotRepository,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry)
+            throws IOException {
+        this.customerRepository = customerRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.properties = applicationProperties.getBalanceEngine();
+        Path directory = Files.createDirectories(properties.getJournalDirectory());
+        int journalSize = Math.toIntExact(properties.getJournalSize().toBytes());
+        this.shards = new BalanceShard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] =
+                    new BalanceShard(
+                            i,
+                            new BalanceJournal(
+                                    directory.resolve("balances-" + i + ".journal"), journalSize));
+        }
+        this.snapshots =
+                Timer.builder("payment.engine.snapshots")
+                        .description("Changes of one shard written to the customers table")
+                        .register(meterRegistry);
+        this.journalFull =
+                Counter.builder("payment.engine.journal.full")
+                        .description("Changes that waited for a snapshot to free the journal")
+                        .register(meterRegistry);
+        this.replayed =
+                Counter.builder("payment.engine.replayed")
+                        .description("Journal entries replayed on startup")
+                        .register(meterRegistry);
+        Gauge.builder(
+                        "payment.engine.customers",
+                        shards,
+                        s -> Arrays.stream(s).mapToInt(BalanceShard::size).sum())
+                .description("Customer balances held in memory")
+                .register(meterRegistry);
+    }
+
+    /** Replays what the journals hold past the checkpoints, before any order is applied. */
+    @Override
+    public void afterPropertiesSet() {
+        Map<Integer, Long> checkpoints = balanceSnapshotRepository.findCheckpoints();
+        for (BalanceShard shard : shards) {
+            shard.checkpoint = checkpoints.getOrDefault(shard.id, 0L);
+            shard.sequence =
+                    shard.journal.replay(
+                            shard.checkpoint,
+                            entry -> {
+                                int slot = slotOf(shard, entry.customerId());
+                                // customers deleted since have nothing left to change
+                                if (slot >= 0) {
+                                    shard.change(slot, entry.available(), entry.reserved());
+                                }
+                                replayed.increment();
+                            });
+            snapshot(shard);
+        }
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshotter.scheduleWithFixedDelay(
+                this::snapshotAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Moves the amount from available to reserved when at least that much is available. */
+    public Outcome reserve(long customerId, int amount) {
+        return apply(customerId, Operation.RESERVE, amount);
+    }
+
+    /** Takes the amount off reserved when at least that much is reserved. */
+    public Outcome confirm(long customerId, int amount) {
+        return apply(customerId, Operation.CONFIRM, amount);
+    }
+
+    /** Moves the amount from reserved back to available when at least that much is reserved. */
+    public Outcome release(long customerId, int amount) {
+        return apply(customerId, Operation.RELEASE, amount);
+    }
+
+    private Outcome apply(long customerId, Operation operation, int amount) {
+        BalanceShard shard = shards[Math.floorMod(customerId, shards.length)];
+        while (true) {
+            int slot;
+            shard.lock.lock();
+            try {
+                slot = shard.slotOf(customerId);
+                if (slot >= 0) {
+                    int availableChange;
+                    int reservedChange;
+                    switch (operation) {
+                        case RESERVE -> {
+                            if (shard.available(slot) < amount) {
+                                return Outcome.SHORT;
+                            }
+                            availableChange = -amount;
+                            reservedChange = amount;
+                        }
+                        case CONFIRM -> {
+                            if (shard.reserved(slot) < amount) {
+                                return Outcome.SHORT;
+                            }
+                            availableChange = 0;
+                            reservedChange = -amount;
+                        }
+                        default -> {
+                            if (shard.reserved(slot) < amount) {
+                                return Outcome.SHORT;
+                            }
+                            availableChange = amount;
+                            reservedChange = -amount;
+                        }
+                    }
+                    if (shard.journal.append(
+                            shard.sequence + 1, customerId, availableChange, reservedChange)) {
+                        shard.sequence++;
+                        shard.change(slot, availableChange, reservedChange);
+                        return Outcome.APPLIED;
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            if (slot < 0) {
+                // read without the shard lock, so other customers of the shard do not wait on it
+                Optional<Customer> customer = customerRepository.findById(customerId);
+                if (customer.isEmpty()) {
+                    return Outcome.UNKNOWN_CUSTOMER;
+                }
+                shard.lock.lock();
+                try {
+                    load(shard, customer.get());
+                } finally {
+                    shard.lock.unlock();
+                }
+            } else {
+                journalFull.increment();
+                snapshot(shard);
+            }
+        }
+    }
+
+    private int slotOf(BalanceShard shard, long customerId) {
+        int slot = shard.slotOf(customerId);
+        if (slot >= 0) {
+            return slot;
+        }
+        return customerRepository.findById(customerId).map(c -> load(shard, c)).orElse(-1);
+    }
+
+    private int load(BalanceShard shard, Customer customer) {
+        return shard.load(
+                customer.getId(),
+                Optional.ofNullable(customer.getAmountAvailable()).orElse(0),
+                Optional.ofNullable(customer.getAmountReserved()).orElse(0));
+    }
+
+    /**
+     * Writes the changes of the shard to the customers table and, once the journal holds nothing
+     * newer, starts it over. Changes that fail to be written stay pending, as do their entries.
+     */
+    void snapshot(BalanceShard shard) {
+        shard.snapshotLock.lock();
+        try {
+            Map<Long, AmountChange> changes;
+            long sequence;
+            shard.lock.lock();
+            try {
+                changes = shard.drain();
+                sequence = shard.sequence;
+            } finally {
+                shard.lock.unlock();
+            }
+            if (sequence != shard.checkpoint) {
+                try {
+                    snapshots.record(
+                            () -> balanceSnapshotRepository.save(shard.id, sequence, changes));
+                } catch (RuntimeException e) {
+                    shard.lock.lock();
+                    try {
+                        shard.restore(changes);
+                    } finally {
+                        shard.lock.unlock();
+                    }
+                    throw e;
+                }
+                shard.checkpoint = sequence;
+            }
+            shard.lock.lock();
+            try {
+                if (shard.sequence == shard.checkpoint) {
+                    shard.journal.reset();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        } finally {
+            shard.snapshotLock.unlock();
+        }
+    }
+
+    private void snapshotAll() {
+        for (BalanceShard shard : shards) {
+            try {
+                snapshot(shard);
+            } catch (RuntimeException e) {
+                log.warn("Unable to write balances of shard {}, retrying later", shard.id, e);
+            }
+            shard.journal.force();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        snapshotter.shutdown();
+        snapshotter.awaitTermination(10, TimeUnit.SECONDS);
+        snapshotAll();
+        for (BalanceShard shard : shards) {
+            try {
+                shard.journal.close();
+            } catch (IOException e) {
+                log.warn("Unable to close the journal of shard {}", shard.id, e);
+            }
+        }
+    }
+
+    public enum Outcome {
+        APPLIED,
+        /** The customer has less than the amount available, or reserved when settling. */
+        SHORT,
+        UNKNOWN_CUSTOMER
+    }
+
+    private enum Operation {
+        RESERVE,
+        CONFIRM,
+        RELEASE
+    }
+}
@@ -0,0 +1,105 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of the balance changes of one shard, in a file mapped into memory so an append is
+ * a few stores and survives the process dying; {@link #force()} makes it survive the machine too.
+ * Entries have increasing sequences, and replay stops at the first one not greater than the one
+ * before, so after a {@link #reset()} the entries left over from before are never read. Not thread
+ * safe, the shard lock guards appends.
+ */
+final class BalanceJournal implements AutoCloseable {
+
+    // customer id, available, reserved, then the sequence
+    static final int ENTRY_SIZE = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    BalanceJournal(Path file, int size) throws IOException {
+        if (size < ENTRY_SIZE) {
+            throw new IllegalArgumentException(
+                    "Journal size %d is less than one entry".formatted(size));
+        }
+        this.channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size - size % ENTRY_SIZE);
+    }
+
+    /**
+     * Hands over the entries with a sequence greater than the given one in the order they were
+     * appended, and appends after the last entry from then on.
+     *
+     * @return the sequence of the last entry, or the given one when none is greater
+     */
+    long replay(long after, Consumer<Entry> consumer) {
+        long previous = 0;
+        int at = 0;
+        while (at + ENTRY_SIZE <= buffer.capacity()) {
+            long sequence = buffer.getLong(at + 16);
+            if (sequence <= previous) {
+                break;
+            }
+            if (sequence > after) {
+                consumer.accept(
+                        new Entry(
+                                sequence,
+                                buffer.getLong(at),
+                                buffer.getInt(at + 8),
+                                buffer.getInt(at + 12)));
+            }
+            previous = sequence;
+            at += ENTRY_SIZE;
+        }
+        // all of it already in the table, so it can be written over
+        position = previous > after ? at : 0;
+        return Math.max(previous, after);
+    }
+
+    /**
+     * @return false when the journal is full
+     */
+    boolean append(long sequence, long customerId, int available, int reserved) {
+        if (position + ENTRY_SIZE > buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(position, customerId);
+        buffer.putInt(position + 8, available);
+        buffer.putInt(position + 12, reserved);
+        // the sequence goes last, so an entry cut short by a crash ends the replay
+        VarHandle.storeStoreFence();
+        buffer.putLong(position + 16, sequence);
+        position += ENTRY_SIZE;
+        return true;
+    }
+
+    /** Appends from the start again, once every entry is in the customers table. */
+    void reset() {
+        position = 0;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    record Entry(long sequence, long customerId, int available, int reserved) {}
+}
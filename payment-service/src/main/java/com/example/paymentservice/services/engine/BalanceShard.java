@@ -0,0 +1,131 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The balances of the customers of one shard in parallel arrays, indexed by a slot per customer,
+ * with what changed since the last snapshot beside them. Callers hold {@link #lock}.
+ */
+final class BalanceShard {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    final int id;
+    final BalanceJournal journal;
+    // a lock rather than synchronized, so virtual threads waiting on it do not pin their carrier
+    final ReentrantLock lock = new ReentrantLock();
+    // held through a whole snapshot, the shard lock only while taking or restoring the changes
+    final ReentrantLock snapshotLock = new ReentrantLock();
+
+    // last sequence appended to the journal, and last one in the customers table
+    long sequence;
+    long checkpoint;
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long[] customerIds = new long[INITIAL_CAPACITY];
+    private int[] available = new int[INITIAL_CAPACITY];
+    private int[] reserved = new int[INITIAL_CAPACITY];
+    private int[] pendingAvailable = new int[INITIAL_CAPACITY];
+    private int[] pendingReserved = new int[INITIAL_CAPACITY];
+    private boolean[] pending = new boolean[INITIAL_CAPACITY];
+    private int[] pendingSlots = new int[INITIAL_CAPACITY];
+    private int pendingCount;
+    private int size;
+
+    BalanceShard(int id, BalanceJournal journal) {
+        this.id = id;
+        this.journal = journal;
+    }
+
+    /**
+     * @return the slot of the customer, -1 when its balance is not loaded
+     */
+    int slotOf(long customerId) {
+        Integer slot = slots.get(customerId);
+        return slot == null ? -1 : slot;
+    }
+
+    /** Loads a balance as read from the customers table, unless the customer has a slot already. */
+    int load(long customerId, int amountAvailable, int amountReserved) {
+        int slot = slotOf(customerId);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size == customerIds.length) {
+            grow();
+        }
+        slot = size++;
+        slots.put(customerId, slot);
+        customerIds[slot] = customerId;
+        available[slot] = amountAvailable;
+        reserved[slot] = amountReserved;
+        return slot;
+    }
+
+    int available(int slot) {
+        return available[slot];
+    }
+
+    int reserved(int slot) {
+        return reserved[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void change(int slot, int availableChange, int reservedChange) {
+        available[slot] += availableChange;
+        reserved[slot] += reservedChange;
+        addPending(slot, availableChange, reservedChange);
+    }
+
+    /** Takes the changes since the last call, by customer id. */
+    Map<Long, AmountChange> drain() {
+        Map<Long, AmountChange> changes = HashMap.newHashMap(pendingCount);
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = pendingSlots[i];
+            AmountChange change = new AmountChange(pendingAvailable[slot], pendingReserved[slot]);
+            if (!change.isEmpty()) {
+                changes.put(customerIds[slot], change);
+            }
+            pendingAvailable[slot] = 0;
+            pendingReserved[slot] = 0;
+            pending[slot] = false;
+        }
+        pendingCount = 0;
+        return changes;
+    }
+
+    /** Puts back changes taken by {@link #drain()} that did not make it to the table. */
+    void restore(Map<Long, AmountChange> changes) {
+        changes.forEach(
+                (customerId, change) ->
+                        addPending(slots.get(customerId), change.available(), change.reserved()));
+    }
+
+    private void addPending(int slot, int availableChange, int reservedChange) {
+        pendingAvailable[slot] += availableChange;
+        pendingReserved[slot] += reservedChange;
+        if (!pending[slot]) {
+            pending[slot] = true;
+            pendingSlots[pendingCount++] = slot;
+        }
+    }
+
+    private void grow() {
+        int capacity = customerIds.length * 2;
+        customerIds = Arrays.copyOf(customerIds, capacity);
+        available = Arrays.copyOf(available, capacity);
+        reserved = Arrays.copyOf(reserved, capacity);
+        pendingAvailable = Arrays.copyOf(pendingAvailable, capacity);
+        pendingReserved = Arrays.copyOf(pendingReserved, capacity);
+        pending = Arrays.copyOf(pending, capacity);
+        pendingSlots = Arrays.copyOf(pendingSlots, capacity);
+    }
+}
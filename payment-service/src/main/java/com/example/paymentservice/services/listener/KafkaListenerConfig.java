@@ -1,20 +1,62 @@
-/*** Licensed under MIT License Copyright (c) 2022-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2022-2026 Raja Kolli. ***/
 package com.example.paymentservice.services.listener;
 
 import com.example.common.dtos.OrderDto;
+import com.example.paymentservice.config.ApplicationProperties;
 import com.example.paymentservice.config.logging.Loggable;
 import com.example.paymentservice.exception.CustomerNotFoundException;
+import com.example.paymentservice.exception.ReplyNotSentException;
+import com.example.paymentservice.services.OwnedCustomerBalances;
 import com.example.paymentservice.services.PaymentOrderManageService;
 import com.example.paymentservice.utils.AppConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
@@ -22,24 +64,105 @@ import org.springframework.stereotype.Component;
 @Component
 @EnableKafka
 @Loggable
-public class KafkaListenerConfig {
+public class KafkaListenerConfig implements ConsumerSeekAware, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaListenerConfig.class);
 
+    private static final String ORDERS_BATCH_ENABLED = "application.orders-batch.enabled";
+    private static final String ORDERS_PARALLEL_ENABLED = "application.orders-parallel.enabled";
+    private static final String ORDERS_REPARTITION_ENABLED =
+            "application.orders-repartition.enabled";
+    // an order of one item as JSON, with its key and type header, the smallest an order gets
+    private static final int ORDER_RECORD_BYTES = 200;
+    // topics created by @RetryableTopic on onEvent, with SUFFIX_WITH_INDEX_VALUE
+    private static final String ORDERS_FIRST_RETRY_TOPIC = AppConstants.ORDERS_TOPIC + "-retry-0";
+    private static final String ORDERS_DLT = AppConstants.ORDERS_TOPIC + "-dlt";
+    private static final Pattern ORDERS_RETRY_LISTENER_ID =
+            Pattern.compile("orders-(retry-\\d+|dlt)");
+
     private final PaymentOrderManageService paymentOrderManageService;
+    private final KafkaTemplate<Long, OrderDto> kafkaTemplate;
+    // transactional, so forwarded orders and the offsets they came from commit together
+    private final KafkaTemplate<Long, OrderDto> repartitionTemplate;
+    private final DeadLetterPublishingRecoverer retryRecoverer;
+    private final DeadLetterPublishingRecoverer repartitionRecoverer;
+    private final KeyOrderedDispatcher<Long, OrderDto> ordersDispatcher;
+    private final OwnedCustomerBalances ownedBalances;
+    private final Counter repartitioned;
+    private final Timer repartitionLag;
 
     private final CountDownLatch deadLetterLatch = new CountDownLatch(1);
 
-    public KafkaListenerConfig(PaymentOrderManageService paymentOrderManageService) {
+    public KafkaListenerConfig(
+            PaymentOrderManageService paymentOrderManageService,
+            KafkaTemplate<Long, OrderDto> kafkaTemplate,
+            ProducerFactory<Long, OrderDto> producerFactory,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry,
+            @Nullable OwnedCustomerBalances ownedBalances) {
         this.paymentOrderManageService = paymentOrderManageService;
+        this.kafkaTemplate = kafkaTemplate;
+        if (applicationProperties.getOrdersRepartition().isEnabled()) {
+            DefaultKafkaProducerFactory<Long, OrderDto> transactionalProducerFactory =
+                    new DefaultKafkaProducerFactory<>(
+                            new HashMap<>(producerFactory.getConfigurationProperties()));
+            // unique per instance, instances sharing transactional ids would fence each other
+            transactionalProducerFactory.setTransactionIdPrefix(
+                    "payment-repartition-" + UUID.randomUUID() + "-");
+            this.repartitionTemplate = new KafkaTemplate<>(transactionalProducerFactory);
+            this.repartitionRecoverer =
+                    new DeadLetterPublishingRecoverer(
+                            repartitionTemplate,
+                            (record, ex) -> new TopicPartition(ORDERS_DLT, -1));
+        } else {
+            this.repartitionTemplate = null;
+            this.repartitionRecoverer = null;
+        }
+        this.ownedBalances = ownedBalances;
+        this.repartitioned =
+                Counter.builder("payment.orders.repartitioned")
+                        .description("Orders forwarded keyed by customer")
+                        .register(meterRegistry);
+        this.repartitionLag =
+                Timer.builder("payment.orders.repartition.lag")
+                        .description("Time from forwarding an order to processing it")
+                        .register(meterRegistry);
+        // same routing as @RetryableTopic, unknown customers are not retried
+        this.retryRecoverer =
+                new DeadLetterPublishingRecoverer(
+                        kafkaTemplate,
+                        (record, ex) ->
+                                new TopicPartition(
+                                        // handling a reply not sent again would apply it twice
+                                        ex instanceof CustomerNotFoundException
+                                                        || ex instanceof ReplyNotSentException
+                                                ? ORDERS_DLT
+                                                : ORDERS_FIRST_RETRY_TOPIC,
+                                        -1));
+        this.ordersDispatcher =
+                applicationProperties.getOrdersParallel().isEnabled()
+                        ? new KeyOrderedDispatcher<>(
+                                "orders-parallel", meterRegistry, (tp, offset) -> {})
+                        : null;
     }
 
     // retries if processing of event fails
     @RetryableTopic(
             backoff = @Backoff(delay = 1000, multiplier = 2.0),
-            exclude = {CustomerNotFoundException.class},
+            exclude = {CustomerNotFoundException.class, ReplyNotSentException.class},
             topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
-    @KafkaListener(id = "orders", topics = AppConstants.ORDERS_TOPIC, groupId = "payment")
+    @KafkaListener(
+            id = "orders",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "payment",
+            autoStartup =
+                    "#{!${"
+                            + ORDERS_BATCH_ENABLED
+                            + ":false} and !${"
+                            + ORDERS_PARALLEL_ENABLED
+                            + ":false} and !${"
+                            + ORDERS_REPARTITION_ENABLED
+                            + ":false}}")
     public void onEvent(OrderDto orderDto) {
         log.info(
                 "Received Order in payment service : {} from topic: {} with source :{}",
@@ -53,6 +176,136 @@ public class KafkaListenerConfig {
         }
     }
 
+    /**
+     * Batch mode of {@link #onEvent(OrderDto)}, enabled with {@code application.orders-batch}. The
+     * orders of a poll are applied to the balances of their customers together, see {@link
+     * PaymentOrderManageService#processAll}. A record that fails is published to the topic {@link
+     * #onEvent(OrderDto)} would have sent it to.
+     */
+    @KafkaListener(
+            id = "orders-batch",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "payment",
+            containerFactory = "ordersBatchListenerContainerFactory",
+            autoStartup =
+                    "#{${"
+                            + ORDERS_BATCH_ENABLED
+                            + ":false} and !${"
+                            + ORDERS_REPARTITION_ENABLED
+                            + ":false}}")
+    public void onEvents(List<ConsumerRecord<Long, OrderDto>> records) {
+        log.info("Received {} Orders in payment service", records.size());
+        processAll(records, paymentOrderManageService::processAll);
+    }
+
+    /**
+     * First stage of the repartition mode, enabled with {@code application.orders-repartition}.
+     * Orders arrive keyed by order, so one customer's orders are spread over all partitions; they
+     * are forwarded keyed by customer in a Kafka transaction together with the offsets of the poll,
+     * so a poll delivered again after a failed send forwards nothing twice. Records without an
+     * order go to the DLT.
+     */
+    @KafkaListener(
+            id = "orders-repartition",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "payment",
+            containerFactory = "ordersRepartitionListenerContainerFactory",
+            autoStartup = "${" + ORDERS_REPARTITION_ENABLED + ":false}")
+    public void onEventsToRepartition(List<ConsumerRecord<Long, OrderDto>> records) {
+        List<CompletableFuture<SendResult<Long, OrderDto>>> sends = new ArrayList<>();
+        for (ConsumerRecord<Long, OrderDto> record : records) {
+            if (record.value() == null) {
+                log.error("Order : {} has no value, sending to DLT", record.key());
+                repartitionRecoverer.accept(
+                        record, new IllegalArgumentException("Order record has no value"));
+                continue;
+            }
+            sends.add(
+                    repartitionTemplate.send(
+                            AppConstants.ORDERS_BY_CUSTOMER_TOPIC,
+                            record.value().getCustomerId(),
+                            record.value()));
+        }
+        repartitionTemplate.flush();
+        // a failure aborts the transaction and the poll is delivered again
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        repartitioned.increment(sends.size());
+    }
+
+    /**
+     * Second stage of the repartition mode. Every customer belongs to one partition of the internal
+     * topic, so this consumer is the only one changing the balances of its customers and keeps them
+     * in memory, see {@link OwnedCustomerBalances}. Replies keep the order id as key, and failures
+     * go to the retry topics of {@link #onEvent(OrderDto)}. Orders of aborted forwards are not
+     * read.
+     */
+    @KafkaListener(
+            id = "orders-by-customer",
+            topics = AppConstants.ORDERS_BY_CUSTOMER_TOPIC,
+            groupId = "payment-customers",
+            containerFactory = "ordersBatchListenerContainerFactory",
+            autoStartup = "${" + ORDERS_REPARTITION_ENABLED + ":false}",
+            properties = "isolation.level=read_committed")
+    public void onCustomerEvents(List<ConsumerRecord<Long, OrderDto>> records) {
+        log.info("Received {} Orders keyed by customer", records.size());
+        long now = System.currentTimeMillis();
+        records.forEach(
+                record ->
+                        repartitionLag.record(
+                                Math.max(now - record.timestamp(), 0), TimeUnit.MILLISECONDS));
+        processAll(
+                records,
+                orderDtos -> paymentOrderManageService.processAll(orderDtos, ownedBalances));
+    }
+
+    // partitions of the internal topic moved, some customers may now be changed elsewhere
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (ownedBalances != null
+                && partitions.stream()
+                        .anyMatch(tp -> AppConstants.ORDERS_BY_CUSTOMER_TOPIC.equals(tp.topic()))) {
+            ownedBalances.clear();
+        }
+    }
+
+    private void processAll(
+            List<ConsumerRecord<Long, OrderDto>> records,
+            Function<List<OrderDto>, Map<Integer, RuntimeException>> processor) {
+        Map<Integer, RuntimeException> failures;
+        try {
+            failures = processor.apply(records.stream().map(ConsumerRecord::value).toList());
+        } catch (RuntimeException e) {
+            // nothing was written, see PaymentOrderManageService#processAll
+            log.warn(
+                    "Unable to process {} Orders together, retrying one by one", records.size(), e);
+            records.forEach(this::process);
+            return;
+        }
+        failures.forEach(
+                (index, e) -> {
+                    ConsumerRecord<Long, OrderDto> record = records.get(index);
+                    log.error("Unable to process Order : {}, sending to retry", record.key(), e);
+                    retryRecoverer.accept(record, e);
+                });
+    }
+
+    /**
+     * Parallel mode of {@link #onEvent(OrderDto)}, enabled with {@code
+     * application.orders-parallel}. Records of one order are handled in sequence and those of
+     * different orders concurrently, each on its own virtual thread. A record that fails is
+     * published to the topic {@link #onEvent(OrderDto)} would have sent it to.
+     */
+    @KafkaListener(
+            id = "orders-parallel",
+            topics = AppConstants.ORDERS_TOPIC,
+            groupId = "payment",
+            containerFactory = "ordersParallelListenerContainerFactory",
+            autoStartup = "${" + ORDERS_PARALLEL_ENABLED + ":false}")
+    public void onParallelEvent(
+            ConsumerRecord<Long, OrderDto> record, Acknowledgment acknowledgment) {
+        ordersDispatcher.dispatch(record, acknowledgment, this::process);
+    }
+
     @DltHandler
     public void dlt(OrderDto orderDto, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
         log.error("Received dead-letter message : {} from topic {}", orderDto, topic);
@@ -62,4 +315,119 @@ public class KafkaListenerConfig {
     public CountDownLatch getDeadLetterLatch() {
         return this.deadLetterLatch;
     }
+
+    @Override
+    public void destroy() {
+        if (ordersDispatcher != null) {
+            ordersDispatcher.close();
+        }
+        if (repartitionTemplate != null
+                && repartitionTemplate.getProducerFactory()
+                        instanceof DefaultKafkaProducerFactory<Long, OrderDto> producerFactory) {
+            producerFactory.destroy();
+        }
+    }
+
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object> ordersParallelListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        // acks arrive out of order, the container commits up to the first gap and pauses the
+        // consumer until all records of the previous poll are acknowledged
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object> ordersBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ApplicationProperties applicationProperties) {
+        return batchListenerContainerFactory(configurer, consumerFactory, applicationProperties);
+    }
+
+    // the container begins the transaction of each poll and sends its offsets to it
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<Object, Object>
+            ordersRepartitionListenerContainerFactory(
+                    ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+                    ConsumerFactory<Object, Object> consumerFactory,
+                    ApplicationProperties applicationProperties) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                batchListenerContainerFactory(configurer, consumerFactory, applicationProperties);
+        if (repartitionTemplate != null) {
+            factory.getContainerProperties()
+                    .setKafkaAwareTransactionManager(
+                            new KafkaTransactionManager<>(
+                                    repartitionTemplate.getProducerFactory()));
+        }
+        return factory;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ApplicationProperties applicationProperties) {
+        ApplicationProperties.OrdersBatch ordersBatch = applicationProperties.getOrdersBatch();
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(ordersBatch.getMaxSize()));
+        // the broker holds a fetch until max wait has passed or there are the bytes of a full
+        // batch of the smallest orders, which larger orders reach with fewer records
+        consumerProperties.put(
+                ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG,
+                String.valueOf(ordersBatch.getMaxWait().toMillis()));
+        consumerProperties.put(
+                ConsumerConfig.FETCH_MIN_BYTES_CONFIG,
+                String.valueOf(ordersBatch.getMaxSize() * ORDER_RECORD_BYTES));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = ORDERS_REPARTITION_ENABLED, havingValue = "true")
+    NewTopic ordersByCustomerTopic(ApplicationProperties applicationProperties) {
+        return TopicBuilder.name(AppConstants.ORDERS_BY_CUSTOMER_TOPIC)
+                .partitions(applicationProperties.getOrdersRepartition().getPartitions())
+                .build();
+    }
+
+    // onEvent stays off in batch, parallel and repartition mode, but its retry and DLT listeners
+    // still have to run
+    @Bean
+    @ConditionalOnExpression(
+            "${"
+                    + ORDERS_BATCH_ENABLED
+                    + ":false} or ${"
+                    + ORDERS_PARALLEL_ENABLED
+                    + ":false} or ${"
+                    + ORDERS_REPARTITION_ENABLED
+                    + ":false}")
+    ApplicationRunner ordersRetryListenersStarter(KafkaListenerEndpointRegistry registry) {
+        return args ->
+                registry.getListenerContainers().stream()
+                        .filter(
+                                container ->
+                                        ORDERS_RETRY_LISTENER_ID
+                                                .matcher(container.getListenerId())
+                                                .matches())
+                        .forEach(MessageListenerContainer::start);
+    }
+
+    private void process(ConsumerRecord<Long, OrderDto> record) {
+        try {
+            onEvent(record.value());
+        } catch (RuntimeException e) {
+            log.error("Unable to process Order : {}, sending to retry", record.key(), e);
+            retryRecoverer.accept(record, e);
+        }
+    }
 }
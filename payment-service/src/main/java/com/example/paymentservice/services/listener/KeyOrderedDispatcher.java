@@ -0,0 +1,158 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.listener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Hands the records of a listener to virtual threads, one at a time per record key and concurrently
+ * across keys, so unrelated orders of one partition no longer wait for each other. Every record is
+ * acknowledged once handled; with async acks the container commits a partition only up to its
+ * lowest record still being handled.
+ */
+class KeyOrderedDispatcher<K, V> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // records waiting behind the running one of their key, a key is present while it runs
+    private final Map<Object, Deque<Runnable>> queues = new HashMap<>();
+    private final Map<TopicPartition, Offsets> offsets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final DistributionSummary queueDepth;
+    private final BiConsumer<TopicPartition, Long> onCommittable;
+
+    /**
+     * Registers the meters of the listener.
+     *
+     * @param onCommittable told the next offset of a partition that could be committed, every time
+     *     a record of it is handled
+     */
+    KeyOrderedDispatcher(
+            String listenerId,
+            MeterRegistry meterRegistry,
+            BiConsumer<TopicPartition, Long> onCommittable) {
+        this.onCommittable = onCommittable;
+        Gauge.builder("kafka.listener.parallel.in.flight", inFlight, AtomicInteger::get)
+                .description("Records handed to virtual threads and not handled yet")
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+        Gauge.builder(
+                        "kafka.listener.parallel.commit.lag",
+                        offsets,
+                        o -> o.values().stream().mapToLong(Offsets::lag).sum())
+                .description("Records received past the lowest one still being handled")
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+        this.queueDepth =
+                DistributionSummary.builder("kafka.listener.parallel.key.queue.depth")
+                        .description("Records of the same key ahead of a record when received")
+                        .tag("listener", listenerId)
+                        .register(meterRegistry);
+    }
+
+    void dispatch(
+            ConsumerRecord<K, V> record,
+            Acknowledgment acknowledgment,
+            Consumer<ConsumerRecord<K, V>> handler) {
+        TopicPartition topicPartition = new TopicPartition(record.topic(), record.partition());
+        Offsets partitionOffsets = offsets.computeIfAbsent(topicPartition, tp -> new Offsets());
+        partitionOffsets.started(record.offset());
+        inFlight.incrementAndGet();
+        Runnable task =
+                () -> {
+                    try {
+                        handler.accept(record);
+                    } finally {
+                        inFlight.decrementAndGet();
+                        long committable = partitionOffsets.finished(record.offset());
+                        acknowledgment.acknowledge();
+                        onCommittable.accept(topicPartition, committable);
+                    }
+                };
+
+        // records without a key keep the order of their partition
+        Object key = record.key() != null ? record.key() : topicPartition;
+        int ahead;
+        synchronized (queues) {
+            Deque<Runnable> queue = queues.get(key);
+            if (queue == null) {
+                queues.put(key, new ArrayDeque<>());
+                ahead = 0;
+            } else {
+                queue.addLast(task);
+                ahead = queue.size();
+            }
+        }
+        queueDepth.record(ahead);
+        if (ahead == 0) {
+            executor.execute(() -> drain(key, task));
+        }
+    }
+
+    @Override
+    public void close() {
+        // waits for the records handed over already
+        executor.close();
+    }
+
+    private void drain(Object key, Runnable first) {
+        Runnable next = first;
+        while (next != null) {
+            try {
+                next.run();
+            } catch (RuntimeException e) {
+                log.error("Unhandled failure of record with key : {}", key, e);
+            }
+            synchronized (queues) {
+                next = queues.get(key).pollFirst();
+                if (next == null) {
+                    queues.remove(key);
+                }
+            }
+        }
+    }
+
+    // offsets of one partition being handled, only the consumer thread starts records
+    private static final class Offsets {
+        private final ConcurrentSkipListSet<Long> running = new ConcurrentSkipListSet<>();
+        private volatile long next;
+
+        private void started(long offset) {
+            running.add(offset);
+            // also restarts the count after a seek back
+            next = running.size() == 1 ? offset + 1 : Math.max(next, offset + 1);
+        }
+
+        private long finished(long offset) {
+            running.remove(offset);
+            return committable();
+        }
+
+        private long committable() {
+            Long lowest = running.ceiling(Long.MIN_VALUE);
+            return lowest == null ? next : lowest;
+        }
+
+        private long lag() {
+            return next - committable();
+        }
+    }
+}
@@ -1,4 +1,4 @@
-/*** Licensed under MIT License Copyright (c) 2021-2023 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli. ***/
 package com.example.paymentservice.utils;
 
 public final class AppConstants {
@@ -9,10 +9,13 @@ public final class AppConstants {
     public static final String SOURCE = "PAYMENT";
     public static final String ORDERS_TOPIC = "orders";
     public static final String PAYMENT_ORDERS_TOPIC = "payment-orders";
+    // orders keyed by customer, only used in repartition mode
+    public static final String ORDERS_BY_CUSTOMER_TOPIC = "payment-orders-by-customer";
     public static final String ROLLBACK = "ROLLBACK";
 
     public static final String DEFAULT_PAGE_NUMBER = "1";
     public static final String DEFAULT_PAGE_SIZE = "10";
+    public static final int MAX_CURSOR_PAGE_SIZE = 1000;
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
     public static final String PROFILE_LOCAL = "local";
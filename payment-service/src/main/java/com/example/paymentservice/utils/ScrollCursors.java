@@ -0,0 +1,62 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.utils;
+
+import com.example.paymentservice.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.StringUtils;
+
+/**
+ * Turns keyset scroll positions into the opaque cursors handed to clients and back. A cursor is the
+ * URL safe Base64 of the JSON keys of the last row returned, clients are not meant to read it.
+ */
+public final class ScrollCursors {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+    private static final TypeReference<LinkedHashMap<String, Object>> KEYS =
+            new TypeReference<>() {};
+
+    private ScrollCursors() {}
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions have a cursor");
+        }
+        try {
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(MAPPER.writeValueAsBytes(keyset.getKeys()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Keys of position cannot be written", e);
+        }
+    }
+
+    /**
+     * The position a cursor stands for, the start when there is no cursor.
+     *
+     * @throws InvalidCursorException when the cursor is not one handed out by {@link #encode}
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            Map<String, Object> keys =
+                    MAPPER.readValue(
+                            new String(
+                                    Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8),
+                            KEYS);
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -1,17 +1,22 @@
-/*** Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli. ***/
 package com.example.paymentservice.web.controllers;
 
 import com.example.paymentservice.config.logging.Loggable;
 import com.example.paymentservice.exception.CustomerNotFoundException;
 import com.example.paymentservice.model.query.FindCustomersQuery;
+import com.example.paymentservice.model.query.ScrollCustomersQuery;
 import com.example.paymentservice.model.request.CustomerRequest;
+import com.example.paymentservice.model.response.CursorResult;
 import com.example.paymentservice.model.response.CustomerResponse;
 import com.example.paymentservice.model.response.PagedResult;
 import com.example.paymentservice.services.CustomerService;
 import com.example.paymentservice.utils.AppConstants;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import java.net.URI;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,6 +30,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/customers")
+@Validated
 @Loggable
 class CustomerController {
 
@@ -43,12 +49,29 @@ class CustomerController {
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
                     String sortBy,
             @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
-                    String sortDir) {
+                    String sortDir,
+            @RequestParam(defaultValue = "false", required = false) boolean exactCount) {
         FindCustomersQuery findCustomersQuery =
-                new FindCustomersQuery(pageNo, pageSize, sortBy, sortDir);
+                new FindCustomersQuery(pageNo, pageSize, sortBy, sortDir, exactCount);
         return customerService.findAllCustomers(findCustomersQuery);
     }
 
+    @GetMapping("/scroll")
+    CursorResult<CustomerResponse> scrollCustomers(
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
+                    @Min(1)
+                    @Max(AppConstants.MAX_CURSOR_PAGE_SIZE)
+                    int size,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
+                    String sortBy,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
+                    String sortDir,
+            @RequestParam(required = false) String cursor) {
+        ScrollCustomersQuery scrollCustomersQuery =
+                new ScrollCustomersQuery(size, sortBy, sortDir, cursor);
+        return customerService.scrollCustomers(scrollCustomersQuery);
+    }
+
     @GetMapping("/{id}")
     ResponseEntity<CustomerResponse> getCustomerById(@PathVariable Long id) {
         return customerService
@@ -0,0 +1,37 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.web.controllers;
+
+import com.example.paymentservice.config.logging.Loggable;
+import com.example.paymentservice.model.response.CustomerImportResult;
+import com.example.paymentservice.services.CustomerImportService;
+import java.io.IOException;
+import java.io.Reader;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Bulk loads of customers, read from the request body as it arrives rather than bound whole. */
+@RestController
+@RequestMapping("/api/customers/import")
+@Loggable
+class CustomerImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final CustomerImportService customerImportService;
+
+    CustomerImportController(CustomerImportService customerImportService) {
+        this.customerImportService = customerImportService;
+    }
+
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    CustomerImportResult importCsv(Reader reader) throws IOException {
+        return customerImportService.importCsv(reader);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    CustomerImportResult importNdjson(Reader reader) throws IOException {
+        return customerImportService.importNdjson(reader);
+    }
+}
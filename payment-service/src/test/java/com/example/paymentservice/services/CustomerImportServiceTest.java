@@ -0,0 +1,125 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.exception.InvalidCustomerImportException;
+import com.example.paymentservice.mapper.CustomerMapper;
+import com.example.paymentservice.model.response.CustomerImportResult;
+import com.example.paymentservice.repositories.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+
+    @Mock private CustomerRepository customerRepository;
+
+    private final List<List<String>> insertedEmails = new ArrayList<>();
+
+    private CustomerImportService customerImportService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCustomerImport().setChunkSize(2);
+        customerImportService =
+                new CustomerImportService(
+                        customerRepository,
+                        new CustomerMapper(),
+                        Validation.buildDefaultValidatorFactory().getValidator(),
+                        new ObjectMapper(),
+                        applicationProperties,
+                        new SimpleMeterRegistry());
+    }
+
+    @Test
+    void importCsvInChunks() throws Exception {
+        // Arrange
+        given(customerRepository.insertAllWithNewEmail(anyList()))
+                .willAnswer(
+                        invocation -> {
+                            List<Customer> chunk = invocation.getArgument(0);
+                            insertedEmails.add(chunk.stream().map(Customer::getEmail).toList());
+                            // the second chunk has a customer that exists already
+                            return insertedEmails.size() == 2 ? chunk.size() - 1 : chunk.size();
+                        });
+        String csv =
+                """
+                email,name,phone,amountAvailable
+                first@customer.email,First,1234567890,100
+                first@customer.email,First Again,1234567890,100
+                second@customer.email,Second,1234567890,100
+                third@customer.email,"Third, Junior",1234567890,100
+                fourth@customer.email,Fourth,1234567890,none
+                fifth@customer.email,Fifth,1234567890,100
+                not an email,Sixth,1234567890,100
+                """;
+
+        // Act
+        CustomerImportResult result = customerImportService.importCsv(new StringReader(csv));
+
+        // Assert
+        assertThat(result)
+                .extracting(
+                        CustomerImportResult::read,
+                        CustomerImportResult::imported,
+                        CustomerImportResult::duplicates,
+                        CustomerImportResult::invalid)
+                .containsExactly(7L, 3L, 2L, 2L);
+        assertThat(insertedEmails)
+                .containsExactly(
+                        List.of("first@customer.email", "second@customer.email"),
+                        List.of("third@customer.email", "fifth@customer.email"));
+        verify(customerRepository, times(2)).insertAllWithNewEmail(anyList());
+    }
+
+    @Test
+    void importNdjsonSkipsUnreadableLines() throws Exception {
+        // Arrange
+        given(customerRepository.insertAllWithNewEmail(anyList())).willReturn(1);
+        String ndjson =
+                """
+                {"name":"First","email":"first@customer.email","phone":"1234567890","amountAvailable":100}
+                {"name":"Second",
+
+                """;
+
+        // Act
+        CustomerImportResult result = customerImportService.importNdjson(new StringReader(ndjson));
+
+        // Assert
+        assertThat(result)
+                .extracting(CustomerImportResult::read, CustomerImportResult::imported)
+                .containsExactly(2L, 1L);
+        assertThat(result.invalid()).isOne();
+    }
+
+    @Test
+    void importCsvWithoutRequiredColumn() {
+        // Arrange
+        String csv = "name,phone,amountAvailable\nFirst,1234567890,100\n";
+
+        // Act & Assert
+        assertThatExceptionOfType(InvalidCustomerImportException.class)
+                .isThrownBy(() -> customerImportService.importCsv(new StringReader(csv)));
+        verifyNoInteractions(customerRepository);
+    }
+}
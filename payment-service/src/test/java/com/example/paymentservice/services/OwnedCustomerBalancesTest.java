@@ -0,0 +1,74 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class OwnedCustomerBalancesTest {
+
+    @Mock private CustomerRepository customerRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OwnedCustomerBalances getBalances(Duration balanceTimeToLive) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getOrdersRepartition().setBalanceTimeToLive(balanceTimeToLive);
+        return new OwnedCustomerBalances(customerRepository, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void getReadsOwnedCustomerOnce() {
+        // Arrange
+        OwnedCustomerBalances balances = getBalances(Duration.ofMinutes(1));
+        Customer customer = TestData.getCustomer();
+        given(customerRepository.findAllById(List.of(1L))).willReturn(List.of(customer));
+
+        // Act
+        Map<Long, Customer> first = balances.get(Set.of(1L));
+        first.get(1L).setAmountAvailable(900);
+        Map<Long, Customer> second = balances.get(Set.of(1L));
+
+        // Assert
+        assertThat(second.get(1L).getAmountAvailable()).isEqualTo(900);
+        verify(customerRepository, times(1)).findAllById(List.of(1L));
+        assertThat(meterRegistry.get("payment.balances.loads").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.balances.owned").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void getReadsAgainAfterDiscardOrExpiry() {
+        // Arrange
+        OwnedCustomerBalances expiring = getBalances(Duration.ZERO);
+        OwnedCustomerBalances discarding = getBalances(Duration.ofMinutes(1));
+        given(customerRepository.findAllById(List.of(1L)))
+                .willAnswer(invocation -> List.of(TestData.getCustomer()));
+
+        // Act
+        expiring.get(Set.of(1L));
+        expiring.get(Set.of(1L));
+        discarding.get(Set.of(1L));
+        discarding.discard(Set.of(1L));
+        Map<Long, Customer> reloaded = discarding.get(Set.of(1L));
+
+        // Assert
+        assertThat(reloaded.get(1L).getAmountAvailable()).isEqualTo(1000);
+        verify(customerRepository, times(4)).findAllById(List.of(1L));
+    }
+}
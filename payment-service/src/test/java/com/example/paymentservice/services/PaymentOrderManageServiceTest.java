@@ -1,22 +1,32 @@
-/*** Licensed under MIT License Copyright (c) 2023 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2023-2026 Raja Kolli. ***/
 package com.example.paymentservice.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import com.example.common.dtos.OrderDto;
 import com.example.common.dtos.OrderItemDto;
 import com.example.paymentservice.entities.Customer;
 import com.example.paymentservice.exception.CustomerNotFoundException;
+import com.example.paymentservice.exception.ReplyNotSentException;
 import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
 import com.example.paymentservice.util.TestData;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -31,66 +41,51 @@ class PaymentOrderManageServiceTest {
 
     @Mock private CustomerRepository customerRepository;
 
-    @Mock private KafkaTemplate<String, OrderDto> kafkaTemplate;
+    @Mock private KafkaTemplate<Long, OrderDto> kafkaTemplate;
+
+    @Mock private CustomerBalances customerBalances;
 
     @InjectMocks private PaymentOrderManageService orderManageService;
 
     @Test
     void confirmWithValidOrder() {
         // Arrange
-        OrderDto orderDto = new OrderDto();
-        orderDto.setCustomerId(1L);
-        orderDto.setStatus("CONFIRMED");
-        OrderItemDto orderItemDto = new OrderItemDto();
-        orderItemDto.setProductPrice(BigDecimal.TEN);
-        orderItemDto.setQuantity(10);
-        orderDto.setItems(List.of(orderItemDto));
-        Customer customer = TestData.getCustomer();
-        given(customerRepository.findById(orderDto.getCustomerId()))
-                .willReturn(Optional.of(customer));
-        given(customerRepository.save(any(Customer.class)))
-                .willAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        OrderDto orderDto = getOrderDto("CONFIRMED", 10);
+        Customer customer = TestData.getCustomer().setAmountReserved(0);
+        given(customerRepository.confirmReservedAmount(1L, 100)).willReturn(Optional.of(customer));
+
         // Act
         orderManageService.confirm(orderDto);
 
         // Assert
-        assertThat(customer.getAmountReserved()).isZero();
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(customerRepository).confirmReservedAmount(1L, 100);
+        verify(customerRepository, never()).findById(1L);
     }
 
     @ParameterizedTest
-    @CsvSource({"INVENTORY,1100, 0", "PAYMENT,1000, 100"})
-    void confirmWithRejectedOrder(String source, int amountAvailable, int amountReserved) {
+    @CsvSource({"INVENTORY,1", "PAYMENT,0"})
+    void confirmWithRejectedOrder(String source, int releases) {
         // Arrange
-        OrderDto orderDto = new OrderDto();
-        orderDto.setCustomerId(1L);
-        orderDto.setStatus("ROLLBACK");
+        OrderDto orderDto = getOrderDto("ROLLBACK", 10);
         orderDto.setSource(source);
-        OrderItemDto orderItemDto = new OrderItemDto();
-        orderItemDto.setProductPrice(BigDecimal.TEN);
-        orderItemDto.setQuantity(10);
-        orderDto.setItems(List.of(orderItemDto));
-        Customer customer = TestData.getCustomer();
-        given(customerRepository.findById(orderDto.getCustomerId()))
-                .willReturn(Optional.of(customer));
-        given(customerRepository.save(any(Customer.class)))
-                .willAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        if (releases > 0) {
+            given(customerRepository.releaseReservedAmount(1L, 100))
+                    .willReturn(Optional.of(TestData.getCustomer()));
+        }
 
         // Act
         orderManageService.confirm(orderDto);
 
         // Assert
-        assertThat(customer.getAmountReserved()).isEqualTo(amountReserved);
-        assertThat(customer.getAmountAvailable()).isEqualTo(amountAvailable);
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(customerRepository, times(releases)).releaseReservedAmount(1L, 100);
+        verify(customerRepository, never()).confirmReservedAmount(1L, 100);
     }
 
     @Test
     void confirmWithInvalidCustomer() {
         // Arrange
-        OrderDto orderDto = new OrderDto();
-        orderDto.setCustomerId(1L);
-        orderDto.setStatus("CONFIRMED");
+        OrderDto orderDto = getOrderDto("CONFIRMED", 10);
+        given(customerRepository.confirmReservedAmount(1L, 100)).willReturn(Optional.empty());
         given(customerRepository.findById(1L)).willReturn(Optional.empty());
 
         // Assert
@@ -101,52 +96,157 @@ class PaymentOrderManageServiceTest {
     @Test
     void reserveWithValidOrderAccepted() {
         // Arrange
-        OrderDto orderDto = new OrderDto();
-        orderDto.setCustomerId(1L);
-        orderDto.setStatus("CONFIRMED");
-        OrderItemDto orderItemDto = new OrderItemDto();
-        orderItemDto.setProductPrice(BigDecimal.TEN);
-        orderItemDto.setQuantity(10);
-        orderDto.setItems(List.of(orderItemDto));
-        Customer customer = TestData.getCustomer();
-        given(customerRepository.findById(orderDto.getCustomerId()))
-                .willReturn(Optional.of(customer));
-        given(customerRepository.save(any(Customer.class)))
-                .willAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        OrderDto orderDto = getOrderDto("NEW", 10);
+        given(customerRepository.reserveAmount(1L, 100))
+                .willReturn(
+                        Optional.of(
+                                TestData.getCustomer()
+                                        .setAmountAvailable(900)
+                                        .setAmountReserved(200)));
+
         // Act
         orderManageService.reserve(orderDto);
 
         // Assert
-        assertThat(customer.getAmountReserved()).isEqualTo(200);
-        assertThat(customer.getAmountAvailable()).isEqualTo(900);
         assertThat(orderDto.getSource()).isEqualTo("PAYMENT");
         assertThat(orderDto.getStatus()).isEqualTo("ACCEPT");
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(customerRepository, never()).findById(1L);
+        verify(kafkaTemplate).send("payment-orders", orderDto.getOrderId(), orderDto);
     }
 
     @Test
     void reserveWithValidOrderRejected() {
         // Arrange
-        OrderDto orderDto = new OrderDto();
-        orderDto.setCustomerId(1L);
-        orderDto.setStatus("CONFIRMED");
-        OrderItemDto orderItemDto = new OrderItemDto();
-        orderItemDto.setProductPrice(BigDecimal.TEN);
-        orderItemDto.setQuantity(1000);
-        orderDto.setItems(List.of(orderItemDto));
-        Customer customer = TestData.getCustomer();
-        given(customerRepository.findById(orderDto.getCustomerId()))
-                .willReturn(Optional.of(customer));
-        given(customerRepository.save(any(Customer.class)))
-                .willAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        OrderDto orderDto = getOrderDto("NEW", 1000);
+        given(customerRepository.reserveAmount(1L, 10_000)).willReturn(Optional.empty());
+        given(customerRepository.findById(1L)).willReturn(Optional.of(TestData.getCustomer()));
+
         // Act
         orderManageService.reserve(orderDto);
 
         // Assert
-        assertThat(customer.getAmountReserved()).isEqualTo(100);
-        assertThat(customer.getAmountAvailable()).isEqualTo(1000);
         assertThat(orderDto.getStatus()).isEqualTo("REJECT");
         assertThat(orderDto.getSource()).isEqualTo("PAYMENT");
-        verify(customerRepository, times(1)).save(any(Customer.class));
+        verify(kafkaTemplate).send("payment-orders", orderDto.getOrderId(), orderDto);
+    }
+
+    @Test
+    void reserveWithInvalidCustomer() {
+        // Arrange
+        OrderDto orderDto = getOrderDto("NEW", 10);
+        given(customerRepository.reserveAmount(1L, 100)).willReturn(Optional.empty());
+        given(customerRepository.findById(1L)).willReturn(Optional.empty());
+
+        // Assert
+        assertThatExceptionOfType(CustomerNotFoundException.class)
+                .isThrownBy(() -> orderManageService.reserve(orderDto));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void processAllAppliesOrdersOfOneCustomerInOrder() {
+        // Arrange
+        OrderDto first = getOrderDto("NEW", 60);
+        OrderDto second = getOrderDto("NEW", 60);
+        OrderDto confirmed = getOrderDto("CONFIRMED", 10);
+        OrderDto unknown = getOrderDto("NEW", 1);
+        unknown.setCustomerId(2L);
+        given(customerRepository.findAllById(Set.of(1L, 2L)))
+                .willReturn(List.of(TestData.getCustomer()));
+        given(customerRepository.addToAmounts(Map.of(1L, new AmountChange(-600, 500))))
+                .willReturn(true);
+        given(kafkaTemplate.send(eq("payment-orders"), anyLong(), any(OrderDto.class)))
+                .willReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        Map<Integer, RuntimeException> failures =
+                orderManageService.processAll(List.of(first, second, confirmed, unknown));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(3);
+        assertThat(failures.get(3)).isInstanceOf(CustomerNotFoundException.class);
+        assertThat(first.getStatus()).isEqualTo("ACCEPT");
+        assertThat(second.getStatus()).isEqualTo("REJECT");
+        assertThat(second.getSource()).isEqualTo("PAYMENT");
+        verify(kafkaTemplate).send("payment-orders", first.getOrderId(), first);
+        verify(kafkaTemplate).send("payment-orders", second.getOrderId(), second);
+        verify(kafkaTemplate).flush();
+        verify(customerRepository, never()).reserveAmount(1L, 600);
+    }
+
+    @Test
+    void processAllFallsBackToOneByOneWhenBalancesChanged() {
+        // Arrange
+        OrderDto orderDto = getOrderDto("NEW", 10);
+        given(customerRepository.findAllById(Set.of(1L)))
+                .willReturn(List.of(TestData.getCustomer()));
+        given(customerRepository.addToAmounts(Map.of(1L, new AmountChange(-100, 100))))
+                .willReturn(false);
+        given(customerRepository.reserveAmount(1L, 100))
+                .willReturn(Optional.of(TestData.getCustomer()));
+
+        // Act
+        Map<Integer, RuntimeException> failures = orderManageService.processAll(List.of(orderDto));
+
+        // Assert
+        assertThat(failures).isEmpty();
+        assertThat(orderDto.getStatus()).isEqualTo("ACCEPT");
+        verify(kafkaTemplate, times(1)).send("payment-orders", orderDto.getOrderId(), orderDto);
+    }
+
+    @Test
+    void processAllReturnsRepliesNotSentWithoutApplyingThemAgain() {
+        // Arrange
+        OrderDto orderDto = getOrderDto("NEW", 10);
+        given(customerRepository.findAllById(Set.of(1L)))
+                .willReturn(List.of(TestData.getCustomer()));
+        given(customerRepository.addToAmounts(Map.of(1L, new AmountChange(-100, 100))))
+                .willReturn(true);
+        given(kafkaTemplate.send("payment-orders", orderDto.getOrderId(), orderDto))
+                .willReturn(CompletableFuture.failedFuture(new TimeoutException("no broker")));
+
+        // Act
+        Map<Integer, RuntimeException> failures = orderManageService.processAll(List.of(orderDto));
+
+        // Assert
+        assertThat(failures).containsOnlyKeys(0);
+        assertThat(failures.get(0))
+                .isInstanceOf(ReplyNotSentException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(orderDto.getStatus()).isEqualTo("ACCEPT");
+        verify(customerRepository, never()).reserveAmount(1L, 100);
+    }
+
+    @Test
+    void processAllSettlesInDatabaseWhenBalanceInMemoryIsShort() {
+        // Arrange
+        // reserved by a retry the balance in memory does not know of
+        OrderDto orderDto = getOrderDto("CONFIRMED", 10);
+        given(customerBalances.get(Set.of(1L)))
+                .willReturn(Map.of(1L, TestData.getCustomer().setAmountReserved(0)));
+        given(customerRepository.addToAmounts(Map.of())).willReturn(true);
+        given(customerRepository.confirmReservedAmount(1L, 100))
+                .willReturn(Optional.of(TestData.getCustomer()));
+
+        // Act
+        Map<Integer, RuntimeException> failures =
+                orderManageService.processAll(List.of(orderDto), customerBalances);
+
+        // Assert
+        assertThat(failures).isEmpty();
+        verify(customerBalances).discard(List.of(1L));
+        verify(customerRepository).confirmReservedAmount(1L, 100);
+    }
+
+    private OrderDto getOrderDto(String status, int quantity) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(1L);
+        orderDto.setCustomerId(1L);
+        orderDto.setStatus(status);
+        OrderItemDto orderItemDto = new OrderItemDto();
+        orderItemDto.setProductPrice(BigDecimal.TEN);
+        orderItemDto.setQuantity(quantity);
+        orderDto.setItems(List.of(orderItemDto));
+        return orderDto;
     }
 }
@@ -0,0 +1,123 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.common.dtos.OrderDto;
+import com.example.common.dtos.OrderItemDto;
+import com.example.paymentservice.common.AbstractIntegrationTest;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.CustomerRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Fires {@value #ORDERS} orders of one customer from {@value #THREADS} threads at {@link
+ * PaymentOrderManageService}, checking that the balance is never overdrawn nor loses an update, and
+ * logging the throughput.
+ */
+class PaymentReservationContentionIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReservationContentionIT.class);
+
+    private static final int ORDERS = 4_000;
+    private static final int THREADS = 32;
+    private static final int ORDER_PRICE = 10;
+    // enough for five orders out of eight
+    private static final int BALANCE = ORDERS * ORDER_PRICE * 5 / 8;
+
+    @Autowired private PaymentOrderManageService paymentOrderManageService;
+
+    @Autowired private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customer =
+                customerRepository.save(
+                        new Customer()
+                                .setName("Busy Customer")
+                                .setEmail("busy@customer.email")
+                                .setPhone("1234567890")
+                                .setAddress("Busy Address")
+                                .setAmountAvailable(BALANCE)
+                                .setAmountReserved(0));
+    }
+
+    @Test
+    void reserveAndConfirm_ConcurrentOrdersOfOneCustomer() throws Exception {
+        List<OrderDto> orders =
+                LongStream.rangeClosed(1, ORDERS).mapToObj(this::getOrderDto).toList();
+
+        long reserving = run(orders, paymentOrderManageService::reserve);
+
+        List<OrderDto> accepted =
+                orders.stream().filter(orderDto -> "ACCEPT".equals(orderDto.getStatus())).toList();
+        assertThat(accepted).hasSize(BALANCE / ORDER_PRICE);
+        assertBalance(0, BALANCE);
+
+        accepted.forEach(orderDto -> orderDto.setStatus("CONFIRMED"));
+        long confirming = run(accepted, paymentOrderManageService::confirm);
+        assertBalance(0, 0);
+
+        log.info(
+                "{} orders of one customer from {} threads : reserved in {} ms ({} orders/s),"
+                        + " {} confirmed in {} ms ({} orders/s)",
+                ORDERS,
+                THREADS,
+                reserving,
+                ORDERS * 1000L / Math.max(reserving, 1),
+                accepted.size(),
+                confirming,
+                accepted.size() * 1000L / Math.max(confirming, 1));
+    }
+
+    private long run(List<OrderDto> orders, Consumer<OrderDto> handler) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>(orders.size());
+            for (OrderDto orderDto : orders) {
+                futures.add(executor.submit(() -> handler.accept(orderDto)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void assertBalance(int available, int reserved) {
+        assertThat(customerRepository.findById(customer.getId()))
+                .get()
+                .extracting(Customer::getAmountAvailable, Customer::getAmountReserved)
+                .containsExactly(available, reserved);
+    }
+
+    private OrderDto getOrderDto(long orderId) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setStatus("NEW");
+        orderDto.setSource("INVENTORY");
+        orderDto.setCustomerId(customer.getId());
+        OrderItemDto orderItemDto = new OrderItemDto();
+        orderItemDto.setProductPrice(BigDecimal.valueOf(ORDER_PRICE));
+        orderItemDto.setQuantity(1);
+        orderItemDto.setProductId("P0001");
+        orderItemDto.setItemId(orderId);
+        orderDto.setItems(List.of(orderItemDto));
+        return orderDto;
+    }
+}
@@ -0,0 +1,93 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.repositories.BalanceSnapshotRepository;
+import com.example.paymentservice.repositories.CustomerRepository;
+import com.example.paymentservice.repositories.CustomerRepository.AmountChange;
+import com.example.paymentservice.util.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceEngineTest {
+
+    @Mock private CustomerRepository customerRepository;
+
+    @Mock private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @TempDir private Path directory;
+
+    private BalanceEngine getEngine() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.BalanceEngine properties = applicationProperties.getBalanceEngine();
+        properties.setShards(2);
+        properties.setJournalDirectory(directory);
+        properties.setSnapshotInterval(Duration.ofHours(1));
+        BalanceEngine balanceEngine =
+                new BalanceEngine(
+                        customerRepository,
+                        balanceSnapshotRepository,
+                        applicationProperties,
+                        new SimpleMeterRegistry());
+        balanceEngine.afterPropertiesSet();
+        return balanceEngine;
+    }
+
+    @Test
+    void reserveAndConfirmInMemory() throws Exception {
+        // Arrange
+        given(customerRepository.findById(1L)).willReturn(Optional.of(TestData.getCustomer()));
+        given(customerRepository.findById(2L)).willReturn(Optional.empty());
+        BalanceEngine balanceEngine = getEngine();
+
+        // Act & Assert
+        assertThat(balanceEngine.reserve(1L, 600)).isEqualTo(BalanceEngine.Outcome.APPLIED);
+        assertThat(balanceEngine.reserve(1L, 600)).isEqualTo(BalanceEngine.Outcome.SHORT);
+        assertThat(balanceEngine.confirm(1L, 700)).isEqualTo(BalanceEngine.Outcome.APPLIED);
+        assertThat(balanceEngine.release(1L, 1)).isEqualTo(BalanceEngine.Outcome.SHORT);
+        assertThat(balanceEngine.reserve(2L, 1)).isEqualTo(BalanceEngine.Outcome.UNKNOWN_CUSTOMER);
+        balanceEngine.destroy();
+        verify(balanceSnapshotRepository).save(1, 2, Map.of(1L, new AmountChange(-600, -100)));
+    }
+
+    @Test
+    void replaysJournalPastCheckpointAfterFailedSnapshot() throws Exception {
+        // Arrange
+        given(customerRepository.findById(1L)).willReturn(Optional.of(TestData.getCustomer()));
+        BalanceEngine crashed = getEngine();
+        crashed.reserve(1L, 300);
+        crashed.reserve(1L, 200);
+        willThrow(new DataAccessResourceFailureException("database down"))
+                .given(balanceSnapshotRepository)
+                .save(anyInt(), anyLong(), anyMap());
+        crashed.destroy();
+        // the first entry made it to the table before the crash
+        reset(balanceSnapshotRepository);
+        given(balanceSnapshotRepository.findCheckpoints()).willReturn(Map.of(1, 1L));
+
+        // Act
+        getEngine().destroy();
+
+        // Assert
+        verify(balanceSnapshotRepository).save(1, 2, Map.of(1L, new AmountChange(-200, 200)));
+    }
+}
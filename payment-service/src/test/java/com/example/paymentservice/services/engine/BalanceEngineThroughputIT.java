@@ -0,0 +1,149 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.common.AbstractIntegrationTest;
+import com.example.paymentservice.config.ApplicationProperties;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.BalanceSnapshotRepository;
+import com.example.paymentservice.repositories.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Reserves and confirms {@value #ORDERS} orders over {@value #CUSTOMERS} customers from {@value
+ * #THREADS} threads, once through the conditional updates of {@link CustomerRepository} and once
+ * through {@link BalanceEngine}, logging the throughput of both and checking that the engine leaves
+ * the same balances in the table.
+ */
+class BalanceEngineThroughputIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceEngineThroughputIT.class);
+
+    private static final int ORDERS = 20_000;
+    private static final int CUSTOMERS = 64;
+    private static final int THREADS = 32;
+    private static final int ORDER_PRICE = 10;
+    private static final int BALANCE = ORDERS / CUSTOMERS * ORDER_PRICE;
+
+    @Autowired private CustomerRepository customerRepository;
+
+    @Autowired private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @TempDir private Path journalDirectory;
+
+    private List<Long> customerIds;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customerIds =
+                customerRepository
+                        .saveAll(
+                                IntStream.range(0, CUSTOMERS)
+                                        .mapToObj(
+                                                i ->
+                                                        new Customer()
+                                                                .setName("Customer " + i)
+                                                                .setEmail(i + "@customer.email")
+                                                                .setPhone("1234567890")
+                                                                .setAddress("Address " + i)
+                                                                .setAmountAvailable(BALANCE)
+                                                                .setAmountReserved(0))
+                                        .toList())
+                        .stream()
+                        .map(Customer::getId)
+                        .toList();
+    }
+
+    @Test
+    void engineAgainstConditionalUpdates() throws Exception {
+        long updating =
+                run(customerId -> customerRepository.reserveAmount(customerId, ORDER_PRICE))
+                        + run(
+                                customerId ->
+                                        customerRepository.confirmReservedAmount(
+                                                customerId, ORDER_PRICE));
+        assertBalances(0, 0);
+        customerIds.forEach(
+                customerId ->
+                        customerRepository.save(
+                                customerRepository
+                                        .findById(customerId)
+                                        .orElseThrow()
+                                        .setAmountAvailable(BALANCE)));
+
+        BalanceEngine balanceEngine = getEngine();
+        long engine =
+                run(customerId -> balanceEngine.reserve(customerId, ORDER_PRICE))
+                        + run(customerId -> balanceEngine.confirm(customerId, ORDER_PRICE));
+        balanceEngine.destroy();
+        assertBalances(0, 0);
+
+        log.info(
+                "{} orders reserved and confirmed from {} threads : conditional updates in {} ms"
+                        + " ({} orders/s), balance engine in {} ms ({} orders/s)",
+                ORDERS,
+                THREADS,
+                updating,
+                ORDERS * 1000L / Math.max(updating, 1),
+                engine,
+                ORDERS * 1000L / Math.max(engine, 1));
+    }
+
+    private BalanceEngine getEngine() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getBalanceEngine().setJournalDirectory(journalDirectory);
+        try {
+            BalanceEngine balanceEngine =
+                    new BalanceEngine(
+                            customerRepository,
+                            balanceSnapshotRepository,
+                            applicationProperties,
+                            new SimpleMeterRegistry());
+            balanceEngine.afterPropertiesSet();
+            return balanceEngine;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long run(LongConsumer handler) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                long customerId = customerIds.get(i % CUSTOMERS);
+                futures.add(executor.submit(() -> handler.accept(customerId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void assertBalances(int available, int reserved) {
+        assertThat(customerRepository.findAllById(customerIds))
+                .hasSize(CUSTOMERS)
+                .allSatisfy(
+                        customer -> {
+                            assertThat(customer.getAmountAvailable()).isEqualTo(available);
+                            assertThat(customer.getAmountReserved()).isEqualTo(reserved);
+                        });
+    }
+}
@@ -0,0 +1,67 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.services.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BalanceJournalTest {
+
+    @TempDir private Path directory;
+
+    @Test
+    void replayReturnsEntriesAfterSequence() throws Exception {
+        // Arrange
+        Path file = directory.resolve("balances-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file, 10 * BalanceJournal.ENTRY_SIZE)) {
+            journal.replay(0, entry -> {});
+            journal.append(1, 7L, -100, 100);
+            journal.append(2, 8L, 0, -50);
+            journal.append(3, 7L, 100, -100);
+        }
+        List<BalanceJournal.Entry> entries = new ArrayList<>();
+
+        // Act
+        long last;
+        try (BalanceJournal journal = new BalanceJournal(file, 10 * BalanceJournal.ENTRY_SIZE)) {
+            last = journal.replay(1, entries::add);
+        }
+
+        // Assert
+        assertThat(last).isEqualTo(3);
+        assertThat(entries)
+                .containsExactly(
+                        new BalanceJournal.Entry(2, 8L, 0, -50),
+                        new BalanceJournal.Entry(3, 7L, 100, -100));
+    }
+
+    @Test
+    void appendFailsWhenFullAndReplayStopsAfterReset() throws Exception {
+        // Arrange
+        Path file = directory.resolve("balances-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file, 2 * BalanceJournal.ENTRY_SIZE)) {
+            journal.replay(0, entry -> {});
+            journal.append(1, 7L, -100, 100);
+            journal.append(2, 7L, -100, 100);
+
+            // Act
+            boolean appendedWhenFull = journal.append(3, 7L, -100, 100);
+            journal.reset();
+            boolean appendedAfterReset = journal.append(3, 8L, -10, 10);
+
+            // Assert
+            assertThat(appendedWhenFull).isFalse();
+            assertThat(appendedAfterReset).isTrue();
+        }
+        List<BalanceJournal.Entry> entries = new ArrayList<>();
+        try (BalanceJournal journal = new BalanceJournal(file, 2 * BalanceJournal.ENTRY_SIZE)) {
+            assertThat(journal.replay(2, entries::add)).isEqualTo(3);
+        }
+        // the entry of sequence 2 left over from before the reset is not read
+        assertThat(entries).containsExactly(new BalanceJournal.Entry(3, 8L, -10, 10));
+    }
+}
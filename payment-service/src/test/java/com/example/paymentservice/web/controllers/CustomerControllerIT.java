@@ -1,9 +1,10 @@
-/*** Licensed under MIT License Copyright (c) 2021-2024 Raja Kolli. ***/
+/*** Licensed under MIT License Copyright (c) 2021-2026 Raja Kolli. ***/
 package com.example.paymentservice.web.controllers;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -16,6 +17,9 @@ import com.example.paymentservice.common.AbstractIntegrationTest;
 import com.example.paymentservice.entities.Customer;
 import com.example.paymentservice.model.request.CustomerRequest;
 import com.example.paymentservice.repositories.CustomerRepository;
+import com.jayway.jsonpath.JsonPath;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -75,6 +79,63 @@ class CustomerControllerIT extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    void shouldScrollCustomersWithCursor() throws Exception {
+        // equal amounts, the id decides the order
+        String firstWindow =
+                this.mockMvc
+                        .perform(
+                                get("/api/customers/scroll")
+                                        .param("size", "2")
+                                        .param("sortBy", "amount_available")
+                                        .param("sortDir", "desc"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.size()", is(2)))
+                        .andExpect(jsonPath("$.data[0].name", is("First Customer")))
+                        .andExpect(jsonPath("$.hasNext", is(true)))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+
+        this.mockMvc
+                .perform(
+                        get("/api/customers/scroll")
+                                .param("size", "2")
+                                .param("sortBy", "amount_available")
+                                .param("sortDir", "desc")
+                                .param(
+                                        "cursor",
+                                        JsonPath.<String>read(firstWindow, "$.nextCursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()", is(1)))
+                .andExpect(jsonPath("$.data[0].name", is("Third Customer")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void shouldRejectInvalidScrollCursors() throws Exception {
+        List<String> cursors =
+                List.of(
+                        "not-a-cursor!",
+                        cursor("{\"id\":1}"),
+                        cursor("{\"amount_available\":\"plenty\",\"id\":1}"),
+                        cursor("{\"amount_available\":[1],\"id\":1}"));
+        for (String cursor : cursors) {
+            this.mockMvc
+                    .perform(
+                            get("/api/customers/scroll")
+                                    .param("sortBy", "amount_available")
+                                    .param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(
+                            header().string(
+                                            HttpHeaders.CONTENT_TYPE,
+                                            is(MediaType.APPLICATION_PROBLEM_JSON_VALUE)))
+                    .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+        }
+    }
+
     @Test
     void shouldFindCustomerById() throws Exception {
         Customer customer = customerList.getFirst();
@@ -289,4 +350,10 @@ class CustomerControllerIT extends AbstractIntegrationTest {
                         jsonPath("$.detail")
                                 .value("Customer with Id '%d' not found".formatted(customerId)));
     }
+
+    private static String cursor(String keys) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -0,0 +1,94 @@
+/*** Licensed under MIT License Copyright (c) 2026 Raja Kolli. ***/
+package com.example.paymentservice.web.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.paymentservice.common.AbstractIntegrationTest;
+import com.example.paymentservice.entities.Customer;
+import com.example.paymentservice.repositories.CustomerRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+class CustomerImportIT extends AbstractIntegrationTest {
+
+    @Autowired private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        customerRepository.saveAll(
+                List.of(
+                        new Customer()
+                                .setName("Existing Customer")
+                                .setEmail("existing@customer.email")
+                                .setPhone("9876543210")
+                                .setAmountAvailable(100)
+                                .setAmountReserved(0)));
+    }
+
+    @Test
+    void shouldImportCustomersFromCsv() throws Exception {
+        String csv =
+                """
+                name,email,phone,address,amountAvailable
+                First Customer,first@customer.email,9876543210,First Address,100
+                Other Name,existing@customer.email,9876543210,,100
+                Second Customer,second@customer.email,9876543210,,200
+                """;
+
+        this.mockMvc
+                .perform(
+                        post("/api/customers/import")
+                                .contentType(MediaType.parseMediaType("text/csv"))
+                                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read", is(3)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.duplicates", is(1)))
+                .andExpect(jsonPath("$.invalid", is(0)));
+
+        assertThat(customerRepository.findByEmail("second@customer.email"))
+                .get()
+                .extracting(Customer::getAmountAvailable, Customer::getAmountReserved)
+                .containsExactly(200, 0);
+        assertThat(customerRepository.findByEmail("existing@customer.email"))
+                .get()
+                .extracting(Customer::getName)
+                .isEqualTo("Existing Customer");
+    }
+
+    @Test
+    void shouldImportCustomersFromNdjson() throws Exception {
+        String ndjson =
+                """
+                {"name":"First Customer","email":"first@customer.email","phone":"9876543210","amountAvailable":100}
+                {"name":"Invalid Customer","email":"invalid@customer.email","phone":"9876543210","amountAvailable":0}
+                """;
+
+        this.mockMvc
+                .perform(
+                        post("/api/customers/import")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.invalid", is(1)));
+    }
+
+    @Test
+    void shouldRejectCsvWithoutEmailColumn() throws Exception {
+        this.mockMvc
+                .perform(
+                        post("/api/customers/import")
+                                .contentType(MediaType.parseMediaType("text/csv"))
+                                .content("name,phone,amountAvailable\n"))
+                .andExpect(status().isBadRequest());
+    }
+}